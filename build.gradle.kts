@@ -141,5 +141,18 @@ tasks {
         // Disable SVG rendering to work around JSvg IllegalAccessError in IntelliJ 2025.3.x
         systemProperty("idea.ui.icons.svg.disabled", "true")
         systemProperty("java.awt.headless", "true")
+
+        // Resolver benchmarks on large synthetic fixtures: "./gradlew test -PperformanceTests"
+        if (project.hasProperty("performanceTests")) {
+            filter {
+                includeTestsMatching("fr.adrienbrault.idea.symfony2plugin.tests.performance.*")
+            }
+
+            systemProperty("symfony.performance.report", layout.buildDirectory.dir("reports/performance").get().asFile.path)
+            maxHeapSize = "2g"
+            outputs.upToDateWhen { false }
+        } else {
+            exclude("**/tests/performance/**")
+        }
     }
 }
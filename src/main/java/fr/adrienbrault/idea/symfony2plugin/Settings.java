@@ -42,6 +42,11 @@ public class Settings implements PersistentStateComponent<Settings> {
     public static final String DEFAULT_APP_DIRECTORY = "app";
 
     public String pathToTranslation = DEFAULT_TRANSLATION_PATH;
+
+    /**
+     * Comma separated locales of the compiled translation catalogues which are loaded eagerly, e.g. "en, de"; empty for all
+     */
+    public String translationLocales = null;
     public String directoryToWeb = DEFAULT_WEB_DIRECTORY;
     public String directoryToApp = DEFAULT_APP_DIRECTORY;
     public String serviceJsNameStrategy = null;
@@ -16,6 +16,7 @@ import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.ui.JBColor;
 import com.intellij.ui.TitledSeparator;
 import com.intellij.ui.components.JBLabel;
+import com.intellij.ui.components.JBTextField;
 import com.intellij.util.ui.JBUI;
 import com.intellij.util.ui.UIUtil;
 import fr.adrienbrault.idea.symfony2plugin.mcp.McpApplicationSettings;
@@ -54,6 +55,7 @@ public class SettingsForm implements Configurable {
     private TextFieldWithBrowseButton directoryToApp;
     private JButton pathToTranslationRootTextFieldReset;
     private TextFieldWithBrowseButton pathToTranslationRootTextField;
+    private JBTextField translationLocales;
     private JButton buttonHelp;
 
     private JCheckBox codeFoldingPhpRoute;
@@ -115,6 +117,7 @@ public class SettingsForm implements Configurable {
 
         pathToTranslationRootTextField = new TextFieldWithBrowseButton();
         pathToTranslationRootTextFieldReset = new JButton("Default");
+        translationLocales = new JBTextField();
         directoryToWeb = new TextFieldWithBrowseButton();
         directoryToWebReset = new JButton("Default");
         directoryToApp = new TextFieldWithBrowseButton();
@@ -203,6 +206,11 @@ public class SettingsForm implements Configurable {
         content.add(createFieldWithHint("Translation Root Path", pathToTranslationRootTextField, pathToTranslationRootTextFieldReset,
             "Root directory for translation files (e.g. translations/)"), gbc);
 
+        gbc.gridy = row++;
+        gbc.insets = JBUI.insets(8, 8, 0, 0);
+        content.add(createFieldWithHint("Translation Locales", translationLocales, null,
+            "Comma separated locales of compiled catalogues loaded on startup (e.g. en, de); empty loads all locales"), gbc);
+
         gbc.gridy = row++;
         gbc.insets = JBUI.insets(8, 8, 0, 0);
         content.add(createFieldWithHint("Web Directory", directoryToWeb, directoryToWebReset,
@@ -417,6 +425,7 @@ public class SettingsForm implements Configurable {
             !pluginEnabled.isSelected() == getSettings().pluginEnabled
                 || !mcpEnabled.isSelected() == getApplicationSettings().mcpEnabled
                 || !pathToTranslationRootTextField.getText().equals(getSettings().pathToTranslation)
+                || !translationLocales.getText().equals(StringUtils.defaultString(getSettings().translationLocales))
                 || !codeFoldingPhpRoute.isSelected() == getSettings().codeFoldingPhpRoute
                 || !codeFoldingPhpModel.isSelected() == getSettings().codeFoldingPhpModel
                 || !codeFoldingPhpTemplate.isSelected() == getSettings().codeFoldingPhpTemplate
@@ -440,6 +449,7 @@ public class SettingsForm implements Configurable {
         getApplicationSettings().mcpEnabled = mcpEnabled.isSelected();
 
         getSettings().pathToTranslation = pathToTranslationRootTextField.getText();
+        getSettings().translationLocales = StringUtils.trimToNull(translationLocales.getText());
         getSettings().codeFoldingPhpRoute = codeFoldingPhpRoute.isSelected();
         getSettings().codeFoldingPhpModel = codeFoldingPhpModel.isSelected();
         getSettings().codeFoldingPhpTemplate = codeFoldingPhpTemplate.isSelected();
@@ -476,6 +486,7 @@ public class SettingsForm implements Configurable {
         mcpEnabled.setSelected(getApplicationSettings().mcpEnabled);
 
         pathToTranslationRootTextField.setText(getSettings().pathToTranslation);
+        translationLocales.setText(StringUtils.defaultString(getSettings().translationLocales));
         codeFoldingPhpRoute.setSelected(getSettings().codeFoldingPhpRoute);
         codeFoldingPhpModel.setSelected(getSettings().codeFoldingPhpModel);
         codeFoldingPhpTemplate.setSelected(getSettings().codeFoldingPhpTemplate);
@@ -14,6 +14,7 @@ import fr.adrienbrault.idea.symfony2plugin.dic.container.util.ServiceContainerUt
 import fr.adrienbrault.idea.symfony2plugin.extension.PluginConfigurationExtension;
 import fr.adrienbrault.idea.symfony2plugin.util.IdeHelper;
 import fr.adrienbrault.idea.symfony2plugin.util.ProjectUtil;
+import fr.adrienbrault.idea.symfony2plugin.util.SymfonyCacheWarmer;
 import fr.adrienbrault.idea.symfony2plugin.util.SymfonyVarDirectoryWatcherKt;
 import kotlin.Unit;
 import kotlin.coroutines.Continuation;
@@ -34,6 +35,7 @@ public class Symfony2ProjectComponent {
         public Object execute(@NotNull Project project, @NotNull Continuation<? super Unit> continuation) {
             if (isEnabled(project)) {
                 SymfonyVarDirectoryWatcherKt.getSymfonyVarDirectoryWatcher(project);
+                SymfonyCacheWarmer.getInstance(project).scheduleAll();
             }
 
             if (!ApplicationManager.getApplication().isUnitTestMode() && !ApplicationManager.getApplication().isHeadlessEnvironment()) {
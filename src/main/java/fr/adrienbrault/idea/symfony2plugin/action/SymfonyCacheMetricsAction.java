@@ -0,0 +1,156 @@
+package fr.adrienbrault.idea.symfony2plugin.action;
+
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.fileChooser.FileChooserFactory;
+import com.intellij.openapi.fileChooser.FileSaverDescriptor;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.DialogWrapper;
+import com.intellij.openapi.ui.Messages;
+import com.intellij.openapi.vfs.VirtualFileWrapper;
+import com.intellij.ui.components.JBScrollPane;
+import com.intellij.ui.table.JBTable;
+import fr.adrienbrault.idea.symfony2plugin.Symfony2Icons;
+import fr.adrienbrault.idea.symfony2plugin.util.SymfonyCacheMetrics;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Shows hit, rebuild and timing counters of the plugin caches; exportable as JSON
+ *
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ * @see SymfonyCacheMetrics
+ */
+public class SymfonyCacheMetricsAction extends AbstractProjectDumbAwareAction {
+    public SymfonyCacheMetricsAction() {
+        super("Symfony: Cache Metrics", "Show hit and rebuild counters of the Symfony plugin caches", Symfony2Icons.SYMFONY);
+    }
+
+    @Override
+    public void actionPerformed(@NotNull AnActionEvent event) {
+        Project project = event.getProject();
+        if (project == null) {
+            return;
+        }
+
+        new MetricsDialog(project).show();
+    }
+
+    private static class MetricsDialog extends DialogWrapper {
+        @NotNull
+        private final Project project;
+
+        @NotNull
+        private final DefaultTableModel model;
+
+        private MetricsDialog(@NotNull Project project) {
+            super(project, false);
+            this.project = project;
+
+            List<String> columns = new ArrayList<>(List.of("Cache", "Requests", "Hits", "Rebuilds", "Total ms", "Max ms", "Entries"));
+            for (int i = 0; i < SymfonyCacheMetrics.getBucketCount(); i++) {
+                columns.add(SymfonyCacheMetrics.getBucketName(i) + " ms");
+            }
+
+            this.model = new DefaultTableModel(columns.toArray(), 0) {
+                @Override
+                public boolean isCellEditable(int row, int column) {
+                    return false;
+                }
+            };
+
+            setTitle("Symfony Cache Metrics");
+            setOKButtonText("Close");
+            init();
+            reload();
+        }
+
+        @Override
+        protected @Nullable JComponent createCenterPanel() {
+            JBTable table = new JBTable(model);
+            table.setAutoCreateRowSorter(true);
+
+            JBScrollPane scrollPane = new JBScrollPane(table);
+            scrollPane.setPreferredSize(new Dimension(1000, 400));
+
+            return scrollPane;
+        }
+
+        @Override
+        protected Action @NotNull [] createLeftSideActions() {
+            return new Action[] {
+                new DialogWrapperAction("Refresh") {
+                    @Override
+                    protected void doAction(ActionEvent e) {
+                        reload();
+                    }
+                },
+                new DialogWrapperAction("Reset") {
+                    @Override
+                    protected void doAction(ActionEvent e) {
+                        SymfonyCacheMetrics.getInstance(project).reset();
+                        reload();
+                    }
+                },
+                new DialogWrapperAction("Export JSON...") {
+                    @Override
+                    protected void doAction(ActionEvent e) {
+                        export();
+                    }
+                },
+            };
+        }
+
+        @Override
+        protected Action @NotNull [] createActions() {
+            return new Action[] {getOKAction()};
+        }
+
+        private void reload() {
+            model.setRowCount(0);
+
+            for (SymfonyCacheMetrics.Snapshot snapshot : SymfonyCacheMetrics.getInstance(project).getSnapshots()) {
+                List<Object> row = new ArrayList<>(List.of(
+                    snapshot.name(),
+                    snapshot.requests(),
+                    snapshot.hits(),
+                    snapshot.rebuilds(),
+                    snapshot.totalMillis(),
+                    snapshot.maxMillis(),
+                    snapshot.size()
+                ));
+
+                for (long count : snapshot.histogram()) {
+                    row.add(count);
+                }
+
+                model.addRow(row.toArray());
+            }
+        }
+
+        private void export() {
+            VirtualFileWrapper target = FileChooserFactory.getInstance()
+                .createSaveFileDialog(new FileSaverDescriptor("Export Symfony Cache Metrics", "Save cache metrics as JSON", "json"), project)
+                .save("symfony-cache-metrics.json");
+
+            if (target == null) {
+                return;
+            }
+
+            try {
+                Files.writeString(target.getFile().toPath(), SymfonyCacheMetrics.getInstance(project).toJson(), StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                Messages.showErrorDialog(project, e.getMessage(), "Symfony Cache Metrics");
+            }
+        }
+    }
+}
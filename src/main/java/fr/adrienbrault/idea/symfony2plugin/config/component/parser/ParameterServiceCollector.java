@@ -1,17 +1,18 @@
 package fr.adrienbrault.idea.symfony2plugin.config.component.parser;
 
-import fr.adrienbrault.idea.symfony2plugin.util.xml.SecureXmlUtil;
+import fr.adrienbrault.idea.symfony2plugin.util.service.ContainerStreamParserInterface;
+import fr.adrienbrault.idea.symfony2plugin.util.service.ContainerXmlElement;
+import fr.adrienbrault.idea.symfony2plugin.util.service.ContainerXmlStreamReader;
 import org.jetbrains.annotations.NotNull;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.w3c.dom.NodeList;
-import org.xml.sax.SAXException;
 
-import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.xpath.*;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
 import java.util.Collections;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -23,24 +24,25 @@ public class ParameterServiceCollector {
 
     @NotNull
     public static Map<String, String> collect(InputStream stream) {
-        try {
-            return collect(SecureXmlUtil.createDocumentBuilder().parse(stream));
-        } catch (IOException | SAXException | ParserConfigurationException e) {
+        Collector collector = new Collector();
+        if (!ContainerXmlStreamReader.read(stream, Collections.singletonList(collector))) {
             return Collections.emptyMap();
         }
+
+        return collector.getParameters();
     }
 
     @NotNull
     public static Map<String, String> collect(File file) {
-        try {
-            return collect(SecureXmlUtil.createDocumentBuilder().parse(file));
-        } catch (SAXException | IOException | ParserConfigurationException e) {
+        try (InputStream stream = Files.newInputStream(file.toPath())) {
+            return collect(stream);
+        } catch (IOException e) {
             return Collections.emptyMap();
         }
     }
 
     @NotNull
-    private static Map<String, String> collect(Document document) {
+    public static Map<String, String> collect(Document document) {
 
         Map<String, String> parameterMap = new ConcurrentHashMap<>();
 
@@ -66,4 +68,26 @@ public class ParameterServiceCollector {
         return parameterMap;
     }
 
+    /**
+     * Streaming variant of {@link #collect(Document)}
+     */
+    public static class Collector implements ContainerStreamParserInterface {
+        @NotNull
+        private final Map<String, String> parameters = new ConcurrentHashMap<>();
+
+        @Override
+        public void visitParameter(@NotNull ContainerXmlElement parameter) {
+            if (!parameter.hasAttribute("key")) {
+                return;
+            }
+
+            String parameterValue = "collection".equals(parameter.getAttribute("type")) ? "collection" : parameter.getTextContent();
+            parameters.put(parameter.getAttribute("key"), parameterValue);
+        }
+
+        @NotNull
+        public Map<String, String> getParameters() {
+            return parameters;
+        }
+    }
 }
@@ -1,9 +1,11 @@
 package fr.adrienbrault.idea.symfony2plugin.config.component.parser;
 
+import fr.adrienbrault.idea.symfony2plugin.dic.CompiledContainerCache;
 import fr.adrienbrault.idea.symfony2plugin.util.service.AbstractServiceParser;
 
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.vfs.VirtualFile;
+import java.io.IOException;
 import java.io.InputStream;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -21,7 +23,10 @@ public class ParameterServiceParser extends AbstractServiceParser {
     }
 
     public void parser(InputStream file, VirtualFile sourceFile, Project project) {
-        this.parameterMap.putAll(ParameterServiceCollector.collect(file));
+        try {
+            this.parameterMap.putAll(CompiledContainerCache.getInstance().getContainerData(file.readAllBytes()).parameters());
+        } catch (IOException ignored) {
+        }
     }
 
     public Map<String, String> getParameterMap() {
@@ -0,0 +1,270 @@
+package fr.adrienbrault.idea.symfony2plugin.dic;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.intellij.ide.plugins.IdeaPluginDescriptor;
+import com.intellij.ide.plugins.PluginManagerCore;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.extensions.PluginId;
+import fr.adrienbrault.idea.symfony2plugin.config.component.parser.ParameterServiceCollector;
+import fr.adrienbrault.idea.symfony2plugin.dic.container.ServiceInterface;
+import fr.adrienbrault.idea.symfony2plugin.dic.container.XmlService;
+import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.externalizer.StringTableDataReader;
+import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.externalizer.StringTableDataWriter;
+import fr.adrienbrault.idea.symfony2plugin.util.service.ContainerXmlStreamReader;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Parsed services and parameters of compiled container files, keyed by the SHA-256 hash of the file content and of the
+ * plugin version; a plugin update never reads the entries of an older parser.
+ *
+ * A cache warmup rewrites the container dump even if nothing changed; an identical dump is then loaded from the
+ * memory or disk cache instead of being parsed again. The disk cache lives inside the IDE system directory,
+ * so it also survives IDE restarts.
+ *
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ */
+@Service
+public final class CompiledContainerCache {
+
+    private static final Logger LOG = Logger.getInstance(CompiledContainerCache.class);
+
+    private static final String PLUGIN_ID = "fr.adrienbrault.idea.symfony2plugin";
+
+    /**
+     * Bump on any change of the file layout or the parsed data; needed for development builds of the same plugin version
+     */
+    private static final int VERSION = 2;
+
+    private static final int MAX_DISK_ENTRIES = 20;
+
+    private static final String EXTENSION = ".bin";
+
+    @NotNull
+    private final Path directory;
+
+    /**
+     * Part of every entry hash, e.g. "2-2025.1.280"
+     */
+    @NotNull
+    private final String cacheKey;
+
+    /**
+     * All container parsers of a rebuild ask for the same content; keep them away from the disk
+     */
+    @NotNull
+    private final Cache<String, ContainerData> memoryCache = CacheBuilder.newBuilder()
+        .maximumSize(5)
+        .build();
+
+    public CompiledContainerCache() {
+        this(Paths.get(PathManager.getSystemPath(), "symfony2-plugin", "container"), VERSION + "-" + getPluginVersion());
+    }
+
+    public CompiledContainerCache(@NotNull Path directory) {
+        this(directory, String.valueOf(VERSION));
+    }
+
+    public CompiledContainerCache(@NotNull Path directory, @NotNull String cacheKey) {
+        this.directory = directory;
+        this.cacheKey = cacheKey;
+    }
+
+    @NotNull
+    public static CompiledContainerCache getInstance() {
+        return ApplicationManager.getApplication().getService(CompiledContainerCache.class);
+    }
+
+    /**
+     * @param content raw content of a compiled container file, e.g. "var/cache/dev/App_KernelDevDebugContainer.xml"
+     */
+    @NotNull
+    public ContainerData getContainerData(byte @NotNull [] content) {
+        String hash = createHash(cacheKey, content);
+
+        ContainerData data = memoryCache.getIfPresent(hash);
+        if (data != null) {
+            return data;
+        }
+
+        data = readFromDisk(hash);
+        if (data == null) {
+            data = parse(content);
+            writeToDisk(hash, data);
+        }
+
+        memoryCache.put(hash, data);
+
+        return data;
+    }
+
+    /**
+     * Services and parameters are collected in one streaming pass
+     */
+    @NotNull
+    static ContainerData parse(byte @NotNull [] content) {
+        ServiceMapParser.Collector services = new ServiceMapParser.Collector();
+        ParameterServiceCollector.Collector parameters = new ParameterServiceCollector.Collector();
+
+        if (!ContainerXmlStreamReader.read(new ByteArrayInputStream(content), Arrays.asList(services, parameters))) {
+            return new ContainerData(new ServiceMap(), Collections.emptyMap());
+        }
+
+        return new ContainerData(
+            services.getServiceMap(),
+            Collections.unmodifiableMap(new HashMap<>(parameters.getParameters()))
+        );
+    }
+
+    @Nullable
+    private ContainerData readFromDisk(@NotNull String hash) {
+        Path file = directory.resolve(hash + EXTENSION);
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != VERSION) {
+                Files.deleteIfExists(file);
+                return null;
+            }
+
+            StringTableDataReader reader = StringTableDataReader.create(in);
+
+            int serviceCount = reader.readInt();
+            Collection<ServiceInterface> services = new ArrayList<>(serviceCount);
+            for (int i = 0; i < serviceCount; i++) {
+                services.add(XmlService.read(reader));
+            }
+
+            int parameterCount = reader.readInt();
+            Map<String, String> parameters = new HashMap<>(parameterCount);
+            for (int i = 0; i < parameterCount; i++) {
+                parameters.put(reader.readNotNullString(), reader.readNotNullString());
+            }
+
+            // mark as recently used for the disk eviction
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+
+            return new ContainerData(new ServiceMap(services), Collections.unmodifiableMap(parameters));
+        } catch (IOException | RuntimeException e) {
+            LOG.debug("Invalid compiled container cache entry: " + file, e);
+
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException ignored) {
+            }
+
+            return null;
+        }
+    }
+
+    private void writeToDisk(@NotNull String hash, @NotNull ContainerData data) {
+        StringTableDataWriter writer = new StringTableDataWriter();
+
+        try {
+            // parsed container services are always xml services
+            List<XmlService> services = new ArrayList<>();
+            for (ServiceInterface service : data.serviceMap().getServices()) {
+                if (service instanceof XmlService xmlService) {
+                    services.add(xmlService);
+                }
+            }
+
+            writer.writeInt(services.size());
+            for (XmlService service : services) {
+                service.write(writer);
+            }
+
+            writer.writeInt(data.parameters().size());
+            for (Map.Entry<String, String> entry : data.parameters().entrySet()) {
+                writer.writeString(entry.getKey());
+                writer.writeString(entry.getValue());
+            }
+
+            Files.createDirectories(directory);
+
+            // write and rename, so that a concurrent reader never sees a partial file
+            Path temp = Files.createTempFile(directory, hash, ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(VERSION);
+                writer.flush(out);
+            }
+
+            Files.move(temp, directory.resolve(hash + EXTENSION), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOG.debug("Can not write compiled container cache", e);
+            return;
+        }
+
+        evict();
+    }
+
+    /**
+     * Keep only the recently used container dumps
+     */
+    private void evict() {
+        List<Path> files;
+        try (Stream<Path> stream = Files.list(directory)) {
+            files = stream
+                .filter(path -> path.getFileName().toString().endsWith(EXTENSION))
+                .sorted(Comparator.comparingLong(CompiledContainerCache::getLastModified).reversed())
+                .toList();
+        } catch (IOException e) {
+            return;
+        }
+
+        for (Path file : files.subList(Math.min(MAX_DISK_ENTRIES, files.size()), files.size())) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    private static long getLastModified(@NotNull Path path) {
+        try {
+            return Files.getLastModifiedTime(path).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    @NotNull
+    private static String createHash(@NotNull String cacheKey, byte @NotNull [] content) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(cacheKey.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+
+            return HexFormat.of().formatHex(digest.digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @NotNull
+    private static String getPluginVersion() {
+        IdeaPluginDescriptor plugin = PluginManagerCore.getPlugin(PluginId.getId(PLUGIN_ID));
+        return plugin != null ? plugin.getVersion() : "";
+    }
+
+    /**
+     * @param parameters "key => value" of "/container/parameters/parameter"
+     */
+    public record ContainerData(@NotNull ServiceMap serviceMap, @NotNull Map<String, String> parameters) {
+    }
+}
@@ -3,9 +3,10 @@ package fr.adrienbrault.idea.symfony2plugin.dic;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.vfs.VirtualFile;
 import fr.adrienbrault.idea.symfony2plugin.util.service.AbstractServiceParser;
+import fr.adrienbrault.idea.symfony2plugin.util.service.ContainerStreamParserInterface;
+import fr.adrienbrault.idea.symfony2plugin.util.service.ContainerXmlElement;
+import fr.adrienbrault.idea.symfony2plugin.util.service.ContainerXmlStreamReader;
 import org.jetbrains.annotations.NotNull;
-import org.w3c.dom.Element;
-import org.w3c.dom.NodeList;
 
 import java.io.InputStream;
 import java.util.Collections;
@@ -24,7 +25,7 @@ import java.util.Map;
  *
  * @author Daniel Espendiller <daniel@espendiller.net>
  */
-public class ConsoleCommandServiceParser extends AbstractServiceParser {
+public class ConsoleCommandServiceParser extends AbstractServiceParser implements ContainerStreamParserInterface {
 
     private final Map<String, String> commands = new HashMap<>();
 
@@ -35,21 +36,23 @@ public class ConsoleCommandServiceParser extends AbstractServiceParser {
 
     @Override
     public void parser(@NotNull InputStream inputStream, @NotNull VirtualFile sourceFile, @NotNull Project project) {
-        NodeList nodeList = this.parserer(inputStream);
-        if (nodeList == null) {
+        ContainerXmlStreamReader.read(inputStream, Collections.singletonList(this));
+    }
+
+    @Override
+    public void visitService(@NotNull ContainerXmlElement service) {
+        String className = service.getAttribute("class");
+        if (className.isBlank()) {
             return;
         }
 
-        for (int i = 0; i < nodeList.getLength(); i++) {
-            Element tagElement = (Element) nodeList.item(i);
-            String commandName = tagElement.getAttribute("command");
-            if (commandName.isBlank()) {
+        for (ContainerXmlElement tag : service.getChildren("tag")) {
+            if (!"console.command".equals(tag.getAttribute("name"))) {
                 continue;
             }
 
-            Element serviceElement = (Element) tagElement.getParentNode();
-            String className = serviceElement.getAttribute("class");
-            if (className.isBlank()) {
+            String commandName = tag.getAttribute("command");
+            if (commandName.isBlank()) {
                 continue;
             }
 
@@ -1,5 +1,7 @@
 package fr.adrienbrault.idea.symfony2plugin.dic;
 
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -25,8 +27,14 @@ public class ContainerService {
 
     final private String name;
 
+    /**
+     * Class names are repeated across compiled, indexed and resource based sources; share one instance
+     */
+    private static final Interner<String> CLASS_NAMES = Interners.newWeakInterner();
+
     final private String className;
-    private final Set<String> classVariants = new HashSet<>();
+    @Nullable
+    private Set<String> classVariants;
     private final Set<ContainerServiceMetadata> metadata = new LinkedHashSet<>();
     @Nullable
     private Set<String> cachedClassNames;
@@ -55,7 +63,7 @@ public class ContainerService {
 
     public ContainerService(@NotNull String name, @Nullable String className, @NotNull ContainerServiceMetadata metadata) {
         this.name = name;
-        this.className = className;
+        this.className = className != null ? CLASS_NAMES.intern(className) : null;
         addMetadata(metadata);
     }
 
@@ -69,7 +77,11 @@ public class ContainerService {
     }
 
     public void addClassName(@NotNull String className) {
-        this.classVariants.add(className);
+        if (this.classVariants == null) {
+            this.classVariants = new HashSet<>(2);
+        }
+
+        this.classVariants.add(CLASS_NAMES.intern(className));
         this.cachedClassNames = null;
     }
 
@@ -95,6 +107,10 @@ public class ContainerService {
             return cachedClassNames;
         }
 
+        if (classVariants == null) {
+            return cachedClassNames = className != null ? Collections.singleton(className) : Collections.emptySet();
+        }
+
         Set<String> variants = new HashSet<>();
 
         if(className != null) {
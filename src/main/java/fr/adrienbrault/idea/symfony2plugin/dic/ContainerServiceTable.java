@@ -0,0 +1,191 @@
+package fr.adrienbrault.idea.symfony2plugin.dic;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * Case-insensitive "service id => service" table; service ids are case-insensitive in Symfony
+ *
+ * Hash based instead of a "TreeMap" with "String.CASE_INSENSITIVE_ORDER", so a lookup hashes the given id once instead
+ * of folding it on every comparison. Keys keep the original id with a case-insensitive hash, so no folded copy of the
+ * id is stored or created on lookup. Like the "TreeMap" the first inserted spelling of an id is kept and iteration is
+ * sorted case-insensitively, e.g. for completion and service suggestions; the order is built once after a change.
+ *
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ */
+public class ContainerServiceTable extends AbstractMap<String, ContainerService> {
+    @NotNull
+    private final Map<Id, ContainerService> services;
+
+    /**
+     * Case-insensitive sorted keys; "null" after a change
+     */
+    @Nullable
+    private volatile Id[] sortedIds;
+
+    @Nullable
+    private Set<Entry<String, ContainerService>> entrySet;
+
+    public ContainerServiceTable() {
+        this(16);
+    }
+
+    public ContainerServiceTable(int expectedSize) {
+        this.services = new HashMap<>(Math.max(16, (int) (expectedSize / 0.75f) + 1));
+    }
+
+    @Override
+    public ContainerService get(Object key) {
+        return key instanceof String id ? services.get(new Id(id)) : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof String id && services.containsKey(new Id(id));
+    }
+
+    @Override
+    public ContainerService put(@NotNull String key, ContainerService value) {
+        Id id = new Id(key);
+
+        // replacing a value keeps the existing key and its spelling
+        if (services.containsKey(id)) {
+            return services.put(id, value);
+        }
+
+        services.put(id, value);
+        sortedIds = null;
+
+        return null;
+    }
+
+    @Override
+    public ContainerService remove(Object key) {
+        if (!(key instanceof String id)) {
+            return null;
+        }
+
+        sortedIds = null;
+        return services.remove(new Id(id));
+    }
+
+    @Override
+    public int size() {
+        return services.size();
+    }
+
+    @Override
+    public void clear() {
+        services.clear();
+        sortedIds = null;
+    }
+
+    @NotNull
+    @Override
+    public Set<Entry<String, ContainerService>> entrySet() {
+        if (entrySet != null) {
+            return entrySet;
+        }
+
+        return entrySet = new AbstractSet<>() {
+            @NotNull
+            @Override
+            public Iterator<Entry<String, ContainerService>> iterator() {
+                Id[] ids = getSortedIds();
+
+                return new Iterator<>() {
+                    private int next = 0;
+
+                    @Nullable
+                    private Id current;
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < ids.length;
+                    }
+
+                    @Override
+                    public Entry<String, ContainerService> next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+
+                        Id id = current = ids[next++];
+
+                        return new SimpleEntry<>(id.value, services.get(id)) {
+                            @Override
+                            public ContainerService setValue(ContainerService value) {
+                                super.setValue(value);
+                                return services.put(id, value);
+                            }
+                        };
+                    }
+
+                    @Override
+                    public void remove() {
+                        if (current == null) {
+                            throw new IllegalStateException();
+                        }
+
+                        // iteration runs on a copy of the keys
+                        services.remove(current);
+                        sortedIds = null;
+                        current = null;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return services.size();
+            }
+        };
+    }
+
+    @NotNull
+    private Id[] getSortedIds() {
+        Id[] ids = sortedIds;
+        if (ids == null) {
+            ids = services.keySet().toArray(new Id[0]);
+            Arrays.sort(ids, (a, b) -> String.CASE_INSENSITIVE_ORDER.compare(a.value, b.value));
+            sortedIds = ids;
+        }
+
+        return ids;
+    }
+
+    /**
+     * Original service id with a hash and equality ignoring the case, same as "String#equalsIgnoreCase"
+     */
+    private static final class Id {
+        @NotNull
+        private final String value;
+
+        private final int hash;
+
+        private Id(@NotNull String value) {
+            this.value = value;
+
+            int hash = 0;
+            for (int i = 0; i < value.length(); ) {
+                int codePoint = value.codePointAt(i);
+                hash = 31 * hash + Character.toLowerCase(Character.toUpperCase(codePoint));
+                i += Character.charCount(codePoint);
+            }
+
+            this.hash = hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Id id && hash == id.hash && value.equalsIgnoreCase(id.value);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
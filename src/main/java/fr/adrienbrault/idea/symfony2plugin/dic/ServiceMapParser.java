@@ -2,19 +2,23 @@ package fr.adrienbrault.idea.symfony2plugin.dic;
 
 import fr.adrienbrault.idea.symfony2plugin.dic.container.ServiceInterface;
 import fr.adrienbrault.idea.symfony2plugin.dic.container.XmlService;
-import fr.adrienbrault.idea.symfony2plugin.util.xml.SecureXmlUtil;
+import fr.adrienbrault.idea.symfony2plugin.util.service.ContainerStreamParserInterface;
+import fr.adrienbrault.idea.symfony2plugin.util.service.ContainerXmlElement;
+import fr.adrienbrault.idea.symfony2plugin.util.service.ContainerXmlStreamReader;
+import org.jetbrains.annotations.NotNull;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
-import org.xml.sax.SAXException;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.ParserConfigurationException;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -23,24 +27,19 @@ import java.util.Map;
  */
 public class ServiceMapParser {
 
-    private final DocumentBuilder documentBuilder;
-
-    public ServiceMapParser() throws ParserConfigurationException {
-        documentBuilder = SecureXmlUtil.createDocumentBuilder();
-    }
-
-    public ServiceMap parse(InputStream stream) throws IOException, SAXException {
-        try {
-            return parse(documentBuilder.parse(stream));
-        } catch (IOException | SAXException ignored) {
+    public ServiceMap parse(InputStream stream) {
+        Collector collector = new Collector();
+        if (!ContainerXmlStreamReader.read(stream, Collections.singletonList(collector))) {
             return new ServiceMap();
         }
+
+        return collector.getServiceMap();
     }
 
-    public ServiceMap parse(File file) throws IOException, SAXException {
-        try {
-            return parse(documentBuilder.parse(file));
-        } catch (IOException | SAXException ignored) {
+    public ServiceMap parse(File file) {
+        try (InputStream stream = Files.newInputStream(file.toPath())) {
+            return parse(stream);
+        } catch (IOException ignored) {
             return new ServiceMap();
         }
     }
@@ -70,6 +69,11 @@ public class ServiceMapParser {
             }
         }
 
+        return createServiceMap(services, aliases);
+    }
+
+    @NotNull
+    private static ServiceMap createServiceMap(@NotNull Map<String, ServiceInterface> services, @NotNull Map<String, ServiceInterface> aliases) {
         // resolve alias, as xml as a fully validated stated
         // all alias are valid per file
         aliases.values().forEach(service -> {
@@ -93,4 +97,41 @@ public class ServiceMapParser {
 
         return new ServiceMap(services.values());
     }
+
+    /**
+     * Streaming variant of {@link #parse(Document)}; inline services are collected as well
+     */
+    public static class Collector implements ContainerStreamParserInterface {
+        @NotNull
+        private final Map<String, ServiceInterface> services = new HashMap<>();
+
+        @NotNull
+        private final Map<String, ServiceInterface> aliases = new HashMap<>();
+
+        @Override
+        public void visitService(@NotNull ContainerXmlElement service) {
+            List<ContainerXmlElement> elements = new ArrayList<>();
+            elements.add(service);
+            elements.addAll(service.getDescendants("service"));
+
+            for (ContainerXmlElement element : elements) {
+                // invalid service
+                XmlService xmlService = XmlService.createFromElement(element);
+                if (xmlService == null) {
+                    continue;
+                }
+
+                if (xmlService.getAlias() == null) {
+                    services.put(xmlService.getId(), xmlService);
+                } else {
+                    aliases.put(xmlService.getId(), xmlService);
+                }
+            }
+        }
+
+        @NotNull
+        public ServiceMap getServiceMap() {
+            return createServiceMap(new HashMap<>(services), aliases);
+        }
+    }
 }
@@ -2,13 +2,16 @@ package fr.adrienbrault.idea.symfony2plugin.dic;
 
 import fr.adrienbrault.idea.symfony2plugin.config.dic.EventDispatcherSubscribedEvent;
 import fr.adrienbrault.idea.symfony2plugin.util.service.AbstractServiceParser;
-import org.w3c.dom.Element;
-import org.w3c.dom.NodeList;
+import fr.adrienbrault.idea.symfony2plugin.util.service.ContainerStreamParserInterface;
+import fr.adrienbrault.idea.symfony2plugin.util.service.ContainerXmlElement;
+import fr.adrienbrault.idea.symfony2plugin.util.service.ContainerXmlStreamReader;
+import org.jetbrains.annotations.NotNull;
 
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.vfs.VirtualFile;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -16,7 +19,7 @@ import java.util.concurrent.ConcurrentHashMap;
 /**
  * @author Daniel Espendiller <daniel@espendiller.net>
  */
-public class XmlEventParser extends AbstractServiceParser {
+public class XmlEventParser extends AbstractServiceParser implements ContainerStreamParserInterface {
 
     protected final Map<String, String> list = new ConcurrentHashMap<>();
     protected final List<EventDispatcherSubscribedEvent> events = new ArrayList<>();
@@ -27,21 +30,25 @@ public class XmlEventParser extends AbstractServiceParser {
     }
 
     public void parser(InputStream file, VirtualFile sourceFile, Project project) {
-        NodeList nodeList = this.parserer(file);
+        ContainerXmlStreamReader.read(file, Collections.singletonList(this));
+    }
 
-        if(nodeList == null) {
+    @Override
+    public void visitService(@NotNull ContainerXmlElement service) {
+        if (!service.hasAttribute("id")) {
             return;
         }
 
-        for (int i = 0; i < nodeList.getLength(); i++) {
-            Element node = (Element) nodeList.item(i);
-            this.list.put(node.getAttribute("event"), node.getAttribute("name"));
-            if(((Element) node.getParentNode()).hasAttribute("class")) {
-                this.events.add(new EventDispatcherSubscribedEvent(node.getAttribute("event"), ((Element) node.getParentNode()).getAttribute("class"), null).setType(node.getAttribute("name")));
+        for (ContainerXmlElement tag : service.getChildren("tag")) {
+            if (!tag.hasAttribute("event")) {
+                continue;
             }
 
+            this.list.put(tag.getAttribute("event"), tag.getAttribute("name"));
+            if(service.hasAttribute("class")) {
+                this.events.add(new EventDispatcherSubscribedEvent(tag.getAttribute("event"), service.getAttribute("class"), null).setType(tag.getAttribute("name")));
+            }
         }
-
     }
 
     public Map<String, String> get() {
@@ -3,9 +3,7 @@ package fr.adrienbrault.idea.symfony2plugin.dic;
 import fr.adrienbrault.idea.symfony2plugin.dic.container.ServiceInterface;
 import fr.adrienbrault.idea.symfony2plugin.util.service.AbstractServiceParser;
 import org.jetbrains.annotations.NotNull;
-import org.xml.sax.SAXException;
 
-import javax.xml.parsers.ParserConfigurationException;
 import java.io.IOException;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.vfs.VirtualFile;
@@ -27,16 +25,19 @@ public class XmlServiceParser extends AbstractServiceParser {
     }
 
     public void parser(InputStream file, VirtualFile sourceFile, Project project) {
+        ServiceMap parsedServiceMap;
         try {
-            ServiceMap parsedServiceMap = new ServiceMapParser().parse(file);
-            Map<String, ServiceInterface> services = new LinkedHashMap<>();
+            parsedServiceMap = CompiledContainerCache.getInstance().getContainerData(file.readAllBytes()).serviceMap();
+        } catch (IOException ignored) {
+            return;
+        }
 
-            this.serviceMap.getServices().forEach(service -> services.put(service.getId(), service));
-            parsedServiceMap.getServices().forEach(service -> services.put(service.getId(), service));
+        Map<String, ServiceInterface> services = new LinkedHashMap<>();
 
-            this.serviceMap = new ServiceMap(services.values());
-        } catch (SAXException | IOException | ParserConfigurationException ignored) {
-        }
+        this.serviceMap.getServices().forEach(service -> services.put(service.getId(), service));
+        parsedServiceMap.getServices().forEach(service -> services.put(service.getId(), service));
+
+        this.serviceMap = new ServiceMap(services.values());
     }
 
     @NotNull
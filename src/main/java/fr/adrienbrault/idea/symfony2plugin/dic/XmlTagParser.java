@@ -1,14 +1,17 @@
 package fr.adrienbrault.idea.symfony2plugin.dic;
 
 import fr.adrienbrault.idea.symfony2plugin.util.service.AbstractServiceParser;
+import fr.adrienbrault.idea.symfony2plugin.util.service.ContainerStreamParserInterface;
+import fr.adrienbrault.idea.symfony2plugin.util.service.ContainerXmlElement;
+import fr.adrienbrault.idea.symfony2plugin.util.service.ContainerXmlStreamReader;
+import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
-import org.w3c.dom.Element;
-import org.w3c.dom.NodeList;
 
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.vfs.VirtualFile;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
@@ -17,7 +20,7 @@ import java.util.concurrent.ConcurrentHashMap;
 /**
  * @author Daniel Espendiller <daniel@espendiller.net>
  */
-public class XmlTagParser extends AbstractServiceParser {
+public class XmlTagParser extends AbstractServiceParser implements ContainerStreamParserInterface {
 
     protected final Set<String> list = new HashSet<>();
     protected final Map<String, ArrayList<String>> taggedClasses = new ConcurrentHashMap<>();
@@ -28,25 +31,28 @@ public class XmlTagParser extends AbstractServiceParser {
     }
 
     public void parser(InputStream file, VirtualFile sourceFile, Project project) {
-        NodeList nodeList = this.parserer(file);
+        ContainerXmlStreamReader.read(file, Collections.singletonList(this));
+    }
 
-        if(nodeList == null) {
+    @Override
+    public void visitService(@NotNull ContainerXmlElement service) {
+        if (!service.hasAttribute("id")) {
             return;
         }
 
-        for (int i = 0; i < nodeList.getLength(); i++) {
-            Element node = (Element) nodeList.item(i);
-            String tagName = node.getAttribute("name");
+        for (ContainerXmlElement tag : service.getChildren("tag")) {
+            if (!tag.hasAttribute("name")) {
+                continue;
+            }
+
+            String tagName = tag.getAttribute("name");
             this.list.add(tagName);
-            Element parentNode = (Element) node.getParentNode();
-            if(parentNode.hasAttribute("class")) {
-                this.addTaggedClass(tagName, parentNode.getAttribute("class"));
+            if(service.hasAttribute("class")) {
+                this.addTaggedClass(tagName, service.getAttribute("class"));
             }
         }
-
     }
 
-
     public Map<String, ArrayList<String>> getTaggedClasses() {
         return taggedClasses;
     }
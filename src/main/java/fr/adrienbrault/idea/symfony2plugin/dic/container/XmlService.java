@@ -1,15 +1,18 @@
 package fr.adrienbrault.idea.symfony2plugin.dic.container;
 
+import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.externalizer.StringTableDataReader;
+import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.externalizer.StringTableDataWriter;
+import fr.adrienbrault.idea.symfony2plugin.util.service.ContainerXmlElement;
+import fr.adrienbrault.idea.symfony2plugin.util.service.ContainerXmlStreamReader;
 import org.apache.commons.lang3.StringUtils;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.w3c.dom.Element;
 import org.w3c.dom.NodeList;
 
-import java.util.Collection;
-import java.util.Collections;
-import java.util.HashSet;
-import java.util.Set;
+import java.io.IOException;
+import java.util.*;
+import java.util.function.Function;
 
 /**
  * Create a service definition on a compiled debug xml file
@@ -129,8 +132,38 @@ public class XmlService implements ServiceInterface {
 
     @Nullable
     public static XmlService createFromXml(@NotNull Element node) {
+        // <tag name="xml_type_tag"/>
+        Collection<String> tagNames = new ArrayList<>();
+        NodeList tags = node.getElementsByTagName("tag");
+        int numTags = tags.getLength();
+        for (int i = 0; i < numTags; i++) {
+            tagNames.add(((Element) tags.item(i)).getAttribute("name"));
+        }
+
+        return create(node::getAttribute, tagNames);
+    }
+
+    /**
+     * @see ContainerXmlStreamReader
+     */
+    @Nullable
+    public static XmlService createFromElement(@NotNull ContainerXmlElement element) {
+        // <tag name="xml_type_tag"/>
+        Collection<String> tagNames = new ArrayList<>();
+        for (ContainerXmlElement tag : element.getDescendants("tag")) {
+            tagNames.add(tag.getAttribute("name"));
+        }
+
+        return create(element::getAttribute, tagNames);
+    }
+
+    /**
+     * @param attributes attribute value by name; empty string if not existing
+     */
+    @Nullable
+    private static XmlService create(@NotNull Function<String, String> attributes, @NotNull Collection<String> tagNames) {
         // empty id does not interest us
-        String id = node.getAttribute("id");
+        String id = attributes.apply("id");
         if(StringUtils.isBlank(id)) {
             return null;
         }
@@ -156,50 +189,44 @@ public class XmlService implements ServiceInterface {
 
         XmlService xmlService = new XmlService(id);
 
-        String aClass = node.getAttribute("class");
+        String aClass = attributes.apply("class");
         if(StringUtils.isNotBlank(aClass)) {
             xmlService.className = StringUtils.stripStart(aClass, "\\");
         }
 
-        String isPublic = node.getAttribute("public");
+        String isPublic = attributes.apply("public");
         if("false".equalsIgnoreCase(isPublic)) {
             xmlService.isPublic = false;
         }
 
-        xmlService.lazy = "true".equalsIgnoreCase(node.getAttribute("lazy"));
-        xmlService.isAbstract = "true".equalsIgnoreCase(node.getAttribute("abstract"));
-        xmlService.autowire = "true".equalsIgnoreCase(node.getAttribute("autowire"));
-        xmlService.autoconfigure = "true".equalsIgnoreCase(node.getAttribute("autoconfigure"));
-        xmlService.deprecated = "true".equalsIgnoreCase(node.getAttribute("deprecated"));
+        xmlService.lazy = "true".equalsIgnoreCase(attributes.apply("lazy"));
+        xmlService.isAbstract = "true".equalsIgnoreCase(attributes.apply("abstract"));
+        xmlService.autowire = "true".equalsIgnoreCase(attributes.apply("autowire"));
+        xmlService.autoconfigure = "true".equalsIgnoreCase(attributes.apply("autoconfigure"));
+        xmlService.deprecated = "true".equalsIgnoreCase(attributes.apply("deprecated"));
 
-        String alias = node.getAttribute("alias");
+        String alias = attributes.apply("alias");
         if(StringUtils.isNotBlank(alias)) {
             xmlService.alias = alias;
         }
 
-        String parent = node.getAttribute("parent");
+        String parent = attributes.apply("parent");
         if (StringUtils.isNotBlank(parent)) {
             xmlService.parent = parent;
         }
 
-        String decorates = node.getAttribute("decorates");
+        String decorates = attributes.apply("decorates");
         if (StringUtils.isNotBlank(decorates)) {
             xmlService.decorates = decorates;
         }
 
-        String decorationInnerName = node.getAttribute("decoration-inner-name");
+        String decorationInnerName = attributes.apply("decoration-inner-name");
         if (StringUtils.isNotBlank(decorationInnerName)) {
             xmlService.decorationInnerName = decorationInnerName;
         }
 
-        // <tag name="xml_type_tag"/>
         Set<String> myTags = new HashSet<>();
-        NodeList tags = node.getElementsByTagName("tag");
-        int numTags = tags.getLength();
-        for (int i = 0; i < numTags; i++) {
-            Element section = (Element) tags.item(i);
-
-            String name = section.getAttribute("name");
+        for (String name : tagNames) {
             if (StringUtils.isNotBlank(name)) {
                 myTags.add(name);
             }
@@ -225,4 +252,52 @@ public class XmlService implements ServiceInterface {
 
         return xmlService;
     }
+
+    /**
+     * @see #read
+     */
+    public void write(@NotNull StringTableDataWriter writer) throws IOException {
+        writer.writeString(id);
+        writer.writeString(className);
+        writer.writeString(alias);
+        writer.writeString(parent);
+        writer.writeString(decorates);
+        writer.writeString(decorationInnerName);
+
+        int flags = (isPublic ? 1 : 0)
+            | (lazy ? 1 << 1 : 0)
+            | (isAbstract ? 1 << 2 : 0)
+            | (autowire ? 1 << 3 : 0)
+            | (autoconfigure ? 1 << 4 : 0)
+            | (deprecated ? 1 << 5 : 0);
+
+        writer.writeInt(flags);
+        writer.writeStrings(tags);
+    }
+
+    @NotNull
+    public static XmlService read(@NotNull StringTableDataReader reader) throws IOException {
+        XmlService xmlService = new XmlService(reader.readNotNullString());
+
+        xmlService.className = reader.readString();
+        xmlService.alias = reader.readString();
+        xmlService.parent = reader.readString();
+        xmlService.decorates = reader.readString();
+        xmlService.decorationInnerName = reader.readString();
+
+        int flags = reader.readInt();
+        xmlService.isPublic = (flags & 1) != 0;
+        xmlService.lazy = (flags & 1 << 1) != 0;
+        xmlService.isAbstract = (flags & 1 << 2) != 0;
+        xmlService.autowire = (flags & 1 << 3) != 0;
+        xmlService.autoconfigure = (flags & 1 << 4) != 0;
+        xmlService.deprecated = (flags & 1 << 5) != 0;
+
+        Collection<String> tags = reader.readStrings();
+        if (!tags.isEmpty()) {
+            xmlService.tags = Collections.unmodifiableSet(new HashSet<>(tags));
+        }
+
+        return xmlService;
+    }
 }
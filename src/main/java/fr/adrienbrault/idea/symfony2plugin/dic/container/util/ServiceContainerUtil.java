@@ -11,7 +11,6 @@ import com.intellij.patterns.PlatformPatterns;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiFile;
 import com.intellij.psi.search.GlobalSearchScope;
-import com.intellij.psi.search.GlobalSearchScopesCore;
 import com.intellij.psi.util.*;
 import com.intellij.psi.xml.*;
 import com.intellij.util.Consumer;
@@ -40,7 +39,6 @@ import fr.adrienbrault.idea.symfony2plugin.dic.container.dict.ServiceFileDefault
 import fr.adrienbrault.idea.symfony2plugin.dic.container.dict.ServiceTypeHint;
 import fr.adrienbrault.idea.symfony2plugin.dic.container.visitor.ServiceConsumer;
 import fr.adrienbrault.idea.symfony2plugin.stubs.ContainerCollectionResolver;
-import fr.adrienbrault.idea.symfony2plugin.stubs.ServiceResourceGlobMatcher;
 import fr.adrienbrault.idea.symfony2plugin.stubs.cache.FileIndexCaches;
 import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.ContainerIdUsagesStubIndex;
 import fr.adrienbrault.idea.symfony2plugin.util.*;
@@ -1886,38 +1884,14 @@ public class ServiceContainerUtil {
         // Normalize namespace for string matching (ensure backslash prefix)
         String normalizedNamespace = namespace.startsWith("\\") ? namespace : "\\" + namespace;
 
+        // glob expansion is cached per resource; file changes only re-evaluate their directory
+        ServiceResourcePrototypeCache cache = ServiceResourcePrototypeCache.getInstance(project);
         for (String resource : resources) {
             if (StringUtils.isBlank(resource)) {
                 continue;
             }
 
-            // Step 1: Resolve base directory from resource pattern
-            VirtualFile baseDirectory = resolveBaseDirectoryFromResourcePattern(resource, containerFile);
-
-            // Step 2: Collect matching FQNs via index (lightweight string matching, no PSI loading)
-
-            if (baseDirectory == null) {
-                continue;
-            }
-
-            ServiceResourceGlobMatcher globMatcher = ServiceResourceGlobMatcher.create(
-                containerFile,
-                Collections.singletonList(resource),
-                excludes
-            );
-
-            // resource: src/* vs src/test.php
-            GlobalSearchScope scope = baseDirectory.isDirectory()
-                ? GlobalSearchScopesCore.directoriesScope(project, true, baseDirectory)
-                : GlobalSearchScope.fileScope(project, baseDirectory);
-
-            for (PhpClassResourceCandidate candidate : getPhpClassFqnsForResourceScope(project, normalizedNamespace, baseDirectory, scope)) {
-                if (!globMatcher.matches(candidate.virtualFile())) {
-                    continue;
-                }
-
-                phpClasses.add(candidate.fqn());
-            }
+            phpClasses.addAll(cache.getPhpClasses(normalizedNamespace, containerFile, resource, excludes));
         }
 
         return phpClasses;
@@ -1927,7 +1901,7 @@ public class ServiceContainerUtil {
      * Cached resource-scope candidates with concrete class FQN and file path for glob filtering.
      */
     @NotNull
-    private static Collection<PhpClassResourceCandidate> getPhpClassFqnsForResourceScope(
+    static Collection<PhpClassResourceCandidate> getPhpClassFqnsForResourceScope(
         @NotNull Project project,
         @NotNull String normalizedNamespace,
         @NotNull VirtualFile baseDirectory,
@@ -1966,7 +1940,7 @@ public class ServiceContainerUtil {
         });
     }
 
-    private record PhpClassResourceCandidate(@NotNull String fqn, @NotNull VirtualFile virtualFile) {
+    record PhpClassResourceCandidate(@NotNull String fqn, @NotNull VirtualFile virtualFile) {
     }
 
     /**
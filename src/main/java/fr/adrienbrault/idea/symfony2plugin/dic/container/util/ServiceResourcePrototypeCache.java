@@ -0,0 +1,417 @@
+package fr.adrienbrault.idea.symfony2plugin.dic.container.util;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ModuleRootEvent;
+import com.intellij.openapi.roots.ModuleRootListener;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.VfsUtilCore;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.openapi.vfs.VirtualFileVisitor;
+import com.intellij.openapi.vfs.newvfs.BulkFileListener;
+import com.intellij.openapi.vfs.newvfs.events.*;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.PsiTreeChangeAdapter;
+import com.intellij.psi.PsiTreeChangeEvent;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.search.GlobalSearchScopesCore;
+import com.intellij.util.indexing.FileBasedIndex;
+import com.intellij.util.messages.MessageBusConnection;
+import com.jetbrains.php.PhpIndex;
+import com.jetbrains.php.lang.psi.stubs.indexes.PhpClassFqnIndex;
+import fr.adrienbrault.idea.symfony2plugin.stubs.ServiceResourceGlobMatcher;
+import fr.adrienbrault.idea.symfony2plugin.util.ProgressLockUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Glob expanded class names of resource prototypes, e.g. "App\: resource: '../src/'"
+ *
+ * Classes are kept per directory. PHP file changes, saved or only inside the editor, re-evaluate the changed directory;
+ * a created, moved or deleted directory re-evaluates its subtree. Editing one controller does not glob the whole base
+ * directory again.
+ *
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ */
+@Service(Service.Level.PROJECT)
+public final class ServiceResourcePrototypeCache implements Disposable {
+    private static final int MAX_PROTOTYPES = 100;
+
+    @NotNull
+    private final Project project;
+
+    /**
+     * Access order for dropping prototypes of outdated definitions
+     */
+    @NotNull
+    private final Map<String, Prototype> prototypes = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Prototype> eldest) {
+            return size() > MAX_PROTOTYPES;
+        }
+    });
+
+    public ServiceResourcePrototypeCache(@NotNull Project project) {
+        this.project = project;
+
+        MessageBusConnection connection = project.getMessageBus().connect(this);
+
+        connection.subscribe(VirtualFileManager.VFS_CHANGES, new BulkFileListener() {
+            @Override
+            public void after(@NotNull List<? extends @NotNull VFileEvent> events) {
+                for (VFileEvent event : events) {
+                    fileChanged(event);
+                }
+            }
+        });
+
+        // unsaved edits, e.g. a class which is made "abstract"
+        PsiManager.getInstance(project).addPsiTreeChangeListener(new PsiTreeChangeAdapter() {
+            @Override
+            public void childAdded(@NotNull PsiTreeChangeEvent event) {
+                psiChanged(event);
+            }
+
+            @Override
+            public void childRemoved(@NotNull PsiTreeChangeEvent event) {
+                psiChanged(event);
+            }
+
+            @Override
+            public void childReplaced(@NotNull PsiTreeChangeEvent event) {
+                psiChanged(event);
+            }
+
+            @Override
+            public void childrenChanged(@NotNull PsiTreeChangeEvent event) {
+                psiChanged(event);
+            }
+
+            @Override
+            public void childMoved(@NotNull PsiTreeChangeEvent event) {
+                psiChanged(event);
+            }
+        }, this);
+
+        // indexed content may differ after reindexing or changed excludes
+        connection.subscribe(ModuleRootListener.TOPIC, new ModuleRootListener() {
+            @Override
+            public void rootsChanged(@NotNull ModuleRootEvent event) {
+                prototypes.clear();
+            }
+        });
+
+        connection.subscribe(DumbService.DUMB_MODE, new DumbService.DumbModeListener() {
+            @Override
+            public void exitDumbMode() {
+                prototypes.clear();
+            }
+        });
+    }
+
+    @NotNull
+    public static ServiceResourcePrototypeCache getInstance(@NotNull Project project) {
+        return project.getService(ServiceResourcePrototypeCache.class);
+    }
+
+    @Override
+    public void dispose() {
+        prototypes.clear();
+    }
+
+    /**
+     * @param normalizedNamespace namespace with leading backslash, e.g. "\App\"
+     * @param resource one resource glob, e.g. "../src/*"
+     * @return class names with leading backslash
+     */
+    @NotNull
+    public Collection<String> getPhpClasses(@NotNull String normalizedNamespace, @NotNull VirtualFile containerFile, @NotNull String resource, @NotNull Collection<String> excludes) {
+        VirtualFile baseDirectory = ServiceContainerUtil.resolveBaseDirectoryFromResourcePattern(resource, containerFile);
+        if (baseDirectory == null) {
+            return Collections.emptySet();
+        }
+
+        String key = normalizedNamespace + "\n" + containerFile.getPath() + "\n" + baseDirectory.getPath() + "\n" + resource + "\n" + String.join("\n", excludes);
+
+        // a deleted and recreated directory, e.g. on a branch switch, is a new file with the same path
+        Prototype prototype = prototypes.compute(key, (k, existing) -> existing != null && existing.baseDirectory.isValid() && existing.baseDirectory.equals(baseDirectory)
+            ? existing
+            : new Prototype(normalizedNamespace, baseDirectory, ServiceResourceGlobMatcher.create(containerFile, Collections.singletonList(resource), excludes))
+        );
+
+        return prototype.get();
+    }
+
+    private void fileChanged(@NotNull VFileEvent event) {
+        if (prototypes.isEmpty()) {
+            return;
+        }
+
+        VirtualFile file = event.getFile();
+        boolean isDirectory = file != null ? file.isDirectory() : event instanceof VFileCreateEvent createEvent && createEvent.isDirectory();
+
+        Collection<String> paths = new ArrayList<>();
+        if (event instanceof VFileMoveEvent moveEvent) {
+            paths.add(moveEvent.getOldPath());
+            paths.add(moveEvent.getNewPath());
+        } else if (event instanceof VFileCopyEvent copyEvent) {
+            paths.add(copyEvent.getNewParent().getPath() + "/" + copyEvent.getNewChildName());
+            isDirectory = copyEvent.getFile().isDirectory();
+        } else if (event instanceof VFilePropertyChangeEvent propertyChangeEvent) {
+            if (!VirtualFile.PROP_NAME.equals(propertyChangeEvent.getPropertyName())) {
+                return;
+            }
+
+            VirtualFile parent = propertyChangeEvent.getFile().getParent();
+            paths.add((parent != null ? parent.getPath() : "") + "/" + propertyChangeEvent.getOldValue());
+            paths.add(event.getPath());
+        } else if (event instanceof VFileCreateEvent || event instanceof VFileDeleteEvent || event instanceof VFileContentChangeEvent) {
+            paths.add(event.getPath());
+        } else {
+            return;
+        }
+
+        List<Prototype> currentPrototypes;
+        synchronized (prototypes) {
+            currentPrototypes = new ArrayList<>(prototypes.values());
+        }
+
+        for (String path : paths) {
+            if (!isDirectory && !isPhpPath(path)) {
+                continue;
+            }
+
+            for (Prototype prototype : currentPrototypes) {
+                prototype.pathChanged(path, isDirectory);
+            }
+        }
+    }
+
+    private void psiChanged(@NotNull PsiTreeChangeEvent event) {
+        if (prototypes.isEmpty()) {
+            return;
+        }
+
+        PsiFile psiFile = event.getFile();
+        VirtualFile file = psiFile != null ? psiFile.getVirtualFile() : null;
+        if (file == null || !isPhpPath(file.getPath())) {
+            return;
+        }
+
+        List<Prototype> currentPrototypes;
+        synchronized (prototypes) {
+            currentPrototypes = new ArrayList<>(prototypes.values());
+        }
+
+        for (Prototype prototype : currentPrototypes) {
+            prototype.pathChanged(file.getPath(), false);
+        }
+    }
+
+    private static boolean isPhpPath(@NotNull String path) {
+        return StringUtil.endsWithIgnoreCase(path, ".php");
+    }
+
+    private class Prototype {
+        @NotNull
+        private final String normalizedNamespace;
+
+        @NotNull
+        private final VirtualFile baseDirectory;
+
+        @NotNull
+        private final String basePath;
+
+        @NotNull
+        private final ServiceResourceGlobMatcher globMatcher;
+
+        @NotNull
+        private final ReentrantLock lock = new ReentrantLock();
+
+        /**
+         * Directories with changed PHP files; only their direct files are evaluated again
+         */
+        @NotNull
+        private final Set<String> changedDirectories = ConcurrentHashMap.newKeySet();
+
+        /**
+         * Created, moved or deleted directories; their complete subtree is evaluated again
+         */
+        @NotNull
+        private final Set<String> changedTrees = ConcurrentHashMap.newKeySet();
+
+        private volatile boolean invalid = true;
+
+        /**
+         * "directory path => class names"; guarded by the lock
+         */
+        @NotNull
+        private final Map<String, Set<String>> classesByDirectory = new HashMap<>();
+
+        @NotNull
+        private volatile Set<String> classes = Collections.emptySet();
+
+        private Prototype(@NotNull String normalizedNamespace, @NotNull VirtualFile baseDirectory, @NotNull ServiceResourceGlobMatcher globMatcher) {
+            this.normalizedNamespace = normalizedNamespace;
+            this.baseDirectory = baseDirectory;
+            this.basePath = baseDirectory.getPath();
+            this.globMatcher = globMatcher;
+        }
+
+        private boolean isFresh() {
+            return !invalid && changedDirectories.isEmpty() && changedTrees.isEmpty();
+        }
+
+        @NotNull
+        private Set<String> get() {
+            if (isFresh()) {
+                return classes;
+            }
+
+            ProgressLockUtil.lock(lock);
+            try {
+                // another thread may already have finished while we were waiting
+                if (isFresh()) {
+                    return classes;
+                }
+
+                Set<String> directories = drain(changedDirectories);
+                Set<String> trees = drain(changedTrees);
+
+                try {
+                    if (invalid || !baseDirectory.isValid() || !baseDirectory.isDirectory()) {
+                        invalid = false;
+                        rebuild();
+                    } else {
+                        update(directories, trees);
+                    }
+                } catch (RuntimeException e) {
+                    // drained changes must not get lost on cancel
+                    invalid = true;
+                    throw e;
+                }
+
+                Set<String> result = new HashSet<>();
+                classesByDirectory.values().forEach(result::addAll);
+
+                return classes = Collections.unmodifiableSet(result);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void pathChanged(@NotNull String path, boolean isDirectory) {
+            // base directory itself is replaced or it is a single file resource
+            if (path.equals(basePath) || basePath.startsWith(path + "/")) {
+                invalid = true;
+                return;
+            }
+
+            if (!path.startsWith(basePath + "/")) {
+                return;
+            }
+
+            if (isDirectory) {
+                changedTrees.add(path);
+            } else {
+                changedDirectories.add(path.substring(0, path.lastIndexOf('/')));
+            }
+        }
+
+        private void rebuild() {
+            classesByDirectory.clear();
+
+            if (!baseDirectory.isValid()) {
+                return;
+            }
+
+            // resource: src/* vs src/test.php
+            GlobalSearchScope scope = baseDirectory.isDirectory()
+                ? GlobalSearchScopesCore.directoriesScope(project, true, baseDirectory)
+                : GlobalSearchScope.fileScope(project, baseDirectory);
+
+            for (ServiceContainerUtil.PhpClassResourceCandidate candidate : ServiceContainerUtil.getPhpClassFqnsForResourceScope(project, normalizedNamespace, baseDirectory, scope)) {
+                if (globMatcher.matches(candidate.virtualFile())) {
+                    addClass(candidate.virtualFile(), candidate.fqn());
+                }
+            }
+        }
+
+        private void update(@NotNull Set<String> directories, @NotNull Set<String> trees) {
+            for (String tree : trees) {
+                classesByDirectory.keySet().removeIf(path -> path.equals(tree) || path.startsWith(tree + "/"));
+
+                VirtualFile directory = baseDirectory.getFileSystem().findFileByPath(tree);
+                if (directory != null && directory.isDirectory()) {
+                    collectClasses(directory, true);
+                }
+            }
+
+            for (String path : directories) {
+                // already visited by a subtree
+                if (trees.stream().anyMatch(tree -> path.equals(tree) || path.startsWith(tree + "/"))) {
+                    continue;
+                }
+
+                classesByDirectory.remove(path);
+
+                VirtualFile directory = baseDirectory.getFileSystem().findFileByPath(path);
+                if (directory != null && directory.isDirectory()) {
+                    collectClasses(directory, false);
+                }
+            }
+        }
+
+        private void collectClasses(@NotNull VirtualFile directory, boolean recursive) {
+            FileBasedIndex fileBasedIndex = FileBasedIndex.getInstance();
+            PhpIndex phpIndex = PhpIndex.getInstance(project);
+
+            VfsUtilCore.visitChildrenRecursively(directory, new VirtualFileVisitor<Void>() {
+                @Override
+                public boolean visitFile(@NotNull VirtualFile file) {
+                    if (file.isDirectory()) {
+                        return recursive || file.equals(directory);
+                    }
+
+                    if (!isPhpPath(file.getPath()) || !globMatcher.matches(file)) {
+                        return true;
+                    }
+
+                    for (String fqn : fileBasedIndex.getFileData(PhpClassFqnIndex.KEY, file, project).keySet()) {
+                        if (fqn.startsWith(normalizedNamespace) && phpIndex.getClassesByFQN(fqn).stream().anyMatch(phpClass -> !phpClass.isAbstract())) {
+                            addClass(file, fqn);
+                        }
+                    }
+
+                    return true;
+                }
+            });
+        }
+
+        private void addClass(@NotNull VirtualFile file, @NotNull String fqn) {
+            VirtualFile parent = file.getParent();
+            String directory = parent != null ? parent.getPath() : "";
+
+            classesByDirectory.computeIfAbsent(directory, k -> new HashSet<>()).add(fqn);
+        }
+    }
+
+    @NotNull
+    private static Set<String> drain(@NotNull Set<String> changes) {
+        Set<String> drained = new HashSet<>();
+        for (Iterator<String> iterator = changes.iterator(); iterator.hasNext(); ) {
+            drained.add(iterator.next());
+            iterator.remove();
+        }
+
+        return drained;
+    }
+}
@@ -38,7 +38,7 @@ public class PhpServiceArgumentIntention extends PsiElementBaseIntentionAction {
             return;
         }
 
-        Set<String> serviceNames = ContainerCollectionResolver.ServiceCollector.create(project).convertClassNameToServices(phpClass.getFQN());
+        Set<String> serviceNames = ContainerCollectionResolver.getServiceIdsForClass(project, phpClass.getFQN());
         if (serviceNames.isEmpty()) {
 
             return;
@@ -129,7 +129,7 @@ public class PhpServiceArgumentIntention extends PsiElementBaseIntentionAction {
 
         return phpClass == null
             ? Collections.emptySet()
-            : ContainerCollectionResolver.ServiceCollector.create(project).convertClassNameToServices(phpClass.getFQN());
+            : ContainerCollectionResolver.getServiceIdsForClass(project, phpClass.getFQN());
     }
 
     @Override
@@ -16,6 +16,7 @@ import com.jetbrains.php.PhpIndex;
 import com.jetbrains.php.lang.documentation.phpdoc.psi.PhpDocComment;
 import com.jetbrains.php.lang.documentation.phpdoc.psi.tags.PhpDocParamTag;
 import com.jetbrains.php.lang.psi.elements.*;
+import com.jetbrains.php.lang.psi.stubs.indexes.PhpClassFqnIndex;
 import fr.adrienbrault.idea.symfony2plugin.doctrine.component.DocumentNamespacesParser;
 import fr.adrienbrault.idea.symfony2plugin.doctrine.component.EntityNamesServiceParser;
 import fr.adrienbrault.idea.symfony2plugin.doctrine.dict.DoctrineClassMetadata;
@@ -25,6 +26,8 @@ import fr.adrienbrault.idea.symfony2plugin.doctrine.metadata.dict.DoctrineMetada
 import fr.adrienbrault.idea.symfony2plugin.doctrine.metadata.util.DoctrineMetadataUtil;
 import fr.adrienbrault.idea.symfony2plugin.extension.DoctrineModelProvider;
 import fr.adrienbrault.idea.symfony2plugin.extension.DoctrineModelProviderParameter;
+import fr.adrienbrault.idea.symfony2plugin.stubs.cache.FileIndexCaches;
+import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.DoctrineMetadataFileStubIndex;
 import fr.adrienbrault.idea.symfony2plugin.util.*;
 import fr.adrienbrault.idea.symfony2plugin.util.dict.DoctrineModel;
 import fr.adrienbrault.idea.symfony2plugin.util.dict.SymfonyBundle;
@@ -45,7 +48,7 @@ public class EntityHelper {
 
     public static final ExtensionPointName<DoctrineModelProvider> MODEL_POINT_NAME = new ExtensionPointName<>("fr.adrienbrault.idea.symfony2plugin.extension.DoctrineModelProvider");
 
-    private static final Key<CachedValue<Collection<DoctrineModelCached>>> SYMFONY_DOCTRINE_MODEL_CACHE = new Key<>("SYMFONY_DOCTRINE_MODEL_CACHE");
+    private static final Key<CachedValue<DoctrineModelRegistry>> SYMFONY_DOCTRINE_MODEL_CACHE = new Key<>("SYMFONY_DOCTRINE_MODEL_CACHE");
 
     final public static String[] ANNOTATION_FIELDS = new String[] {
         "\\Doctrine\\ORM\\Mapping\\Column",
@@ -562,10 +565,27 @@ public class EntityHelper {
 
     }
 
-    private record DoctrineModelCached(@NotNull String phpClass, @Nullable String doctrineShortcut, @Nullable String doctrineNamespace) {
+    /**
+     * Models by their class; only changes with the Doctrine metadata, PHP classes or the compiled container, so unrelated
+     * edits keep the registry
+     */
+    @NotNull
+    public static DoctrineModelRegistry getModelRegistry(@NotNull Project project) {
+        return SymfonyCacheMetrics.getCachedValue(
+            project,
+            SYMFONY_DOCTRINE_MODEL_CACHE,
+            "EntityHelper.SYMFONY_DOCTRINE_MODEL_CACHE",
+            () -> CachedValueProvider.Result.create(
+                new DoctrineModelRegistry(getModelClassesInner(project)),
+                FileIndexCaches.getModificationTrackerForIndexId(project, DoctrineMetadataFileStubIndex.KEY),
+                FileIndexCaches.getModificationTrackerForIndexId(project, PhpClassFqnIndex.KEY),
+                SymfonyVarDirectoryWatcherKt.getSymfonyVarDirectoryWatcher(project).getModificationTracker(SymfonyVarDirectoryWatcher.Scope.CONTAINER)
+            )
+        );
     }
 
-    private static Collection<DoctrineModelCached> getModelClassesInner(final Project project) {
+    @NotNull
+    private static Collection<DoctrineModelRegistry.Model> getModelClassesInner(@NotNull Project project) {
         HashMap<String, String> shortcutNames = new HashMap<>() {{
             putAll(ServiceXmlParserFactory.getInstance(project, EntityNamesServiceParser.class).getEntityNameMap());
             putAll(ServiceXmlParserFactory.getInstance(project, DocumentNamespacesParser.class).getNamespaceMap());
@@ -590,15 +610,9 @@ public class EntityHelper {
             doctrineModels.add(new DoctrineModel(phpClass));
         }
 
-        DoctrineModelProviderParameter containerLoaderExtensionParameter = new DoctrineModelProviderParameter(project, new ArrayList<>());
-        for(DoctrineModelProvider provider : EntityHelper.MODEL_POINT_NAME.getExtensions()) {
-            for(DoctrineModelProviderParameter.DoctrineModel doctrineModel: provider.collectModels(containerLoaderExtensionParameter)) {
-                doctrineModels.add(new DoctrineModel(doctrineModel.getPhpClass(), doctrineModel.getName()));
-            }
-        }
-
+        // extension models are not tracked, they are always added on usage
         return doctrineModels.stream().map(
-            doctrineModel -> new DoctrineModelCached(doctrineModel.getPhpClass().getFQN(), doctrineModel.getDoctrineShortcut(), doctrineModel.getDoctrineNamespace())
+            doctrineModel -> new DoctrineModelRegistry.Model(doctrineModel.getPhpClass().getFQN(), doctrineModel.getDoctrineShortcut(), doctrineModel.getDoctrineNamespace())
         ).toList();
     }
 
@@ -606,24 +620,53 @@ public class EntityHelper {
      * One PhpClass can have multiple targets and names @TODO: refactor
      */
     public static Collection<DoctrineModel> getModelClasses(@NotNull final Project project) {
-        Collection<DoctrineModelCached> modelClasses = CachedValuesManager.getManager(project).getCachedValue(
-            project,
-            SYMFONY_DOCTRINE_MODEL_CACHE,
-            () -> CachedValueProvider.Result.create(getModelClassesInner(project), PsiModificationTracker.MODIFICATION_COUNT),
-            false
-        );
-
         PhpIndex phpIndex = PhpIndex.getInstance(project);
         Collection<DoctrineModel> doctrineModels = new ArrayList<>();
-        for (DoctrineModelCached doctrineModelCached : modelClasses) {
-            Collection<PhpClass> classesByFQN = phpIndex.getClassesByFQN(doctrineModelCached.phpClass);
+
+        for (Map.Entry<String, List<DoctrineModelRegistry.Model>> entry : getModelRegistry(project).getModels().entrySet()) {
+            Collection<PhpClass> classesByFQN = phpIndex.getClassesByFQN(entry.getKey());
             if (classesByFQN.isEmpty()) {
                 continue;
             }
 
-            doctrineModels.add(new DoctrineModel(classesByFQN.iterator().next(), doctrineModelCached.doctrineShortcut, doctrineModelCached.doctrineNamespace));
+            PhpClass phpClass = classesByFQN.iterator().next();
+            for (DoctrineModelRegistry.Model model : entry.getValue()) {
+                doctrineModels.add(new DoctrineModel(phpClass, model.doctrineShortcut(), model.doctrineNamespace()));
+            }
+        }
+
+        doctrineModels.addAll(getExtensionModels(project));
+
+        return doctrineModels;
+    }
+
+    /**
+     * Class names of all models without resolving any of them
+     */
+    @NotNull
+    public static Set<String> getModelClassNames(@NotNull Project project) {
+        Set<String> classNames = new HashSet<>(getModelRegistry(project).getModels().keySet());
+
+        for (DoctrineModel doctrineModel : getExtensionModels(project)) {
+            classNames.add(doctrineModel.getPhpClass().getFQN());
         }
 
+        return classNames;
+    }
+
+    /**
+     * Resolves a single model of {@link #getModelClassNames(Project)}
+     */
+    @Nullable
+    public static PhpClass getModelClass(@NotNull Project project, @NotNull String classFqn) {
+        Collection<PhpClass> classesByFQN = PhpIndex.getInstance(project).getClassesByFQN(classFqn);
+        return classesByFQN.isEmpty() ? null : classesByFQN.iterator().next();
+    }
+
+    @NotNull
+    private static Collection<DoctrineModel> getExtensionModels(@NotNull Project project) {
+        Collection<DoctrineModel> doctrineModels = new ArrayList<>();
+
         DoctrineModelProviderParameter containerLoaderExtensionParameter = new DoctrineModelProviderParameter(project, new ArrayList<>());
         for (DoctrineModelProvider provider : EntityHelper.MODEL_POINT_NAME.getExtensions()) {
             for (DoctrineModelProviderParameter.DoctrineModel doctrineModel: provider.collectModels(containerLoaderExtensionParameter)) {
@@ -735,4 +778,33 @@ public class EntityHelper {
 
         return null;
     }
+
+    /**
+     * "class => models" without any PSI; one class can be known via several shortcut names, e.g. "AppBundle:User"
+     */
+    public static final class DoctrineModelRegistry {
+        /**
+         * @param phpClass starting with "\"
+         */
+        public record Model(@NotNull String phpClass, @Nullable String doctrineShortcut, @Nullable String doctrineNamespace) {
+        }
+
+        @NotNull
+        private final Map<String, List<Model>> models;
+
+        private DoctrineModelRegistry(@NotNull Collection<Model> models) {
+            Map<String, List<Model>> map = new LinkedHashMap<>();
+            for (Model model : models) {
+                map.computeIfAbsent(model.phpClass(), k -> new ArrayList<>()).add(model);
+            }
+
+            map.replaceAll((k, v) -> List.copyOf(v));
+            this.models = Collections.unmodifiableMap(map);
+        }
+
+        @NotNull
+        public Map<String, List<Model>> getModels() {
+            return models;
+        }
+    }
 }
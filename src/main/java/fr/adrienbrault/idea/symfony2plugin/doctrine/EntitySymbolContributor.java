@@ -4,7 +4,6 @@ import com.intellij.navigation.ChooseByNameContributorEx;
 import com.intellij.navigation.NavigationItem;
 import com.intellij.openapi.project.Project;
 import com.intellij.psi.search.GlobalSearchScope;
-import com.intellij.util.Function;
 import com.intellij.util.Processor;
 import com.intellij.util.indexing.FindSymbolParameters;
 import com.intellij.util.indexing.IdFilter;
@@ -12,12 +11,9 @@ import com.jetbrains.php.lang.psi.elements.PhpClass;
 import fr.adrienbrault.idea.symfony2plugin.Symfony2Icons;
 import fr.adrienbrault.idea.symfony2plugin.Symfony2ProjectComponent;
 import fr.adrienbrault.idea.symfony2plugin.navigation.NavigationItemExStateless;
-import fr.adrienbrault.idea.symfony2plugin.util.dict.DoctrineModel;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.stream.Collectors;
-
 /**
  * @author Daniel Espendiller <daniel@espendiller.net>
  */
@@ -29,8 +25,8 @@ public class EntitySymbolContributor implements ChooseByNameContributorEx {
             return;
         }
 
-        for (DoctrineModel modelClass : EntityHelper.getModelClasses(project)) {
-            processor.process(modelClass.getPhpClass().getName());
+        for (String classFqn : EntityHelper.getModelClassNames(project)) {
+            processor.process(getShortName(classFqn));
         }
     }
 
@@ -41,10 +37,24 @@ public class EntitySymbolContributor implements ChooseByNameContributorEx {
             return;
         }
 
-        for (PhpClass phpClass : EntityHelper.getModelClasses(project).stream().map((Function<DoctrineModel, PhpClass>) DoctrineModel::getPhpClass).collect(Collectors.toSet())) {
-            if (name.equals(phpClass.getName())) {
+        // only resolve the matching models
+        for (String classFqn : EntityHelper.getModelClassNames(project)) {
+            if (!name.equals(getShortName(classFqn))) {
+                continue;
+            }
+
+            PhpClass phpClass = EntityHelper.getModelClass(project, classFqn);
+            if (phpClass != null) {
                 processor.process(NavigationItemExStateless.create(phpClass, name, Symfony2Icons.DOCTRINE, "Entity", false));
             }
         }
     }
+
+    /**
+     * "\App\Entity\User" => "User"
+     */
+    @NotNull
+    private static String getShortName(@NotNull String classFqn) {
+        return classFqn.substring(classFqn.lastIndexOf('\\') + 1);
+    }
 }
@@ -20,7 +20,6 @@ import com.intellij.util.indexing.FileBasedIndex;
 import com.jetbrains.php.lang.psi.elements.PhpClass;
 import fr.adrienbrault.idea.symfony2plugin.doctrine.EntityHelper;
 import fr.adrienbrault.idea.symfony2plugin.doctrine.metadata.DoctrineMetadataPattern;
-import fr.adrienbrault.idea.symfony2plugin.util.dict.DoctrineModel;
 import fr.adrienbrault.idea.symfony2plugin.doctrine.dict.DoctrineModelSerializable;
 import fr.adrienbrault.idea.symfony2plugin.doctrine.dict.DoctrineModelInterface;
 import fr.adrienbrault.idea.symfony2plugin.doctrine.metadata.dict.DoctrineManagerEnum;
@@ -262,10 +261,8 @@ public class DoctrineMetadataUtil {
         }
 
         // Fallback: guess table name from class short name (snake_case + optional plural)
-        for (DoctrineModel model : EntityHelper.getModelClasses(project)) {
-            PhpClass phpClass = model.getPhpClass();
-
-            String shortName = phpClass.getName();
+        for (String classFqn : EntityHelper.getModelClassNames(project)) {
+            String shortName = classFqn.substring(classFqn.lastIndexOf('\\') + 1);
             if (shortName.isBlank()) {
                 continue;
             }
@@ -277,7 +274,11 @@ public class DoctrineMetadataUtil {
 
             String plural = StringUtil.pluralize(singular);
             if (singular.equalsIgnoreCase(normalizedTableName) || plural.equalsIgnoreCase(normalizedTableName)) {
-                navigatables.add(phpClass);
+                // only matching models are resolved
+                PhpClass phpClass = EntityHelper.getModelClass(project, classFqn);
+                if (phpClass != null) {
+                    navigatables.add(phpClass);
+                }
             }
         }
 
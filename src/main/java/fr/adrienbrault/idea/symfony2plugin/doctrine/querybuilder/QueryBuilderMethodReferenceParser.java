@@ -322,8 +322,8 @@ public class QueryBuilderMethodReferenceParser {
                     PhpElementsUtil.isInstanceOf(phpClass, "\\Doctrine\\Persistence\\ObjectRepository")
                 )
             ) {
-                for(DoctrineModel model: EntityHelper.getModelClasses(project)) {
-                    String className = model.getPhpClass().getPresentableFQN();
+                for(String classFqn: EntityHelper.getModelClassNames(project)) {
+                    String className = StringUtils.stripStart(classFqn, "\\");
                     PhpClass resolvedRepoName = EntityHelper.getEntityRepositoryClass(project, className);
                     if(PhpElementsUtil.isEqualClassName(resolvedRepoName, phpClass.getPresentableFQN())) {
                         roots.put(className, rootAlias);
@@ -3,18 +3,30 @@ package fr.adrienbrault.idea.symfony2plugin.form.util;
 import com.intellij.codeInsight.lookup.LookupElement;
 import com.intellij.codeInsight.lookup.LookupElementBuilder;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Key;
 import com.intellij.patterns.PlatformPatterns;
 import com.intellij.psi.PsiElement;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
 import com.intellij.psi.util.PsiTreeUtil;
 import com.intellij.util.containers.ContainerUtil;
+import com.jetbrains.php.lang.parser.PhpElementTypes;
+import com.jetbrains.php.lang.psi.PhpPsiUtil;
 import com.jetbrains.php.lang.psi.elements.*;
+import com.jetbrains.php.lang.psi.stubs.indexes.PhpClassFqnIndex;
 import fr.adrienbrault.idea.symfony2plugin.Symfony2Icons;
 import fr.adrienbrault.idea.symfony2plugin.form.dict.*;
 import fr.adrienbrault.idea.symfony2plugin.form.visitor.FormOptionLookupVisitor;
 import fr.adrienbrault.idea.symfony2plugin.form.visitor.FormOptionVisitor;
+import fr.adrienbrault.idea.symfony2plugin.stubs.cache.FileIndexCaches;
+import fr.adrienbrault.idea.symfony2plugin.stubs.dict.FormTypeDefinition;
+import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.FormTypeStubIndex;
 import fr.adrienbrault.idea.symfony2plugin.util.PhpElementsUtil;
 import fr.adrienbrault.idea.symfony2plugin.util.PhpIndexUtil;
 import fr.adrienbrault.idea.symfony2plugin.util.PsiElementUtils;
+import fr.adrienbrault.idea.symfony2plugin.util.SymfonyCacheMetrics;
+import fr.adrienbrault.idea.symfony2plugin.util.SymfonyVarDirectoryWatcher;
+import fr.adrienbrault.idea.symfony2plugin.util.SymfonyVarDirectoryWatcherKt;
 import fr.adrienbrault.idea.symfony2plugin.util.service.ServiceXmlParserFactory;
 import org.apache.commons.lang3.StringUtils;
 import org.jetbrains.annotations.NotNull;
@@ -42,6 +54,8 @@ public class FormOptionsUtil {
         "setAllowedValues", "addAllowedValues", "setAllowedTypes", "addAllowedTypes"
     };
 
+    private static final Key<CachedValue<FormTypeGraph>> FORM_TYPE_GRAPH = new Key<>("SYMFONY_FORM_TYPE_GRAPH");
+
     /**
      * Find form extensions extends given form type
      *
@@ -51,23 +65,46 @@ public class FormOptionsUtil {
     @NotNull
     public static Collection<FormClass> getExtendedTypeClasses(@NotNull Project project, @NotNull String... formTypeNames) {
 
-        // strip "\"
-        List<String> formTypeNamesList = ContainerUtil.map(Arrays.asList(formTypeNames), s ->
-            StringUtils.stripStart(s, "\\")
-        );
+        FormTypeGraph formTypeGraph = getFormTypeGraph(project);
+
+        // an extension is only added once even if it extends several of the given types
+        Set<String> extensionClasses = new LinkedHashSet<>();
+        for (String formTypeName : formTypeNames) {
+            extensionClasses.addAll(formTypeGraph.getExtensionClasses(formTypeName));
+        }
 
         Collection<FormClass> extendedTypeClasses = new ArrayList<>();
-        for(PhpClass phpClass: getFormTypeExtensionClassNames(project)) {
-            for (String formExtendedType : FormUtil.getFormExtendedType(phpClass)) {
-                if(formExtendedType != null && formTypeNamesList.contains(formExtendedType)) {
-                    extendedTypeClasses.add(new FormClass(FormClassEnum.EXTENSION, phpClass, true));
-                }
+        for (String extensionClass : extensionClasses) {
+            PhpClass phpClass = PhpElementsUtil.getClass(project, extensionClass);
+            if (phpClass != null) {
+                extendedTypeClasses.add(new FormClass(FormClassEnum.EXTENSION, phpClass, true));
             }
         }
 
         return extendedTypeClasses;
     }
 
+    /**
+     * Form types, extensions and their declared options of the form type index.
+     *
+     * Edits inside a method body only invalidate it if a form method itself changes; constants used as option names
+     * or extended types are resolved on every lookup.
+     */
+    @NotNull
+    private static FormTypeGraph getFormTypeGraph(@NotNull Project project) {
+        return SymfonyCacheMetrics.getCachedValue(
+            project,
+            FORM_TYPE_GRAPH,
+            "FormOptionsUtil.FORM_TYPE_GRAPH",
+            () -> CachedValueProvider.Result.create(
+                new FormTypeGraph(project, getFormTypeExtensionClassNames(project)),
+                FileIndexCaches.getModificationTrackerForIndexId(project, FormTypeStubIndex.KEY),
+                FileIndexCaches.getModificationTrackerForIndexId(project, PhpClassFqnIndex.KEY),
+                SymfonyVarDirectoryWatcherKt.getSymfonyVarDirectoryWatcher(project).getModificationTracker(SymfonyVarDirectoryWatcher.Scope.CONTAINER)
+            )
+        );
+    }
+
     @NotNull
     private static Set<PhpClass> getFormTypeExtensionClassNames(@NotNull Project project) {
 
@@ -95,11 +132,13 @@ public class FormOptionsUtil {
     @NotNull
     public static Map<String, FormOption> getFormExtensionKeys(@NotNull Project project, @NotNull String... formTypeNames) {
 
+        FormTypeGraph formTypeGraph = getFormTypeGraph(project);
+
         Collection<FormClass> typeClasses = FormOptionsUtil.getExtendedTypeClasses(project, formTypeNames);
         Map<String, FormOption> extensionClassMap = new HashMap<>();
 
         for(FormClass extensionClass: typeClasses) {
-            extensionClassMap.putAll(getDefaultOptions(extensionClass.getPhpClass(), extensionClass));
+            extensionClassMap.putAll(getDefaultOptions(formTypeGraph, extensionClass.getPhpClass(), extensionClass));
         }
 
         return extensionClassMap;
@@ -210,58 +249,53 @@ public class FormOptionsUtil {
     }
 
     public static void visitFormOptions(@NotNull Project project, @NotNull String formTypeName, @NotNull FormOptionVisitor visitor) {
-        visitFormOptions(project, formTypeName, new HashMap<>(), new FormUtil.FormTypeCollector(project).collect(), 0, visitor);
+        visitFormOptions(project, formTypeName, getFormTypeGraph(project), 0, visitor);
     }
 
-    private static Map<String, String> visitFormOptions(Project project, String formTypeName, HashMap<String, String> defaultValues, FormUtil.FormTypeCollector collector, int depth, @NotNull FormOptionVisitor visitor) {
-
-        PhpClass phpClass = collector.getFormTypeToClass(formTypeName);
+    private static void visitFormOptions(@NotNull Project project, @NotNull String formTypeName, @NotNull FormTypeGraph formTypeGraph, int depth, @NotNull FormOptionVisitor visitor) {
+        PhpClass phpClass = formTypeGraph.getFormTypeToClass(formTypeName);
         if(phpClass == null) {
-            return defaultValues;
+            return;
         }
 
-        getDefaultOptions(phpClass, new FormClass(FormClassEnum.FORM_TYPE, phpClass, false), visitor);
+        visitDeclaredOptions(formTypeGraph, phpClass, new FormClass(FormClassEnum.FORM_TYPE, phpClass, false), visitor);
         for (FormClass formClass : getExtendedTypeClasses(project, formTypeName)) {
-            getDefaultOptions(formClass.getPhpClass(), new FormClass(FormClassEnum.EXTENSION, formClass.getPhpClass(), false), visitor);
+            visitDeclaredOptions(formTypeGraph, formClass.getPhpClass(), new FormClass(FormClassEnum.EXTENSION, formClass.getPhpClass(), false), visitor);
         }
 
         // recursive search for parent form types
         if (depth < 10) {
-            for (String formParent : FormUtil.getFormParentOfPhpClass(phpClass)) {
-                visitFormOptions(project, formParent, defaultValues, collector, ++depth, visitor);
+            for (String formParent : formTypeGraph.getParents(phpClass.getFQN())) {
+                visitFormOptions(project, formParent, formTypeGraph, ++depth, visitor);
             }
         }
-
-        return defaultValues;
     }
 
     private static void getFormDefaultKeys(@NotNull Project project, @NotNull String formTypeName, @NotNull FormOptionVisitor visitor) {
-        getFormDefaultKeys(formTypeName, new HashMap<>(), new FormUtil.FormTypeCollector(project).collect(), 0, visitor);
+        getFormDefaultKeys(formTypeName, getFormTypeGraph(project), 0, visitor);
     }
 
-    private static Map<String, String> getFormDefaultKeys(String formTypeName, HashMap<String, String> defaultValues, FormUtil.FormTypeCollector collector, int depth, @NotNull FormOptionVisitor visitor) {
-        PhpClass phpClass = collector.getFormTypeToClass(formTypeName);
+    private static void getFormDefaultKeys(@NotNull String formTypeName, @NotNull FormTypeGraph formTypeGraph, int depth, @NotNull FormOptionVisitor visitor) {
+        PhpClass phpClass = formTypeGraph.getFormTypeToClass(formTypeName);
         if(phpClass == null) {
-            return defaultValues;
+            return;
         }
 
-        getDefaultOptions(phpClass, new FormClass(FormClassEnum.FORM_TYPE, phpClass, false), visitor);
+        visitDeclaredOptions(formTypeGraph, phpClass, new FormClass(FormClassEnum.FORM_TYPE, phpClass, false), visitor);
 
         // recursive search for parent form types
         if (depth < 10) {
-            for (String formParent : FormUtil.getFormParentOfPhpClass(phpClass)) {
-                getFormDefaultKeys(formParent, defaultValues, collector, ++depth, visitor);
+            for (String formParent : formTypeGraph.getParents(phpClass.getFQN())) {
+                getFormDefaultKeys(formParent, formTypeGraph, ++depth, visitor);
             }
         }
-
-        return defaultValues;
     }
 
     @NotNull
-    private static Map<String, FormOption> getDefaultOptions(@NotNull PhpClass phpClass, @NotNull FormClass formClass) {
+    private static Map<String, FormOption> getDefaultOptions(@NotNull FormTypeGraph formTypeGraph, @NotNull PhpClass phpClass, @NotNull FormClass formClass) {
         final Map<String, FormOption> options = new HashMap<>();
 
-        getDefaultOptions(phpClass, formClass, (psiElement, option, formClass1, optionEnum) -> {
+        visitDeclaredOptions(formTypeGraph, phpClass, formClass, (psiElement, option, formClass1, optionEnum) -> {
             // append REQUIRED, if we already know this value
             if(options.containsKey(option)) {
                 FormOption formOption = options.get(option);
@@ -276,74 +310,63 @@ public class FormOptionsUtil {
         return options;
     }
 
-    private static void getDefaultOptions(@NotNull PhpClass phpClass, @NotNull FormClass formClass, @NotNull FormOptionVisitor visitor) {
-        getDefaultOptions(phpClass, formClass, visitor, 10);
+    private static void visitDeclaredOptions(@NotNull FormTypeGraph formTypeGraph, @NotNull PhpClass phpClass, @NotNull FormClass formClass, @NotNull FormOptionVisitor visitor) {
+        formTypeGraph.visitDeclaredOptions(phpClass.getFQN(), (target, option, optionEnum) -> visitor.visit(target, option, formClass, optionEnum));
     }
 
-    private static void getDefaultOptions(@NotNull PhpClass phpClass, @NotNull FormClass formClass, @NotNull FormOptionVisitor visitor, int depth) {
-        if(depth-- < 0) {
-            return;
-        }
+    /**
+     * Own options of "setDefaultOptions" / "configureOptions" for the form type index; nothing is resolved outside
+     * the class, constants of other classes are kept as reference. Global "define()" constants are not supported.
+     *
+     * $resolver->setDefaults(['foo' => null]);
+     * $resolver->setRequired(['foo', self::BAR]);
+     * $resolver->setDefined('foo');
+     */
+    @NotNull
+    public static FormTypeDefinition.OptionMethod getOptionMethodIndexSafe(@NotNull PhpClass phpClass, @NotNull Method method) {
+        List<FormTypeDefinition.Option> options = new ArrayList<>();
+        boolean parentCall = false;
 
-        for(String methodName: FORM_OPTION_METHODS) {
-            Method method = phpClass.findMethodByName(methodName);
-            if(method == null) {
+        for(MethodReference methodReference: PsiTreeUtil.findChildrenOfType(method, MethodReference.class)) {
+            String methodName = methodReference.getName();
+            if(methodName == null) {
                 continue;
             }
 
-            Collection<MethodReference> tests = PsiTreeUtil.findChildrenOfType(method, MethodReference.class);
-            for(MethodReference methodReference: tests) {
-                if(PhpElementsUtil.isEqualMethodReferenceName(methodReference, "setDefaults")) {
-                    PsiElement[] parameters = methodReference.getParameters();
-                    if(parameters.length > 0 && parameters[0] instanceof ArrayCreationExpression) {
-                        for(Map.Entry<String, PsiElement> entry: PhpElementsUtil.getArrayCreationKeyMap((ArrayCreationExpression) parameters[0]).entrySet()) {
-                            visitor.visit(entry.getValue(), entry.getKey(), formClass, FormOptionEnum.DEFAULT);
-                        }
-                    }
-
-                } else {
-                    // ->setRequired(['test', 'test2'])
-                    // ->setRequired('test')
-                    for(String currentMethod: OPTIONS_VIA_METHOD_PARAMETER) {
-                        if(!PhpElementsUtil.isEqualMethodReferenceName(methodReference, currentMethod)) {
-                            continue;
-                        }
-
-                        PsiElement[] parameters = methodReference.getParameters();
-                        if(parameters.length == 0) {
-                            continue;
-                        }
+            PsiElement[] parameters = methodReference.getParameters();
 
-                        if(parameters[0] instanceof ArrayCreationExpression) {
-                            // ->setRequired(['test', 'test2'])
-                            for (Map.Entry<String, PsiElement> entry : PhpElementsUtil.getArrayValuesAsMap((ArrayCreationExpression) parameters[0]).entrySet()) {
-                                visitor.visit(entry.getValue(), entry.getKey(), formClass, FormOptionEnum.getEnum(currentMethod));
-                            }
-                        } else {
-                            // ->setRequired('test')
-                            String stringValue = PhpElementsUtil.getStringValue(parameters[0]);
-                            if(stringValue != null) {
-                                visitor.visit(parameters[0], stringValue, formClass, FormOptionEnum.getEnum(currentMethod));
-                            }
-                        }
+            if("setDefaults".equals(methodName)) {
+                if(parameters.length > 0 && parameters[0] instanceof ArrayCreationExpression arrayCreationExpression) {
+                    for(ArrayHashElement arrayHashElement: arrayCreationExpression.getHashElements()) {
+                        addOptionIndexSafe(phpClass, options, arrayHashElement.getKey(), FormOptionEnum.DEFAULT);
                     }
                 }
-
-                Project project = phpClass.getProject();
-
-                // support: parent::setDefaultOptions($resolver)
-                // Symfony\Component\Form\Extension\Core\Type\FormType:setDefaultOptions
-                if(PhpElementsUtil.isEqualMethodReferenceName(methodReference, methodName) && methodReference.getReferenceType() == PhpModifier.State.PARENT) {
-                    PsiElement parentMethod = PhpElementsUtil.getPsiElementsBySignatureSingle(project, methodReference.getSignature());
-                    if(parentMethod instanceof Method) {
-                        PhpClass phpClassInner = ((Method) parentMethod).getContainingClass();
-                        if(phpClassInner != null) {
-                            // @TODO only use setDefaultOptions, recursive call get setDefaults again
-                            getDefaultOptions(phpClassInner, formClass, visitor, depth);
-                        }
+            } else if(parameters.length > 0 && Arrays.asList(OPTIONS_VIA_METHOD_PARAMETER).contains(methodName)) {
+                if(parameters[0] instanceof ArrayCreationExpression arrayCreationExpression) {
+                    // ->setRequired(['test', 'test2'])
+                    for(PsiElement arrayValue: PhpPsiUtil.getChildren(arrayCreationExpression, psiElement -> psiElement.getNode().getElementType() == PhpElementTypes.ARRAY_VALUE)) {
+                        addOptionIndexSafe(phpClass, options, arrayValue.getFirstChild(), FormOptionEnum.getEnum(methodName));
                     }
+                } else {
+                    // ->setRequired('test')
+                    addOptionIndexSafe(phpClass, options, parameters[0], FormOptionEnum.getEnum(methodName));
                 }
             }
+
+            // support: parent::setDefaultOptions($resolver)
+            // Symfony\Component\Form\Extension\Core\Type\FormType:setDefaultOptions
+            if(methodName.equals(method.getName()) && methodReference.getReferenceType() == PhpModifier.State.PARENT) {
+                parentCall = true;
+            }
+        }
+
+        return new FormTypeDefinition.OptionMethod(method.getName(), parentCall, options);
+    }
+
+    private static void addOptionIndexSafe(@NotNull PhpClass phpClass, @NotNull Collection<FormTypeDefinition.Option> options, @Nullable PsiElement psiElement, @NotNull FormOptionEnum optionEnum) {
+        String option = PhpElementsUtil.getStringValueIndexSafe(phpClass, psiElement);
+        if(psiElement != null && StringUtils.isNotBlank(option)) {
+            options.add(new FormTypeDefinition.Option(option, optionEnum.name(), psiElement.getTextRange().getStartOffset()));
         }
     }
 
@@ -0,0 +1,377 @@
+package fr.adrienbrault.idea.symfony2plugin.form.util;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.util.indexing.FileBasedIndex;
+import com.jetbrains.php.lang.parser.PhpElementTypes;
+import com.jetbrains.php.lang.psi.elements.*;
+import fr.adrienbrault.idea.symfony2plugin.form.dict.FormOptionEnum;
+import fr.adrienbrault.idea.symfony2plugin.form.dict.FormTypeServiceParser;
+import fr.adrienbrault.idea.symfony2plugin.stubs.dict.FormTypeDefinition;
+import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.FormTypeStubIndex;
+import fr.adrienbrault.idea.symfony2plugin.util.PhpElementsUtil;
+import fr.adrienbrault.idea.symfony2plugin.util.PhpIndexUtil;
+import fr.adrienbrault.idea.symfony2plugin.util.service.ServiceXmlParserFactory;
+import org.apache.commons.lang3.StringUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Form types, their parents, extensions and declared options built on "FormTypeStubIndex"; see "FormOptionsUtil.getFormTypeGraph".
+ *
+ * Only raw index values are kept: constants of other classes are resolved on every lookup and option targets are
+ * found again via their file offset, so the graph itself only depends on the index and the class hierarchy.
+ *
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ */
+class FormTypeGraph {
+
+    @NotNull
+    private final Project project;
+
+    /**
+     * Extended type without leading "\" or constant reference to the extension classes
+     */
+    @NotNull
+    private final Map<String, Set<String>> extensions;
+
+    /**
+     * Form type name, e.g. "foo" or "Foo\BarType", or constant reference to the class
+     */
+    @NotNull
+    private final Map<String, String> formTypes;
+
+    private final Map<String, Optional<Node>> nodes = new ConcurrentHashMap<>();
+    private final Map<String, List<DeclaredOption>> declaredOptions = new ConcurrentHashMap<>();
+
+    FormTypeGraph(@NotNull Project project, @NotNull Collection<PhpClass> extensionClasses) {
+        this.project = project;
+
+        Map<String, Set<String>> extensions = new HashMap<>();
+        for (PhpClass phpClass : extensionClasses) {
+            for (String extendedType : getRawExtendedTypes(phpClass.getFQN())) {
+                String key = PhpElementsUtil.isConstantReference(extendedType) ? extendedType : StringUtils.stripStart(extendedType, "\\");
+                extensions.computeIfAbsent(key, s -> new HashSet<>()).add(phpClass.getFQN());
+            }
+        }
+
+        // on indexer, compiler wins...
+        Map<String, String> formTypes = new HashMap<>();
+        for (PhpClass phpClass : PhpIndexUtil.getAllSubclasses(project, FormUtil.ABSTRACT_FORM_INTERFACE)) {
+            if (!FormUtil.isValidFormPhpClass(phpClass)) {
+                continue;
+            }
+
+            Node node = getNode(phpClass.getFQN());
+            String name = node != null && node.definition() != null
+                ? node.definition().name()
+                : StringUtils.stripStart(phpClass.getFQN(), "\\");
+
+            if (name != null) {
+                formTypes.put(name, phpClass.getFQN());
+            }
+        }
+
+        // find on registered formtype aliases on compiled container
+        FormTypeServiceParser formTypeServiceParser = ServiceXmlParserFactory.getInstance(project, FormTypeServiceParser.class);
+        for (Map.Entry<String, String> entry : formTypeServiceParser.getFormTypeMap().getMap().entrySet()) {
+            formTypes.put(entry.getValue(), entry.getKey());
+        }
+
+        this.extensions = extensions;
+        this.formTypes = formTypes;
+    }
+
+    /**
+     * Form type name or class to its class; see "FormUtil.FormTypeCollector.getFormTypeToClass"
+     */
+    @Nullable
+    PhpClass getFormTypeToClass(@Nullable String formType) {
+        if (formType == null) {
+            return null;
+        }
+
+        // formtype can also be a direct class name
+        if (formType.contains("\\")) {
+            PhpClass phpClass = PhpElementsUtil.getClass(project, formType);
+            if (phpClass != null) {
+                return phpClass;
+            }
+        }
+
+        String className = formTypes.get(formType);
+        if (className == null) {
+            className = getByConstantReference(formTypes, formType);
+        }
+
+        return className != null ? PhpElementsUtil.getClass(project, className) : null;
+    }
+
+    /**
+     * Extension classes of the given type; "Foo\Bar", "\Foo\Bar" or "foo"
+     */
+    @NotNull
+    Set<String> getExtensionClasses(@NotNull String formTypeName) {
+        String key = StringUtils.stripStart(formTypeName, "\\");
+
+        Set<String> classes = new LinkedHashSet<>(extensions.getOrDefault(key, Collections.emptySet()));
+        for (Map.Entry<String, Set<String>> entry : extensions.entrySet()) {
+            if (PhpElementsUtil.isConstantReference(entry.getKey()) && key.equals(StringUtils.stripStart(PhpElementsUtil.resolveConstantReference(project, entry.getKey()), "\\"))) {
+                classes.addAll(entry.getValue());
+            }
+        }
+
+        return classes;
+    }
+
+    /**
+     * "getParent()" of the class or its parents
+     */
+    @NotNull
+    Collection<String> getParents(@NotNull String className) {
+        Hit<List<String>> hit = findInHierarchy(className, FormTypeDefinition::parents);
+        return hit != null ? resolveConstantReferences(hit.value()) : Collections.emptyList();
+    }
+
+    /**
+     * Options of "setDefaultOptions" / "configureOptions" including "parent::configureOptions()"
+     */
+    void visitDeclaredOptions(@NotNull String className, @NotNull OptionVisitor visitor) {
+        PsiManager psiManager = PsiManager.getInstance(project);
+
+        for (DeclaredOption declaredOption : getDeclaredOptions(className)) {
+            String option = PhpElementsUtil.resolveConstantReference(project, declaredOption.option());
+            if (StringUtils.isBlank(option)) {
+                continue;
+            }
+
+            PsiElement target = findTarget(psiManager, declaredOption.file(), declaredOption.offset());
+            if (target != null) {
+                visitor.visit(target, option, declaredOption.optionEnum());
+            }
+        }
+    }
+
+    @NotNull
+    private List<DeclaredOption> getDeclaredOptions(@NotNull String className) {
+        String fqn = normalize(className);
+
+        List<DeclaredOption> options = declaredOptions.get(fqn);
+        if (options == null) {
+            options = new ArrayList<>();
+            collectDeclaredOptions(fqn, options, 10);
+            declaredOptions.putIfAbsent(fqn, options);
+        }
+
+        return options;
+    }
+
+    private void collectDeclaredOptions(@NotNull String className, @NotNull Collection<DeclaredOption> options, int depth) {
+        if (depth-- < 0) {
+            return;
+        }
+
+        for (String methodName : FormOptionsUtil.FORM_OPTION_METHODS) {
+            Hit<FormTypeDefinition.OptionMethod> hit = findInHierarchy(className, definition -> definition.optionMethods().stream()
+                .filter(method -> methodName.equals(method.name()))
+                .findFirst()
+                .orElse(null)
+            );
+
+            if (hit == null) {
+                continue;
+            }
+
+            for (FormTypeDefinition.Option option : hit.value().options()) {
+                options.add(new DeclaredOption(option.name(), FormOptionEnum.valueOf(option.optionEnum()), hit.file(), option.offset()));
+            }
+
+            // support: parent::setDefaultOptions($resolver)
+            if (hit.value().parentCall()) {
+                Node host = getNode(hit.host());
+                if (host != null && host.superClass() != null) {
+                    collectDeclaredOptions(host.superClass(), options, depth);
+                }
+            }
+        }
+    }
+
+    /**
+     * Raw "getExtendedType" / "getExtendedTypes" values of the class or its parents
+     */
+    @NotNull
+    private Collection<String> getRawExtendedTypes(@NotNull String className) {
+        Collection<String> types = new LinkedHashSet<>();
+
+        Hit<List<String>> extendedType = findInHierarchy(className, FormTypeDefinition::extendedType);
+        if (extendedType != null) {
+            types.addAll(extendedType.value());
+        }
+
+        Hit<List<String>> extendedTypes = findInHierarchy(className, FormTypeDefinition::extendedTypes);
+        if (extendedTypes != null) {
+            types.addAll(extendedTypes.value());
+        }
+
+        return types;
+    }
+
+    /**
+     * First value in the order PHP resolves methods: the class itself, its traits, then its parent class
+     */
+    @Nullable
+    private <T> Hit<T> findInHierarchy(@NotNull String className, @NotNull Function<FormTypeDefinition, T> value) {
+        String fqn = normalize(className);
+        return findInHierarchy(fqn, value, fqn, new HashSet<>());
+    }
+
+    @Nullable
+    private <T> Hit<T> findInHierarchy(@NotNull String className, @NotNull Function<FormTypeDefinition, T> value, @NotNull String host, @NotNull Set<String> visited) {
+        if (!visited.add(className)) {
+            return null;
+        }
+
+        Node node = getNode(className);
+        if (node == null) {
+            return null;
+        }
+
+        if (node.definition() != null && node.file() != null) {
+            T t = value.apply(node.definition());
+            if (t != null) {
+                return new Hit<>(t, node.file(), host);
+            }
+        }
+
+        for (String trait : node.traits()) {
+            Hit<T> hit = findInHierarchy(trait, value, host, visited);
+            if (hit != null) {
+                return hit;
+            }
+        }
+
+        return node.superClass() != null
+            ? findInHierarchy(node.superClass(), value, node.superClass(), visited)
+            : null;
+    }
+
+    /**
+     * Index value of the class; classes without own form methods are not indexed, so their hierarchy is taken from the PhpIndex
+     */
+    @Nullable
+    private Node getNode(@NotNull String className) {
+        String fqn = normalize(className);
+
+        Optional<Node> node = nodes.get(fqn);
+        if (node == null) {
+            node = Optional.ofNullable(createNode(fqn));
+            nodes.putIfAbsent(fqn, node);
+        }
+
+        return node.orElse(null);
+    }
+
+    @Nullable
+    private Node createNode(@NotNull String fqn) {
+        Node[] node = new Node[1];
+
+        FileBasedIndex.getInstance().processValues(FormTypeStubIndex.KEY, fqn, null, (virtualFile, definition) -> {
+            node[0] = new Node(definition.superClass(), definition.traits(), definition, virtualFile);
+            return false;
+        }, GlobalSearchScope.allScope(project));
+
+        if (node[0] != null) {
+            return node[0];
+        }
+
+        PhpClass phpClass = PhpElementsUtil.getClassInterface(project, fqn);
+        if (phpClass == null) {
+            return null;
+        }
+
+        return new Node(phpClass.getSuperFQN(), Arrays.asList(phpClass.getTraitNames()), null, null);
+    }
+
+    @NotNull
+    private Collection<String> resolveConstantReferences(@NotNull Collection<String> values) {
+        Collection<String> resolved = new LinkedHashSet<>();
+
+        for (String value : values) {
+            String resolvedValue = PhpElementsUtil.resolveConstantReference(project, value);
+            if (StringUtils.isNotBlank(resolvedValue)) {
+                resolved.add(resolvedValue);
+            }
+        }
+
+        return resolved;
+    }
+
+    @Nullable
+    private <T> T getByConstantReference(@NotNull Map<String, T> map, @NotNull String value) {
+        for (Map.Entry<String, T> entry : map.entrySet()) {
+            if (PhpElementsUtil.isConstantReference(entry.getKey()) && value.equals(PhpElementsUtil.resolveConstantReference(project, entry.getKey()))) {
+                return entry.getValue();
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Option key or value starting at the offset, e.g. "'foo'" or "Foo::BAR" but not the surrounding array key
+     */
+    @Nullable
+    private static PsiElement findTarget(@NotNull PsiManager psiManager, @NotNull VirtualFile virtualFile, int offset) {
+        PsiFile psiFile = virtualFile.isValid() ? psiManager.findFile(virtualFile) : null;
+        if (psiFile == null) {
+            return null;
+        }
+
+        PsiElement psiElement = psiFile.findElementAt(offset);
+        if (psiElement == null || psiElement.getTextRange().getStartOffset() != offset) {
+            return null;
+        }
+
+        PsiElement parent = psiElement.getParent();
+        while (parent != null
+            && parent.getTextRange().getStartOffset() == offset
+            && !(parent instanceof ArrayHashElement || parent instanceof ParameterList)
+            && parent.getNode().getElementType() != PhpElementTypes.ARRAY_KEY
+            && parent.getNode().getElementType() != PhpElementTypes.ARRAY_VALUE
+        ) {
+            psiElement = parent;
+            parent = psiElement.getParent();
+        }
+
+        return psiElement;
+    }
+
+    @NotNull
+    private static String normalize(@NotNull String className) {
+        return "\\" + StringUtils.stripStart(className, "\\");
+    }
+
+    interface OptionVisitor {
+        void visit(@NotNull PsiElement target, @NotNull String option, @NotNull FormOptionEnum optionEnum);
+    }
+
+    /**
+     * @param host class which parent is meant by "parent::"; the class itself if the value comes from one of its traits
+     */
+    private record Hit<T>(@NotNull T value, @NotNull VirtualFile file, @NotNull String host) {
+    }
+
+    private record Node(@Nullable String superClass, @NotNull List<String> traits, @Nullable FormTypeDefinition definition, @Nullable VirtualFile file) {
+    }
+
+    private record DeclaredOption(@NotNull String option, @NotNull FormOptionEnum optionEnum, @NotNull VirtualFile file, int offset) {
+    }
+}
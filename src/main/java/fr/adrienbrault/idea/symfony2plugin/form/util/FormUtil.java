@@ -12,6 +12,7 @@ import com.intellij.psi.util.*;
 import com.intellij.psi.xml.XmlAttribute;
 import com.intellij.psi.xml.XmlFile;
 import com.intellij.psi.xml.XmlTag;
+import com.intellij.util.containers.ContainerUtil;
 import com.jetbrains.php.PhpIndex;
 import com.jetbrains.php.codeInsight.controlFlow.PhpControlFlowUtil;
 import com.jetbrains.php.codeInsight.controlFlow.PhpInstructionProcessor;
@@ -708,54 +709,170 @@ public class FormUtil {
         // https://symfony.com/blog/new-in-symfony-4-2-improved-form-type-extensions
         Method extendedTypes = phpClass.findMethodByName("getExtendedTypes");
         if (extendedTypes != null) {
-            Collection<ArrayCreationExpression> phpReturnsArray = new ArrayList<>();
-            Collection<PsiElement> yieldArguments = new ArrayList<>();
+            for (PsiElement argument : getExtendedTypesArguments(extendedTypes)) {
+                String stringValue = PhpElementsUtil.getStringValue(argument);
+                if (stringValue != null) {
+                    types.add(stringValue);
+                }
+            }
+        }
 
-            PhpControlFlowUtil.processFlow(extendedTypes.getControlFlow(), new PhpInstructionProcessor() {
-                @Override
-                public boolean processYieldInstruction(PhpYieldInstruction instruction) {
-                    PsiElement argument = instruction.getArgument();
-                    if (argument != null) {
-                        yieldArguments.add(argument);
-                    }
+        return types;
+    }
 
-                    return super.processYieldInstruction(instruction);
+    /**
+     * "[Foo::class, FooBar::class]" and "yield Foo::class" of "getExtendedTypes()"
+     */
+    @NotNull
+    private static Collection<PsiElement> getExtendedTypesArguments(@NotNull Method extendedTypes) {
+        Collection<ArrayCreationExpression> phpReturnsArray = new ArrayList<>();
+        Collection<PsiElement> arguments = new ArrayList<>();
+
+        PhpControlFlowUtil.processFlow(extendedTypes.getControlFlow(), new PhpInstructionProcessor() {
+            @Override
+            public boolean processYieldInstruction(PhpYieldInstruction instruction) {
+                PsiElement argument = instruction.getArgument();
+                if (argument != null) {
+                    arguments.add(argument);
                 }
 
-                @Override
-                public boolean processReturnInstruction(PhpReturnInstruction instruction) {
-                    if (instruction.getArgument() instanceof ArrayCreationExpression arrayCreationExpression) {
-                        phpReturnsArray.add(arrayCreationExpression);
-                    }
+                return super.processYieldInstruction(instruction);
+            }
 
-                    return super.processReturnInstruction(instruction);
+            @Override
+            public boolean processReturnInstruction(PhpReturnInstruction instruction) {
+                if (instruction.getArgument() instanceof ArrayCreationExpression arrayCreationExpression) {
+                    phpReturnsArray.add(arrayCreationExpression);
                 }
-            });
-
-            // [Foo::class, FooBar::class]
-            for (ArrayCreationExpression phpReturnArray : phpReturnsArray) {
-                Collection<PsiElement> arrayValues = PhpPsiUtil.getChildren(phpReturnArray, psiElement ->
-                    psiElement.getNode().getElementType() == PhpElementTypes.ARRAY_VALUE
-                );
-
-                for (PsiElement child : arrayValues) {
-                    String stringValue = PhpElementsUtil.getStringValue(child.getFirstChild());
-                    if (stringValue != null) {
-                        types.add(stringValue);
-                    }
+
+                return super.processReturnInstruction(instruction);
+            }
+        });
+
+        // [Foo::class, FooBar::class]
+        for (ArrayCreationExpression phpReturnArray : phpReturnsArray) {
+            Collection<PsiElement> arrayValues = PhpPsiUtil.getChildren(phpReturnArray, psiElement ->
+                psiElement.getNode().getElementType() == PhpElementTypes.ARRAY_VALUE
+            );
+
+            for (PsiElement child : arrayValues) {
+                ContainerUtil.addIfNotNull(arguments, child.getFirstChild());
+            }
+        }
+
+        return arguments;
+    }
+
+    /**
+     * "getParent()" of the class itself, shared with the form type index: nothing is resolved outside the class,
+     * constants of other classes are kept as reference; see "PhpElementsUtil.resolveConstantReference"
+     */
+    @NotNull
+    public static List<String> getFormParentIndexSafe(@NotNull PhpClass phpClass, @NotNull Method getParent) {
+        Set<String> parents = new LinkedHashSet<>();
+
+        for (PsiElement phpReturnArgument : PhpElementsUtil.collectPhpReturnArgumentsInsideControlFlow(getParent)) {
+            if (phpReturnArgument instanceof TernaryExpression ternaryExpression) {
+                // true ? 'foobar' : Foo::class
+                addStringValuesIndexSafe(phpClass, parents, ternaryExpression.getFalseVariant(), ternaryExpression.getTrueVariant());
+            } else if (phpReturnArgument instanceof BinaryExpression binaryExpression && PsiElementAssertUtil.isNotNullAndIsElementType(phpReturnArgument, PhpElementTypes.CONCATENATION_EXPRESSION)) {
+                // Symfony core: __NAMESPACE__.'\Foo'
+                if (binaryExpression.getLeftOperand() instanceof ConstantReference constantReference
+                    && "__NAMESPACE__".equals(constantReference.getName())
+                    && binaryExpression.getRightOperand() instanceof StringLiteralExpression stringValue
+                    && StringUtils.isNotBlank(stringValue.getContents())) {
+                    parents.add(StringUtils.strip(phpClass.getNamespaceName(), "\\") + stringValue.getContents());
                 }
             }
 
-            // yield Foo::class
-            for (PsiElement yieldArgument : yieldArguments) {
-                String stringValue = PhpElementsUtil.getStringValue(yieldArgument);
-                if (stringValue != null) {
-                    types.add(stringValue);
+            addStringValuesIndexSafe(phpClass, parents, phpReturnArgument);
+        }
+
+        return new ArrayList<>(parents);
+    }
+
+    /**
+     * "getExtendedType()" or "getExtendedTypes()" of the class itself, shared with the form type index; see "getFormParentIndexSafe"
+     */
+    @NotNull
+    public static List<String> getFormExtendedTypeIndexSafe(@NotNull PhpClass phpClass, @NotNull Method method) {
+        Set<String> types = new LinkedHashSet<>();
+
+        if ("getExtendedTypes".equals(method.getName())) {
+            for (PsiElement argument : getExtendedTypesArguments(method)) {
+                addStringValuesIndexSafe(phpClass, types, argument);
+            }
+
+            return new ArrayList<>(types);
+        }
+
+        for (PsiElement phpReturnsArgument : PhpElementsUtil.collectPhpReturnArgumentsInsideControlFlow(method)) {
+            if (phpReturnsArgument instanceof TernaryExpression ternaryExpression) {
+                addStringValuesIndexSafe(phpClass, types, ternaryExpression.getFalseVariant(), ternaryExpression.getTrueVariant());
+            }
+
+            addStringValuesIndexSafe(phpClass, types, phpReturnsArgument);
+        }
+
+        return new ArrayList<>(types);
+    }
+
+    /**
+     * Symfony < 3 form alias of "getName()", shared with the form type index; the class name without leading "\"
+     * if the class has no own "getName()"; see "getFormNameOfPhpClass"
+     */
+    @Nullable
+    public static String getFormNameIndexSafe(@NotNull PhpClass phpClass) {
+        Method method = phpClass.findOwnMethodByName("getName");
+        if (method == null) {
+            return StringUtils.stripStart(phpClass.getFQN(), "\\");
+        }
+
+        for (PsiElement firstPsiChild : PhpElementsUtil.collectPhpReturnArgumentsInsideControlFlow(method)) {
+            // $this->getBlockPrefix()
+            if (firstPsiChild instanceof MethodReference methodReference) {
+                PhpExpression classReference = methodReference.getClassReference();
+                if (classReference != null && "this".equals(classReference.getName()) && "getBlockPrefix".equals(methodReference.getName())) {
+                    Method getBlockPrefix = phpClass.findOwnMethodByName("getBlockPrefix");
+                    if (getBlockPrefix == null) {
+                        // FooBarType -> foo_bar
+                        String className = phpClass.getName();
+                        if (className.toLowerCase().endsWith("type") && className.length() > 4) {
+                            className = className.substring(0, className.length() - 4);
+                        }
+
+                        return underscore(className);
+                    }
+
+                    for (PsiElement argument : PhpElementsUtil.collectPhpReturnArgumentsInsideControlFlow(getBlockPrefix)) {
+                        String value = PhpElementsUtil.getStringValueIndexSafe(phpClass, argument);
+                        if (value != null) {
+                            return value;
+                        }
+                    }
+
+                    return null;
                 }
+
+                continue;
+            }
+
+            String stringValue = PhpElementsUtil.getStringValueIndexSafe(phpClass, firstPsiChild);
+            if (stringValue != null) {
+                return stringValue;
             }
         }
 
-        return types;
+        return null;
+    }
+
+    private static void addStringValuesIndexSafe(@NotNull PhpClass phpClass, @NotNull Collection<String> values, @Nullable PsiElement... psiElements) {
+        for (PsiElement psiElement : psiElements) {
+            String value = PhpElementsUtil.getStringValueIndexSafe(phpClass, psiElement);
+            if (StringUtils.isNotBlank(value)) {
+                values.add(value);
+            }
+        }
     }
 
     /**
@@ -1,6 +1,8 @@
 package fr.adrienbrault.idea.symfony2plugin.profiler;
 
 import com.intellij.openapi.project.Project;
+import com.intellij.util.CommonProcessors;
+import com.intellij.util.Processor;
 import fr.adrienbrault.idea.symfony2plugin.profiler.dict.ProfilerRequestInterface;
 import fr.adrienbrault.idea.symfony2plugin.profiler.utils.ProfilerUtil;
 import org.apache.commons.lang3.StringUtils;
@@ -8,7 +10,6 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 
 /**
@@ -34,13 +35,20 @@ public class HttpProfilerIndex implements ProfilerIndexInterface {
     @NotNull
     @Override
     public List<ProfilerRequestInterface> getRequests() {
+        CommonProcessors.CollectProcessor<ProfilerRequestInterface> processor = new CommonProcessors.CollectProcessor<>();
+        processRequests(processor);
+        return new ArrayList<>(processor.getResults());
+    }
+
+    @Override
+    public boolean processRequests(@NotNull Processor<ProfilerRequestInterface> processor) {
         String content = ProfilerUtil.getProfilerUrlContent(String.format("%s/%s/empty/search/results?ip=&limit=25", this.url, PROFILER_PATH));
         if(content == null) {
-            return Collections.emptyList();
+            return true;
         }
 
-        return new ArrayList<>(ProfilerUtil.collectHttpDataForRequest(
-            project, ProfilerUtil.createRequestsFromIndexHtml(this.project, content, this.url))
+        return ProfilerUtil.processHttpDataForRequest(
+            project, ProfilerUtil.createRequestsFromIndexHtml(this.project, content, this.url), processor
         );
     }
 
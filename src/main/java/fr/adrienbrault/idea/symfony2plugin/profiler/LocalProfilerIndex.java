@@ -1,12 +1,16 @@
 package fr.adrienbrault.idea.symfony2plugin.profiler;
 
-import com.intellij.util.containers.ContainerUtil;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.intellij.openapi.project.Project;
+import com.intellij.util.CommonProcessors;
+import com.intellij.util.Processor;
 import fr.adrienbrault.idea.symfony2plugin.profiler.collector.LocalDefaultDataCollector;
 import fr.adrienbrault.idea.symfony2plugin.profiler.collector.LocalMailCollector;
 import fr.adrienbrault.idea.symfony2plugin.profiler.collector.LocalTwigComponentDataCollector;
 import fr.adrienbrault.idea.symfony2plugin.profiler.dict.LocalProfilerRequest;
 import fr.adrienbrault.idea.symfony2plugin.profiler.dict.ProfilerRequestInterface;
-import fr.adrienbrault.idea.symfony2plugin.profiler.reader.ReverseFileLineReader;
+import fr.adrienbrault.idea.symfony2plugin.profiler.reader.ProfilerIndexTailReader;
 import fr.adrienbrault.idea.symfony2plugin.profiler.utils.ProfilerUtil;
 import org.apache.commons.lang3.StringUtils;
 import org.jetbrains.annotations.NotNull;
@@ -18,6 +22,7 @@ import java.io.InputStream;
 import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.regex.Pattern;
@@ -28,6 +33,17 @@ import java.util.regex.Pattern;
 public class LocalProfilerIndex implements ProfilerIndexInterface {
     private static final Pattern PROFILER_HASH_PATTERN = Pattern.compile("^[a-fA-F0-9]{6,64}$");
     private static final int MAX_RAW_PROFILE_BYTES = 5 * 1024 * 1024;
+    private static final int MAX_REQUESTS = 10;
+
+    /**
+     * Decorated requests by index line; each refresh only needs to parse profiles of new lines
+     */
+    private static final Cache<String, ProfilerRequestInterface> REQUEST_CACHE = CacheBuilder.newBuilder()
+        .maximumSize(100)
+        .build();
+
+    @Nullable
+    private final Project project;
 
     @NotNull
     private final File file;
@@ -36,40 +52,62 @@ public class LocalProfilerIndex implements ProfilerIndexInterface {
     private String baseUrl;
 
     public LocalProfilerIndex(@NotNull File file) {
-        this.file = file;
+        this(null, file, null);
     }
 
     public LocalProfilerIndex(@NotNull File file, @Nullable String baseUrl) {
+        this(null, file, baseUrl);
+    }
+
+    /**
+     * @param project provides the shared executor for loading requests
+     */
+    public LocalProfilerIndex(@Nullable Project project, @NotNull File file, @Nullable String baseUrl) {
+        this.project = project;
         this.file = file;
         this.baseUrl = baseUrl;
     }
 
     @NotNull
     public List<ProfilerRequestInterface> getRequests() {
-        List<String> lines = new ArrayList<>();
+        CommonProcessors.CollectProcessor<ProfilerRequestInterface> processor = new CommonProcessors.CollectProcessor<>();
+        processRequests(processor);
+        return new ArrayList<>(processor.getResults());
+    }
 
+    @Override
+    public boolean processRequests(@NotNull Processor<ProfilerRequestInterface> processor) {
+        List<String> lines;
         try {
-            // empty line and end of line need +1
-            ContainerUtil.addAll(lines, new ReverseFileLineReader(this.file, "UTF-8", 11).readLines());
+            lines = ProfilerIndexTailReader.getInstance(this.file, MAX_REQUESTS).readLines();
         } catch (IOException ignored) {
+            lines = Collections.emptyList();
         }
 
         Collection<Callable<ProfilerRequestInterface>> callable = new ArrayList<>();
 
         // build thread callable collection
-        lines.stream().filter(StringUtils::isNotBlank).forEachOrdered(line -> {
+        for (String line : lines) {
+            String cacheKey = this.file.getPath() + "\n" + line;
+
+            // profile of a line does not change anymore, once it was written
+            ProfilerRequestInterface cached = REQUEST_CACHE.getIfPresent(cacheKey);
+            if (cached != null) {
+                callable.add(() -> cached);
+                continue;
+            }
 
             // we need at least this information for a valid line:
             // "18e6b8,127.0.0.1,GET,http://127.0.0.1:8000/foobar"
             String[] split = line.split(",");
             if (split.length <= 4) {
-                return;
+                continue;
             }
 
-            callable.add(new MyProfilerRequestBuilderCallable(split));
-        });
+            callable.add(new MyProfilerRequestBuilderCallable(split, cacheKey));
+        }
 
-        return ProfilerUtil.getProfilerRequestCollectorDecorated(callable, 15);
+        return ProfilerUtil.processProfilerRequestCollectorDecorated(project, callable, processor);
     }
 
     @Nullable
@@ -144,9 +182,11 @@ public class LocalProfilerIndex implements ProfilerIndexInterface {
 
     private class MyProfilerRequestBuilderCallable implements Callable<ProfilerRequestInterface> {
         private final String[] split;
+        private final String cacheKey;
 
-        MyProfilerRequestBuilderCallable(String[] split) {
+        MyProfilerRequestBuilderCallable(String[] split, String cacheKey) {
             this.split = split;
+            this.cacheKey = cacheKey;
         }
 
         @Override
@@ -156,12 +196,16 @@ public class LocalProfilerIndex implements ProfilerIndexInterface {
                 return new LocalProfilerRequest(split);
             }
 
-            return new LocalProfilerRequest(
+            ProfilerRequestInterface request = new LocalProfilerRequest(
                 split,
                 new LocalDefaultDataCollector(content),
                 new LocalMailCollector(content),
                 new LocalTwigComponentDataCollector(content)
             );
+
+            REQUEST_CACHE.put(cacheKey, request);
+
+            return request;
         }
     }
 }
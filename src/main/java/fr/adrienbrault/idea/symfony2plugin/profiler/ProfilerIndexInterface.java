@@ -1,5 +1,7 @@
 package fr.adrienbrault.idea.symfony2plugin.profiler;
 
+import com.intellij.util.Processor;
+import com.intellij.util.containers.ContainerUtil;
 import fr.adrienbrault.idea.symfony2plugin.profiler.dict.ProfilerRequestInterface;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -13,6 +15,13 @@ public interface ProfilerIndexInterface {
     @NotNull
     List<ProfilerRequestInterface> getRequests();
 
+    /**
+     * Streams requests as soon as they are loaded; returning "false" stops loading all pending requests
+     */
+    default boolean processRequests(@NotNull Processor<ProfilerRequestInterface> processor) {
+        return ContainerUtil.process(getRequests(), processor);
+    }
+
     @Nullable
     String getUrlForRequest(@NotNull ProfilerRequestInterface request);
 
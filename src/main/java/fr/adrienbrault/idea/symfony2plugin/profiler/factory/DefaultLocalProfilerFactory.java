@@ -20,7 +20,7 @@ class DefaultLocalProfilerFactory extends LocalProfilerFactory {
             return null;
         }
 
-        return new LocalProfilerIndex(csvProfilerFile, null);
+        return new LocalProfilerIndex(project, csvProfilerFile, null);
     }
 
     @Override
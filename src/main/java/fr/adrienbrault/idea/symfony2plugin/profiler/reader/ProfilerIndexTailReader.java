@@ -0,0 +1,207 @@
+package fr.adrienbrault.idea.symfony2plugin.profiler.reader;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Tail reader for the append only profiler "index.csv"
+ *
+ * The offset of the last read line is remembered, so a following read only visits the bytes appended in between.
+ * Content is read backwards in chunks, so even a huge file or append only costs the requested last lines. Chunks are
+ * positional reads into one heap buffer; a memory mapping would lock the file on Windows, where Symfony appends to it.
+ *
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ */
+public class ProfilerIndexTailReader {
+    private static final int BUFFER_SIZE = 8192;
+
+    private static final Cache<String, ProfilerIndexTailReader> READERS = CacheBuilder.newBuilder()
+        .maximumSize(10)
+        .build();
+
+    @NotNull
+    private final File file;
+
+    private final int limit;
+
+    /**
+     * Position directly after the last complete line already read
+     */
+    private long offset = 0;
+
+    /**
+     * Detects a replaced file, e.g. a cleared cache directory
+     */
+    private Object fileKey;
+
+    /**
+     * Latest lines; newest first
+     */
+    @NotNull
+    private List<String> lines = new ArrayList<>();
+
+    /**
+     * Chunk buffer; reads are synchronized
+     */
+    @NotNull
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+    public ProfilerIndexTailReader(@NotNull File file, int limit) {
+        this.file = file;
+        this.limit = limit;
+    }
+
+    /**
+     * Shared reader for the given file, so that the read offset survives multiple index instances
+     */
+    @NotNull
+    public static ProfilerIndexTailReader getInstance(@NotNull File file, int limit) {
+        try {
+            return READERS.get(file.getAbsolutePath() + ":" + limit, () -> new ProfilerIndexTailReader(file, limit));
+        } catch (ExecutionException e) {
+            return new ProfilerIndexTailReader(file, limit);
+        }
+    }
+
+    /**
+     * Last non empty lines of the file; newest first
+     */
+    @NotNull
+    public synchronized List<String> readLines() throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+
+            Object currentFileKey = Files.readAttributes(file.toPath(), BasicFileAttributes.class).fileKey();
+            if (size < offset || !Objects.equals(currentFileKey, fileKey)) {
+                offset = 0;
+                lines = new ArrayList<>();
+                fileKey = currentFileKey;
+            }
+
+            // a line which is still being written is read on the next call
+            long end = findLastLineEnd(channel, offset, size);
+            if (end <= offset) {
+                return new ArrayList<>(lines);
+            }
+
+            List<String> newLines = readLinesBackwards(channel, offset, end);
+            for (String line : lines) {
+                if (newLines.size() >= limit) {
+                    break;
+                }
+                newLines.add(line);
+            }
+
+            lines = newLines;
+            offset = end;
+        }
+
+        return new ArrayList<>(lines);
+    }
+
+    /**
+     * Position after the last line break inside [start, end); "start" if there is none
+     */
+    private long findLastLineEnd(@NotNull FileChannel channel, long start, long end) throws IOException {
+        long chunkEnd = end;
+
+        while (chunkEnd > start) {
+            long chunkStart = Math.max(start, chunkEnd - BUFFER_SIZE);
+            int length = readChunk(channel, chunkStart, chunkEnd);
+
+            for (int i = length - 1; i >= 0; i--) {
+                if (buffer.get(i) == '\n') {
+                    return chunkStart + i + 1;
+                }
+            }
+
+            chunkEnd = chunkStart;
+        }
+
+        return start;
+    }
+
+    /**
+     * Complete lines inside [start, end), newest first, until the limit is reached
+     */
+    @NotNull
+    private List<String> readLinesBackwards(@NotNull FileChannel channel, long start, long end) throws IOException {
+        List<String> result = new ArrayList<>();
+        ByteArrayOutputStream reversedLine = new ByteArrayOutputStream();
+
+        // skip line break of the last line
+        long chunkEnd = end - 1;
+
+        while (chunkEnd > start) {
+            long chunkStart = Math.max(start, chunkEnd - BUFFER_SIZE);
+            int length = readChunk(channel, chunkStart, chunkEnd);
+
+            for (int i = length - 1; i >= 0; i--) {
+                byte c = buffer.get(i);
+                if (c != '\n') {
+                    reversedLine.write(c);
+                    continue;
+                }
+
+                addLine(result, reversedLine);
+                if (result.size() >= limit) {
+                    return result;
+                }
+            }
+
+            chunkEnd = chunkStart;
+        }
+
+        // first line inside the range
+        addLine(result, reversedLine);
+
+        return result;
+    }
+
+    /**
+     * Fills the buffer with [start, end), at most one chunk; fewer bytes only if the file was truncated in between
+     */
+    private int readChunk(@NotNull FileChannel channel, long start, long end) throws IOException {
+        buffer.clear();
+        buffer.limit((int) (end - start));
+
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, start + buffer.position()) < 0) {
+                break;
+            }
+        }
+
+        return buffer.position();
+    }
+
+    private static void addLine(@NotNull List<String> result, @NotNull ByteArrayOutputStream reversedLine) {
+        byte[] bytes = reversedLine.toByteArray();
+        reversedLine.reset();
+
+        for (int i = 0; i < bytes.length / 2; i++) {
+            byte t = bytes[i];
+            bytes[i] = bytes[bytes.length - i - 1];
+            bytes[bytes.length - i - 1] = t;
+        }
+
+        String line = new String(bytes, StandardCharsets.UTF_8).strip();
+        if (!line.isEmpty()) {
+            result.add(line);
+        }
+    }
+}
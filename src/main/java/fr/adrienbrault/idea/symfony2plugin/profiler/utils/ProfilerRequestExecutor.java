@@ -0,0 +1,38 @@
+package fr.adrienbrault.idea.symfony2plugin.profiler.utils;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.project.Project;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Shared executor for loading profiler request data; bounded and backed by the application pool,
+ * so that opening the profiler popup does not create new threads
+ *
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ */
+@Service(Service.Level.PROJECT)
+public final class ProfilerRequestExecutor implements Disposable {
+    private static final int MAX_THREADS = 4;
+
+    @NotNull
+    private final ExecutorService executor = AppExecutorUtil.createBoundedApplicationPoolExecutor("Symfony Profiler Request Loader", MAX_THREADS);
+
+    @NotNull
+    public static ProfilerRequestExecutor getInstance(@NotNull Project project) {
+        return project.getService(ProfilerRequestExecutor.class);
+    }
+
+    @NotNull
+    public ExecutorService getExecutor() {
+        return executor;
+    }
+
+    @Override
+    public void dispose() {
+        executor.shutdownNow();
+    }
+}
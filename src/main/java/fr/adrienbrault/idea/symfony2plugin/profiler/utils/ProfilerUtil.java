@@ -4,6 +4,8 @@ import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.intellij.lang.html.HTMLLanguage;
 import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressManager;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.Pair;
 import com.intellij.psi.PsiFileFactory;
@@ -11,6 +13,7 @@ import com.intellij.psi.impl.source.html.HtmlFileImpl;
 import com.intellij.psi.util.PsiTreeUtil;
 import com.intellij.psi.xml.XmlTag;
 import com.intellij.psi.xml.XmlTagValue;
+import com.intellij.util.Processor;
 import fr.adrienbrault.idea.symfony2plugin.profiler.collector.HttpDefaultDataCollector;
 import fr.adrienbrault.idea.symfony2plugin.profiler.dict.HttpProfilerRequest;
 import fr.adrienbrault.idea.symfony2plugin.profiler.dict.ProfilerRequestInterface;
@@ -165,13 +168,15 @@ public class ProfilerUtil {
         return StringUtils.stripEnd(baseUrl, "/") + href.substring(href.indexOf("/_profiler/"));
     }
 
-    @NotNull
-    public static Collection<ProfilerRequestInterface> collectHttpDataForRequest(@NotNull Project project, @NotNull Collection<ProfilerRequestInterface> requests) {
+    /**
+     * @see #processProfilerRequestCollectorDecorated
+     */
+    public static boolean processHttpDataForRequest(@NotNull Project project, @NotNull Collection<ProfilerRequestInterface> requests, @NotNull Processor<ProfilerRequestInterface> processor) {
         Collection<Callable<ProfilerRequestInterface>> callable = requests.stream().map(
             request -> new MyProfilerRequestDecoratedCollectorCallable(project, request)).collect(Collectors.toCollection(ArrayList::new)
         );
 
-        return getProfilerRequestCollectorDecorated(callable, 10);
+        return processProfilerRequestCollectorDecorated(project, callable, processor);
     }
 
     /**
@@ -448,31 +453,76 @@ public class ProfilerUtil {
     }
 
     /**
-     * Decorated request model with loaded collector data
-     * loads data on multiple thread to be as fast as possible
+     * Loads collector data on the shared project executor; requests are streamed in index order as soon as they are loaded.
+     * Returning "false" inside the processor stops and cancels all pending requests.
+     *
+     * @param project without a project requests are loaded inside the current thread
+     * @return "false" if processing was stopped by the processor
      */
-    @NotNull
-    public static List<ProfilerRequestInterface> getProfilerRequestCollectorDecorated(@NotNull Collection<Callable<ProfilerRequestInterface>> callable, int threads) {
-        ExecutorService executor = Executors.newFixedThreadPool(threads);
+    public static boolean processProfilerRequestCollectorDecorated(@Nullable Project project, @NotNull Collection<Callable<ProfilerRequestInterface>> callable, @NotNull Processor<ProfilerRequestInterface> processor) {
+        if (project == null || project.isDisposed()) {
+            for (Callable<ProfilerRequestInterface> requestCallable : callable) {
+                ProgressManager.checkCanceled();
 
-        List<Future<ProfilerRequestInterface>> futures;
-        try {
-            futures = executor.invokeAll(callable);
-        } catch (InterruptedException e) {
-            return Collections.emptyList();
+                ProfilerRequestInterface request;
+                try {
+                    request = requestCallable.call();
+                } catch (ProcessCanceledException e) {
+                    throw e;
+                } catch (Exception ignored) {
+                    continue;
+                }
+
+                if (request != null && !processor.process(request)) {
+                    return false;
+                }
+            }
+
+            return true;
         }
 
-        List<ProfilerRequestInterface> requests = new ArrayList<>();
-        for (Future<ProfilerRequestInterface> future : futures) {
-            try {
-                requests.add(future.get());
-            } catch (ExecutionException | InterruptedException ignored) {
+        ExecutorService executor = ProfilerRequestExecutor.getInstance(project).getExecutor();
+
+        List<Future<ProfilerRequestInterface>> futures = new ArrayList<>();
+        try {
+            for (Callable<ProfilerRequestInterface> requestCallable : callable) {
+                futures.add(executor.submit(requestCallable));
+            }
+
+            for (Future<ProfilerRequestInterface> future : futures) {
+                ProfilerRequestInterface request = waitForRequest(future);
+                if (request != null && !processor.process(request)) {
+                    return false;
+                }
+            }
+        } catch (RejectedExecutionException e) {
+            // project closed while loading
+            return true;
+        } finally {
+            // caller canceled or is not interested anymore; finished futures are not affected
+            for (Future<ProfilerRequestInterface> future : futures) {
+                future.cancel(true);
             }
         }
 
-        executor.shutdown();
+        return true;
+    }
 
-        return requests;
+    @Nullable
+    private static ProfilerRequestInterface waitForRequest(@NotNull Future<ProfilerRequestInterface> future) {
+        while (true) {
+            ProgressManager.checkCanceled();
+
+            try {
+                return future.get(10, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException ignored) {
+            } catch (ExecutionException | CancellationException e) {
+                return null;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ProcessCanceledException(e);
+            }
+        }
     }
 
     /**
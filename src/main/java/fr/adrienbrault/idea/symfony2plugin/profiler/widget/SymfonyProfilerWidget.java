@@ -7,6 +7,7 @@ import com.intellij.openapi.ui.popup.ListPopup;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.openapi.wm.StatusBarWidget;
 import com.intellij.openapi.wm.impl.status.EditorBasedStatusBarPopup;
+import com.intellij.util.Processor;
 import fr.adrienbrault.idea.symfony2plugin.Symfony2Icons;
 import fr.adrienbrault.idea.symfony2plugin.profiler.ProfilerIndexInterface;
 import fr.adrienbrault.idea.symfony2plugin.profiler.collector.DefaultDataCollectorInterface;
@@ -60,22 +61,44 @@ public class SymfonyProfilerWidget extends EditorBasedStatusBarPopup {
             return new DefaultActionGroup("Symfony.Profiler", false);
         }
 
-        return buildActions(getProject(), index, index.getRequests());
+        // the popup needs all requests, so this still waits for the last one; each request is turned into actions as
+        // soon as it is loaded, instead of after all of them
+        ActionCollector collector = new ActionCollector(getProject(), index);
+        index.processRequests(collector);
+
+        return collector.build();
     }
 
     static DefaultActionGroup buildActions(@NotNull Project project, @NotNull ProfilerIndexInterface index, @NotNull Collection<ProfilerRequestInterface> requests) {
-        DefaultActionGroup actionGroup = new DefaultActionGroup("Symfony.Profiler", false);
+        ActionCollector collector = new ActionCollector(project, index);
+        requests.parallelStream().forEach(collector::process);
+
+        return collector.build();
+    }
+
+    private static class ActionCollector implements Processor<ProfilerRequestInterface> {
+        @NotNull
+        private final Project project;
+
+        @NotNull
+        private final ProfilerIndexInterface index;
+
+        private final Collection<AnAction> urlActions = new ConcurrentLinkedQueue<>();
+        private final Collection<AnAction> mailActions = new ConcurrentLinkedQueue<>();
 
-        Collection<AnAction> urlActions = new ConcurrentLinkedQueue<>();
-        Collection<AnAction> mailActions = new ConcurrentLinkedQueue<>();
+        private final Map<String, AnAction> knownFormTypes = new ConcurrentHashMap<>();
+        private final Map<String, AnAction> knownController = new ConcurrentHashMap<>();
+        private final Map<String, AnAction> knownRoutes = new ConcurrentHashMap<>();
+        private final Map<String, AnAction> knownTemplates = new ConcurrentHashMap<>();
+        private final Map<String, ProfilerTwigComponent> knownComponents = new ConcurrentHashMap<>();
 
-        Map<String, AnAction> knownFormTypes = new ConcurrentHashMap<>();
-        Map<String, AnAction> knownController = new ConcurrentHashMap<>();
-        Map<String, AnAction> knownRoutes = new ConcurrentHashMap<>();
-        Map<String, AnAction> knownTemplates = new ConcurrentHashMap<>();
-        Map<String, ProfilerTwigComponent> knownComponents = new ConcurrentHashMap<>();
+        ActionCollector(@NotNull Project project, @NotNull ProfilerIndexInterface index) {
+            this.project = project;
+            this.index = index;
+        }
 
-        requests.parallelStream().forEach(profilerRequest -> {
+        @Override
+        public boolean process(ProfilerRequestInterface profilerRequest) {
             urlActions.add(new SymfonyProfilerWidgetActions.UrlAction(index, profilerRequest));
             DefaultDataCollectorInterface collector = profilerRequest.getCollector(DefaultDataCollectorInterface.class);
             if (collector != null) {
@@ -124,54 +147,61 @@ public class SymfonyProfilerWidget extends EditorBasedStatusBarPopup {
                     }
                 }
             }
-        });
 
-        // routes
-        if(!urlActions.isEmpty()) {
-            actionGroup.addSeparator("Debug-Url");
-            actionGroup.addAll(urlActions);
+            return true;
         }
 
-        // mails send by request
-        if(!mailActions.isEmpty()) {
-            actionGroup.addSeparator("E-Mail");
-            actionGroup.addAll(mailActions);
-        }
+        @NotNull
+        DefaultActionGroup build() {
+            DefaultActionGroup actionGroup = new DefaultActionGroup("Symfony.Profiler", false);
 
-        // form types
-        if(!knownFormTypes.isEmpty()) {
-            actionGroup.addSeparator("Forms");
-            actionGroup.addAll(knownFormTypes.values());
-        }
+            // routes
+            if(!urlActions.isEmpty()) {
+                actionGroup.addSeparator("Debug-Url");
+                actionGroup.addAll(urlActions);
+            }
 
-        // routes
-        if(!knownRoutes.isEmpty()) {
-            actionGroup.addSeparator("Routes");
-            actionGroup.addAll(knownRoutes.values());
-        }
+            // mails send by request
+            if(!mailActions.isEmpty()) {
+                actionGroup.addSeparator("E-Mail");
+                actionGroup.addAll(mailActions);
+            }
 
-        // controller methods
-        if(!knownController.isEmpty()) {
-            actionGroup.addSeparator("Controller");
-            actionGroup.addAll(knownController.values());
-        }
+            // form types
+            if(!knownFormTypes.isEmpty()) {
+                actionGroup.addSeparator("Forms");
+                actionGroup.addAll(knownFormTypes.values());
+            }
 
-        if(!knownComponents.isEmpty()) {
-            actionGroup.addSeparator("Components");
-            actionGroup.addAll(knownComponents.values().stream()
-                .sorted(Comparator.comparingInt(ProfilerTwigComponent::renderCount).reversed()
-                    .thenComparing(ProfilerTwigComponent::name, String.CASE_INSENSITIVE_ORDER))
-                .map(component -> new SymfonyProfilerWidgetActions.TwigComponentAction(project, component))
-                .toList());
-        }
+            // routes
+            if(!knownRoutes.isEmpty()) {
+                actionGroup.addSeparator("Routes");
+                actionGroup.addAll(knownRoutes.values());
+            }
 
-        // template should be most use case; so keep it in cursor range
-        if(!knownTemplates.isEmpty()) {
-            actionGroup.addSeparator("Template");
-            actionGroup.addAll(knownTemplates.values());
-        }
+            // controller methods
+            if(!knownController.isEmpty()) {
+                actionGroup.addSeparator("Controller");
+                actionGroup.addAll(knownController.values());
+            }
 
-        return actionGroup;
+            if(!knownComponents.isEmpty()) {
+                actionGroup.addSeparator("Components");
+                actionGroup.addAll(knownComponents.values().stream()
+                    .sorted(Comparator.comparingInt(ProfilerTwigComponent::renderCount).reversed()
+                        .thenComparing(ProfilerTwigComponent::name, String.CASE_INSENSITIVE_ORDER))
+                    .map(component -> new SymfonyProfilerWidgetActions.TwigComponentAction(project, component))
+                    .toList());
+            }
+
+            // template should be most use case; so keep it in cursor range
+            if(!knownTemplates.isEmpty()) {
+                actionGroup.addSeparator("Template");
+                actionGroup.addAll(knownTemplates.values());
+            }
+
+            return actionGroup;
+        }
     }
 
     @NotNull
@@ -1,5 +1,7 @@
 package fr.adrienbrault.idea.symfony2plugin.routing;
 
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
 import com.intellij.codeInsight.daemon.LineMarkerInfo;
 import com.intellij.codeInsight.lookup.LookupElement;
 import com.intellij.codeInsight.lookup.LookupElementBuilder;
@@ -70,7 +72,7 @@ import java.util.stream.StreamSupport;
  */
 public class RouteHelper {
     private static final String ROUTING_CONFIGURATOR_FQN = "Symfony\\Component\\Routing\\Loader\\Configurator\\RoutingConfigurator";
-    private static final char ROUTE_PATH_PLACEHOLDER_MARKER = '\u009c';
+    static final char ROUTE_PATH_PLACEHOLDER_MARKER = '\u009c';
 
     public static final String[] ROUTE_ANNOTATIONS = new String[] {
         "\\Symfony\\Component\\Routing\\Annotation\\Route",
@@ -80,8 +82,11 @@ public class RouteHelper {
 
     private static final Key<CachedValue<Map<String, Route>>> ROUTE_CACHE = new Key<>("SYMFONY:ROUTE_CACHE");
     private static final Key<CachedValue<Map<String, Route>>> ROUTE_UNIQUE_CACHE = new Key<>("SYMFONY:ROUTE_UNIQUE_CACHE");
+    private static final Key<CachedValue<RoutePathTrie>> ROUTE_PATH_TRIE_CACHE = new Key<>("SYMFONY:ROUTE_PATH_TRIE_CACHE");
     private static final Key<CachedValue<Set<String>>> ROUTE_CONTROLLER_RESOLVED_CACHE = new Key<>("ROUTE_CONTROLLER_RESOLVED_CACHE");
 
+    private static final Key<CachedValue<BloomFilter<CharSequence>>> ROUTE_NAME_FILTER_CACHE = new Key<>("SYMFONY:ROUTE_NAME_FILTER_CACHE");
+
     private static final Key<CachedValue<Map<String, Route>>> SYMFONY_COMPILED_CACHE_ROUTES = new Key<>("SYMFONY_COMPILED_CACHE_ROUTES");
 
     private static final ExtensionPointName<RoutingLoader> ROUTING_LOADER = new ExtensionPointName<>(
@@ -122,8 +127,42 @@ public class RouteHelper {
     }
 
     public static boolean isExistingRouteName(@NotNull Project project, @NotNull String routeName) {
-        return getFQCNRoute(project, routeName) != null
-            || !getRoute(project, routeName).isEmpty();
+        if (getFQCNRoute(project, routeName) != null || getCompiledRoutesCache(project).containsKey(routeName)) {
+            return true;
+        }
+
+        // definitely neither compiled nor indexed: only a routing loader extension can still provide it
+        if (!getRouteNameFilter(project).mightContain(routeName)) {
+            return ROUTING_LOADER.hasAnyExtensions() && getCompiledRoutes(project).containsKey(routeName);
+        }
+
+        return !getRoute(project, routeName).isEmpty();
+    }
+
+    /**
+     * Bloom filter over the compiled and indexed route names; a miss saves the index lookups of a missing route.
+     * Indexed keys may be stale, which only leads to a false positive.
+     */
+    @NotNull
+    private static BloomFilter<CharSequence> getRouteNameFilter(@NotNull Project project) {
+        return SymfonyCacheMetrics.getCachedValue(
+            project,
+            ROUTE_NAME_FILTER_CACHE,
+            "RouteHelper.ROUTE_NAME_FILTER_CACHE",
+            () -> {
+                Set<String> routeNames = new HashSet<>(getCompiledRoutesCache(project).keySet());
+                routeNames.addAll(SymfonyProcessors.createResult(project, RoutesStubIndex.KEY));
+
+                BloomFilter<CharSequence> filter = BloomFilter.create(Funnels.unencodedCharsFunnel(), Math.max(routeNames.size(), 100), 0.01);
+                routeNames.forEach(filter::put);
+
+                return CachedValueProvider.Result.create(
+                    filter,
+                    FileIndexCaches.getModificationTrackerForIndexId(project, RoutesStubIndex.KEY), // index
+                    getCompiledRoutesTracker(project) // compiled route file changes
+                );
+            }
+        );
     }
 
     /**
@@ -368,6 +407,14 @@ public class RouteHelper {
     @NotNull
     public static Collection<Route> getRoutesForNormalizedPathWithPlaceholderMatch(@NotNull Project project, @NotNull String normalizedSearchPath) {
         ReverseRoutePathMatcher matcher = new ReverseRoutePathMatcher(normalizedSearchPath);
+
+        List<Route> candidates = getRoutePathTrie(project).findCandidates(normalizedSearchPath);
+        if (candidates != null) {
+            return candidates.stream()
+                .filter(matcher::matches)
+                .collect(Collectors.toList());
+        }
+
         return new ArrayList<>(RouteHelper.getAllRoutes(project).values())
             .parallelStream()
             .filter(Objects::nonNull)
@@ -390,12 +437,63 @@ public class RouteHelper {
      * - "https://www.de.test:8664/foo/12?utm=1" => "/foo/{id}"
      */
     public static boolean hasRoutesForPathWithPlaceholderMatch(@NotNull Project project, @NotNull String searchPath) {
-        ReverseRoutePathMatcher matcher = new ReverseRoutePathMatcher(normalizeRouteSearchPath(searchPath));
+        String normalizedSearchPath = normalizeRouteSearchPath(searchPath);
+        ReverseRoutePathMatcher matcher = new ReverseRoutePathMatcher(normalizedSearchPath);
+
+        List<Route> candidates = getRoutePathTrie(project).findCandidates(normalizedSearchPath);
+        if (candidates != null) {
+            return candidates.stream().anyMatch(matcher::matches);
+        }
+
         return RouteHelper.getAllRoutes(project).values()
             .parallelStream()
             .anyMatch(matcher::matches);
     }
 
+    /**
+     * Segment trie over all route paths; narrows down reverse path lookups to a few candidates
+     */
+    @NotNull
+    private static RoutePathTrie getRoutePathTrie(@NotNull Project project) {
+        return CachedValuesManager.getManager(project).getCachedValue(
+            project,
+            ROUTE_PATH_TRIE_CACHE,
+            () -> CachedValueProvider.Result.create(
+                RoutePathTrie.create(RouteHelper.getAllRoutes(project).values()),
+                FileIndexCaches.getModificationTrackerForIndexId(project, RoutesStubIndex.KEY), // index
+                getCompiledRoutesTracker(project) // compiled route file changes
+            ),
+            false
+        );
+    }
+
+    /**
+     * Replace every route placeholder with a single marker char: "/foo/{id}" => "/foo/\u009c"
+     */
+    @NotNull
+    static String neutralizeRoutePlaceholders(@NotNull String routePath) {
+        StringBuilder builder = new StringBuilder(routePath.length());
+
+        for (int i = 0; i < routePath.length(); i++) {
+            char c = routePath.charAt(i);
+            if (c != '{') {
+                builder.append(c);
+                continue;
+            }
+
+            int endIndex = routePath.indexOf('}', i + 1);
+            if (endIndex == -1) {
+                builder.append(c);
+                continue;
+            }
+
+            builder.append(ROUTE_PATH_PLACEHOLDER_MARKER);
+            i = endIndex;
+        }
+
+        return builder.toString();
+    }
+
     /**
      * Matches a normalized lookup path against route paths while treating route placeholders as one path segment.
      *
@@ -532,30 +630,6 @@ public class RouteHelper {
             return prefixTable;
         }
 
-        @NotNull
-        private static String neutralizeRoutePlaceholders(@NotNull String routePath) {
-            StringBuilder builder = new StringBuilder(routePath.length());
-
-            for (int i = 0; i < routePath.length(); i++) {
-                char c = routePath.charAt(i);
-                if (c != '{') {
-                    builder.append(c);
-                    continue;
-                }
-
-                int endIndex = routePath.indexOf('}', i + 1);
-                if (endIndex == -1) {
-                    builder.append(c);
-                    continue;
-                }
-
-                builder.append(ROUTE_PATH_PLACEHOLDER_MARKER);
-                i = endIndex;
-            }
-
-            return builder.toString();
-        }
-
         private static boolean isPlaceholderPathChar(char c) {
             // Symfony placeholders consume one URL path segment by default; requirements can narrow it later.
             return c != '/' && c != '?' && c != '#';
@@ -769,7 +843,25 @@ public class RouteHelper {
 
     @NotNull
     private static Map<String, Route> getCompiledRoutes(@NotNull Project project) {
-        Map<String, Route> routesCache = CachedValuesManager.getManager(project).getCachedValue(
+        Map<String, Route> routes = new HashMap<>(getCompiledRoutesCache(project));
+        RoutingLoaderParameter parameter = null;
+        for (RoutingLoader routingLoader : ROUTING_LOADER.getExtensions()) {
+            if(parameter == null) {
+                parameter = new RoutingLoaderParameter(project, routes);
+            }
+
+            routingLoader.invoke(parameter);
+        }
+
+        return routes;
+    }
+
+    /**
+     * Routes of the compiled url generator files; without the routing loader extensions
+     */
+    @NotNull
+    private static Map<String, Route> getCompiledRoutesCache(@NotNull Project project) {
+        return CachedValuesManager.getManager(project).getCachedValue(
             project,
             SYMFONY_COMPILED_CACHE_ROUTES,
             () -> {
@@ -786,18 +878,6 @@ public class RouteHelper {
             },
             false
         );
-
-        Map<String, Route> routes = new HashMap<>(routesCache);
-        RoutingLoaderParameter parameter = null;
-        for (RoutingLoader routingLoader : ROUTING_LOADER.getExtensions()) {
-            if(parameter == null) {
-                parameter = new RoutingLoaderParameter(project, routes);
-            }
-
-            routingLoader.invoke(parameter);
-        }
-
-        return routes;
     }
 
     @NotNull
@@ -2140,9 +2220,10 @@ public class RouteHelper {
 
     @NotNull
     public static Map<String, Route> getAllRoutes(final @NotNull Project project) {
-        return CachedValuesManager.getManager(project).getCachedValue(
+        return SymfonyCacheMetrics.getCachedValue(
             project,
             ROUTE_CACHE,
+            "RouteHelper.ROUTE_CACHE",
             () -> {
                 Map<String, Route> routes = new HashMap<>(RouteHelper.getCompiledRoutes(project));
                 Set<String> uniqueKeySet = new HashSet<>(routes.keySet());
@@ -2163,8 +2244,7 @@ public class RouteHelper {
                     FileIndexCaches.getModificationTrackerForIndexId(project, RoutesStubIndex.KEY), // index
                     getCompiledRoutesTracker(project) // compiled route file changes
                 );
-            },
-            false
+            }
         );
     }
 
@@ -2174,9 +2254,10 @@ public class RouteHelper {
      */
     @NotNull
     public static Map<String, Route> getAllRoutesUnique(final @NotNull Project project) {
-        return CachedValuesManager.getManager(project).getCachedValue(
+        return SymfonyCacheMetrics.getCachedValue(
             project,
             ROUTE_UNIQUE_CACHE,
+            "RouteHelper.ROUTE_UNIQUE_CACHE",
             () -> {
                 Map<String, Route> routes = deduplicateRoutesPreferNamed(RouteHelper.getAllRoutes(project));
 
@@ -2185,8 +2266,7 @@ public class RouteHelper {
                     FileIndexCaches.getModificationTrackerForIndexId(project, RoutesStubIndex.KEY), // index
                     getCompiledRoutesTracker(project) // compiled route file changes
                 );
-            },
-            false
+            }
         );
     }
 
@@ -0,0 +1,206 @@
+package fr.adrienbrault.idea.symfony2plugin.routing;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * Segment trie over all route paths for reverse path lookups, so that a lookup costs about the segment count
+ * of the search path instead of the route count.
+ *
+ * - Every route path is inserted once per segment start, as lookups can begin inside a route path: "foo/12" => "/car/foo/{id}"
+ * - Segments containing a placeholder are wildcard edges: "/foo/{id}" => "foo" -> "*"
+ *
+ * The trie only narrows down candidates; the exact reverse route matcher must still be applied on them.
+ *
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ */
+final class RoutePathTrie {
+    @NotNull
+    private final Node root = new Node();
+
+    @NotNull
+    private final Route[] routes;
+
+    /**
+     * Routes which can not be split into segments, e.g. "/{path<[^/]+>}"; always candidates
+     */
+    @NotNull
+    private final BitSet unsegmentedRoutes = new BitSet();
+
+    private RoutePathTrie(@NotNull Collection<Route> routes) {
+        this.routes = routes.toArray(new Route[0]);
+
+        for (int i = 0; i < this.routes.length; i++) {
+            Route route = this.routes[i];
+            if (route == null || route.getPath() == null) {
+                continue;
+            }
+
+            String routePath = route.getPath();
+            String neutralizedPath = RouteHelper.neutralizeRoutePlaceholders(routePath);
+
+            // slash inside a placeholder requirement
+            if (countSlashes(routePath) != countSlashes(neutralizedPath)) {
+                unsegmentedRoutes.set(i);
+                continue;
+            }
+
+            String[] segments = neutralizedPath.split("/", -1);
+            for (int start = 1; start < segments.length; start++) {
+                Node node = root;
+                for (int k = start; k < segments.length; k++) {
+                    node = node.getOrCreateChild(segments[k]);
+                    node.entries.add(new Entry(i, segments[start - 1]));
+                }
+            }
+        }
+    }
+
+    @NotNull
+    static RoutePathTrie create(@NotNull Collection<Route> routes) {
+        return new RoutePathTrie(routes);
+    }
+
+    /**
+     * Candidate routes in their original order, or "null" if the search path is not supported by the trie
+     * and all routes need to be visited.
+     *
+     * @param searchPath normalized search path
+     */
+    @Nullable
+    List<Route> findCandidates(@NotNull String searchPath) {
+        // no segment to anchor on; placeholder syntax in search path can also match raw route text
+        if (searchPath.indexOf('/') < 0 || searchPath.indexOf('{') >= 0 || searchPath.indexOf('}') >= 0) {
+            return null;
+        }
+
+        String[] segments = searchPath.split("/", -1);
+
+        // all segments between two slashes must match a full route segment
+        Collection<Node> nodes = Collections.singletonList(root);
+        for (int k = 1; k < segments.length - 1 && !nodes.isEmpty(); k++) {
+            String segment = segments[k];
+
+            Collection<Node> next = new ArrayList<>();
+            for (Node node : nodes) {
+                Node literal = node.literals.get(segment);
+                if (literal != null) {
+                    next.add(literal);
+                }
+
+                for (Map.Entry<String, Node> wildcard : node.wildcards.entrySet()) {
+                    if (matchesSegment(wildcard.getKey(), 0, segment, 0)) {
+                        next.add(wildcard.getValue());
+                    }
+                }
+            }
+
+            nodes = next;
+        }
+
+        // last segment can be incomplete: prefix of a route segment
+        String last = segments[segments.length - 1];
+
+        BitSet matches = (BitSet) unsegmentedRoutes.clone();
+        for (Node node : nodes) {
+            for (Map.Entry<String, Node> literal : node.literals.entrySet()) {
+                if (literal.getKey().startsWith(last)) {
+                    collectEntries(literal.getValue(), segments[0], matches);
+                }
+            }
+
+            for (Node wildcard : node.wildcards.values()) {
+                collectEntries(wildcard, segments[0], matches);
+            }
+        }
+
+        List<Route> candidates = new ArrayList<>(matches.cardinality());
+        for (int i = matches.nextSetBit(0); i >= 0; i = matches.nextSetBit(i + 1)) {
+            candidates.add(routes[i]);
+        }
+
+        return candidates;
+    }
+
+    /**
+     * First segment can be incomplete: suffix of the route segment before the trie path
+     */
+    private static void collectEntries(@NotNull Node node, @NotNull String first, @NotNull BitSet matches) {
+        for (Entry entry : node.entries) {
+            if (isWildcard(entry.previousSegment()) || entry.previousSegment().endsWith(first)) {
+                matches.set(entry.route());
+            }
+        }
+    }
+
+    /**
+     * Placeholder consumes at least one character, like the reverse route matcher
+     */
+    private static boolean matchesSegment(@NotNull String routeSegment, int routeIndex, @NotNull String searchSegment, int searchIndex) {
+        if (routeIndex == routeSegment.length()) {
+            return searchIndex == searchSegment.length();
+        }
+
+        char routeChar = routeSegment.charAt(routeIndex);
+        if (routeChar != RouteHelper.ROUTE_PATH_PLACEHOLDER_MARKER) {
+            return searchIndex < searchSegment.length()
+                && routeChar == searchSegment.charAt(searchIndex)
+                && matchesSegment(routeSegment, routeIndex + 1, searchSegment, searchIndex + 1);
+        }
+
+        for (int i = searchIndex; i < searchSegment.length(); i++) {
+            char c = searchSegment.charAt(i);
+            if (c == '?' || c == '#') {
+                return false;
+            }
+
+            if (matchesSegment(routeSegment, routeIndex + 1, searchSegment, i + 1)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static boolean isWildcard(@NotNull String segment) {
+        return segment.indexOf(RouteHelper.ROUTE_PATH_PLACEHOLDER_MARKER) >= 0;
+    }
+
+    private static int countSlashes(@NotNull String path) {
+        int count = 0;
+        for (int i = 0; i < path.length(); i++) {
+            if (path.charAt(i) == '/') {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static final class Node {
+        @NotNull
+        private final Map<String, Node> literals = new HashMap<>();
+
+        @NotNull
+        private final Map<String, Node> wildcards = new HashMap<>();
+
+        /**
+         * Every route path passing this node
+         */
+        @NotNull
+        private final List<Entry> entries = new ArrayList<>();
+
+        @NotNull
+        private Node getOrCreateChild(@NotNull String segment) {
+            return (isWildcard(segment) ? wildcards : literals).computeIfAbsent(segment, s -> new Node());
+        }
+    }
+
+    /**
+     * @param route index inside the route array
+     * @param previousSegment route segment before the path of this entry
+     */
+    private record Entry(int route, @NotNull String previousSegment) {
+    }
+}
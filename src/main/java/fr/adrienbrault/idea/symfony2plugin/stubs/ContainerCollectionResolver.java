@@ -13,6 +13,7 @@ import fr.adrienbrault.idea.symfony2plugin.config.component.parser.ParameterServ
 import fr.adrienbrault.idea.symfony2plugin.dic.ContainerParameter;
 import fr.adrienbrault.idea.symfony2plugin.dic.ContainerService;
 import fr.adrienbrault.idea.symfony2plugin.dic.ContainerServiceMetadata;
+import fr.adrienbrault.idea.symfony2plugin.dic.ContainerServiceTable;
 import fr.adrienbrault.idea.symfony2plugin.dic.XmlServiceParser;
 import fr.adrienbrault.idea.symfony2plugin.dic.container.ServiceInterface;
 import fr.adrienbrault.idea.symfony2plugin.dic.container.ServiceSerializable;
@@ -27,6 +28,8 @@ import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.ContainerParameterStubI
 import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.PhpAttributeIndex;
 import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.ServicesDefinitionStubIndex;
 import fr.adrienbrault.idea.symfony2plugin.dic.container.util.ServiceContainerUtil;
+import fr.adrienbrault.idea.symfony2plugin.util.ProgressLockUtil;
+import fr.adrienbrault.idea.symfony2plugin.util.SymfonyCacheMetrics;
 import fr.adrienbrault.idea.symfony2plugin.util.SymfonyVarDirectoryWatcher;
 import fr.adrienbrault.idea.symfony2plugin.util.SymfonyVarDirectoryWatcherKt;
 import fr.adrienbrault.idea.symfony2plugin.util.dict.ServiceUtil;
@@ -37,6 +40,7 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * @author Daniel Espendiller <daniel@espendiller.net>
@@ -53,6 +57,10 @@ public class ContainerCollectionResolver {
     private static final Key<CachedValue<Map<String, ResourceBasedService>>> RESOURCE_BASED_SERVICES_CACHE = new Key<>("SYMFONY_RESOURCE_BASED_SERVICES_CACHE");
     private static final Key<CachedValue<ParameterCollector>> SYMFONY_PARAMETER_COLLECTOR_CACHE = new Key<>("SYMFONY_PARAMETER_COLLECTOR_CACHE");
     private static final Key<CachedValue<Set<String>>> EXCLUDED_CLASSES_CACHE = new Key<>("SYMFONY_EXCLUDED_CLASSES_CACHE");
+    private static final Key<CachedValue<Map<String, Set<String>>>> CLASS_NAME_SERVICES_CACHE = new Key<>("SYMFONY_CLASS_NAME_SERVICES_CACHE");
+
+    private static final String SERVICES_METRIC = "ContainerCollectionResolver.services";
+    private static final String PARAMETERS_METRIC = "ContainerCollectionResolver.parameters";
 
     private static final ExtensionPointName<fr.adrienbrault.idea.symfony2plugin.extension.ServiceCollector> EXTENSIONS = new ExtensionPointName<>(
         "fr.adrienbrault.idea.symfony2plugin.extension.ServiceCollector"
@@ -81,23 +89,79 @@ public class ContainerCollectionResolver {
         return ServiceCollector.create(project).getServices();
     }
 
+    /**
+     * Service ids for a class name, e.g. "App\Mailer" or "\App\Mailer"
+     */
+    @NotNull
+    public static Set<String> getServiceIdsForClass(@NotNull Project project, @NotNull String fqnClassName) {
+        return getClassNameServicesIndex(project).getOrDefault(normalizeClassName(fqnClassName), Collections.emptySet());
+    }
+
+    /**
+     * Reverse index "\FQCN => service ids", shared by all collectors of the project.
+     *
+     * Class parameters like "%foo.class%" are resolved; keys always carry one leading backslash.
+     */
+    @NotNull
+    public static Map<String, Set<String>> getClassNameServicesIndex(@NotNull Project project) {
+        return SymfonyCacheMetrics.getCachedValue(
+            project,
+            CLASS_NAME_SERVICES_CACHE,
+            "ContainerCollectionResolver.CLASS_NAME_SERVICES_CACHE",
+            () -> CachedValueProvider.Result.create(
+                createClassNameServicesIndex(ServiceCollector.create(project), ParameterCollector.create(project)),
+                // union of the service and parameter collector dependencies
+                FileIndexCaches.getModificationTrackerForIndexId(project, ServicesDefinitionStubIndex.KEY),
+                FileIndexCaches.getModificationTrackerForIndexId(project, PhpAttributeIndex.KEY),
+                FileIndexCaches.getModificationTrackerForIndexId(project, ContainerParameterStubIndex.KEY),
+                FileIndexCaches.getModificationTrackerForIndexId(project, ContainerBuilderStubIndex.KEY),
+                FileIndexCaches.getModificationTrackerForIndexId(project, PhpClassFqnIndex.KEY),
+                SymfonyVarDirectoryWatcherKt.getSymfonyVarDirectoryWatcher(project).getModificationTracker(SymfonyVarDirectoryWatcher.Scope.CONTAINER),
+                VirtualFileManager.VFS_STRUCTURE_MODIFICATIONS
+            )
+        );
+    }
+
+    @NotNull
+    private static Map<String, Set<String>> createClassNameServicesIndex(@NotNull ServiceCollector serviceCollector, @NotNull ParameterCollector parameterCollector) {
+        Map<String, Set<String>> index = new HashMap<>();
+
+        for (Map.Entry<String, ContainerService> entry: serviceCollector.getServices().entrySet()) {
+            for (String className : entry.getValue().getClassNames()) {
+                String resolvedClassName = parameterCollector.resolve(className);
+                if (resolvedClassName != null) {
+                    index.computeIfAbsent(normalizeClassName(resolvedClassName), k -> new HashSet<>()).add(entry.getKey());
+                }
+            }
+        }
+
+        index.replaceAll((className, serviceIds) -> Collections.unmodifiableSet(serviceIds));
+
+        return Collections.unmodifiableMap(index);
+    }
+
+    @NotNull
+    private static String normalizeClassName(@NotNull String className) {
+        return className.startsWith("\\") && !className.startsWith("\\\\") ? className : "\\" + StringUtils.stripStart(className, "\\");
+    }
+
     /**
      * Collect services defined via resource patterns (e.g., "App\: resource: '../src/'").
      * These are auto-loaded services that should be available for autocompletion and type providers.
      */
     @NotNull
     private static Map<String, ResourceBasedService> getResourceBasedServices(@NotNull Project project) {
-        return CachedValuesManager.getManager(project).getCachedValue(
+        return SymfonyCacheMetrics.getCachedValue(
             project,
             RESOURCE_BASED_SERVICES_CACHE,
+            "ContainerCollectionResolver.RESOURCE_BASED_SERVICES_CACHE",
             () -> CachedValueProvider.Result.create(
                 getResourceBasedServicesInner(project),
                 FileIndexCaches.getModificationTrackerForIndexId(project, ServicesDefinitionStubIndex.KEY),
                 // Resource prototypes also depend on PHP class FQNs, not only on VFS structure changes.
                 FileIndexCaches.getModificationTrackerForIndexId(project, PhpClassFqnIndex.KEY),
                 VirtualFileManager.VFS_STRUCTURE_MODIFICATIONS
-            ),
-            false
+            )
         );
     }
 
@@ -265,9 +329,10 @@ public class ContainerCollectionResolver {
      */
     @NotNull
     private static Set<String> getExcludedClasses(@NotNull Project project) {
-        return CachedValuesManager.getManager(project).getCachedValue(
+        return SymfonyCacheMetrics.getCachedValue(
             project,
             EXCLUDED_CLASSES_CACHE,
+            "ContainerCollectionResolver.EXCLUDED_CLASSES_CACHE",
             () -> {
                 Set<String> excludedClasses = new HashSet<>();
 
@@ -290,8 +355,7 @@ public class ContainerCollectionResolver {
                     excludedClasses,
                     FileIndexCaches.getModificationTrackerForIndexId(project, PhpAttributeIndex.KEY)
                 );
-            },
-            false
+            }
         );
     }
 
@@ -301,14 +365,21 @@ public class ContainerCollectionResolver {
         final private Project project;
 
         @Nullable
-        private ParameterCollector parameterCollector;
+        private volatile ParameterCollector parameterCollector;
 
+        /**
+         * Collectors are shared by all threads, e.g. the workers of a batch inspection run; every value is built once
+         */
         @Nullable
-        private Map<String, ContainerService> servicesCache;
+        private volatile Map<String, ContainerService> servicesCache;
 
         @Nullable
-        private Set<String> serviceNamesCache;
-        private Map<String, Set<String>> serviceClassNameCache;
+        private volatile Set<String> serviceNamesCache;
+
+        /**
+         * Guards the builds above; reentrant, as extensions may call back into the collector while it builds
+         */
+        private final ReentrantLock lock = new ReentrantLock();
 
         private ServiceCollector(@NotNull Project project) {
             this.project = project;
@@ -338,14 +409,34 @@ public class ContainerCollectionResolver {
 
         @NotNull
         public Map<String, ContainerService> getServices() {
-            if(this.servicesCache != null) {
+            Map<String, ContainerService> services = this.servicesCache;
+            if(services != null) {
+                SymfonyCacheMetrics.getInstance(project).hit(SERVICES_METRIC);
+                return services;
+            }
+
+            // waiters stay cancelable, so a pending write action is not blocked by a running build
+            ProgressLockUtil.lock(lock);
+            try {
+                if(this.servicesCache == null) {
+                    this.servicesCache = SymfonyCacheMetrics.measure(project, SERVICES_METRIC, this::collectServices);
+                }
+
                 return this.servicesCache;
+            } finally {
+                lock.unlock();
             }
+        }
+
+        @NotNull
+        private Map<String, ContainerService> collectServices() {
+            Collection<ServiceInterface> compiledServices = ServiceXmlParserFactory.getInstance(project, XmlServiceParser.class).getServiceMap().getServices();
 
-            TreeMap<String, ContainerService> services = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+            // case-insensitive hash lookups instead of tree comparisons; iteration stays sorted like the previous "TreeMap"
+            ContainerServiceTable services = new ContainerServiceTable(compiledServices.size());
 
             // file system
-            for(ServiceInterface entry: ServiceXmlParserFactory.getInstance(project, XmlServiceParser.class).getServiceMap().getServices()) {
+            for(ServiceInterface entry: compiledServices) {
                 // compiled container owns all class names in resolved state
                 // api safe check
                 addCompiledContainerService(services, entry);
@@ -451,7 +542,7 @@ public class ContainerCollectionResolver {
                 });
             }
 
-            return this.servicesCache = services;
+            return services;
         }
 
         @NotNull
@@ -495,33 +586,33 @@ public class ContainerCollectionResolver {
             return items;
         }
 
+        /**
+         * @see ContainerCollectionResolver#getServiceIdsForClass
+         */
         public Set<String> convertClassNameToServices(@NotNull String fqnClassName) {
-            if (this.serviceClassNameCache == null) {
-                Map<String, Set<String>> result = new HashMap<>();
-                for (Map.Entry<String, ContainerService> entry: this.getServices().entrySet()) {
-                    for (String className : entry.getValue().getClassNames()) {
-                        String indexedClassName = this.getParameterCollector().resolve(className);
-                        if (indexedClassName != null) {
-                            indexedClassName = "\\" + StringUtils.stripStart(indexedClassName, "\\");
-
-                            result.putIfAbsent(indexedClassName, new HashSet<>());
-                            result.get(indexedClassName).add(entry.getKey());
-                        }
-                    }
-                }
+            return getServiceIdsForClass(project, fqnClassName);
+        }
 
-                this.serviceClassNameCache = result;
+        private Set<String> getNames() {
+            Set<String> names = this.serviceNamesCache;
+            if (names != null) {
+                return names;
             }
 
-            fqnClassName = "\\" + StringUtils.stripStart(fqnClassName, "\\");
-            return this.serviceClassNameCache.getOrDefault(fqnClassName, Collections.emptySet());
-        }
+            ProgressLockUtil.lock(lock);
+            try {
+                if (this.serviceNamesCache == null) {
+                    this.serviceNamesCache = collectNames();
+                }
 
-        private Set<String> getNames() {
-            if (this.serviceNamesCache != null) {
                 return this.serviceNamesCache;
+            } finally {
+                lock.unlock();
             }
+        }
 
+        @NotNull
+        private Set<String> collectNames() {
             Set<String> serviceNames = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
             serviceNames.addAll(getResourceBasedServices(project).keySet());
 
@@ -551,7 +642,7 @@ public class ContainerCollectionResolver {
                 serviceNames.removeAll(excludedClasses);
             }
 
-            return this.serviceNamesCache = serviceNames;
+            return Collections.unmodifiableSet(serviceNames);
         }
 
 
@@ -593,7 +684,9 @@ public class ContainerCollectionResolver {
         private final Project project;
 
         @Nullable
-        private Map<String, ContainerParameter> containerParameterMap;
+        private volatile Map<String, ContainerParameter> containerParameterMap;
+
+        private final ReentrantLock lock = new ReentrantLock();
 
         private ParameterCollector(@NotNull Project project) {
             this.project = project;
@@ -647,10 +740,26 @@ public class ContainerCollectionResolver {
 
         @NotNull
         private Map<String, ContainerParameter> getParameters() {
-            if(this.containerParameterMap != null) {
+            Map<String, ContainerParameter> parameters = this.containerParameterMap;
+            if(parameters != null) {
+                SymfonyCacheMetrics.getInstance(project).hit(PARAMETERS_METRIC);
+                return parameters;
+            }
+
+            ProgressLockUtil.lock(lock);
+            try {
+                if(this.containerParameterMap == null) {
+                    this.containerParameterMap = SymfonyCacheMetrics.measure(project, PARAMETERS_METRIC, this::collectParameters);
+                }
+
                 return this.containerParameterMap;
+            } finally {
+                lock.unlock();
             }
+        }
 
+        @NotNull
+        private Map<String, ContainerParameter> collectParameters() {
             TreeMap<String, ContainerParameter> parametersMap = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
 
 
@@ -718,7 +827,7 @@ public class ContainerCollectionResolver {
                 parametersMap.put(extParameter.getName(), extParameter);
             }
 
-            return this.containerParameterMap = parametersMap;
+            return parametersMap;
         }
 
         @NotNull
@@ -173,7 +173,7 @@ public class ServiceIndexUtil {
         }
 
         String phpClassName = phpClass.getPresentableFQN();
-        Set<String> serviceNames = ContainerCollectionResolver.ServiceCollector.create(phpClass.getProject()).convertClassNameToServices(phpClassName);
+        Set<String> serviceNames = ContainerCollectionResolver.getServiceIdsForClass(phpClass.getProject(), phpClassName);
 
         if(serviceNames.isEmpty()) {
             return new PsiElement[0];
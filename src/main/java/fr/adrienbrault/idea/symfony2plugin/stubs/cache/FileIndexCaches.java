@@ -5,14 +5,12 @@ import com.intellij.openapi.util.Key;
 import com.intellij.openapi.util.ModificationTracker;
 import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.psi.util.CachedValue;
-import com.intellij.psi.util.CachedValueProvider;
-import com.intellij.psi.util.CachedValuesManager;
 import com.intellij.util.indexing.FileBasedIndex;
 import com.intellij.util.indexing.ID;
 import fr.adrienbrault.idea.symfony2plugin.stubs.SymfonyProcessors;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -21,30 +19,25 @@ import java.util.Set;
  * All FileBasedIndex are slow and cross project data, we need them every often
  * Cache values as long nothing globally change in our project.
  *
+ * Values are immutable snapshots stored in {@link FileIndexSnapshotCache}; reading a fresh snapshot never blocks.
+ * The given keys are only used as the snapshot identity.
+ *
  * @author Daniel Espendiller <daniel@espendiller.net>
  */
 public class FileIndexCaches {
 
     /**
+     * Values are patched incrementally: after an index change only keys of changed files are fetched again
+     *
      * @param dataHolderKey Main data to cache
      * @param dataHolderNames Cache extracted name Set
      */
-    static public synchronized <T> Map<String, List<T>> getSetDataCache(@NotNull final Project project, @NotNull Key<CachedValue<Map<String, List<T>>>> dataHolderKey, final @NotNull Key<CachedValue<Set<String>>> dataHolderNames, @NotNull final ID<String, T> ID, @NotNull final GlobalSearchScope scope) {
-        return CachedValuesManager.getManager(project).getCachedValue(
-            project,
+    static public <T> Map<String, List<T>> getSetDataCache(@NotNull final Project project, @NotNull Key<CachedValue<Map<String, List<T>>>> dataHolderKey, final @NotNull Key<CachedValue<Set<String>>> dataHolderNames, @NotNull final ID<String, T> ID, @NotNull final GlobalSearchScope scope) {
+        return FileIndexSnapshotCache.getInstance(project).getIncrementalSnapshot(
             dataHolderKey,
-            () -> {
-                Map<String, List<T>> items = new HashMap<>();
-
-                final FileBasedIndex fileBasedIndex = FileBasedIndex.getInstance();
-
-                getIndexKeysCache(project, dataHolderNames, ID).forEach(service ->
-                    items.put(service, fileBasedIndex.getValues(ID, service, scope))
-                );
-
-                return CachedValueProvider.Result.create(items, getModificationTrackerForIndexId(project, ID));
-            },
-            false
+            ID,
+            scope,
+            () -> getIndexKeysCache(project, dataHolderNames, ID)
         );
     }
 
@@ -52,38 +45,18 @@ public class FileIndexCaches {
      * @param dataHolderKey Main data to cache
      * @param dataHolderNames Cache extracted name Set
      */
-    static public synchronized Map<String, List<String>> getStringDataCache(@NotNull final Project project, @NotNull Key<CachedValue<Map<String, List<String>>>> dataHolderKey, final @NotNull Key<CachedValue<Set<String>>> dataHolderNames, @NotNull final ID<String, String> ID, @NotNull final GlobalSearchScope scope) {
-        return CachedValuesManager.getManager(project).getCachedValue(
-            project,
-            dataHolderKey,
-            () -> {
-                Map<String, List<String>> strings = new HashMap<>();
-
-                final FileBasedIndex fileBasedIndex = FileBasedIndex.getInstance();
-                getIndexKeysCache(project, dataHolderNames, ID).forEach(parameterName -> {
-                    // just for secure
-                    if(parameterName == null) {
-                        return;
-                    }
-
-                    strings.put(parameterName, fileBasedIndex.getValues(ID, parameterName, scope));
-                });
-
-                return CachedValueProvider.Result.create(strings, getModificationTrackerForIndexId(project, ID));
-            },
-            false
-        );
+    static public Map<String, List<String>> getStringDataCache(@NotNull final Project project, @NotNull Key<CachedValue<Map<String, List<String>>>> dataHolderKey, final @NotNull Key<CachedValue<Set<String>>> dataHolderNames, @NotNull final ID<String, String> ID, @NotNull final GlobalSearchScope scope) {
+        return getSetDataCache(project, dataHolderKey, dataHolderNames, ID, scope);
     }
 
     /**
      * There several methods that just need to check for names, as they also needed for value extraction, so cache them also
      */
-    static public synchronized Set<String> getIndexKeysCache(@NotNull final Project project, @NotNull Key<CachedValue<Set<String>>> dataHolderKey, @NotNull final ID<String, ?> id) {
-        return CachedValuesManager.getManager(project).getCachedValue(
-            project,
+    static public Set<String> getIndexKeysCache(@NotNull final Project project, @NotNull Key<CachedValue<Set<String>>> dataHolderKey, @NotNull final ID<String, ?> id) {
+        return FileIndexSnapshotCache.getInstance(project).getSnapshot(
             dataHolderKey,
-            () -> CachedValueProvider.Result.create(SymfonyProcessors.createResult(project, id), getModificationTrackerForIndexId(project, id)),
-            false
+            id,
+            () -> Collections.unmodifiableSet(SymfonyProcessors.createResult(project, id))
         );
     }
 
@@ -0,0 +1,398 @@
+package fr.adrienbrault.idea.symfony2plugin.stubs.cache;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.editor.EditorFactory;
+import com.intellij.openapi.editor.event.DocumentEvent;
+import com.intellij.openapi.editor.event.DocumentListener;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.openapi.vfs.newvfs.BulkFileListener;
+import com.intellij.openapi.vfs.newvfs.events.VFileDeleteEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileMoveEvent;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.util.indexing.FileBasedIndex;
+import com.intellij.util.indexing.ID;
+import fr.adrienbrault.idea.symfony2plugin.util.ProgressLockUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Project level holder for immutable snapshots of FileBasedIndex data.
+ *
+ * Every snapshot remembers the index modification stamp it was built for. Readers only compare stamps,
+ * so a fresh snapshot is returned without any locking. If the stamp moved, a per snapshot lock makes sure
+ * that only one thread rebuilds; all other threads asking for the same snapshot wait for its result
+ * instead of rebuilding it in parallel. Different snapshots never block each other.
+ *
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ */
+@Service(Service.Level.PROJECT)
+public final class FileIndexSnapshotCache implements Disposable {
+
+    private static final Logger LOG = Logger.getInstance(FileIndexSnapshotCache.class);
+
+    /**
+     * Too many changed files are cheaper to handle with a full rebuild than with single key lookups
+     */
+    private static final int MAX_CHANGED_FILES = 500;
+
+    @NotNull
+    private final Project project;
+
+    @NotNull
+    private final Map<Key<?>, Snapshot<?>> snapshots = new ConcurrentHashMap<>();
+
+    @NotNull
+    private final Map<Key<?>, ReentrantLock> locks = new ConcurrentHashMap<>();
+
+    @NotNull
+    private final Map<Key<?>, ChangedFiles> changedFiles = new ConcurrentHashMap<>();
+
+    @NotNull
+    private final Map<Key<?>, RebuildCounter> counters = new ConcurrentHashMap<>();
+
+    public FileIndexSnapshotCache(@NotNull Project project) {
+        this.project = project;
+
+        project.getMessageBus().connect(this).subscribe(VirtualFileManager.VFS_CHANGES, new ChangedFilesListener());
+
+        // index also reflects unsaved documents, so changes don't always reach the VFS
+        EditorFactory.getInstance().getEventMulticaster().addDocumentListener(new DocumentListener() {
+            @Override
+            public void documentChanged(@NotNull DocumentEvent event) {
+                VirtualFile file = FileDocumentManager.getInstance().getFile(event.getDocument());
+                if (file != null) {
+                    markChanged(file);
+                }
+            }
+        }, this);
+    }
+
+    @NotNull
+    public static FileIndexSnapshotCache getInstance(@NotNull Project project) {
+        return project.getService(FileIndexSnapshotCache.class);
+    }
+
+    @Override
+    public void dispose() {
+    }
+
+    /**
+     * @param key Identity of the snapshot; one snapshot per key and project
+     * @param id Index which invalidates the snapshot on any modification
+     * @param builder Creates the snapshot value; result must not be modified afterwards
+     */
+    @NotNull
+    public <V> V getSnapshot(@NotNull Key<?> key, @NotNull ID<?, ?> id, @NotNull Supplier<V> builder) {
+        return getSnapshot(key, id, previous -> builder.get(), () -> {});
+    }
+
+    /**
+     * Snapshot of all "key => values" of an index, like calling "FileBasedIndex.getValues" for every key.
+     *
+     * Files changed since the last snapshot are collected via VFS and document events, so on index changes
+     * only the keys provided by these files (before and after the change) are fetched again.
+     * Changes which can not be mapped to single files (directory operations, index rebuilds, ...) fall back
+     * to a full rebuild.
+     *
+     * @param keys All keys of the index, only used for a full rebuild
+     */
+    @NotNull
+    public <T> Map<String, List<T>> getIncrementalSnapshot(@NotNull Key<?> key, @NotNull ID<String, T> id, @NotNull GlobalSearchScope scope, @NotNull Supplier<Collection<String>> keys) {
+        // register before the first build, so that no change is lost while building
+        ChangedFiles changed = changedFiles.computeIfAbsent(key, k -> new ChangedFiles());
+        RebuildCounter counter = counters.computeIfAbsent(key, k -> new RebuildCounter());
+
+        IndexData<T> data = getSnapshot(key, id, (IndexData<T> previous) -> {
+            Set<VirtualFile> files = changed.drain();
+
+            if (previous == null || files == null || files.isEmpty()) {
+                // no previous snapshot or stamp changed without any known file
+                IndexData<T> full = buildIndexData(id, scope, keys.get());
+                counter.full(full.values().size());
+                return full;
+            }
+
+            Set<String> affectedKeys = new HashSet<>();
+            for (VirtualFile file : files) {
+                Set<String> previousKeys = previous.fileKeys().get(file);
+                if (previousKeys != null) {
+                    affectedKeys.addAll(previousKeys);
+                }
+
+                if (file.isValid()) {
+                    affectedKeys.addAll(FileBasedIndex.getInstance().getFileData(id, file, project).keySet());
+                }
+            }
+
+            IndexData<T> patched = patchIndexData(previous, id, scope, affectedKeys);
+            counter.incremental(affectedKeys.size(), patched.values().size());
+
+            return patched;
+        }, changed::invalidate);
+
+        return data.values();
+    }
+
+    /**
+     * Statistics for snapshots built by {@link #getIncrementalSnapshot}
+     */
+    @Nullable
+    public Statistics getStatistics(@NotNull Key<?> key) {
+        RebuildCounter counter = counters.get(key);
+        return counter != null ? counter.toStatistics() : null;
+    }
+
+    @NotNull
+    @SuppressWarnings("unchecked")
+    private <V> V getSnapshot(@NotNull Key<?> key, @NotNull ID<?, ?> id, @NotNull Function<V, V> builder, @NotNull Runnable onFailure) {
+        Snapshot<?> snapshot = snapshots.get(key);
+        if (snapshot != null && snapshot.stamp() == getStamp(id)) {
+            return (V) snapshot.value();
+        }
+
+        ReentrantLock lock = locks.computeIfAbsent(key, k -> new ReentrantLock());
+        ProgressLockUtil.lock(lock);
+
+        try {
+            // another thread may already have finished the rebuild while we were waiting
+            long stamp = getStamp(id);
+
+            snapshot = snapshots.get(key);
+            if (snapshot != null && snapshot.stamp() == stamp) {
+                return (V) snapshot.value();
+            }
+
+            // stamp is taken before building: a modification during the build invalidates the result on next access
+            V value;
+            try {
+                value = builder.apply(snapshot != null ? (V) snapshot.value() : null);
+            } catch (RuntimeException e) {
+                // changes already drained by the builder are lost; next access must not trust the previous snapshot
+                onFailure.run();
+                throw e;
+            }
+
+            snapshots.put(key, new Snapshot<>(stamp, value));
+
+            return value;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @NotNull
+    private <T> IndexData<T> buildIndexData(@NotNull ID<String, T> id, @NotNull GlobalSearchScope scope, @NotNull Collection<String> keys) {
+        Map<String, List<T>> values = new HashMap<>();
+        Map<String, Set<VirtualFile>> keyFiles = new HashMap<>();
+        Map<VirtualFile, Set<String>> fileKeys = new HashMap<>();
+
+        for (String key : keys) {
+            // just for secure
+            if (key == null) {
+                continue;
+            }
+
+            collectKey(id, scope, key, values, keyFiles, fileKeys);
+        }
+
+        return new IndexData<>(Collections.unmodifiableMap(values), keyFiles, fileKeys);
+    }
+
+    @NotNull
+    private <T> IndexData<T> patchIndexData(@NotNull IndexData<T> previous, @NotNull ID<String, T> id, @NotNull GlobalSearchScope scope, @NotNull Set<String> affectedKeys) {
+        // previous snapshot is shared with readers: copy outer maps, inner collections are replaced but never modified
+        Map<String, List<T>> values = new HashMap<>(previous.values());
+        Map<String, Set<VirtualFile>> keyFiles = new HashMap<>(previous.keyFiles());
+        Map<VirtualFile, Set<String>> fileKeys = new HashMap<>(previous.fileKeys());
+
+        for (String key : affectedKeys) {
+            ProgressManager.checkCanceled();
+
+            values.remove(key);
+
+            Set<VirtualFile> files = keyFiles.remove(key);
+            if (files != null) {
+                for (VirtualFile file : files) {
+                    Set<String> keysOfFile = fileKeys.get(file);
+                    if (keysOfFile == null) {
+                        continue;
+                    }
+
+                    Set<String> remaining = new HashSet<>(keysOfFile);
+                    remaining.remove(key);
+
+                    if (remaining.isEmpty()) {
+                        fileKeys.remove(file);
+                    } else {
+                        fileKeys.put(file, remaining);
+                    }
+                }
+            }
+
+            collectKey(id, scope, key, values, keyFiles, fileKeys);
+        }
+
+        return new IndexData<>(Collections.unmodifiableMap(values), keyFiles, fileKeys);
+    }
+
+    private <T> void collectKey(@NotNull ID<String, T> id, @NotNull GlobalSearchScope scope, @NotNull String key, @NotNull Map<String, List<T>> values, @NotNull Map<String, Set<VirtualFile>> keyFiles, @NotNull Map<VirtualFile, Set<String>> fileKeys) {
+        List<T> keyValues = new ArrayList<>();
+        Set<VirtualFile> files = new HashSet<>();
+
+        FileBasedIndex.getInstance().processValues(id, key, null, (file, value) -> {
+            keyValues.add(value);
+            files.add(file);
+            return true;
+        }, scope);
+
+        if (files.isEmpty()) {
+            return;
+        }
+
+        values.put(key, keyValues);
+        keyFiles.put(key, files);
+
+        for (VirtualFile file : files) {
+            Set<String> keysOfFile = fileKeys.get(file);
+
+            Set<String> updated = keysOfFile != null ? new HashSet<>(keysOfFile) : new HashSet<>();
+            updated.add(key);
+
+            fileKeys.put(file, updated);
+        }
+    }
+
+    private long getStamp(@NotNull ID<?, ?> id) {
+        return FileBasedIndex.getInstance().getIndexModificationStamp(id, project);
+    }
+
+    private void markChanged(@NotNull VirtualFile file) {
+        for (ChangedFiles changed : changedFiles.values()) {
+            changed.add(file);
+        }
+    }
+
+    private void invalidateChanges() {
+        for (ChangedFiles changed : changedFiles.values()) {
+            changed.invalidate();
+        }
+    }
+
+    private class ChangedFilesListener implements BulkFileListener {
+        @Override
+        public void before(@NotNull List<? extends @NotNull VFileEvent> events) {
+            // deleted and moved files must be known with their old index data
+            for (VFileEvent event : events) {
+                if (event instanceof VFileDeleteEvent || event instanceof VFileMoveEvent) {
+                    visitFile(event.getFile());
+                }
+            }
+        }
+
+        @Override
+        public void after(@NotNull List<? extends @NotNull VFileEvent> events) {
+            for (VFileEvent event : events) {
+                if (!(event instanceof VFileDeleteEvent)) {
+                    visitFile(event.getFile());
+                }
+            }
+        }
+
+        private void visitFile(@Nullable VirtualFile file) {
+            // directory operations affect an unknown set of files
+            if (file == null || file.isDirectory()) {
+                invalidateChanges();
+                return;
+            }
+
+            markChanged(file);
+        }
+    }
+
+    /**
+     * Files changed since the last build of a snapshot; "null" means unknown changes and forces a full rebuild
+     */
+    private static class ChangedFiles {
+        @Nullable
+        private Set<VirtualFile> files = new HashSet<>();
+
+        synchronized void add(@NotNull VirtualFile file) {
+            if (files == null) {
+                return;
+            }
+
+            files.add(file);
+
+            if (files.size() > MAX_CHANGED_FILES) {
+                files = null;
+            }
+        }
+
+        synchronized void invalidate() {
+            files = null;
+        }
+
+        @Nullable
+        synchronized Set<VirtualFile> drain() {
+            Set<VirtualFile> drained = files;
+            files = new HashSet<>();
+            return drained;
+        }
+    }
+
+    private static class RebuildCounter {
+        private final AtomicLong fullRebuilds = new AtomicLong();
+        private final AtomicLong incrementalRebuilds = new AtomicLong();
+        private final AtomicLong rebuiltKeys = new AtomicLong();
+        private final AtomicLong fullRebuildKeys = new AtomicLong();
+
+        void full(int keys) {
+            fullRebuilds.incrementAndGet();
+            rebuiltKeys.addAndGet(keys);
+            fullRebuildKeys.addAndGet(keys);
+        }
+
+        void incremental(int keys, int totalKeys) {
+            incrementalRebuilds.incrementAndGet();
+            rebuiltKeys.addAndGet(keys);
+            fullRebuildKeys.addAndGet(totalKeys);
+
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Incremental index snapshot rebuild: " + keys + " of " + totalKeys + " keys");
+            }
+        }
+
+        @NotNull
+        Statistics toStatistics() {
+            return new Statistics(fullRebuilds.get(), incrementalRebuilds.get(), rebuiltKeys.get(), fullRebuildKeys.get());
+        }
+    }
+
+    /**
+     * @param rebuiltKeys Keys fetched from the index over all rebuilds
+     * @param fullRebuildKeys Keys that would have been fetched if every rebuild was a full one
+     */
+    public record Statistics(long fullRebuilds, long incrementalRebuilds, long rebuiltKeys, long fullRebuildKeys) {
+    }
+
+    private record IndexData<T>(@NotNull Map<String, List<T>> values, @NotNull Map<String, Set<VirtualFile>> keyFiles, @NotNull Map<VirtualFile, Set<String>> fileKeys) {
+    }
+
+    private record Snapshot<V>(long stamp, @NotNull V value) {
+    }
+}
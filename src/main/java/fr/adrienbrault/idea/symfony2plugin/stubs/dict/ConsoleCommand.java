@@ -0,0 +1,27 @@
+package fr.adrienbrault.idea.symfony2plugin.stubs.dict;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+
+/**
+ * Indexed console command of a class or of a "#[AsCommand]" method
+ *
+ * @param phpClass starting with "\"
+ * @param attribute "#[AsCommand]" is given; else it is a "Command" subclass candidate via "$defaultName" or "setName()"
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ */
+public record ConsoleCommand(
+    @NotNull String phpClass,
+    @Nullable String methodName,
+    boolean attribute,
+    @NotNull List<Option> options,
+    @NotNull List<Argument> arguments
+) {
+    public record Option(@NotNull String name, @Nullable String shortcut, @Nullable String description, @Nullable String defaultValue) {
+    }
+
+    public record Argument(@NotNull String name, @Nullable String description, @Nullable String defaultValue) {
+    }
+}
@@ -0,0 +1,44 @@
+package fr.adrienbrault.idea.symfony2plugin.stubs.dict;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+
+/**
+ * Own form related methods of a class or trait; inherited methods are resolved on usage via "superClass" and "traits".
+ *
+ * Values are index-safe strings: literals, "Foo::class" without leading "\" or a constant of another class as
+ * reference, e.g. "\App\Options::LABEL"
+ *
+ * @param superClass starting with "\"
+ * @param traits starting with "\"
+ * @param name Symfony < 3 alias of "getName()"; the class name without leading "\" if the method is not given
+ * @param parents "getParent()"; "null" if the class has no own method
+ * @param extendedType "getExtendedType()"; "null" if the class has no own method
+ * @param extendedTypes "getExtendedTypes()" of Symfony >= 4.2; "null" if the class has no own method
+ * @param optionMethods "setDefaultOptions()" and "configureOptions()" with their declared options
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ */
+public record FormTypeDefinition(
+    @Nullable String superClass,
+    @NotNull List<String> traits,
+    @Nullable String name,
+    @Nullable List<String> parents,
+    @Nullable List<String> extendedType,
+    @Nullable List<String> extendedTypes,
+    @NotNull List<OptionMethod> optionMethods
+) {
+    /**
+     * @param parentCall "parent::configureOptions()" is called, so the options of the parent method are also given
+     */
+    public record OptionMethod(@NotNull String name, boolean parentCall, @NotNull List<Option> options) {
+    }
+
+    /**
+     * @param optionEnum name of the "FormOptionEnum"
+     * @param offset start of the option inside the file, e.g. the array key of "setDefaults()"
+     */
+    public record Option(@NotNull String name, @NotNull String optionEnum, int offset) {
+    }
+}
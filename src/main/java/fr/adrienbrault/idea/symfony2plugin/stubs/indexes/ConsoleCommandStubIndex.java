@@ -0,0 +1,147 @@
+package fr.adrienbrault.idea.symfony2plugin.stubs.indexes;
+
+import com.intellij.util.indexing.*;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.KeyDescriptor;
+import com.jetbrains.php.lang.psi.PhpFile;
+import com.jetbrains.php.lang.psi.PhpPsiUtil;
+import com.jetbrains.php.lang.psi.elements.*;
+import com.jetbrains.php.lang.psi.stubs.indexes.PhpConstantNameIndex;
+import fr.adrienbrault.idea.symfony2plugin.stubs.dict.ConsoleCommand;
+import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.externalizer.ConsoleCommandExternalizer;
+import fr.adrienbrault.idea.symfony2plugin.util.SymfonyCommandUtil;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+
+/**
+ * Console command names with their options and arguments
+ *
+ * - Key: command name or alias, e.g. "app:create-user"
+ * - Value: class or method of the command
+ *
+ * Parsed by the same index-safe helpers as the PSI based "SymfonyCommandUtil" API, constants of other classes are kept
+ * as reference and resolved on usage, e.g. "\App\Names::IMPORT"
+ *
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ */
+public class ConsoleCommandStubIndex extends FileBasedIndexExtension<String, ConsoleCommand> {
+    public static final ID<String, ConsoleCommand> KEY = ID.create("fr.adrienbrault.idea.symfony2plugin.console_command_index");
+
+    private final KeyDescriptor<String> myKeyDescriptor = new EnumeratorStringDescriptor();
+
+    @Override
+    public @NotNull ID<String, ConsoleCommand> getName() {
+        return KEY;
+    }
+
+    @Override
+    // Index-safe only: no PhpIndex/type resolution here.
+    public @NotNull DataIndexer<String, ConsoleCommand, FileContent> getIndexer() {
+        return inputData -> {
+            Map<String, ConsoleCommand> map = new HashMap<>();
+
+            if (inputData.getPsiFile() instanceof PhpFile phpFile) {
+                for (PhpClass phpClass : PhpPsiUtil.findAllClasses(phpFile)) {
+                    visitClass(phpClass, map);
+                }
+            }
+
+            return map;
+        };
+    }
+
+    @Override
+    public @NotNull KeyDescriptor<String> getKeyDescriptor() {
+        return this.myKeyDescriptor;
+    }
+
+    @Override
+    public @NotNull DataExternalizer<ConsoleCommand> getValueExternalizer() {
+        return ConsoleCommandExternalizer.INSTANCE;
+    }
+
+    @Override
+    public int getVersion() {
+        return 2;
+    }
+
+    public FileBasedIndex.@NotNull InputFilter getInputFilter() {
+        return PhpConstantNameIndex.PHP_INPUT_FILTER;
+    }
+
+    @Override
+    public boolean dependsOnFileContent() {
+        return true;
+    }
+
+    private static void visitClass(@NotNull PhpClass phpClass, @NotNull Map<String, ConsoleCommand> map) {
+        if (phpClass.isInterface() || phpClass.isTrait()) {
+            return;
+        }
+
+        // #[AsCommand] wins over the legacy definitions, same as on runtime
+        boolean attribute = true;
+        List<String> names = SymfonyCommandUtil.getAsCommandNamesIndexSafe(phpClass, phpClass);
+
+        // legacy definitions are only possible inside a "Command" subclass; the hierarchy itself is checked on usage
+        if (names.isEmpty() && phpClass.getSuperFQN() != null) {
+            attribute = false;
+            names = SymfonyCommandUtil.getLegacyCommandNamesIndexSafe(phpClass);
+        }
+
+        if (!names.isEmpty()) {
+            List<ConsoleCommand.Option> options = new ArrayList<>();
+            for (SymfonyCommandUtil.CommandOption option : SymfonyCommandUtil.getCommandOptionsIndexSafe(phpClass)) {
+                options.add(createOption(option));
+            }
+
+            List<ConsoleCommand.Argument> arguments = new ArrayList<>();
+            for (SymfonyCommandUtil.CommandArgument argument : SymfonyCommandUtil.getCommandArgumentsIndexSafe(phpClass)) {
+                arguments.add(createArgument(argument));
+            }
+
+            ConsoleCommand command = new ConsoleCommand(phpClass.getFQN(), null, attribute, options, arguments);
+            for (String name : names) {
+                map.put(name, command);
+            }
+        }
+
+        for (Method method : phpClass.getOwnMethods()) {
+            if (!method.getAccess().isPublic()) {
+                continue;
+            }
+
+            List<String> methodNames = SymfonyCommandUtil.getAsCommandNamesIndexSafe(method, phpClass);
+            if (methodNames.isEmpty()) {
+                continue;
+            }
+
+            List<ConsoleCommand.Option> options = new ArrayList<>();
+            for (SymfonyCommandUtil.CommandOption option : SymfonyCommandUtil.getCommandOptions(method).values()) {
+                options.add(createOption(option));
+            }
+
+            List<ConsoleCommand.Argument> arguments = new ArrayList<>();
+            for (SymfonyCommandUtil.CommandArgument argument : SymfonyCommandUtil.getCommandArguments(method).values()) {
+                arguments.add(createArgument(argument));
+            }
+
+            ConsoleCommand command = new ConsoleCommand(phpClass.getFQN(), method.getName(), true, options, arguments);
+            for (String name : methodNames) {
+                map.put(name, command);
+            }
+        }
+    }
+
+    @NotNull
+    private static ConsoleCommand.Option createOption(@NotNull SymfonyCommandUtil.CommandOption option) {
+        return new ConsoleCommand.Option(option.name(), option.shortcut(), option.description(), option.defaultValue());
+    }
+
+    @NotNull
+    private static ConsoleCommand.Argument createArgument(@NotNull SymfonyCommandUtil.CommandArgument argument) {
+        return new ConsoleCommand.Argument(argument.name(), argument.description(), argument.defaultValue());
+    }
+}
@@ -104,7 +104,7 @@ public class DoctrineMetadataFileStubIndex extends FileBasedIndexExtension<Strin
 
     @Override
     public int getVersion() {
-        return 6;
+        return 7;
     }
 
 }
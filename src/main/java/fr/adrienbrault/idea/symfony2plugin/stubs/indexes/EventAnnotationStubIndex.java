@@ -106,7 +106,7 @@ public class EventAnnotationStubIndex extends FileBasedIndexExtension<String, Di
 
     @Override
     public int getVersion() {
-        return 3;
+        return 4;
     }
 
     private void visitPhpDocTag(@NotNull PhpDocTag element, @NotNull Map<String, DispatcherEvent> map, @NotNull ElementPattern<PsiElement> phpDocAttributeListPattern, @NotNull ElementPattern<PsiElement> phpDocStringPattern) {
@@ -0,0 +1,121 @@
+package fr.adrienbrault.idea.symfony2plugin.stubs.indexes;
+
+import com.intellij.util.indexing.*;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.KeyDescriptor;
+import com.jetbrains.php.lang.psi.PhpFile;
+import com.jetbrains.php.lang.psi.PhpPsiUtil;
+import com.jetbrains.php.lang.psi.elements.Method;
+import com.jetbrains.php.lang.psi.elements.PhpClass;
+import com.jetbrains.php.lang.psi.stubs.indexes.PhpConstantNameIndex;
+import fr.adrienbrault.idea.symfony2plugin.form.util.FormOptionsUtil;
+import fr.adrienbrault.idea.symfony2plugin.form.util.FormUtil;
+import fr.adrienbrault.idea.symfony2plugin.stubs.dict.FormTypeDefinition;
+import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.externalizer.FormTypeDefinitionExternalizer;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * Own form methods of every class: "getParent", "getExtendedType(s)", "getName" and the options of
+ * "configureOptions" / "setDefaultOptions"
+ *
+ * - Key: class name, e.g. "\App\Form\UserType"
+ * - Value: parent class, traits and the raw method values
+ *
+ * Nothing outside the file is resolved: inherited methods are walked on usage and constants of other classes are kept
+ * as reference, e.g. "\App\Options::LABEL"
+ *
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ */
+public class FormTypeStubIndex extends FileBasedIndexExtension<String, FormTypeDefinition> {
+    public static final ID<String, FormTypeDefinition> KEY = ID.create("fr.adrienbrault.idea.symfony2plugin.form_type_index");
+
+    private final KeyDescriptor<String> myKeyDescriptor = new EnumeratorStringDescriptor();
+
+    @Override
+    public @NotNull ID<String, FormTypeDefinition> getName() {
+        return KEY;
+    }
+
+    @Override
+    // Index-safe only: no PhpIndex/type resolution here.
+    public @NotNull DataIndexer<String, FormTypeDefinition, FileContent> getIndexer() {
+        return inputData -> {
+            Map<String, FormTypeDefinition> map = new HashMap<>();
+
+            if (inputData.getPsiFile() instanceof PhpFile phpFile) {
+                for (PhpClass phpClass : PhpPsiUtil.findAllClasses(phpFile)) {
+                    if (phpClass.isInterface()) {
+                        continue;
+                    }
+
+                    FormTypeDefinition definition = createDefinition(phpClass);
+                    if (definition != null) {
+                        map.put(phpClass.getFQN(), definition);
+                    }
+                }
+            }
+
+            return map;
+        };
+    }
+
+    @Override
+    public @NotNull KeyDescriptor<String> getKeyDescriptor() {
+        return this.myKeyDescriptor;
+    }
+
+    @Override
+    public @NotNull DataExternalizer<FormTypeDefinition> getValueExternalizer() {
+        return FormTypeDefinitionExternalizer.INSTANCE;
+    }
+
+    @Override
+    public int getVersion() {
+        return 1;
+    }
+
+    public FileBasedIndex.@NotNull InputFilter getInputFilter() {
+        return PhpConstantNameIndex.PHP_INPUT_FILTER;
+    }
+
+    @Override
+    public boolean dependsOnFileContent() {
+        return true;
+    }
+
+    /**
+     * "null" for classes without any own form method
+     */
+    @Nullable
+    private static FormTypeDefinition createDefinition(@NotNull PhpClass phpClass) {
+        Method getParent = phpClass.findOwnMethodByName("getParent");
+        Method getExtendedType = phpClass.findOwnMethodByName("getExtendedType");
+        Method getExtendedTypes = phpClass.findOwnMethodByName("getExtendedTypes");
+
+        List<FormTypeDefinition.OptionMethod> optionMethods = new ArrayList<>();
+        for (String methodName : FormOptionsUtil.FORM_OPTION_METHODS) {
+            Method method = phpClass.findOwnMethodByName(methodName);
+            if (method != null) {
+                optionMethods.add(FormOptionsUtil.getOptionMethodIndexSafe(phpClass, method));
+            }
+        }
+
+        if (getParent == null && getExtendedType == null && getExtendedTypes == null && optionMethods.isEmpty() && phpClass.findOwnMethodByName("getName") == null) {
+            return null;
+        }
+
+        return new FormTypeDefinition(
+            phpClass.getSuperFQN(),
+            Arrays.asList(phpClass.getTraitNames()),
+            FormUtil.getFormNameIndexSafe(phpClass),
+            getParent != null ? FormUtil.getFormParentIndexSafe(phpClass, getParent) : null,
+            getExtendedType != null ? FormUtil.getFormExtendedTypeIndexSafe(phpClass, getExtendedType) : null,
+            getExtendedTypes != null ? FormUtil.getFormExtendedTypeIndexSafe(phpClass, getExtendedTypes) : null,
+            optionMethods
+        );
+    }
+}
@@ -87,7 +87,7 @@ public class ServicesDefinitionStubIndex extends FileBasedIndexExtension<String,
 
     @Override
     public int getVersion() {
-        return 10;
+        return 11;
     }
 
     public static boolean isValidForIndex(FileContent inputData, PsiFile psiFile) {
@@ -0,0 +1,71 @@
+package fr.adrienbrault.idea.symfony2plugin.stubs.indexes.externalizer;
+
+import com.intellij.util.io.DataExternalizer;
+import fr.adrienbrault.idea.symfony2plugin.stubs.dict.ConsoleCommand;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ */
+public class ConsoleCommandExternalizer implements DataExternalizer<ConsoleCommand> {
+
+    public static final ConsoleCommandExternalizer INSTANCE = new ConsoleCommandExternalizer();
+
+    @Override
+    public void save(@NotNull DataOutput out, ConsoleCommand value) throws IOException {
+        out.writeUTF(value.phpClass());
+        writeNullableString(out, value.methodName());
+        out.writeBoolean(value.attribute());
+
+        out.writeInt(value.options().size());
+        for (ConsoleCommand.Option option : value.options()) {
+            out.writeUTF(option.name());
+            writeNullableString(out, option.shortcut());
+            writeNullableString(out, option.description());
+            writeNullableString(out, option.defaultValue());
+        }
+
+        out.writeInt(value.arguments().size());
+        for (ConsoleCommand.Argument argument : value.arguments()) {
+            out.writeUTF(argument.name());
+            writeNullableString(out, argument.description());
+            writeNullableString(out, argument.defaultValue());
+        }
+    }
+
+    @Override
+    public ConsoleCommand read(@NotNull DataInput in) throws IOException {
+        String phpClass = in.readUTF();
+        String methodName = readNullableString(in);
+        boolean attribute = in.readBoolean();
+
+        List<ConsoleCommand.Option> options = new ArrayList<>();
+        for (int i = in.readInt(); i > 0; --i) {
+            options.add(new ConsoleCommand.Option(in.readUTF(), readNullableString(in), readNullableString(in), readNullableString(in)));
+        }
+
+        List<ConsoleCommand.Argument> arguments = new ArrayList<>();
+        for (int i = in.readInt(); i > 0; --i) {
+            arguments.add(new ConsoleCommand.Argument(in.readUTF(), readNullableString(in), readNullableString(in)));
+        }
+
+        return new ConsoleCommand(phpClass, methodName, attribute, options, arguments);
+    }
+
+    private static void writeNullableString(@NotNull DataOutput out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullableString(@NotNull DataInput in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
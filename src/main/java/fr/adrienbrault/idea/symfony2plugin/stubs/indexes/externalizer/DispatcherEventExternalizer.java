@@ -17,29 +17,21 @@ public class DispatcherEventExternalizer implements DataExternalizer<DispatcherE
 
     @Override
     public void save(@NotNull DataOutput out, DispatcherEvent value) throws IOException {
-        writeNullableString(out, value.getFqn());
-        writeNullableString(out, value.getInstance());
+        StringTableDataWriter writer = new StringTableDataWriter();
+        writer.writeString(value.getFqn());
+        writer.writeString(value.getInstance());
+        writer.flush(out);
     }
 
     @Override
     public DispatcherEvent read(@NotNull DataInput in) throws IOException {
-        String fqn = readNullableString(in);
-        String instance = readNullableString(in);
-        DispatcherEvent event = new DispatcherEvent();
+        StringTableDataReader reader = StringTableDataReader.create(in);
+
+        String fqn = reader.readString();
+        String instance = reader.readString();
         if (fqn != null) {
             return new DispatcherEvent(fqn, instance);
         }
-        return event;
-    }
-
-    private static void writeNullableString(@NotNull DataOutput out, String value) throws IOException {
-        out.writeBoolean(value != null);
-        if (value != null) {
-            out.writeUTF(value);
-        }
-    }
-
-    private static String readNullableString(@NotNull DataInput in) throws IOException {
-        return in.readBoolean() ? in.readUTF() : null;
+        return new DispatcherEvent();
     }
 }
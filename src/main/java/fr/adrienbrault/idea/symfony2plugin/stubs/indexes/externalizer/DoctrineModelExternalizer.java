@@ -18,24 +18,16 @@ public class DoctrineModelExternalizer implements DataExternalizer<DoctrineModel
 
     @Override
     public void save(@NotNull DataOutput out, DoctrineModelSerializable value) throws IOException {
-        out.writeUTF(value.getClassName());
-        writeNullableString(out, value.getRepositoryClass());
-        writeNullableString(out, value.getTableName());
+        StringTableDataWriter writer = new StringTableDataWriter();
+        writer.writeString(value.getClassName());
+        writer.writeString(value.getRepositoryClass());
+        writer.writeString(value.getTableName());
+        writer.flush(out);
     }
 
     @Override
     public DoctrineModelSerializable read(@NotNull DataInput in) throws IOException {
-        return new DoctrineModel(in.readUTF(), readNullableString(in), readNullableString(in));
-    }
-
-    private static void writeNullableString(@NotNull DataOutput out, String value) throws IOException {
-        out.writeBoolean(value != null);
-        if (value != null) {
-            out.writeUTF(value);
-        }
-    }
-
-    private static String readNullableString(@NotNull DataInput in) throws IOException {
-        return in.readBoolean() ? in.readUTF() : null;
+        StringTableDataReader reader = StringTableDataReader.create(in);
+        return new DoctrineModel(reader.readNotNullString(), reader.readString(), reader.readString());
     }
 }
@@ -0,0 +1,106 @@
+package fr.adrienbrault.idea.symfony2plugin.stubs.indexes.externalizer;
+
+import com.intellij.util.io.DataExternalizer;
+import fr.adrienbrault.idea.symfony2plugin.stubs.dict.FormTypeDefinition;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ */
+public class FormTypeDefinitionExternalizer implements DataExternalizer<FormTypeDefinition> {
+
+    public static final FormTypeDefinitionExternalizer INSTANCE = new FormTypeDefinitionExternalizer();
+
+    @Override
+    public void save(@NotNull DataOutput out, FormTypeDefinition value) throws IOException {
+        writeNullableString(out, value.superClass());
+        writeStrings(out, value.traits());
+        writeNullableString(out, value.name());
+        writeNullableStrings(out, value.parents());
+        writeNullableStrings(out, value.extendedType());
+        writeNullableStrings(out, value.extendedTypes());
+
+        out.writeInt(value.optionMethods().size());
+        for (FormTypeDefinition.OptionMethod method : value.optionMethods()) {
+            out.writeUTF(method.name());
+            out.writeBoolean(method.parentCall());
+
+            out.writeInt(method.options().size());
+            for (FormTypeDefinition.Option option : method.options()) {
+                out.writeUTF(option.name());
+                out.writeUTF(option.optionEnum());
+                out.writeInt(option.offset());
+            }
+        }
+    }
+
+    @Override
+    public FormTypeDefinition read(@NotNull DataInput in) throws IOException {
+        String superClass = readNullableString(in);
+        List<String> traits = readStrings(in);
+        String name = readNullableString(in);
+        List<String> parents = readNullableStrings(in);
+        List<String> extendedType = readNullableStrings(in);
+        List<String> extendedTypes = readNullableStrings(in);
+
+        List<FormTypeDefinition.OptionMethod> optionMethods = new ArrayList<>();
+        for (int i = in.readInt(); i > 0; --i) {
+            String methodName = in.readUTF();
+            boolean parentCall = in.readBoolean();
+
+            List<FormTypeDefinition.Option> options = new ArrayList<>();
+            for (int j = in.readInt(); j > 0; --j) {
+                options.add(new FormTypeDefinition.Option(in.readUTF(), in.readUTF(), in.readInt()));
+            }
+
+            optionMethods.add(new FormTypeDefinition.OptionMethod(methodName, parentCall, options));
+        }
+
+        return new FormTypeDefinition(superClass, traits, name, parents, extendedType, extendedTypes, optionMethods);
+    }
+
+    private static void writeNullableString(@NotNull DataOutput out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullableString(@NotNull DataInput in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeStrings(@NotNull DataOutput out, @NotNull List<String> values) throws IOException {
+        out.writeInt(values.size());
+        for (String value : values) {
+            out.writeUTF(value);
+        }
+    }
+
+    @NotNull
+    private static List<String> readStrings(@NotNull DataInput in) throws IOException {
+        List<String> values = new ArrayList<>();
+        for (int i = in.readInt(); i > 0; --i) {
+            values.add(in.readUTF());
+        }
+
+        return values;
+    }
+
+    private static void writeNullableStrings(@NotNull DataOutput out, List<String> values) throws IOException {
+        out.writeBoolean(values != null);
+        if (values != null) {
+            writeStrings(out, values);
+        }
+    }
+
+    private static List<String> readNullableStrings(@NotNull DataInput in) throws IOException {
+        return in.readBoolean() ? readStrings(in) : null;
+    }
+}
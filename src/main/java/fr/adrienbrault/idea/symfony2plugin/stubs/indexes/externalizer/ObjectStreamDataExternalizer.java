@@ -6,8 +6,12 @@ import org.jetbrains.annotations.NotNull;
 import java.io.*;
 
 /**
+ * Java serialization writes class descriptors into every record; use a hand-written externalizer instead
+ *
  * @author Daniel Espendiller <daniel@espendiller.net>
+ * @deprecated see {@link StringTableDataWriter}
  */
+@Deprecated
 public class ObjectStreamDataExternalizer<T extends Serializable> implements DataExternalizer<T> {
 
     @Override
@@ -8,8 +8,6 @@ import org.jetbrains.annotations.NotNull;
 import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.Collection;
 
 /**
  * @author Daniel Espendiller <daniel@espendiller.net>
@@ -23,92 +21,68 @@ public class SerializableServiceExternalizer implements DataExternalizer<Service
         if (!(value instanceof SerializableService service)) {
             throw new IOException("Unexpected type: " + value.getClass());
         }
-        out.writeUTF(service.getId());
-        writeNullableString(out, service.getClassName());
-        writeNullableBoolean(out, service.isPublicNullable());
-        writeNullableBoolean(out, service.isLazyNullable());
-        writeNullableBoolean(out, service.isAbstractNullable());
-        writeNullableBoolean(out, service.isAutowireNullable());
-        writeNullableBoolean(out, service.isAutoconfigureNullable());
-        writeNullableBoolean(out, service.isDeprecatedNullable());
-        writeNullableString(out, service.getAlias());
-        writeNullableString(out, service.getDecorates());
-        writeNullableString(out, service.getDecorationInnerName());
-        writeNullableString(out, service.getParent());
-        writeStringCollection(out, service.getResource());
-        writeStringCollection(out, service.getExclude());
-        writeStringCollection(out, service.getTags());
+
+        StringTableDataWriter writer = new StringTableDataWriter();
+        writer.writeString(service.getId());
+        writer.writeString(service.getClassName());
+
+        // nullable booleans as 2 bits each: 0 = null, 1 = true, 2 = false
+        int flags = 0;
+        flags |= toBits(service.isPublicNullable());
+        flags |= toBits(service.isLazyNullable()) << 2;
+        flags |= toBits(service.isAbstractNullable()) << 4;
+        flags |= toBits(service.isAutowireNullable()) << 6;
+        flags |= toBits(service.isAutoconfigureNullable()) << 8;
+        flags |= toBits(service.isDeprecatedNullable()) << 10;
+        writer.writeInt(flags);
+
+        writer.writeString(service.getAlias());
+        writer.writeString(service.getDecorates());
+        writer.writeString(service.getDecorationInnerName());
+        writer.writeString(service.getParent());
+        writer.writeStrings(service.getResource());
+        writer.writeStrings(service.getExclude());
+        writer.writeStrings(service.getTags());
+
+        writer.flush(out);
     }
 
     @Override
     public SerializableService read(@NotNull DataInput in) throws IOException {
-        SerializableService service = new SerializableService(in.readUTF());
-        service.setClassName(readNullableString(in));
-        service.setIsPublic(readNullableBoolean(in));
-        service.setIsLazy(readNullableBoolean(in));
-        service.setIsAbstract(readNullableBoolean(in));
-        service.setIsAutowire(readNullableBoolean(in));
-        service.setIsAutoconfigure(readNullableBoolean(in));
-        service.setIsDeprecated(readNullableBoolean(in));
-        service.setAlias(readNullableString(in));
-        service.setDecorates(readNullableString(in));
-        service.setDecorationInnerName(readNullableString(in));
-        service.setParent(readNullableString(in));
-        service.setResource(readStringCollection(in));
-        service.setExclude(readStringCollection(in));
-        service.setTags(readStringCollection(in));
-        return service;
-    }
+        StringTableDataReader reader = StringTableDataReader.create(in);
 
-    private static void writeNullableString(@NotNull DataOutput out, String value) throws IOException {
-        out.writeBoolean(value != null);
-        if (value != null) {
-            out.writeUTF(value);
-        }
-    }
+        SerializableService service = new SerializableService(reader.readNotNullString());
+        service.setClassName(reader.readString());
 
-    private static String readNullableString(@NotNull DataInput in) throws IOException {
-        return in.readBoolean() ? in.readUTF() : null;
-    }
+        int flags = reader.readInt();
+        service.setIsPublic(fromBits(flags));
+        service.setIsLazy(fromBits(flags >> 2));
+        service.setIsAbstract(fromBits(flags >> 4));
+        service.setIsAutowire(fromBits(flags >> 6));
+        service.setIsAutoconfigure(fromBits(flags >> 8));
+        service.setIsDeprecated(fromBits(flags >> 10));
 
-    private static void writeNullableBoolean(@NotNull DataOutput out, Boolean value) throws IOException {
-        if (value == null) {
-            out.writeByte(0);
-        } else if (value) {
-            out.writeByte(1);
-        } else {
-            out.writeByte(2);
-        }
-    }
-
-    private static Boolean readNullableBoolean(@NotNull DataInput in) throws IOException {
-        byte b = in.readByte();
-        if (b == 0) return null;
-        return b == 1;
+        service.setAlias(reader.readString());
+        service.setDecorates(reader.readString());
+        service.setDecorationInnerName(reader.readString());
+        service.setParent(reader.readString());
+        service.setResource(reader.readStrings());
+        service.setExclude(reader.readStrings());
+        service.setTags(reader.readStrings());
+        return service;
     }
 
-    private static void writeStringCollection(@NotNull DataOutput out, Collection<String> values) throws IOException {
-        Collection<String> filteredValues = new ArrayList<>();
-        if (values != null) {
-            for (String value : values) {
-                if (value != null) {
-                    filteredValues.add(value);
-                }
-            }
+    private static int toBits(Boolean value) {
+        if (value == null) {
+            return 0;
         }
 
-        out.writeInt(filteredValues.size());
-        for (String value : filteredValues) {
-            out.writeUTF(value);
-        }
+        return value ? 1 : 2;
     }
 
-    private static Collection<String> readStringCollection(@NotNull DataInput in) throws IOException {
-        int size = in.readInt();
-        Collection<String> result = new ArrayList<>(size);
-        for (int i = 0; i < size; i++) {
-            result.add(in.readUTF());
-        }
-        return result;
+    private static Boolean fromBits(int bits) {
+        int value = bits & 3;
+        if (value == 0) return null;
+        return value == 1;
     }
 }
@@ -0,0 +1,86 @@
+package fr.adrienbrault.idea.symfony2plugin.stubs.indexes.externalizer;
+
+import com.intellij.util.io.DataInputOutputUtil;
+import com.intellij.util.io.IOUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.DataInput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+
+/**
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ * @see StringTableDataWriter
+ */
+public class StringTableDataReader {
+
+    @NotNull
+    private final DataInput in;
+
+    @NotNull
+    private final String[] strings;
+
+    private StringTableDataReader(@NotNull DataInput in, @NotNull String[] strings) {
+        this.in = in;
+        this.strings = strings;
+    }
+
+    /**
+     * Read the string table; fields are read afterward in the same order they were written
+     */
+    @NotNull
+    public static StringTableDataReader create(@NotNull DataInput in) throws IOException {
+        int version = in.readByte();
+        if (version != StringTableDataWriter.FORMAT_VERSION) {
+            // IOException marks the index as corrupted, so it gets rebuilt
+            throw new IOException("Unsupported index value format: " + version);
+        }
+
+        String[] strings = new String[DataInputOutputUtil.readINT(in)];
+        for (int i = 0; i < strings.length; i++) {
+            strings[i] = IOUtil.readUTF(in);
+        }
+
+        return new StringTableDataReader(in, strings);
+    }
+
+    @Nullable
+    public String readString() throws IOException {
+        int index = DataInputOutputUtil.readINT(in);
+        if (index == 0) {
+            return null;
+        }
+
+        if (index > strings.length) {
+            throw new IOException("Invalid string table index: " + index);
+        }
+
+        return strings[index - 1];
+    }
+
+    @NotNull
+    public String readNotNullString() throws IOException {
+        String value = readString();
+        if (value == null) {
+            throw new IOException("Unexpected null value");
+        }
+
+        return value;
+    }
+
+    @NotNull
+    public Collection<String> readStrings() throws IOException {
+        int size = DataInputOutputUtil.readINT(in);
+        Collection<String> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            result.add(readNotNullString());
+        }
+        return result;
+    }
+
+    public int readInt() throws IOException {
+        return DataInputOutputUtil.readINT(in);
+    }
+}
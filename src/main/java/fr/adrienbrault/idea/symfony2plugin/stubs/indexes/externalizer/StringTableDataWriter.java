@@ -0,0 +1,90 @@
+package fr.adrienbrault.idea.symfony2plugin.stubs.indexes.externalizer;
+
+import com.intellij.util.io.DataInputOutputUtil;
+import com.intellij.util.io.IOUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compact record format for index values:
+ *
+ * [format version][varint string count][strings...][fields...]
+ *
+ * Every distinct string of a record is written once; fields only reference it via a varint index, "0" is null.
+ * Service ids and class names are mostly the same string, so they share one table entry.
+ *
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ * @see StringTableDataReader
+ */
+public class StringTableDataWriter {
+
+    /**
+     * Bump on any layout change; also bump "getVersion" of all indexes using this format
+     */
+    public static final int FORMAT_VERSION = 1;
+
+    @NotNull
+    private final Map<String, Integer> strings = new LinkedHashMap<>();
+
+    @NotNull
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+    @NotNull
+    private final DataOutputStream fields = new DataOutputStream(bytes);
+
+    public void writeString(@Nullable String value) throws IOException {
+        if (value == null) {
+            DataInputOutputUtil.writeINT(fields, 0);
+            return;
+        }
+
+        DataInputOutputUtil.writeINT(fields, strings.computeIfAbsent(value, s -> strings.size() + 1));
+    }
+
+    /**
+     * Null values inside the collection are skipped
+     */
+    public void writeStrings(@Nullable Collection<String> values) throws IOException {
+        Collection<String> filteredValues = new ArrayList<>();
+        if (values != null) {
+            for (String value : values) {
+                if (value != null) {
+                    filteredValues.add(value);
+                }
+            }
+        }
+
+        DataInputOutputUtil.writeINT(fields, filteredValues.size());
+        for (String value : filteredValues) {
+            writeString(value);
+        }
+    }
+
+    public void writeInt(int value) throws IOException {
+        DataInputOutputUtil.writeINT(fields, value);
+    }
+
+    /**
+     * Write string table followed by all fields
+     */
+    public void flush(@NotNull DataOutput out) throws IOException {
+        out.writeByte(FORMAT_VERSION);
+
+        DataInputOutputUtil.writeINT(out, strings.size());
+        for (String value : strings.keySet()) {
+            IOUtil.writeUTF(out, value);
+        }
+
+        fields.flush();
+        out.write(bytes.toByteArray());
+    }
+}
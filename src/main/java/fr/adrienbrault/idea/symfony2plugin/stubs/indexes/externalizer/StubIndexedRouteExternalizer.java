@@ -7,8 +7,6 @@ import org.jetbrains.annotations.NotNull;
 import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.Collection;
 
 /**
  * @author Daniel Espendiller <daniel@espendiller.net>
@@ -19,38 +17,22 @@ public class StubIndexedRouteExternalizer implements DataExternalizer<StubIndexe
 
     @Override
     public void save(@NotNull DataOutput out, StubIndexedRoute value) throws IOException {
-        out.writeUTF(value.getName());
-        writeNullableString(out, value.getController());
-        writeNullableString(out, value.getPath());
-        Collection<String> methods = value.getMethods();
-        out.writeInt(methods.size());
-        for (String method : methods) {
-            out.writeUTF(method);
-        }
+        StringTableDataWriter writer = new StringTableDataWriter();
+        writer.writeString(value.getName());
+        writer.writeString(value.getController());
+        writer.writeString(value.getPath());
+        writer.writeStrings(value.getMethods());
+        writer.flush(out);
     }
 
     @Override
     public StubIndexedRoute read(@NotNull DataInput in) throws IOException {
-        StubIndexedRoute route = new StubIndexedRoute(in.readUTF());
-        route.setController(readNullableString(in));
-        route.setPath(readNullableString(in));
-        int size = in.readInt();
-        Collection<String> methods = new ArrayList<>(size);
-        for (int i = 0; i < size; i++) {
-            methods.add(in.readUTF());
-        }
-        route.setMethods(methods);
-        return route;
-    }
+        StringTableDataReader reader = StringTableDataReader.create(in);
 
-    private static void writeNullableString(@NotNull DataOutput out, String value) throws IOException {
-        out.writeBoolean(value != null);
-        if (value != null) {
-            out.writeUTF(value);
-        }
-    }
-
-    private static String readNullableString(@NotNull DataInput in) throws IOException {
-        return in.readBoolean() ? in.readUTF() : null;
+        StubIndexedRoute route = new StubIndexedRoute(reader.readNotNullString());
+        route.setController(reader.readString());
+        route.setPath(reader.readString());
+        route.setMethods(reader.readStrings());
+        return route;
     }
 }
@@ -18,6 +18,7 @@ import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.PhpAttributeIndexUtil;
 import fr.adrienbrault.idea.symfony2plugin.templating.dict.TwigExtension;
 import fr.adrienbrault.idea.symfony2plugin.util.PhpElementsUtil;
 import fr.adrienbrault.idea.symfony2plugin.util.PsiElementUtils;
+import fr.adrienbrault.idea.symfony2plugin.util.SymfonyCacheMetrics;
 import org.apache.commons.lang3.StringUtils;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -47,41 +48,41 @@ public class TwigExtensionParser  {
 
     @NotNull
     public static Map<String, TwigExtension> getFunctions(@NotNull Project project) {
-        return CachedValuesManager.getManager(project).getCachedValue(
+        return SymfonyCacheMetrics.getCachedValue(
             project,
             FUNCTION_CACHE,
-            () -> CachedValueProvider.Result.create(parseFunctions(project, TwigUtil.getTwigExtensionClasses(project)), PsiModificationTracker.getInstance(project).forLanguage(PhpLanguage.INSTANCE)),
-            false
+            "TwigExtensionParser.FUNCTION_CACHE",
+            () -> CachedValueProvider.Result.create(parseFunctions(project, TwigUtil.getTwigExtensionClasses(project)), PsiModificationTracker.getInstance(project).forLanguage(PhpLanguage.INSTANCE))
         );
     }
 
     @NotNull
     public static Map<String, TwigExtension> getFilters(@NotNull Project project) {
-        return CachedValuesManager.getManager(project).getCachedValue(
+        return SymfonyCacheMetrics.getCachedValue(
             project,
             FILTERS_CACHE,
-            () -> CachedValueProvider.Result.create(parseFilters(project, TwigUtil.getTwigExtensionClasses(project)), PsiModificationTracker.getInstance(project).forLanguage(PhpLanguage.INSTANCE)),
-            false
+            "TwigExtensionParser.FILTERS_CACHE",
+            () -> CachedValueProvider.Result.create(parseFilters(project, TwigUtil.getTwigExtensionClasses(project)), PsiModificationTracker.getInstance(project).forLanguage(PhpLanguage.INSTANCE))
         );
     }
 
     @NotNull
     public static Map<String, TwigExtension> getSimpleTest(@NotNull Project project) {
-        return CachedValuesManager.getManager(project).getCachedValue(
+        return SymfonyCacheMetrics.getCachedValue(
             project,
             TEST_CACHE,
-            () -> CachedValueProvider.Result.create(parseTests(project, TwigUtil.getTwigExtensionClasses(project)), PsiModificationTracker.getInstance(project).forLanguage(PhpLanguage.INSTANCE)),
-            false
+            "TwigExtensionParser.TEST_CACHE",
+            () -> CachedValueProvider.Result.create(parseTests(project, TwigUtil.getTwigExtensionClasses(project)), PsiModificationTracker.getInstance(project).forLanguage(PhpLanguage.INSTANCE))
         );
     }
 
     @NotNull
     public static Map<String, TwigExtension> getOperators(@NotNull Project project) {
-        return CachedValuesManager.getManager(project).getCachedValue(
+        return SymfonyCacheMetrics.getCachedValue(
             project,
             OPERATORS_CACHE,
-            () -> CachedValueProvider.Result.create(parseOperators(project, TwigUtil.getTwigExtensionClasses(project)), PsiModificationTracker.getInstance(project).forLanguage(PhpLanguage.INSTANCE)),
-            false
+            "TwigExtensionParser.OPERATORS_CACHE",
+            () -> CachedValueProvider.Result.create(parseOperators(project, TwigUtil.getTwigExtensionClasses(project)), PsiModificationTracker.getInstance(project).forLanguage(PhpLanguage.INSTANCE))
         );
     }
 
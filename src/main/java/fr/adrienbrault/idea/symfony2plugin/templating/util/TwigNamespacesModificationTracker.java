@@ -0,0 +1,66 @@
+package fr.adrienbrault.idea.symfony2plugin.templating.util;
+
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.ModificationTracker;
+import fr.adrienbrault.idea.symfony2plugin.templating.path.TwigPath;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+
+/**
+ * Only changes if the resolved Twig namespaces change, e.g. a new "paths" entry or an "addPath" of a bundle; other
+ * PHP or Yaml edits leave caches built on the namespaces untouched.
+ *
+ * The namespaces themselves are still resolved on PSI changes, so the stamp is checked against a fresh list on every
+ * call. A list which is identical to the last one is accepted without comparing it.
+ *
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ */
+@Service(Service.Level.PROJECT)
+public final class TwigNamespacesModificationTracker implements ModificationTracker {
+
+    @NotNull
+    private final Project project;
+
+    @Nullable
+    private volatile List<TwigPath> twigPaths;
+
+    /**
+     * Guarded by "this"
+     */
+    @Nullable
+    private List<String> keys;
+
+    private volatile long modificationCount;
+
+    public TwigNamespacesModificationTracker(@NotNull Project project) {
+        this.project = project;
+    }
+
+    @NotNull
+    public static TwigNamespacesModificationTracker getInstance(@NotNull Project project) {
+        return project.getService(TwigNamespacesModificationTracker.class);
+    }
+
+    @Override
+    public long getModificationCount() {
+        List<TwigPath> current = TwigUtil.getTwigNamespaces(project);
+        if (current == this.twigPaths) {
+            return modificationCount;
+        }
+
+        List<String> currentKeys = TwigTemplateMapCache.createKeys(current);
+
+        synchronized (this) {
+            if (!currentKeys.equals(this.keys)) {
+                this.keys = currentKeys;
+                modificationCount++;
+            }
+
+            this.twigPaths = current;
+            return modificationCount;
+        }
+    }
+}
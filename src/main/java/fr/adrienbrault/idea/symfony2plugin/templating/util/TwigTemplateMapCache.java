@@ -0,0 +1,278 @@
+package fr.adrienbrault.idea.symfony2plugin.templating.util;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.openapi.vfs.newvfs.BulkFileListener;
+import com.intellij.openapi.vfs.newvfs.events.*;
+import com.intellij.psi.search.FileTypeIndex;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.search.GlobalSearchScopesCore;
+import com.jetbrains.php.lang.PhpFileType;
+import com.jetbrains.twig.TwigFileType;
+import fr.adrienbrault.idea.symfony2plugin.templating.path.TwigPath;
+import fr.adrienbrault.idea.symfony2plugin.util.ProgressLockUtil;
+import fr.adrienbrault.idea.symfony2plugin.util.SymfonyCacheMetrics;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Incrementally maintained "template name => files" map for all Twig namespaces.
+ *
+ * Templates are collected per namespace directory. File structure changes (create, delete, move, rename)
+ * only invalidate the namespaces containing the changed path; all other namespaces are reused.
+ * Content changes never affect template names and are ignored. A fresh map is read without any lock.
+ *
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ */
+@Service(Service.Level.PROJECT)
+public final class TwigTemplateMapCache implements Disposable {
+
+    @NotNull
+    private final Project project;
+
+    @NotNull
+    private final TemplateMap twigTemplates = new TemplateMap(false);
+
+    @NotNull
+    private final TemplateMap allTemplates = new TemplateMap(true);
+
+    public TwigTemplateMapCache(@NotNull Project project) {
+        this.project = project;
+
+        project.getMessageBus().connect(this).subscribe(VirtualFileManager.VFS_CHANGES, new BulkFileListener() {
+            @Override
+            public void after(@NotNull List<? extends @NotNull VFileEvent> events) {
+                for (VFileEvent event : events) {
+                    for (String path : getStructureChangePaths(event)) {
+                        twigTemplates.pathChanged(path);
+                        allTemplates.pathChanged(path);
+                    }
+                }
+            }
+        });
+    }
+
+    @NotNull
+    public static TwigTemplateMapCache getInstance(@NotNull Project project) {
+        return project.getService(TwigTemplateMapCache.class);
+    }
+
+    @Override
+    public void dispose() {
+    }
+
+    /**
+     * @param usePhp also include PHP templates
+     */
+    @NotNull
+    public Map<String, Set<VirtualFile>> getTemplateMap(boolean usePhp) {
+        return (usePhp ? allTemplates : twigTemplates).get();
+    }
+
+    /**
+     * Changed paths for file structure events; content changes are not relevant for template names
+     */
+    @NotNull
+    private static Collection<String> getStructureChangePaths(@NotNull VFileEvent event) {
+        if (event instanceof VFileCreateEvent || event instanceof VFileDeleteEvent || event instanceof VFileCopyEvent) {
+            return Collections.singletonList(event.getPath());
+        }
+
+        if (event instanceof VFileMoveEvent moveEvent) {
+            return Arrays.asList(moveEvent.getOldPath(), moveEvent.getNewPath());
+        }
+
+        if (event instanceof VFilePropertyChangeEvent propertyChangeEvent && VirtualFile.PROP_NAME.equals(propertyChangeEvent.getPropertyName())) {
+            VirtualFile parent = propertyChangeEvent.getFile().getParent();
+            String parentPath = parent != null ? parent.getPath() : "";
+
+            return Arrays.asList(event.getPath(), parentPath + "/" + propertyChangeEvent.getOldValue());
+        }
+
+        return Collections.emptyList();
+    }
+
+    private class TemplateMap {
+        private final boolean usePhp;
+
+        @NotNull
+        private final ReentrantLock lock = new ReentrantLock();
+
+        /**
+         * Namespace keys with file structure changes since the last build
+         */
+        @NotNull
+        private final Set<String> changedNamespaces = ConcurrentHashMap.newKeySet();
+
+        @Nullable
+        private volatile State state;
+
+        private TemplateMap(boolean usePhp) {
+            this.usePhp = usePhp;
+        }
+
+        @NotNull
+        private Map<String, Set<VirtualFile>> get() {
+            List<TwigPath> twigPaths = TwigUtil.getTwigNamespaces(project);
+
+            State current = state;
+            if (current != null && changedNamespaces.isEmpty() && current.isFor(twigPaths)) {
+                SymfonyCacheMetrics.getInstance(project).hit(getMetricName());
+                return current.templates();
+            }
+
+            ProgressLockUtil.lock(lock);
+            try {
+                // another thread may already have finished the rebuild while we were waiting
+                current = state;
+                if (current != null && changedNamespaces.isEmpty() && current.isFor(twigPaths)) {
+                    return current.templates();
+                }
+
+                Set<String> changed = new HashSet<>();
+                for (Iterator<String> iterator = changedNamespaces.iterator(); iterator.hasNext(); ) {
+                    changed.add(iterator.next());
+                    iterator.remove();
+                }
+
+                State next;
+                try {
+                    State previous = current;
+                    next = SymfonyCacheMetrics.measure(project, getMetricName(), () -> build(previous, twigPaths, changed), built -> built.templates().size());
+                } catch (RuntimeException e) {
+                    // drained changes must not get lost on cancel
+                    changedNamespaces.addAll(changed);
+                    throw e;
+                }
+
+                state = next;
+                return next.templates();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @NotNull
+        private String getMetricName() {
+            return usePhp ? "TwigTemplateMapCache.allTemplates" : "TwigTemplateMapCache.twigTemplates";
+        }
+
+        private void pathChanged(@NotNull String path) {
+            State current = state;
+            if (current == null) {
+                return;
+            }
+
+            for (NamespaceTemplates namespace : current.namespaces()) {
+                String directory = namespace.directory();
+
+                // namespace directory was not existing on build, so it may have been created now
+                if (directory == null || path.equals(directory) || path.startsWith(directory + "/") || directory.startsWith(path + "/")) {
+                    changedNamespaces.add(namespace.key());
+                }
+            }
+        }
+
+        @NotNull
+        private State build(@Nullable State previous, @NotNull List<TwigPath> twigPaths, @NotNull Set<String> changed) {
+            Map<String, NamespaceTemplates> reusable = new HashMap<>();
+            if (previous != null) {
+                for (NamespaceTemplates namespace : previous.namespaces()) {
+                    if (!changed.contains(namespace.key())) {
+                        reusable.put(namespace.key(), namespace);
+                    }
+                }
+            }
+
+            List<NamespaceTemplates> namespaces = new ArrayList<>();
+            Map<String, Set<VirtualFile>> templateNames = new HashMap<>();
+
+            for (TwigPath twigPath : twigPaths) {
+                if (!twigPath.isEnabled()) {
+                    continue;
+                }
+
+                String key = createKey(twigPath);
+
+                NamespaceTemplates namespace = reusable.get(key);
+                if (namespace == null) {
+                    namespace = collectNamespaceTemplates(twigPath, key);
+                }
+
+                namespaces.add(namespace);
+
+                for (Map.Entry<String, Set<VirtualFile>> entry : namespace.templates().entrySet()) {
+                    templateNames.computeIfAbsent(entry.getKey(), k -> new HashSet<>()).addAll(entry.getValue());
+                }
+            }
+
+            return new State(twigPaths, createKeys(twigPaths), namespaces, Collections.unmodifiableMap(templateNames));
+        }
+
+        @NotNull
+        private NamespaceTemplates collectNamespaceTemplates(@NotNull TwigPath twigPath, @NotNull String key) {
+            VirtualFile virtualDirectoryFile = twigPath.getDirectory(project);
+            if (virtualDirectoryFile == null) {
+                return new NamespaceTemplates(key, null, Collections.emptyMap());
+            }
+
+            Map<String, Set<VirtualFile>> templateNames = new HashMap<>();
+
+            GlobalSearchScope dirScope = GlobalSearchScopesCore.directoriesScope(project, true, virtualDirectoryFile);
+
+            for (VirtualFile file : FileTypeIndex.getFiles(TwigFileType.INSTANCE, dirScope)) {
+                String templateName = TwigUtil.getTemplateNameForTwigPath(project, twigPath, file);
+                if (templateName != null) {
+                    templateNames.computeIfAbsent(templateName, k -> new HashSet<>()).add(file);
+                }
+            }
+
+            if (usePhp) {
+                for (VirtualFile file : FileTypeIndex.getFiles(PhpFileType.INSTANCE, dirScope)) {
+                    String templateName = TwigUtil.getTemplateNameForTwigPath(project, twigPath, file);
+                    if (templateName != null) {
+                        templateNames.computeIfAbsent(templateName, k -> new HashSet<>()).add(file);
+                    }
+                }
+            }
+
+            return new NamespaceTemplates(key, virtualDirectoryFile.getPath(), templateNames);
+        }
+    }
+
+    @NotNull
+    static List<String> createKeys(@NotNull List<TwigPath> twigPaths) {
+        List<String> keys = new ArrayList<>(twigPaths.size());
+        for (TwigPath twigPath : twigPaths) {
+            keys.add(createKey(twigPath));
+        }
+        return keys;
+    }
+
+    @NotNull
+    private static String createKey(@NotNull TwigPath twigPath) {
+        return twigPath.getNamespaceType() + ":" + twigPath.getNamespace() + ":" + twigPath.isEnabled() + ":" + twigPath.getPath();
+    }
+
+    /**
+     * @param directory resolved namespace directory on build; "null" if it was not existing
+     */
+    private record NamespaceTemplates(@NotNull String key, @Nullable String directory, @NotNull Map<String, Set<VirtualFile>> templates) {
+    }
+
+    private record State(@NotNull List<TwigPath> twigPaths, @NotNull List<String> keys, @NotNull List<NamespaceTemplates> namespaces, @NotNull Map<String, Set<VirtualFile>> templates) {
+        /**
+         * Namespaces are cached on PSI changes, so mostly the list instance is the same
+         */
+        boolean isFor(@NotNull List<TwigPath> twigPaths) {
+            return this.twigPaths == twigPaths || this.keys.equals(createKeys(twigPaths));
+        }
+    }
+}
@@ -15,6 +15,7 @@ import com.intellij.psi.tree.IElementType;
 import com.intellij.psi.util.CachedValue;
 import com.intellij.psi.util.CachedValueProvider;
 import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
 import com.intellij.psi.util.PsiTreeUtil;
 import com.jetbrains.php.PhpIndex;
 import com.jetbrains.php.lang.psi.elements.Field;
@@ -40,6 +41,8 @@ import fr.adrienbrault.idea.symfony2plugin.templating.variable.resolver.TwigType
 import fr.adrienbrault.idea.symfony2plugin.util.PhpElementsUtil;
 import fr.adrienbrault.idea.symfony2plugin.util.PhpIndexUtil;
 import fr.adrienbrault.idea.symfony2plugin.util.PsiElementUtils;
+import fr.adrienbrault.idea.symfony2plugin.util.SymfonyVarDirectoryWatcher;
+import fr.adrienbrault.idea.symfony2plugin.util.SymfonyVarDirectoryWatcherKt;
 import fr.adrienbrault.idea.symfony2plugin.util.yaml.YamlHelper;
 import org.apache.commons.lang3.StringUtils;
 import org.jetbrains.annotations.NotNull;
@@ -122,6 +125,8 @@ public class TwigTypeResolveUtil {
 
     private static final Key<CachedValue<Map<String, String>>> FILE_VARIABLE_DOC_BLOCK_CACHE = new Key<>("TWIG_FILE_VARIABLE_DOC_BLOCK");
 
+    private static final Key<CachedValue<Map<String, PsiVariable>>> SCOPE_VARIABLES_CACHE = new Key<>("TWIG_SCOPE_VARIABLES");
+
     private static final TwigTypeResolver[] TWIG_TYPE_RESOLVERS = new TwigTypeResolver[] {
         new FormVarsResolver(),
         new FormFieldResolver(),
@@ -663,9 +668,21 @@ public class TwigTypeResolveUtil {
         return "\\mixed";
     }
 
+    /**
+     * Variables visible at the given element. Cached per element, so all lookups of one completion or highlighting run collect only once
+     */
     @NotNull
     public static Map<String, PsiVariable> collectScopeVariables(@NotNull PsiElement psiElement) {
-        return collectScopeVariables(psiElement, new HashSet<>());
+        return new HashMap<>(CachedValuesManager.getCachedValue(
+            psiElement,
+            SCOPE_VARIABLES_CACHE,
+            () -> CachedValueProvider.Result.create(
+                Collections.unmodifiableMap(collectScopeVariables(psiElement, new HashSet<>())),
+                PsiModificationTracker.MODIFICATION_COUNT,
+                // globals of Twig extensions
+                SymfonyVarDirectoryWatcherKt.getSymfonyVarDirectoryWatcher(psiElement.getProject()).getModificationTracker(SymfonyVarDirectoryWatcher.Scope.CONTAINER)
+            )
+        ));
     }
 
     @NotNull
@@ -9,17 +9,15 @@ import com.intellij.openapi.editor.Editor;
 import com.intellij.openapi.extensions.ExtensionPointName;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.Key;
+import com.intellij.openapi.util.ModificationTracker;
 import com.intellij.openapi.util.Pair;
 import com.intellij.openapi.util.TextRange;
 import com.intellij.openapi.vfs.VfsUtil;
 import com.intellij.openapi.vfs.VirtualFile;
-import com.intellij.openapi.vfs.VirtualFileManager;
 import com.intellij.patterns.ElementPattern;
 import com.intellij.patterns.PlatformPatterns;
 import com.intellij.psi.*;
-import com.intellij.psi.search.FileTypeIndex;
 import com.intellij.psi.search.GlobalSearchScope;
-import com.intellij.psi.search.GlobalSearchScopesCore;
 import com.intellij.psi.tree.IElementType;
 import com.intellij.psi.util.*;
 import com.intellij.util.Consumer;
@@ -28,7 +26,6 @@ import com.intellij.util.containers.ArrayListSet;
 import com.intellij.util.containers.ContainerUtil;
 import com.intellij.util.indexing.FileBasedIndex;
 import com.jetbrains.php.PhpIndex;
-import com.jetbrains.php.lang.PhpFileType;
 import com.jetbrains.php.lang.PhpLanguage;
 import com.jetbrains.php.lang.documentation.PhpNamedElementDocSource;
 import com.jetbrains.php.lang.documentation.phpdoc.psi.PhpDocComment;
@@ -144,9 +141,6 @@ public class TwigUtil {
         "fr.adrienbrault.idea.symfony2plugin.extension.TwigFileUsage"
     );
 
-    private static final Key<CachedValue<Map<String, Set<VirtualFile>>>> TEMPLATE_CACHE_TWIG = new Key<>("TEMPLATE_CACHE_TWIG");
-
-    private static final Key<CachedValue<Map<String, Set<VirtualFile>>>> TEMPLATE_CACHE_ALL = new Key<>("TEMPLATE_CACHE_ALL");
     private static final Key<CachedValue<Map<String, Map<String, PsiVariable>>>> CONTROLLER_TEMPLATE_VARIABLES_CACHE = new Key<>("TWIG_CONTROLLER_TEMPLATE_VARIABLES_CACHE");
     private static final Key<CachedValue<List<String>>> SYMFONY_TEMPLATE_INCLUDE_LIST = new Key<>("SYMFONY_TEMPLATE_INCLUDE_LIST");
     private static final Key<CachedValue<List<String>>> SYMFONY_TEMPLATE_EMBED_LIST = new Key<>("SYMFONY_TEMPLATE_EMBED_LIST");
@@ -1196,57 +1190,8 @@ public class TwigUtil {
      * foo.html.twig => ["views/foo.html.twig", "templates/foo.html.twig"]
      */
     @NotNull
-    public static synchronized Map<String, Set<VirtualFile>> getTemplateMap(@NotNull Project project, boolean usePhp) {
-        return CachedValuesManager.getManager(project).getCachedValue(
-            project,
-            usePhp ? TEMPLATE_CACHE_ALL : TEMPLATE_CACHE_TWIG,
-            () -> CachedValueProvider.Result.create(getTemplateMapProxy(project, usePhp), VirtualFileManager.VFS_STRUCTURE_MODIFICATIONS),
-            false
-        );
-    }
-
-    /**
-     * Cache less visiting template files
-     */
-    @NotNull
-    private static Map<String, Set<VirtualFile>> getTemplateMapProxy(@NotNull Project project, boolean usePhp) {
-        List<TwigPath> twigPaths = new ArrayList<>(getTwigNamespaces(project));
-        if(twigPaths.isEmpty()) {
-            return Collections.emptyMap();
-        }
-
-        Map<String, Set<VirtualFile>> templateNames = new HashMap<>();
-
-        for (TwigPath twigPath : twigPaths) {
-            if(!twigPath.isEnabled()) {
-                continue;
-            }
-
-            VirtualFile virtualDirectoryFile = twigPath.getDirectory(project);
-            if(virtualDirectoryFile == null) {
-                continue;
-            }
-
-            GlobalSearchScope dirScope = GlobalSearchScopesCore.directoriesScope(project, true, virtualDirectoryFile);
-
-            for (VirtualFile file : FileTypeIndex.getFiles(TwigFileType.INSTANCE, dirScope)) {
-                String templateName = getTemplateNameForTwigPath(project, twigPath, file);
-                if(templateName != null) {
-                    templateNames.computeIfAbsent(templateName, k -> new HashSet<>()).add(file);
-                }
-            }
-
-            if(usePhp) {
-                for (VirtualFile file : FileTypeIndex.getFiles(PhpFileType.INSTANCE, dirScope)) {
-                    String templateName = getTemplateNameForTwigPath(project, twigPath, file);
-                    if(templateName != null) {
-                        templateNames.computeIfAbsent(templateName, k -> new HashSet<>()).add(file);
-                    }
-                }
-            }
-        }
-
-        return templateNames;
+    public static Map<String, Set<VirtualFile>> getTemplateMap(@NotNull Project project, boolean usePhp) {
+        return TwigTemplateMapCache.getInstance(project).getTemplateMap(usePhp);
     }
 
     @Nullable
@@ -1677,6 +1622,14 @@ public class TwigUtil {
         }, false);
     }
 
+    /**
+     * Dependency for caches which are built on "getTwigNamespaces"; only changes with the resolved namespaces
+     */
+    @NotNull
+    public static ModificationTracker getTwigNamespacesModificationTracker(@NotNull Project project) {
+        return TwigNamespacesModificationTracker.getInstance(project);
+    }
+
     @NotNull
     public static List<TwigPath> getTwigNamespaces(@NotNull Project project, boolean includeSettings) {
         if (includeSettings) {
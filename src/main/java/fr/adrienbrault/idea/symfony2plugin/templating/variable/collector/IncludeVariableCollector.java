@@ -1,5 +1,7 @@
 package fr.adrienbrault.idea.symfony2plugin.templating.variable.collector;
 
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.util.RecursionManager;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.patterns.ElementPattern;
 import com.intellij.openapi.project.Project;
@@ -9,6 +11,10 @@ import com.intellij.psi.PsiManager;
 import com.intellij.psi.PsiRecursiveElementWalkingVisitor;
 import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.psi.tree.IElementType;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
 import com.intellij.psi.util.PsiTreeUtil;
 import com.jetbrains.php.lang.psi.elements.PhpClass;
 import com.jetbrains.php.lang.psi.elements.PhpNamedElement;
@@ -22,6 +28,7 @@ import com.jetbrains.twig.elements.TwigExtendsTag;
 import com.jetbrains.twig.elements.TwigTagWithFileReference;
 import fr.adrienbrault.idea.symfony2plugin.extension.TwigFileUsage;
 import fr.adrienbrault.idea.symfony2plugin.templating.TwigPattern;
+import fr.adrienbrault.idea.symfony2plugin.stubs.cache.FileIndexCaches;
 import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.TwigIncludeStubIndex;
 import fr.adrienbrault.idea.symfony2plugin.templating.util.TwigIncludeContextParser;
 import fr.adrienbrault.idea.symfony2plugin.templating.util.TwigTypeResolveUtil;
@@ -41,32 +48,65 @@ import java.util.*;
  * @author Daniel Espendiller <daniel@espendiller.net>
  */
 public class IncludeVariableCollector implements TwigFileVariableCollector {
+    private static final Key<CachedValue<Map<String, PsiVariable>>> INCLUDE_VARIABLES_CACHE = new Key<>("TWIG_INCLUDE_VARIABLES");
+
     @Override
     public void collectPsiVariables(@NotNull final TwigFileVariableCollectorParameter parameter, @NotNull final Map<String, PsiVariable> variables) {
         PsiFile psiFile = parameter.getContainingFile();
-        if (!(psiFile instanceof TwigFile) || PsiTreeUtil.getChildOfType(psiFile, TwigExtendsTag.class) != null) {
+        if (!(psiFile instanceof TwigFile twigFile) || PsiTreeUtil.getChildOfType(psiFile, TwigExtendsTag.class) != null) {
             return;
         }
 
-        Collection<VirtualFile> files = getImplements((TwigFile) psiFile);
+        variables.putAll(getIncludeVariables(twigFile));
+    }
+
+    /**
+     * Variables provided by all templates including the given one. Cached per file, so on an include chain every
+     * include edge is resolved once per modification.
+     *
+     * An include cycle returns no variables for the repeated file; values computed inside a cycle are not cached.
+     */
+    @NotNull
+    private static Map<String, PsiVariable> getIncludeVariables(@NotNull TwigFile twigFile) {
+        return CachedValuesManager.getCachedValue(twigFile, INCLUDE_VARIABLES_CACHE, () -> {
+            Map<String, PsiVariable> variables = RecursionManager.doPreventingRecursion(twigFile, false, () -> collectIncludeVariables(twigFile));
+
+            return CachedValueProvider.Result.create(
+                variables != null ? Collections.unmodifiableMap(variables) : Collections.emptyMap(),
+                PsiModificationTracker.MODIFICATION_COUNT,
+                FileIndexCaches.getModificationTrackerForIndexId(twigFile.getProject(), TwigIncludeStubIndex.KEY)
+            );
+        });
+    }
+
+    @NotNull
+    private static Map<String, PsiVariable> collectIncludeVariables(@NotNull TwigFile twigFile) {
+        Map<String, PsiVariable> variables = new HashMap<>();
+
+        Collection<VirtualFile> files = getImplements(twigFile);
         if (files.isEmpty()) {
-            return;
+            return variables;
         }
 
+        Set<VirtualFile> visitedFiles = new HashSet<>();
+        visitedFiles.add(twigFile.getVirtualFile());
+
         for (VirtualFile virtualFile: files) {
-            PsiFile twigFile = PsiManager.getInstance(parameter.getProject()).findFile(virtualFile);
-            if (!(twigFile instanceof TwigFile)) {
+            PsiFile includingFile = PsiManager.getInstance(twigFile.getProject()).findFile(virtualFile);
+            if (!(includingFile instanceof TwigFile)) {
                 continue;
             }
 
-            twigFile.acceptChildren(new MyPsiRecursiveElementWalkingVisitor(psiFile, variables, parameter));
+            includingFile.acceptChildren(new MyPsiRecursiveElementWalkingVisitor(twigFile, variables, visitedFiles));
         }
+
+        return variables;
     }
 
     /**
      * Adds parent scope and explicit include parameters for the matched include target.
      */
-    private void collectIncludeContextVars(IElementType iElementType, PsiElement tag, PsiElement templatePsiName, Map<String, PsiVariable> variables, Set<VirtualFile> visitedFiles) {
+    private static void collectIncludeContextVars(IElementType iElementType, PsiElement tag, PsiElement templatePsiName, Map<String, PsiVariable> variables, Set<VirtualFile> visitedFiles) {
 
         TwigIncludeContextParser.IncludeContext includeContext = resolveIncludeContext(iElementType, tag, templatePsiName);
 
@@ -92,7 +132,7 @@ public class IncludeVariableCollector implements TwigFileVariableCollector {
     /**
      * Adds native-shaped with/only context for extension-provided custom include/embed tags.
      */
-    private void collectExternalIncludeContextVars(PsiElement tag, Map<String, PsiVariable> variables, Set<VirtualFile> visitedFiles) {
+    private static void collectExternalIncludeContextVars(PsiElement tag, Map<String, PsiVariable> variables, Set<VirtualFile> visitedFiles) {
         TwigIncludeContextParser.IncludeContext includeContext = TwigIncludeContextParser.resolveTagIncludeContext(tag);
 
         if (!includeContext.withParentContext() && includeContext.arguments().isEmpty()) {
@@ -227,7 +267,7 @@ public class IncludeVariableCollector implements TwigFileVariableCollector {
         return element.getNode().getElementType() == elementType;
     }
 
-    private Collection<VirtualFile> getImplements(TwigFile twigFile) {
+    private static Collection<VirtualFile> getImplements(TwigFile twigFile) {
         final Set<VirtualFile> targets = new HashSet<>();
 
         for (String templateName: TwigUtil.getTemplateNamesForFile(twigFile)) {
@@ -240,7 +280,7 @@ public class IncludeVariableCollector implements TwigFileVariableCollector {
         return targets;
     }
 
-    private class MyPsiRecursiveElementWalkingVisitor extends PsiRecursiveElementWalkingVisitor {
+    private static class MyPsiRecursiveElementWalkingVisitor extends PsiRecursiveElementWalkingVisitor {
         @NotNull
         private final PsiFile psiFile;
 
@@ -248,7 +288,7 @@ public class IncludeVariableCollector implements TwigFileVariableCollector {
         private final Map<String, PsiVariable> variables;
 
         @NotNull
-        private final TwigFileVariableCollectorParameter parameter;
+        private final Set<VirtualFile> visitedFiles;
 
         private ElementPattern<PsiElement> includeFunctionPattern;
 
@@ -256,10 +296,10 @@ public class IncludeVariableCollector implements TwigFileVariableCollector {
             return includeFunctionPattern != null ? includeFunctionPattern : (includeFunctionPattern = TwigPattern.getPrintBlockOrTagFunctionPattern("include"));
         }
 
-        private MyPsiRecursiveElementWalkingVisitor(@NotNull PsiFile psiFile, @NotNull Map<String, PsiVariable> variables, @NotNull TwigFileVariableCollectorParameter parameter) {
+        private MyPsiRecursiveElementWalkingVisitor(@NotNull PsiFile psiFile, @NotNull Map<String, PsiVariable> variables, @NotNull Set<VirtualFile> visitedFiles) {
             this.psiFile = psiFile;
             this.variables = variables;
-            this.parameter = parameter;
+            this.visitedFiles = visitedFiles;
         }
 
         @Override
@@ -299,7 +339,7 @@ public class IncludeVariableCollector implements TwigFileVariableCollector {
             if (StringUtils.isNotBlank(templateName)) {
                 for (PsiFile templateFile: TwigUtil.getTemplatePsiElements(element.getProject(), templateName)) {
                     if (templateFile.equals(psiFile)) {
-                        collectIncludeContextVars(iElementType, element, contextElement, variables, parameter.getVisitedFiles());
+                        collectIncludeContextVars(iElementType, element, contextElement, variables, visitedFiles);
                     }
                 }
             }
@@ -325,7 +365,7 @@ public class IncludeVariableCollector implements TwigFileVariableCollector {
 
                 for (PsiFile templateFile : TwigUtil.getTemplatePsiElements(element.getProject(), templateName)) {
                     if (templateFile.equals(psiFile)) {
-                        collectExternalIncludeContextVars(element, variables, parameter.getVisitedFiles());
+                        collectExternalIncludeContextVars(element, variables, visitedFiles);
                     }
                 }
             }
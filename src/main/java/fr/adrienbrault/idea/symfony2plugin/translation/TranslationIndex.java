@@ -20,7 +20,9 @@ import org.apache.commons.lang3.StringUtils;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.Set;
 
 /**
  * @author Daniel Espendiller <daniel@espendiller.net>
@@ -40,7 +42,7 @@ public class TranslationIndex {
 
                 TranslationStringMap translationStringMap;
                 if (!translationDirectories.isEmpty()) {
-                    translationStringMap = TranslationStringMap.create(translationDirectories);
+                    translationStringMap = TranslationStringMap.create(translationDirectories, getPrimaryLocales(project));
                 } else {
                     translationStringMap = TranslationStringMap.createEmpty();
                 }
@@ -130,6 +132,26 @@ public class TranslationIndex {
         return files;
     }
 
+    /**
+     * Configured eagerly loaded locales; empty for all
+     */
+    @NotNull
+    private static Set<String> getPrimaryLocales(@NotNull Project project) {
+        String translationLocales = Settings.getInstance(project).translationLocales;
+        if (StringUtils.isBlank(translationLocales)) {
+            return Collections.emptySet();
+        }
+
+        Set<String> locales = new HashSet<>();
+        for (String locale : translationLocales.split(",")) {
+            if (StringUtils.isNotBlank(locale)) {
+                locales.add(locale.trim());
+            }
+        }
+
+        return locales;
+    }
+
     private static SimpleModificationTracker getTranslationsTracker(@NotNull Project project) {
         return SymfonyVarDirectoryWatcherKt.getSymfonyVarDirectoryWatcher(project)
             .getModificationTracker(SymfonyVarDirectoryWatcher.Scope.TRANSLATIONS);
@@ -3,11 +3,15 @@ package fr.adrienbrault.idea.symfony2plugin.translation.dict;
 import com.intellij.codeInsight.lookup.LookupElement;
 import com.intellij.openapi.extensions.ExtensionPointName;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.util.ModificationTracker;
 import com.intellij.openapi.util.Pair;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiFile;
 import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
 import com.intellij.psi.xml.XmlFile;
 import com.intellij.psi.xml.XmlTag;
 import com.intellij.util.Consumer;
@@ -16,6 +20,7 @@ import com.jetbrains.php.lang.psi.PhpFile;
 import com.jetbrains.php.lang.psi.elements.*;
 import fr.adrienbrault.idea.symfony2plugin.extension.TranslatorProvider;
 import fr.adrienbrault.idea.symfony2plugin.extension.TranslatorProviderDict;
+import fr.adrienbrault.idea.symfony2plugin.stubs.cache.FileIndexCaches;
 import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.TranslationStubIndex;
 import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.visitor.TranslationArrayReturnVisitor;
 import fr.adrienbrault.idea.symfony2plugin.translation.TranslationKeyTargetFakePsiNavigationItem;
@@ -29,6 +34,9 @@ import fr.adrienbrault.idea.symfony2plugin.util.MethodMatcher;
 import fr.adrienbrault.idea.symfony2plugin.util.PhpElementsUtil;
 import fr.adrienbrault.idea.symfony2plugin.util.ProjectUtil;
 import fr.adrienbrault.idea.symfony2plugin.util.PsiElementUtils;
+import fr.adrienbrault.idea.symfony2plugin.util.SymfonyCacheMetrics;
+import fr.adrienbrault.idea.symfony2plugin.util.SymfonyVarDirectoryWatcher;
+import fr.adrienbrault.idea.symfony2plugin.util.SymfonyVarDirectoryWatcherKt;
 import fr.adrienbrault.idea.symfony2plugin.util.service.ServiceXmlParserFactory;
 import fr.adrienbrault.idea.symfony2plugin.util.xml.SecureXmlUtil;
 import org.apache.commons.lang3.StringUtils;
@@ -48,6 +56,7 @@ import javax.xml.xpath.XPathFactory;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -59,6 +68,9 @@ import java.util.stream.Stream;
  */
 public class TranslationUtil {
     private static final ExtensionPointName<TranslatorProvider> TRANSLATION_PROVIDER = new ExtensionPointName<>("fr.adrienbrault.idea.symfony2plugin.extension.TranslatorProvider");
+    private static final Key<CachedValue<Map<String, Map<String, Boolean>>>> TRANSLATION_KEYS_BY_DOMAIN =
+        Key.create("SYMFONY_TRANSLATION_PROVIDER_KEYS_BY_DOMAIN");
+
     public static final TranslatorProvider[] INTERNAL_TRANSLATOR_PROVIDERS = new TranslatorProvider[]{
         new CompiledContainerTranslatorProvider(),
         new CompiledTranslatorProvider(),
@@ -253,30 +265,55 @@ public class TranslationUtil {
     }
 
     public static boolean hasTranslationKey(@NotNull Project project, String keyName, String domainName) {
-        return Arrays.stream(getTranslationProviders())
+        if (getTranslationKeys(project, domainName).containsKey(keyName)) {
+            return true;
+        }
+
+        // extensions are not cached; they may also know keys which they can not list
+        return Arrays.stream(TRANSLATION_PROVIDER.getExtensions())
             .anyMatch(translatorProvider -> translatorProvider.hasTranslationKey(project, keyName, domainName));
     }
 
+    /**
+     * Bulk version of "hasTranslationKey", e.g. for all keys of a file: every domain is resolved once
+     *
+     * @param keys "domain => translation keys"
+     * @return "domain => missing translation keys"; domains without a missing key are not included
+     */
     @NotNull
-    public static List<LookupElement> getTranslationLookupElementsOnDomain(@NotNull Project project, @NotNull String domainName) {
-        List<LookupElement> lookupElements = new ArrayList<>();
+    public static Map<String, Set<String>> getMissingTranslationKeys(@NotNull Project project, @NotNull Map<String, ? extends Collection<String>> keys) {
+        Map<String, Set<String>> missing = new HashMap<>();
 
-        Map<String, Boolean> keys = new HashMap<>();
+        TranslatorProvider[] extensions = TRANSLATION_PROVIDER.getExtensions();
 
-        for (TranslatorProvider translationProvider : getTranslationProviders()) {
-            for (TranslatorProviderDict.TranslationKey translationKey : translationProvider.getTranslationsForDomain(project, domainName)) {
-                String domain = translationKey.getDomain();
-                if (keys.containsKey(domain)) {
-                    // weak to full
-                    if(!keys.get(domain) && !translationKey.isWeak()) {
-                        keys.put(domain, translationKey.isWeak());
-                    }
-                } else {
-                    keys.put(domain, translationKey.isWeak());
+        for (Map.Entry<String, ? extends Collection<String>> entry : keys.entrySet()) {
+            String domainName = entry.getKey();
+            Map<String, Boolean> translationKeys = getTranslationKeys(project, domainName);
+
+            for (String keyName : entry.getValue()) {
+                if (translationKeys.containsKey(keyName)) {
+                    continue;
+                }
+
+                if (Arrays.stream(extensions).noneMatch(translatorProvider -> translatorProvider.hasTranslationKey(project, keyName, domainName))) {
+                    missing.computeIfAbsent(domainName, k -> new HashSet<>()).add(keyName);
                 }
             }
         }
 
+        return missing;
+    }
+
+    @NotNull
+    public static List<LookupElement> getTranslationLookupElementsOnDomain(@NotNull Project project, @NotNull String domainName) {
+        Map<String, Boolean> keys = new HashMap<>(getTranslationKeys(project, domainName));
+
+        for (TranslatorProvider translationProvider : TRANSLATION_PROVIDER.getExtensions()) {
+            mergeTranslationKeys(keys, translationProvider.getTranslationsForDomain(project, domainName));
+        }
+
+        List<LookupElement> lookupElements = new ArrayList<>();
+
         // fallback on index
         for(Map.Entry<String, Boolean> entry : keys.entrySet()) {
             lookupElements.add(new TranslatorLookupElement(entry.getKey(), domainName, entry.getValue()));
@@ -285,6 +322,49 @@ public class TranslationUtil {
         return lookupElements;
     }
 
+    /**
+     * Changes on all sources of the internal translation providers: translation files inside the index and the
+     * compiled catalogues in the Symfony cache folder
+     */
+    @NotNull
+    public static ModificationTracker getTranslationModificationTracker(@NotNull Project project) {
+        ModificationTracker index = FileIndexCaches.getModificationTrackerForIndexId(project, TranslationStubIndex.KEY);
+        ModificationTracker compiled = SymfonyVarDirectoryWatcherKt.getSymfonyVarDirectoryWatcher(project)
+            .getModificationTracker(SymfonyVarDirectoryWatcher.Scope.TRANSLATIONS);
+
+        return () -> index.getModificationCount() + compiled.getModificationCount();
+    }
+
+    /**
+     * "translation key => weak" of all internal providers; every domain is collected on first access
+     */
+    @NotNull
+    private static Map<String, Boolean> getTranslationKeys(@NotNull Project project, @NotNull String domainName) {
+        Map<String, Map<String, Boolean>> domains = SymfonyCacheMetrics.getCachedValue(
+            project,
+            TRANSLATION_KEYS_BY_DOMAIN,
+            "TranslationUtil.TRANSLATION_KEYS_BY_DOMAIN",
+            () -> CachedValueProvider.Result.create(new ConcurrentHashMap<>(), getTranslationModificationTracker(project))
+        );
+
+        return domains.computeIfAbsent(domainName, domain -> {
+            Map<String, Boolean> keys = new HashMap<>();
+
+            for (TranslatorProvider translationProvider : INTERNAL_TRANSLATOR_PROVIDERS) {
+                mergeTranslationKeys(keys, translationProvider.getTranslationsForDomain(project, domain));
+            }
+
+            return Map.copyOf(keys);
+        });
+    }
+
+    private static void mergeTranslationKeys(@NotNull Map<String, Boolean> keys, @NotNull Collection<TranslatorProviderDict.TranslationKey> translationKeys) {
+        for (TranslatorProviderDict.TranslationKey translationKey : translationKeys) {
+            // weak to full
+            keys.merge(translationKey.getDomain(), translationKey.isWeak(), (weak, otherWeak) -> weak && otherWeak);
+        }
+    }
+
     @NotNull
     public static List<LookupElement> getTranslationDomainLookupElements(@NotNull Project project) {
         Map<String, Boolean> domains = new HashMap<>();
@@ -1,226 +1,290 @@
 package fr.adrienbrault.idea.symfony2plugin.translation.parser;
 
+import com.intellij.psi.tree.IElementType;
 import com.jetbrains.php.lang.lexer.PhpLexer;
 import com.jetbrains.php.lang.lexer.PhpTokenTypes;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.ArrayList;
-import java.util.List;
-
 /**
- * Minimal recursive descent parser for Symfony-generated translation catalogue files.
+ * Streaming reader for Symfony-generated translation catalogue files.
  *
- * Uses PhpLexer for proper PHP tokenization (no project, no read action, no PSI overhead),
- * then builds a small AST (strings, arrays, new-expressions) sufficient to extract
- * translation domains and keys from compiled catalogue files.
+ * Uses PhpLexer for proper PHP tokenization (no project, no read action, no PSI overhead) and walks the tokens
+ * once: domains and keys of every "new MessageCatalogue($locale, $messages)" are reported to a visitor. Neither a
+ * token list nor a syntax tree is built and translation values are skipped without being copied.
  *
  * @author Daniel Espendiller <daniel@espendiller.net>
  */
 class PhpCatalogueParser {
 
-    // --- AST nodes ---
+    interface Visitor {
+        /**
+         * Raw domain name of the catalogue messages, e.g. "messages+intl-icu"
+         */
+        void visitDomain(@NotNull String domain);
 
-    sealed interface Node permits StringNode, ArrayNode, NewNode, OtherNode {}
+        void visitKey(@NotNull String domain, @NotNull String key);
+    }
 
-    record StringNode(@NotNull String value) implements Node {}
+    private enum T {
+        STRING, ARRAY_KW, OPEN_PAREN, CLOSE_PAREN, OPEN_BRACKET, CLOSE_BRACKET,
+        COMMA, FAT_ARROW, NEW_KW, IDENT, EOF
+    }
 
-    record ArrayEntry(@NotNull String key, @NotNull Node value) {}
+    private PhpCatalogueParser() {
+    }
 
-    record ArrayNode(@NotNull List<ArrayEntry> entries) implements Node {}
+    /**
+     * A compiled catalogue file may contain multiple MessageCatalogue instances,
+     * e.g. the primary locale and its fallback chain appended via addFallbackCatalogue().
+     */
+    static void read(@NotNull CharSequence content, @NotNull Visitor visitor) {
+        Reader reader = new Reader(content);
+
+        while (!reader.at(T.EOF)) {
+            if (reader.at(T.NEW_KW)) {
+                reader.readNew(visitor);
+            } else {
+                reader.next();
+            }
+        }
+    }
 
-    record NewNode(@NotNull String className, @NotNull List<Node> args) implements Node {}
+    private static class Reader {
+        @NotNull
+        private final PhpLexer lexer = new PhpLexer(false);
 
-    /** Placeholder for anything we don't care about (numbers, variables, etc.) */
-    record OtherNode() implements Node {}
+        @NotNull
+        private T type = T.EOF;
 
-    private static final OtherNode OTHER = new OtherNode();
+        /**
+         * Only filled for strings and identifiers
+         */
+        @NotNull
+        private String text = "";
 
-    // --- Public API ---
+        private Reader(@NotNull CharSequence content) {
+            lexer.start(content);
+            next();
+        }
 
-    @NotNull
-    static List<NewNode> findNewExpressions(@NotNull String content) {
-        var tokens = tokenize(content);
-        return new Parser(tokens).parseAll();
-    }
+        private boolean at(@NotNull T type) {
+            return this.type == type;
+        }
 
-    // --- Token abstraction ---
+        /**
+         * Moves to the next relevant token; whitespace, comments, operators, variables, etc. are skipped
+         */
+        private void next() {
+            IElementType tokenType;
+            while ((tokenType = lexer.getTokenType()) != null) {
+                T mapped = map(tokenType);
+                if (mapped != null) {
+                    type = mapped;
+
+                    if (mapped == T.STRING) {
+                        // PhpLexer emits the string content as a separate token (without surrounding quotes).
+                        // Only \' and \\ need unescaping inside single-quoted PHP strings; double-quoted strings
+                        // have no interpolation in generated catalogue files.
+                        String content = lexer.getTokenText();
+                        text = tokenType == PhpTokenTypes.STRING_LITERAL_SINGLE_QUOTE && content.indexOf('\\') >= 0
+                            ? content.replace("\\'", "'").replace("\\\\", "\\")
+                            : content;
+                    } else {
+                        text = mapped == T.IDENT ? lexer.getTokenText() : "";
+                    }
 
-    private enum T {
-        STRING, ARRAY_KW, OPEN_PAREN, CLOSE_PAREN, OPEN_BRACKET, CLOSE_BRACKET,
-        COMMA, FAT_ARROW, NEW_KW, IDENT, EOF
-    }
+                    lexer.advance();
+                    return;
+                }
 
-    private record Token(@NotNull T type, @NotNull String value) {}
+                lexer.advance();
+            }
 
-    /**
-     * Tokenizes PHP source using PhpLexer and maps the relevant token types to our minimal T enum.
-     * PhpLexer handles comments, whitespace, escape sequences, and all PHP edge cases — everything
-     * we omit here is simply skipped.
-     */
-    @NotNull
-    private static List<Token> tokenize(@NotNull String src) {
-        PhpLexer lexer = new PhpLexer(false);
-        lexer.start(src);
-
-        List<Token> out = new ArrayList<>();
-
-        while (lexer.getTokenType() != null) {
-            var type = lexer.getTokenType();
-            String text = lexer.getTokenText();
-
-            if (type == PhpTokenTypes.STRING_LITERAL_SINGLE_QUOTE) {
-                // PhpLexer emits the string content as a separate token (without surrounding quotes).
-                // Only \' and \\ need unescaping inside single-quoted PHP strings.
-                String content = text.replace("\\'", "'").replace("\\\\", "\\");
-                out.add(new Token(T.STRING, content));
-            } else if (type == PhpTokenTypes.STRING_LITERAL) {
-                // Double-quoted content token — no interpolation in generated catalogue files.
-                out.add(new Token(T.STRING, text));
+            type = T.EOF;
+            text = "";
+        }
+
+        @Nullable
+        private static T map(@NotNull IElementType type) {
+            if (type == PhpTokenTypes.STRING_LITERAL_SINGLE_QUOTE || type == PhpTokenTypes.STRING_LITERAL) {
+                return T.STRING;
             } else if (type == PhpTokenTypes.kwNEW) {
-                out.add(new Token(T.NEW_KW, text));
+                return T.NEW_KW;
             } else if (type == PhpTokenTypes.IDENTIFIER || type == PhpTokenTypes.NAMESPACE_RESOLUTION) {
                 // Both plain names and namespace separators (\) are collected as IDENT so the
-                // parser can join them into a fully-qualified class name (e.g. \Symfony\...\MessageCatalogue)
-                out.add(new Token(T.IDENT, text));
+                // reader can join them into a fully-qualified class name (e.g. \Symfony\...\MessageCatalogue)
+                return T.IDENT;
             } else if (type == PhpTokenTypes.opCOMMA) {
-                out.add(new Token(T.COMMA, text));
+                return T.COMMA;
             } else if (type == PhpTokenTypes.opHASH_ARRAY) {
-                out.add(new Token(T.FAT_ARROW, text));
+                return T.FAT_ARROW;
             } else if (type == PhpTokenTypes.kwARRAY) {
-                out.add(new Token(T.ARRAY_KW, text));
+                return T.ARRAY_KW;
             } else if (type == PhpTokenTypes.chLPAREN) {
-                out.add(new Token(T.OPEN_PAREN, text));
+                return T.OPEN_PAREN;
             } else if (type == PhpTokenTypes.chRPAREN) {
-                out.add(new Token(T.CLOSE_PAREN, text));
+                return T.CLOSE_PAREN;
             } else if (type == PhpTokenTypes.chLBRACKET) {
-                out.add(new Token(T.OPEN_BRACKET, text));
+                return T.OPEN_BRACKET;
             } else if (type == PhpTokenTypes.chRBRACKET) {
-                out.add(new Token(T.CLOSE_BRACKET, text));
+                return T.CLOSE_BRACKET;
             }
-            // Whitespace, comments, operators, variables, etc. are intentionally skipped
 
-            lexer.advance();
+            return null;
         }
 
-        out.add(new Token(T.EOF, ""));
-        return out;
-    }
+        private void readNew(@NotNull Visitor visitor) {
+            next();
 
-    // --- Recursive descent parser ---
+            StringBuilder className = new StringBuilder();
+            while (at(T.IDENT)) {
+                className.append(text);
+                next();
+            }
+
+            if (!at(T.OPEN_PAREN)) {
+                return;
+            }
+
+            next();
+
+            // other arguments are scanned by the caller, so nested "new" expressions are still found
+            if (!className.toString().endsWith("MessageCatalogue")) {
+                return;
+            }
+
+            // new MessageCatalogue($locale, $messages) — we only need the second argument
+            skipValue();
+            if (!at(T.COMMA)) {
+                return;
+            }
 
-    private static class Parser {
-        private final List<Token> tokens;
-        private int pos;
+            next();
 
-        Parser(@NotNull List<Token> tokens) {
-            this.tokens = tokens;
+            T close = openArray();
+            if (close != null) {
+                readDomains(close, visitor);
+            }
         }
 
-        @NotNull
-        List<NewNode> parseAll() {
-            List<NewNode> result = new ArrayList<>();
-            while (!at(T.EOF)) {
-                if (at(T.NEW_KW)) {
-                    NewNode node = parseNew();
-                    if (node != null) {
-                        result.add(node);
+        /**
+         * "domain => array of translation keys"
+         */
+        private void readDomains(@NotNull T close, @NotNull Visitor visitor) {
+            while (!at(close) && !at(T.EOF)) {
+                if (at(T.STRING)) {
+                    String domain = text;
+                    next();
+
+                    if (at(T.FAT_ARROW)) {
+                        next();
+
+                        T keysClose = openArray();
+                        if (keysClose != null) {
+                            visitor.visitDomain(domain);
+                            readKeys(domain, keysClose, visitor);
+                        } else {
+                            skipValue();
+                        }
                     }
                 } else {
-                    advance();
+                    skipEntry(close);
+                }
+
+                if (at(T.COMMA)) {
+                    next();
                 }
             }
-            return result;
+
+            next();
         }
 
-        @Nullable
-        private NewNode parseNew() {
-            consume(T.NEW_KW);
+        private void readKeys(@NotNull String domain, @NotNull T close, @NotNull Visitor visitor) {
+            while (!at(close) && !at(T.EOF)) {
+                if (at(T.STRING)) {
+                    String key = text;
+                    next();
 
-            // Collect the full class name: may be simple ("MessageCatalogue") or FQN
-            // ("\Symfony\Component\Translation\MessageCatalogue") — consume IDENT tokens
-            // (including namespace separators, which are also mapped to IDENT) until "("
-            StringBuilder className = new StringBuilder();
-            while (at(T.IDENT)) {
-                className.append(advance().value());
-            }
+                    if (at(T.FAT_ARROW)) {
+                        next();
+                        skipValue();
+                        visitor.visitKey(domain, key);
+                    }
+                } else {
+                    skipEntry(close);
+                }
 
-            if (className.isEmpty() || !at(T.OPEN_PAREN)) {
-                return null;
+                if (at(T.COMMA)) {
+                    next();
+                }
             }
 
-            consume(T.OPEN_PAREN);
-            List<Node> args = parseArgList(T.CLOSE_PAREN);
-            consume(T.CLOSE_PAREN);
-            return new NewNode(className.toString(), args);
+            next();
         }
 
-        @NotNull
-        private List<Node> parseArgList(@NotNull T closeToken) {
-            List<Node> args = new ArrayList<>();
-            while (!at(closeToken) && !at(T.EOF)) {
-                args.add(parseValue());
-                if (at(T.COMMA)) {
-                    consume(T.COMMA);
-                }
+        /**
+         * Entry without a string key; always moves forward, also on unexpected tokens like a mismatched bracket
+         */
+        private void skipEntry(@NotNull T close) {
+            skipValue();
+
+            if (!at(T.COMMA) && !at(close)) {
+                next();
             }
-            return args;
         }
 
-        @NotNull
-        private Node parseValue() {
-            if (at(T.STRING)) {
-                return new StringNode(advance().value());
-            }
+        /**
+         * "array(" or "["
+         *
+         * @return closing token of the opened array
+         */
+        @Nullable
+        private T openArray() {
             if (at(T.ARRAY_KW)) {
-                consume(T.ARRAY_KW);
-                consume(T.OPEN_PAREN);
-                ArrayNode arr = parseArrayEntries(T.CLOSE_PAREN);
-                consume(T.CLOSE_PAREN);
-                return arr;
+                next();
+                if (!at(T.OPEN_PAREN)) {
+                    return null;
+                }
+
+                next();
+                return T.CLOSE_PAREN;
             }
+
             if (at(T.OPEN_BRACKET)) {
-                consume(T.OPEN_BRACKET);
-                ArrayNode arr = parseArrayEntries(T.CLOSE_BRACKET);
-                consume(T.CLOSE_BRACKET);
-                return arr;
+                next();
+                return T.CLOSE_BRACKET;
             }
-            if (at(T.NEW_KW)) {
-                NewNode node = parseNew();
-                return node != null ? node : OTHER;
-            }
-            advance();
-            return OTHER;
+
+            return null;
         }
 
-        @NotNull
-        private ArrayNode parseArrayEntries(@NotNull T closeToken) {
-            List<ArrayEntry> entries = new ArrayList<>();
-            while (!at(closeToken) && !at(T.EOF)) {
-                Node keyNode = parseValue();
-                if (at(T.FAT_ARROW)) {
-                    consume(T.FAT_ARROW);
-                    Node value = parseValue();
-                    if (keyNode instanceof StringNode sk) {
-                        entries.add(new ArrayEntry(sk.value(), value));
+        /**
+         * Skips one value including nested arrays or calls; stops in front of the next "," "=>" or closing token
+         */
+        private void skipValue() {
+            int depth = 0;
+
+            while (!at(T.EOF)) {
+                switch (type) {
+                    case OPEN_PAREN, OPEN_BRACKET -> depth++;
+                    case CLOSE_PAREN, CLOSE_BRACKET -> {
+                        if (depth == 0) {
+                            return;
+                        }
+                        depth--;
+                    }
+                    case COMMA, FAT_ARROW -> {
+                        if (depth == 0) {
+                            return;
+                        }
+                    }
+                    default -> {
                     }
                 }
-                if (at(T.COMMA)) {
-                    consume(T.COMMA);
-                }
-            }
-            return new ArrayNode(entries);
-        }
-
-        private boolean at(@NotNull T type) { return tokens.get(pos).type() == type; }
 
-        @NotNull
-        private Token advance() {
-            Token t = tokens.get(pos);
-            if (t.type() != T.EOF) pos++;
-            return t;
+                next();
+            }
         }
-
-        private void consume(@NotNull T type) { if (at(type)) advance(); }
     }
 }
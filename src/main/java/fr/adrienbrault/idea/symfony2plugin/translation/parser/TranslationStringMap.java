@@ -1,26 +1,50 @@
 package fr.adrienbrault.idea.symfony2plugin.translation.parser;
 
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
 import com.intellij.openapi.progress.ProgressManager;
 import com.intellij.openapi.vfs.VfsUtil;
 import com.intellij.openapi.vfs.VirtualFile;
-import fr.adrienbrault.idea.symfony2plugin.translation.parser.PhpCatalogueParser.ArrayEntry;
-import fr.adrienbrault.idea.symfony2plugin.translation.parser.PhpCatalogueParser.ArrayNode;
-import fr.adrienbrault.idea.symfony2plugin.translation.parser.PhpCatalogueParser.NewNode;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
+ * Translation domains and keys of the compiled catalogues, e.g. "var/cache/dev/translations/catalogue.en.X7ow_p+.php"
+ *
+ * Only the primary locales are read on creation; catalogues of all other locales are read on the first
+ * {@link #getDomainMap(String, String)} for them. The same keys exist in every locale, so they are interned.
+ *
  * @author Daniel Espendiller <daniel@espendiller.net>
  */
 public class TranslationStringMap {
+    private static final Interner<String> STRINGS = Interners.newWeakInterner();
+
+    /**
+     * "domain => keys" of the primary locales
+     */
     @NotNull
     private final Map<String, Set<String>> domainMap;
 
-    private TranslationStringMap(@NotNull Map<String, Set<String>> domainMap) {
+    /**
+     * "locale => catalogue files"
+     */
+    @NotNull
+    private final Map<String, List<VirtualFile>> catalogues;
+
+    /**
+     * "locale => domain => keys"; filled on demand
+     */
+    @NotNull
+    private final Map<String, Map<String, Set<String>>> localeDomainMaps;
+
+    private TranslationStringMap(@NotNull Map<String, Set<String>> domainMap, @NotNull Map<String, List<VirtualFile>> catalogues, @NotNull Map<String, Map<String, Set<String>>> localeDomainMaps) {
         this.domainMap = domainMap;
+        this.catalogues = catalogues;
+        this.localeDomainMaps = localeDomainMaps;
     }
 
     @Nullable
@@ -33,18 +57,65 @@ public class TranslationStringMap {
         return domainMap.keySet();
     }
 
+    /**
+     * Keys of one locale including its fallback catalogues; a non-primary locale is read on first access
+     */
+    @Nullable
+    public Set<String> getDomainMap(@NotNull String domainKey, @NotNull String locale) {
+        List<VirtualFile> files = catalogues.get(locale);
+        if (files == null) {
+            return null;
+        }
+
+        return localeDomainMaps.computeIfAbsent(locale, k -> parse(files)).get(domainKey);
+    }
+
+    /**
+     * All locales with a compiled catalogue, primary or not
+     */
+    @NotNull
+    public Set<String> getLocales() {
+        return catalogues.keySet();
+    }
+
     public static boolean isCatalogueFile(@NotNull String filename) {
         return filename.startsWith("catalogue") && filename.endsWith(".php");
     }
 
+    /**
+     * "catalogue.en_US.X7ow_p+.php" => "en_US"; "" for a file without a locale
+     */
+    @NotNull
+    public static String getLocale(@NotNull String filename) {
+        if (!filename.startsWith("catalogue.")) {
+            return "";
+        }
+
+        String locale = filename.substring("catalogue.".length());
+
+        int dot = locale.indexOf('.');
+        return dot >= 0 ? locale.substring(0, dot) : "";
+    }
+
     @NotNull
     public static TranslationStringMap createEmpty() {
-        return new TranslationStringMap(Map.of());
+        return new TranslationStringMap(Map.of(), Map.of(), Map.of());
     }
 
+    /**
+     * All locales are primary
+     */
     @NotNull
     public static TranslationStringMap create(@NotNull Collection<VirtualFile> translationDirectories) {
-        List<FileData> perFileData = new ArrayList<>();
+        return create(translationDirectories, Collections.emptySet());
+    }
+
+    /**
+     * @param primaryLocales locales to read now, e.g. "en"; empty or unknown locales read all locales
+     */
+    @NotNull
+    public static TranslationStringMap create(@NotNull Collection<VirtualFile> translationDirectories, @NotNull Collection<String> primaryLocales) {
+        Map<String, List<VirtualFile>> catalogues = new HashMap<>();
 
         for (VirtualFile dir : translationDirectories) {
             ProgressManager.checkCanceled();
@@ -55,107 +126,98 @@ public class TranslationStringMap {
             }
 
             for (VirtualFile child : children) {
-                ProgressManager.checkCanceled();
-
                 if (isCatalogueFile(child.getName())) {
-                    perFileData.add(FileData.parse(child));
+                    catalogues.computeIfAbsent(getLocale(child.getName()), k -> new ArrayList<>()).add(child);
                 }
             }
         }
 
-        return merge(perFileData);
-    }
+        // misconfigured locales must not hide all translations
+        boolean filterLocales = primaryLocales.stream().anyMatch(catalogues::containsKey);
 
-    @NotNull
-    private static TranslationStringMap merge(@NotNull Collection<FileData> perFileData) {
+        Map<String, Map<String, Set<String>>> localeDomainMaps = new ConcurrentHashMap<>();
         Map<String, Set<String>> merged = new HashMap<>();
 
-        for (FileData fileData : perFileData) {
-            fileData.domainMap().forEach((domain, keys) -> merged.computeIfAbsent(domain, k -> new HashSet<>()).addAll(keys));
+        for (Map.Entry<String, List<VirtualFile>> entry : catalogues.entrySet()) {
+            String locale = entry.getKey();
+
+            // catalogue without a locale in its name can not be filtered
+            if (filterLocales && !locale.isEmpty() && !primaryLocales.contains(locale)) {
+                continue;
+            }
+
+            Map<String, Set<String>> domains = parse(entry.getValue());
+            localeDomainMaps.put(locale, domains);
+
+            domains.forEach((domain, keys) -> merged.computeIfAbsent(domain, k -> new HashSet<>()).addAll(keys));
         }
 
         Map<String, Set<String>> result = new HashMap<>(merged.size());
         merged.forEach((k, v) -> result.put(k, Set.copyOf(v)));
 
-        return new TranslationStringMap(Map.copyOf(result));
+        catalogues.replaceAll((locale, files) -> List.copyOf(files));
+
+        return new TranslationStringMap(Map.copyOf(result), Map.copyOf(catalogues), localeDomainMaps);
     }
 
     /**
-     * Immutable parsed data for a single catalogue file.
-     *
      * Parses the Symfony-generated catalogue PHP format using {@link PhpCatalogueParser}.
      * No PHP PSI or IntelliJ read action needed — the files are machine-generated with a consistent
      * structure: new MessageCatalogue('locale', ['domain' => ['key' => 'value', ...], ...])
      */
-    private record FileData(@NotNull Map<String, Set<String>> domainMap) {
-        @NotNull
-        static FileData parse(@NotNull VirtualFile file) {
+    @NotNull
+    private static Map<String, Set<String>> parse(@NotNull Collection<VirtualFile> files) {
+        Map<String, Set<String>> data = new HashMap<>();
+
+        for (VirtualFile file : files) {
             ProgressManager.checkCanceled();
 
-            String content;
+            CharSequence content;
             try {
                 content = VfsUtil.loadText(file);
             } catch (IOException e) {
-                return empty();
+                continue;
             }
 
             ProgressManager.checkCanceled();
 
-            Map<String, Set<String>> data = new HashMap<>();
+            PhpCatalogueParser.read(content, new PhpCatalogueParser.Visitor() {
+                @Nullable
+                private Set<String> keys;
 
-            // A compiled catalogue file may contain multiple MessageCatalogue instances,
-            // e.g. the primary locale and its fallback chain appended via addFallbackCatalogue().
-            for (NewNode call : PhpCatalogueParser.findNewExpressions(content)) {
-                if (!call.className().endsWith("MessageCatalogue")) {
-                    continue;
+                @Override
+                public void visitDomain(@NotNull String domain) {
+                    // keys of a domain follow its declaration
+                    String normalized = normalizeDomain(domain);
+                    keys = normalized != null ? data.computeIfAbsent(normalized, k -> new HashSet<>()) : null;
                 }
 
-                // new MessageCatalogue($locale, $messages) — we only need the second argument
-                if (call.args().size() < 2) {
-                    continue;
-                }
-                if (!(call.args().get(1) instanceof ArrayNode(var domainEntries))) {
-                    continue;
-                }
-
-                for (ArrayEntry domainEntry : domainEntries) {
-                    // each top-level entry is: domain name => array of translation keys
-                    if (!(domainEntry.value() instanceof ArrayNode(var keyEntries))) {
-                        continue;
-                    }
-
-                    // Symfony appends "+intl-icu" to the domain when the ICU message formatter
-                    // is active (e.g. "messages+intl-icu"). Strip the suffix so completions work
-                    // against the base domain name ("messages") that developers reference in code.
-                    String domain = domainEntry.key().endsWith("+intl-icu")
-                        ? domainEntry.key().substring(0, domainEntry.key().length() - 9)
-                        : domainEntry.key();
-                    if (domain.isBlank()) {
-                        continue;
-                    }
-
-                    data.putIfAbsent(domain, new HashSet<>());
-                    for (ArrayEntry keyEntry : keyEntries) {
-                        if (keyEntry.key().isBlank()) {
-                            continue;
-                        }
-                        data.get(domain).add(keyEntry.key());
+                @Override
+                public void visitKey(@NotNull String domain, @NotNull String key) {
+                    if (keys != null && !key.isBlank()) {
+                        keys.add(STRINGS.intern(key));
                     }
                 }
-            }
+            });
+        }
 
-            if (data.isEmpty()) {
-                return empty();
-            }
+        Map<String, Set<String>> result = new HashMap<>(data.size());
+        data.forEach((k, v) -> result.put(k, Set.copyOf(v)));
 
-            Map<String, Set<String>> result = new HashMap<>(data.size());
-            data.forEach((k, v) -> result.put(k, Set.copyOf(v)));
-            return new FileData(Map.copyOf(result));
-        }
+        return Map.copyOf(result);
+    }
 
-        @NotNull
-        static FileData empty() {
-            return new FileData(Map.of());
-        }
+    /**
+     * Symfony appends "+intl-icu" to the domain when the ICU message formatter
+     * is active (e.g. "messages+intl-icu"). Strip the suffix so completions work
+     * against the base domain name ("messages") that developers reference in code.
+     */
+    @Nullable
+    private static String normalizeDomain(@NotNull String domain) {
+        String normalized = domain.endsWith("+intl-icu")
+            ? domain.substring(0, domain.length() - 9)
+            : domain;
+
+        return normalized.isBlank() ? null : STRINGS.intern(normalized);
     }
 }
@@ -1056,6 +1056,84 @@ public class PhpElementsUtil {
         return null;
     }
 
+    /**
+     * String literal, "self::FOO" or "$this->foo" of the class itself. Nothing is resolved via other files, so this is
+     * safe inside an indexer; a constant of another class is returned as reference, e.g. "\App\Names::IMPORT"
+     */
+    @Nullable
+    public static String getStringValueIndexSafe(@Nullable PhpClass phpClass, @Nullable PsiElement psiElement) {
+        return getStringValueIndexSafe(phpClass, psiElement, 0);
+    }
+
+    @Nullable
+    private static String getStringValueIndexSafe(@Nullable PhpClass phpClass, @Nullable PsiElement psiElement, int depth) {
+        if (psiElement == null || ++depth > 5) {
+            return null;
+        }
+
+        if (psiElement instanceof StringLiteralExpression stringLiteralExpression) {
+            String contents = stringLiteralExpression.getContents();
+            return StringUtils.isNotBlank(contents) ? contents : null;
+        }
+
+        if (psiElement instanceof ClassConstantReference constantReference && constantReference.getClassReference() instanceof ClassReference classReference) {
+            String name = constantReference.getName();
+            if (StringUtils.isBlank(name) || "class".equals(name)) {
+                return getStringValueIndexSafe(constantReference);
+            }
+
+            String className = classReference.getName();
+            if (phpClass != null && ("self".equals(className) || "static".equals(className) || phpClass.getFQN().equals(classReference.getFQN()))) {
+                Field field = phpClass.findOwnFieldByName(name, true);
+                return field != null ? getStringValueIndexSafe(phpClass, field.getDefaultValue(), depth) : null;
+            }
+
+            String fqn = "parent".equals(className)
+                ? (phpClass != null ? phpClass.getSuperFQN() : null)
+                : classReference.getFQN();
+
+            return StringUtils.isNotBlank(fqn) ? fqn + "::" + name : null;
+        }
+
+        if (phpClass != null
+            && psiElement instanceof FieldReference fieldReference
+            && fieldReference.getClassReference() != null
+            && "$this".equals(fieldReference.getClassReference().getText())) {
+            String name = fieldReference.getName();
+            Field field = name != null ? phpClass.findOwnFieldByName(name, false) : null;
+            return field != null ? getStringValueIndexSafe(phpClass, field.getDefaultValue(), depth) : null;
+        }
+
+        return null;
+    }
+
+    /**
+     * A constant of another class as given by "getStringValueIndexSafe", e.g. "\App\Names::IMPORT"
+     */
+    public static boolean isConstantReference(@Nullable String value) {
+        return value != null && value.startsWith("\\") && value.contains("::");
+    }
+
+    /**
+     * Resolves a constant reference of "getStringValueIndexSafe" on usage; other values are returned as they are
+     */
+    @Nullable
+    public static String resolveConstantReference(@NotNull Project project, @Nullable String value) {
+        if (!isConstantReference(value)) {
+            return value;
+        }
+
+        int separator = value.lastIndexOf("::");
+
+        PhpClass phpClass = getClassInterface(project, value.substring(0, separator));
+        if (phpClass == null) {
+            return null;
+        }
+
+        Field field = phpClass.findFieldByName(value.substring(separator + 2), true);
+        return field != null ? getStringValue(field.getDefaultValue()) : null;
+    }
+
     @Nullable
     private static String getStringValue(@Nullable PsiElement psiElement, int depth) {
         if(psiElement == null || ++depth > 5) {
@@ -0,0 +1,27 @@
+package fr.adrienbrault.idea.symfony2plugin.util;
+
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressManager;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ */
+public class ProgressLockUtil {
+    /**
+     * Wait for a lock held by a running cache rebuild, but stay responsive for canceled read actions
+     */
+    public static void lock(@NotNull Lock lock) {
+        try {
+            while (!lock.tryLock(10, TimeUnit.MILLISECONDS)) {
+                ProgressManager.checkCanceled();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ProcessCanceledException(e);
+        }
+    }
+}
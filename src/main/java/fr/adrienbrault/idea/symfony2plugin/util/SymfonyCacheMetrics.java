@@ -0,0 +1,226 @@
+package fr.adrienbrault.idea.symfony2plugin.util;
+
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Key;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * Hit, rebuild and timing counters of the named project caches, e.g. "RouteHelper.ROUTE_CACHE".
+ *
+ * Shows which caches are thrashing under the current edit patterns; see the "Symfony: Cache Metrics" action.
+ * Counting is lock free, so the overhead on a cache hit is one increment.
+ *
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ */
+@Service(Service.Level.PROJECT)
+public final class SymfonyCacheMetrics {
+    /**
+     * Upper bounds of the rebuild time histogram in milliseconds; the last bucket takes everything above
+     */
+    private static final long[] BUCKETS = {1, 5, 10, 50, 100, 500, 1_000, 5_000};
+
+    @NotNull
+    private final Map<String, Metric> metrics = new ConcurrentHashMap<>();
+
+    @NotNull
+    public static SymfonyCacheMetrics getInstance(@NotNull Project project) {
+        return project.getService(SymfonyCacheMetrics.class);
+    }
+
+    /**
+     * Drop-in for "CachedValuesManager#getCachedValue" on the project, which counts hits and times the rebuilds
+     */
+    public static <T> T getCachedValue(@NotNull Project project, @NotNull Key<CachedValue<T>> key, @NotNull String name, @NotNull CachedValueProvider<T> provider) {
+        SymfonyCacheMetrics metrics = getInstance(project);
+        metrics.getMetric(name).requests.increment();
+
+        // the first provider is kept by the cache; resolve the metric on each rebuild, it is replaced on "reset()"
+        return CachedValuesManager.getManager(project).getCachedValue(project, key, () -> {
+            long start = System.nanoTime();
+            CachedValueProvider.Result<T> result = provider.compute();
+            metrics.getMetric(name).rebuild(System.nanoTime() - start, result != null ? getSize(result.getValue()) : -1);
+
+            return result;
+        }, false);
+    }
+
+    /**
+     * For self managed caches: one rebuild of the given cache
+     */
+    public static <T> T measure(@NotNull Project project, @NotNull String name, @NotNull Supplier<T> supplier) {
+        return measure(project, name, supplier, SymfonyCacheMetrics::getSize);
+    }
+
+    /**
+     * @param size entries of a value which is not a plain map or collection
+     */
+    public static <T> T measure(@NotNull Project project, @NotNull String name, @NotNull Supplier<T> supplier, @NotNull ToIntFunction<T> size) {
+        Metric metric = getInstance(project).getMetric(name);
+        metric.requests.increment();
+
+        long start = System.nanoTime();
+        T value = supplier.get();
+        metric.rebuild(System.nanoTime() - start, size.applyAsInt(value));
+
+        return value;
+    }
+
+    /**
+     * For self managed caches: cached value was reused
+     */
+    public void hit(@NotNull String name) {
+        getMetric(name).requests.increment();
+    }
+
+    public void reset() {
+        metrics.clear();
+    }
+
+    @NotNull
+    public List<Snapshot> getSnapshots() {
+        List<Snapshot> snapshots = new ArrayList<>();
+        for (Map.Entry<String, Metric> entry : metrics.entrySet()) {
+            snapshots.add(entry.getValue().snapshot(entry.getKey()));
+        }
+
+        snapshots.sort(Comparator.comparing(Snapshot::name));
+
+        return snapshots;
+    }
+
+    @NotNull
+    public String toJson() {
+        JsonArray caches = new JsonArray();
+
+        for (Snapshot snapshot : getSnapshots()) {
+            JsonObject cache = new JsonObject();
+            cache.addProperty("name", snapshot.name());
+            cache.addProperty("requests", snapshot.requests());
+            cache.addProperty("hits", snapshot.hits());
+            cache.addProperty("rebuilds", snapshot.rebuilds());
+            cache.addProperty("total_rebuild_ms", snapshot.totalMillis());
+            cache.addProperty("max_rebuild_ms", snapshot.maxMillis());
+            cache.addProperty("entries", snapshot.size());
+
+            JsonObject histogram = new JsonObject();
+            for (int i = 0; i < snapshot.histogram().length; i++) {
+                histogram.addProperty(getBucketName(i), snapshot.histogram()[i]);
+            }
+            cache.add("rebuild_ms_histogram", histogram);
+
+            caches.add(cache);
+        }
+
+        JsonObject jsonObject = new JsonObject();
+        jsonObject.add("caches", caches);
+
+        return new GsonBuilder().setPrettyPrinting().create().toJson(jsonObject);
+    }
+
+    public static int getBucketCount() {
+        return BUCKETS.length + 1;
+    }
+
+    /**
+     * "<=5", ">5000"
+     */
+    @NotNull
+    public static String getBucketName(int bucket) {
+        return bucket < BUCKETS.length ? "<=" + BUCKETS[bucket] : ">" + BUCKETS[BUCKETS.length - 1];
+    }
+
+    @NotNull
+    private Metric getMetric(@NotNull String name) {
+        return metrics.computeIfAbsent(name, k -> new Metric());
+    }
+
+    /**
+     * Entries of a cached map or collection; "-1" for other values
+     */
+    private static int getSize(@Nullable Object value) {
+        if (value instanceof Map<?, ?> map) {
+            return map.size();
+        }
+
+        if (value instanceof Collection<?> collection) {
+            return collection.size();
+        }
+
+        return -1;
+    }
+
+    private static class Metric {
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder rebuilds = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final LongAdder[] histogram = new LongAdder[BUCKETS.length + 1];
+
+        private volatile int size = -1;
+
+        private Metric() {
+            for (int i = 0; i < histogram.length; i++) {
+                histogram[i] = new LongAdder();
+            }
+        }
+
+        private void rebuild(long nanos, int size) {
+            rebuilds.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+            this.size = size;
+
+            long millis = nanos / 1_000_000;
+
+            int bucket = 0;
+            while (bucket < BUCKETS.length && millis > BUCKETS[bucket]) {
+                bucket++;
+            }
+
+            histogram[bucket].increment();
+        }
+
+        @NotNull
+        private Snapshot snapshot(@NotNull String name) {
+            long[] buckets = new long[histogram.length];
+            for (int i = 0; i < histogram.length; i++) {
+                buckets[i] = histogram[i].sum();
+            }
+
+            long requestCount = requests.sum();
+            long rebuildCount = rebuilds.sum();
+
+            return new Snapshot(
+                name,
+                requestCount,
+                Math.max(0, requestCount - rebuildCount),
+                rebuildCount,
+                totalNanos.sum() / 1_000_000,
+                maxNanos.get() / 1_000_000,
+                size,
+                buckets
+            );
+        }
+    }
+
+    /**
+     * @param size entries after the last rebuild; "-1" if unknown
+     */
+    public record Snapshot(@NotNull String name, long requests, long hits, long rebuilds, long totalMillis, long maxMillis, int size, long @NotNull [] histogram) {
+    }
+}
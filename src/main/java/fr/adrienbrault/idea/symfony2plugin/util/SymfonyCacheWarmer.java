@@ -0,0 +1,226 @@
+package fr.adrienbrault.idea.symfony2plugin.util;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.util.messages.MessageBusConnection;
+import fr.adrienbrault.idea.symfony2plugin.Symfony2ProjectComponent;
+import fr.adrienbrault.idea.symfony2plugin.routing.RouteHelper;
+import fr.adrienbrault.idea.symfony2plugin.stubs.ContainerCollectionResolver;
+import fr.adrienbrault.idea.symfony2plugin.templating.util.TwigExtensionParser;
+import fr.adrienbrault.idea.symfony2plugin.templating.util.TwigUtil;
+import fr.adrienbrault.idea.symfony2plugin.translation.TranslationIndex;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Builds the expensive project caches in a background task, so that the first completion does not pay for them.
+ *
+ * Runs after indexing has finished and after the compiled Symfony files in "var/cache" were invalidated. Every step
+ * is a non-blocking read action: a write action cancels and restarts only the current step.
+ *
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ */
+@Service(Service.Level.PROJECT)
+public final class SymfonyCacheWarmer implements Disposable {
+    private static final Logger LOG = Logger.getInstance(SymfonyCacheWarmer.class);
+
+    /**
+     * In priority order; services and routes are needed by nearly every Yaml, PHP and Twig completion
+     */
+    enum Step {
+        SERVICES("services", EnumSet.of(SymfonyVarDirectoryWatcher.Scope.CONTAINER), ContainerCollectionResolver::getServices),
+        ROUTES("routes", EnumSet.of(SymfonyVarDirectoryWatcher.Scope.ROUTES), RouteHelper::getAllRoutes),
+        TEMPLATES("templates", EnumSet.of(SymfonyVarDirectoryWatcher.Scope.CONTAINER), TwigUtil::getTemplateMap),
+        TWIG_FUNCTIONS("Twig functions", EnumSet.of(SymfonyVarDirectoryWatcher.Scope.CONTAINER), TwigExtensionParser::getFunctions),
+        TRANSLATIONS("translations", EnumSet.of(SymfonyVarDirectoryWatcher.Scope.TRANSLATIONS), TranslationIndex::getTranslationMap);
+
+        @NotNull
+        private final String title;
+
+        @NotNull
+        private final Set<SymfonyVarDirectoryWatcher.Scope> scopes;
+
+        @NotNull
+        private final Function<Project, Object> warmer;
+
+        Step(@NotNull String title, @NotNull Set<SymfonyVarDirectoryWatcher.Scope> scopes, @NotNull Function<Project, Object> warmer) {
+            this.title = title;
+            this.scopes = scopes;
+            this.warmer = warmer;
+        }
+    }
+
+    @NotNull
+    private final Project project;
+
+    /**
+     * Steps requested while a task is running are picked up by the same task; guarded by itself
+     */
+    @NotNull
+    private final Set<Step> pendingSteps = EnumSet.noneOf(Step.class);
+
+    private boolean running = false;
+
+    private volatile boolean disposed = false;
+
+    public SymfonyCacheWarmer(@NotNull Project project) {
+        this.project = project;
+
+        MessageBusConnection connection = project.getMessageBus().connect(this);
+
+        connection.subscribe(DumbService.DUMB_MODE, new DumbService.DumbModeListener() {
+            @Override
+            public void exitDumbMode() {
+                schedule(EnumSet.allOf(Step.class));
+            }
+        });
+
+        connection.subscribe(SymfonyVarDirectoryWatcher.TOPIC, scopes -> {
+            Set<Step> steps = EnumSet.noneOf(Step.class);
+            for (Step step : Step.values()) {
+                if (!Collections.disjoint(step.scopes, scopes)) {
+                    steps.add(step);
+                }
+            }
+
+            schedule(steps);
+        });
+    }
+
+    @NotNull
+    public static SymfonyCacheWarmer getInstance(@NotNull Project project) {
+        return project.getService(SymfonyCacheWarmer.class);
+    }
+
+    @Override
+    public void dispose() {
+        disposed = true;
+    }
+
+    /**
+     * Warm all caches; e.g. on project startup
+     */
+    public void scheduleAll() {
+        schedule(EnumSet.allOf(Step.class));
+    }
+
+    private void schedule(@NotNull Set<Step> steps) {
+        // tests need deterministic cache states
+        if (steps.isEmpty() || disposed || ApplicationManager.getApplication().isUnitTestMode() || !Symfony2ProjectComponent.isEnabled(project)) {
+            return;
+        }
+
+        if (!enqueue(steps)) {
+            return;
+        }
+
+        new Task.Backgroundable(project, "Warming Symfony caches", true) {
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+                indicator.setIndeterminate(false);
+
+                boolean drained = false;
+                try {
+                    warmUp(indicator);
+                    drained = true;
+                } finally {
+                    // canceled or failed step; a drained queue was already released by "poll"
+                    if (!drained) {
+                        synchronized (pendingSteps) {
+                            pendingSteps.clear();
+                            running = false;
+                        }
+                    }
+                }
+            }
+        }.queue();
+    }
+
+    /**
+     * Adds the steps to the queue
+     *
+     * @return "true" if no task drains the queue and the caller must start one
+     */
+    boolean enqueue(@NotNull Set<Step> steps) {
+        synchronized (pendingSteps) {
+            pendingSteps.addAll(steps);
+            if (running) {
+                return false;
+            }
+
+            running = true;
+            return true;
+        }
+    }
+
+    /**
+     * Next step in priority order for the running task
+     *
+     * @return "null" if the queue is drained or the task was canceled; the task is released in the same lock, so
+     * steps enqueued afterwards start a new task
+     */
+    @Nullable
+    Step poll(boolean canceled) {
+        synchronized (pendingSteps) {
+            if (pendingSteps.isEmpty() || disposed || canceled) {
+                pendingSteps.clear();
+                running = false;
+                return null;
+            }
+
+            // EnumSet iterates in priority order
+            Step step = pendingSteps.iterator().next();
+            pendingSteps.remove(step);
+
+            return step;
+        }
+    }
+
+    private int getPendingCount() {
+        synchronized (pendingSteps) {
+            return pendingSteps.size();
+        }
+    }
+
+    private void warmUp(@NotNull ProgressIndicator indicator) {
+        int done = 0;
+
+        while (true) {
+            Step step = poll(indicator.isCanceled());
+            if (step == null) {
+                return;
+            }
+
+            int total = done + getPendingCount() + 1;
+
+            indicator.setText("Warming Symfony " + step.title);
+            indicator.setFraction((double) done / total);
+
+            try {
+                ReadAction.nonBlocking(() -> step.warmer.apply(project))
+                    .inSmartMode(project)
+                    .expireWhen(() -> disposed || project.isDisposed())
+                    .wrapProgress(indicator)
+                    .executeSynchronously();
+            } catch (ProcessCanceledException e) {
+                throw e;
+            } catch (RuntimeException e) {
+                // a broken cache is reported by its regular usage; do not block the remaining steps
+                LOG.debug("Can not warm Symfony " + step.title, e);
+            }
+
+            done++;
+        }
+    }
+}
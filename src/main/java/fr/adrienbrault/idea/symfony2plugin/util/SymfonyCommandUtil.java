@@ -3,15 +3,22 @@ package fr.adrienbrault.idea.symfony2plugin.util;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.Key;
 import com.intellij.psi.PsiElement;
+import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.psi.util.CachedValue;
 import com.intellij.psi.util.CachedValueProvider;
-import com.intellij.psi.util.CachedValuesManager;
 import com.intellij.psi.util.PsiModificationTracker;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.util.indexing.FileBasedIndex;
+import com.jetbrains.php.PhpIndex;
+import com.jetbrains.php.lang.PhpLanguage;
 import com.jetbrains.php.lang.psi.elements.*;
+import com.jetbrains.php.lang.psi.stubs.indexes.PhpClassFqnIndex;
 import com.jetbrains.php.lang.psi.stubs.indexes.expectedArguments.PhpExpectedFunctionScalarArgument;
 import fr.adrienbrault.idea.symfony2plugin.dic.ConsoleCommandServiceParser;
-import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.PhpAttributeIndex;
-import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.PhpAttributeIndexUtil;
+import fr.adrienbrault.idea.symfony2plugin.stubs.cache.FileIndexCaches;
+import fr.adrienbrault.idea.symfony2plugin.stubs.dict.ConsoleCommand;
+import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.ConsoleCommandStubIndex;
+import fr.adrienbrault.idea.symfony2plugin.stubs.util.IndexUtil;
 import fr.adrienbrault.idea.symfony2plugin.util.service.ServiceXmlParserFactory;
 import fr.adrienbrault.idea.symfony2plugin.util.dict.SymfonyCommand;
 import org.apache.commons.lang3.StringUtils;
@@ -19,7 +26,6 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
  * @author Daniel Espendiller <daniel@espendiller.net>
@@ -27,78 +33,114 @@ import java.util.stream.Collectors;
 public class SymfonyCommandUtil {
     private static final String COMMAND_CLASS = "\\Symfony\\Component\\Console\\Command\\Command";
     private static final String AS_COMMAND_ATTRIBUTE = "\\Symfony\\Component\\Console\\Attribute\\AsCommand";
+    private static final String INPUT_OPTION = "\\Symfony\\Component\\Console\\Input\\InputOption";
+    private static final String INPUT_ARGUMENT = "\\Symfony\\Component\\Console\\Input\\InputArgument";
 
     private static final Key<CachedValue<Map<String, SymfonyCommand>>> SYMFONY_COMMAND_NAME_MAP = new Key<>("SYMFONY_COMMAND_NAME_MAP");
 
     @NotNull
     public static Collection<SymfonyCommand> getCommands(@NotNull Project project) {
-        Map<String, SymfonyCommand> cachedValue = CachedValuesManager.getManager(project).getCachedValue(
+        return getCommandMap(project).values();
+    }
+
+    /**
+     * "command name => command" of the console command index merged with the compiled container, e.g. for Doctrine
+     * commands without PHP source; only rebuilt on changes of one of them and not on every PHP edit, unless a name or
+     * option uses a constant of another class, e.g. "setName(Names::IMPORT)". Commands without "#[AsCommand]" also
+     * depend on the class index for their "Command" parent
+     */
+    @NotNull
+    public static Map<String, SymfonyCommand> getCommandMap(@NotNull Project project) {
+        return SymfonyCacheMetrics.getCachedValue(
             project,
             SYMFONY_COMMAND_NAME_MAP,
-            () -> {
-                Map<String, SymfonyCommand> symfonyCommands = new HashMap<>();
-
-                // Traditional Command subclasses
-                for (PhpClass phpClass : PhpIndexUtil.getAllSubclasses(project, COMMAND_CLASS)) {
-                    if (PhpElementsUtil.isTestClass(phpClass)) {
-                        continue;
-                    }
+            "SymfonyCommandUtil.SYMFONY_COMMAND_NAME_MAP",
+            () -> getCommandMapInner(project)
+        );
+    }
 
-                    putClassCommands(symfonyCommands, phpClass);
-                }
+    @NotNull
+    private static CachedValueProvider.Result<Map<String, SymfonyCommand>> getCommandMapInner(@NotNull Project project) {
+        Map<String, SymfonyCommand> symfonyCommands = new HashMap<>();
 
-                // AsCommand attributes from index
-                for (PhpClass phpClass : PhpAttributeIndexUtil.getClassesWithAttribute(project, AS_COMMAND_ATTRIBUTE)) {
-                    if (PhpElementsUtil.isTestClass(phpClass)) {
-                        continue;
-                    }
+        // one class provides many commands and aliases
+        Map<String, Boolean> validClasses = new HashMap<>();
+        boolean constantReferences = false;
+        boolean legacyCommands = false;
 
-                    putClassCommands(symfonyCommands, phpClass);
-                }
+        for (String key : IndexUtil.getAllKeysForProject(ConsoleCommandStubIndex.KEY, project)) {
+            for (ConsoleCommand command : FileBasedIndex.getInstance().getValues(ConsoleCommandStubIndex.KEY, key, GlobalSearchScope.allScope(project))) {
+                legacyCommands |= !command.attribute();
 
-                // Method-level #[AsCommand]
-                for (PhpAttributeIndex.AttributeTarget target : PhpAttributeIndexUtil.getMethodTargetsWithAttribute(project, AS_COMMAND_ATTRIBUTE)) {
-                    String methodName = target.memberName();
-                    if (methodName == null) {
-                        continue;
-                    }
+                boolean valid = validClasses.computeIfAbsent(
+                    command.phpClass() + "#" + command.attribute(),
+                    k -> isCommandClass(project, command.phpClass(), command.attribute())
+                );
 
-                    PhpClass phpClass = PhpElementsUtil.getClassInterface(project, normalizeFqn(target.classFqn()));
-                    if (phpClass == null || PhpElementsUtil.isTestClass(phpClass)) {
-                        continue;
-                    }
+                if (!valid) {
+                    continue;
+                }
 
-                    Method method = phpClass.findOwnMethodByName(methodName);
-                    if (method == null || !method.getAccess().isPublic()) {
-                        continue;
-                    }
+                ConsoleCommand resolved = resolveIndexedCommand(project, command);
+                constantReferences |= resolved != command || PhpElementsUtil.isConstantReference(key);
 
-                    for (String commandName : getCommandNameFromMethod(method)) {
-                        symfonyCommands.put(commandName, new SymfonyCommand(commandName, phpClass.getFQN(), method.getName()));
-                    }
+                for (String name : resolveCommandValues(project, List.of(key))) {
+                    symfonyCommands.put(name, new IndexedSymfonyCommand(name, resolved));
                 }
-
-                return CachedValueProvider.Result.create(symfonyCommands, PsiModificationTracker.getInstance(project).forLanguage(com.jetbrains.php.lang.PhpLanguage.INSTANCE));
-            },
-            false
-        );
+            }
+        }
 
         // Fallback: compiled container XML for commands tagged with "console.command" (e.g., Doctrine)
-        Map<String, SymfonyCommand> result = new HashMap<>(cachedValue);
         ConsoleCommandServiceParser compiledParser = ServiceXmlParserFactory.getInstance(project, ConsoleCommandServiceParser.class);
         if (compiledParser != null) {
             for (Map.Entry<String, String> entry : compiledParser.getCommands().entrySet()) {
-                result.putIfAbsent(entry.getKey(), new SymfonyCommand(entry.getKey(), entry.getValue()));
+                symfonyCommands.putIfAbsent(entry.getKey(), new SymfonyCommand(entry.getKey(), entry.getValue()));
             }
         }
 
-        return result.values().stream().collect(Collectors.toList());
+        List<Object> dependencies = new ArrayList<>(List.of(
+            FileIndexCaches.getModificationTrackerForIndexId(project, ConsoleCommandStubIndex.KEY),
+            SymfonyVarDirectoryWatcherKt.getSymfonyVarDirectoryWatcher(project).getModificationTracker(SymfonyVarDirectoryWatcher.Scope.CONTAINER)
+        ));
+
+        // the "Command" parent of legacy commands can change in any other file, e.g. an intermediate base class
+        if (legacyCommands) {
+            dependencies.add(FileIndexCaches.getModificationTrackerForIndexId(project, PhpClassFqnIndex.KEY));
+        }
+
+        // constants of other classes are not part of the index
+        if (constantReferences) {
+            dependencies.add(PsiModificationTracker.getInstance(project).forLanguage(PhpLanguage.INSTANCE));
+        }
+
+        return CachedValueProvider.Result.create(Collections.unmodifiableMap(symfonyCommands), dependencies.toArray());
     }
 
-    private static void putClassCommands(@NotNull Map<String, SymfonyCommand> symfonyCommands, @NotNull PhpClass phpClass) {
-        for (String commandName : getCommandNameFromClass(phpClass)) {
-            symfonyCommands.put(commandName, new SymfonyCommand(commandName, phpClass.getFQN()));
+    /**
+     * Classes of "#[AsCommand]" need no "Command" parent since Symfony 7.3; test classes are never commands
+     */
+    private static boolean isCommandClass(@NotNull Project project, @NotNull String fqn, boolean attribute) {
+        for (PhpClass phpClass : PhpIndex.getInstance(project).getAnyByFQN(fqn)) {
+            if (!PhpElementsUtil.isTestClass(phpClass) && (attribute || PhpElementsUtil.isInstanceOf(phpClass, COMMAND_CLASS))) {
+                return true;
+            }
         }
+
+        return false;
+    }
+
+    /**
+     * Options and arguments as indexed, without loading any PHP file; "null" for commands of the compiled container
+     */
+    @Nullable
+    public static ConsoleCommand getIndexedCommand(@NotNull Project project, @NotNull SymfonyCommand command) {
+        if (getCommandMap(project).get(command.getName()) instanceof IndexedSymfonyCommand indexed
+            && indexed.getFqn().equals(command.getFqn())
+            && Objects.equals(indexed.getMethodName(), command.getMethodName())) {
+            return indexed.command;
+        }
+
+        return null;
     }
 
     @Nullable
@@ -126,11 +168,6 @@ public class SymfonyCommandUtil {
         return resolveCommandClass(project, command);
     }
 
-    @NotNull
-    private static String normalizeFqn(@NotNull String fqn) {
-        return fqn.startsWith("\\") ? fqn : "\\" + fqn;
-    }
-
     /**
      * Collects all available option names and shortcuts from a command class.
      * Supports both traditional configure() methods with addOption() calls
@@ -140,23 +177,47 @@ public class SymfonyCommandUtil {
     public static Map<String, CommandOption> getCommandOptions(@NotNull PhpClass phpClass) {
         Map<String, CommandOption> options = new HashMap<>();
 
+        for (CommandOption option : getCommandOptionsIndexSafe(phpClass)) {
+            String name = PhpElementsUtil.resolveConstantReference(phpClass.getProject(), option.name());
+            if (StringUtils.isNotBlank(name)) {
+                options.put(name, new CommandOption(
+                    option.target(),
+                    name,
+                    PhpElementsUtil.resolveConstantReference(phpClass.getProject(), option.shortcut()),
+                    PhpElementsUtil.resolveConstantReference(phpClass.getProject(), option.description()),
+                    option.defaultValue()
+                ));
+            }
+        }
+
+        return options;
+    }
+
+    /**
+     * Options of "configure()" and of "__invoke()" parameters, shared with the console command index: nothing is resolved
+     * outside the class, constants of other classes are kept as reference; see "PhpElementsUtil.resolveConstantReference"
+     */
+    @NotNull
+    public static Collection<CommandOption> getCommandOptionsIndexSafe(@NotNull PhpClass phpClass) {
+        Map<String, CommandOption> options = new LinkedHashMap<>();
+
         // Collect options from traditional configure() method
         Method configureMethod = phpClass.findOwnMethodByName("configure");
         if (configureMethod != null) {
             // Case 1: addOption() method calls
-            Collection<MethodReference> addOptionCalls = PhpElementsUtil.collectMethodReferencesInsideControlFlow(configureMethod, "addOption");
-            for (MethodReference methodRef : addOptionCalls) {
-                CommandOption option = parseOptionFromParameters(methodRef.getParameters());
+            for (MethodReference methodRef : PhpElementsUtil.collectMethodReferencesInsideControlFlow(configureMethod, "addOption")) {
+                CommandOption option = parseOptionFromParameters(phpClass, methodRef.getParameters());
                 if (option != null) {
                     options.put(option.name(), option);
                 }
             }
 
             // Case 2: setDefinition() with new InputOption() instances
-            Collection<MethodReference> setDefinitionCalls = PhpElementsUtil.collectMethodReferencesInsideControlFlow(configureMethod, "setDefinition");
-            for (MethodReference methodRef : setDefinitionCalls) {
-                Map<String, CommandOption> definitionOptions = parseSetDefinitionCall(methodRef);
-                options.putAll(definitionOptions);
+            for (NewExpression newExpression : getSetDefinitionNewExpressions(configureMethod, INPUT_OPTION)) {
+                CommandOption option = parseOptionFromParameters(phpClass, newExpression.getParameters());
+                if (option != null) {
+                    options.put(option.name(), option);
+                }
             }
         }
 
@@ -166,7 +227,7 @@ public class SymfonyCommandUtil {
             options.putAll(getCommandOptions(invokeMethod));
         }
 
-        return options;
+        return options.values();
     }
 
     @NotNull
@@ -183,38 +244,23 @@ public class SymfonyCommandUtil {
         return options;
     }
 
-    @NotNull
-    public static Map<String, CommandOption> getCommandOptions(@NotNull Project project, @NotNull SymfonyCommand command) {
-        Method method = resolveCommandMethod(project, command);
-        if (method != null) {
-            return getCommandOptions(method);
-        }
-
-        PhpClass phpClass = resolveCommandClass(project, command);
-        return phpClass != null ? getCommandOptions(phpClass) : Collections.emptyMap();
-    }
-
     /**
-     * Parses a setDefinition() method call and extracts options from new InputOption() instances.
-     * Handles both single instances and arrays of instances.
+     * "new InputOption()" or "new InputArgument()" inside "setDefinition()"; matched by the imported class name only
      */
     @NotNull
-    private static Map<String, CommandOption> parseSetDefinitionCall(@NotNull MethodReference methodRef) {
-        Map<String, CommandOption> options = new HashMap<>();
-
-        // Collect all new InputOption() expressions within the setDefinition call
-        Collection<NewExpression> newExpressions = com.intellij.psi.util.PsiTreeUtil.collectElementsOfType(methodRef, NewExpression.class);
-        for (NewExpression newExpression : newExpressions) {
-            // Check if this is a new InputOption() instance
-            if (PhpElementsUtil.getNewExpressionPhpClassWithInstance(newExpression, "Symfony\\Component\\Console\\Input\\InputOption") != null) {
-                CommandOption option = parseOptionFromParameters(newExpression.getParameters());
-                if (option != null) {
-                    options.put(option.name(), option);
+    private static Collection<NewExpression> getSetDefinitionNewExpressions(@NotNull Method configureMethod, @NotNull String fqn) {
+        Collection<NewExpression> newExpressions = new ArrayList<>();
+
+        for (MethodReference methodRef : PhpElementsUtil.collectMethodReferencesInsideControlFlow(configureMethod, "setDefinition")) {
+            for (NewExpression newExpression : PsiTreeUtil.collectElementsOfType(methodRef, NewExpression.class)) {
+                ClassReference classReference = newExpression.getClassReference();
+                if (classReference != null && fqn.equals(classReference.getFQN())) {
+                    newExpressions.add(newExpression);
                 }
             }
         }
 
-        return options;
+        return newExpressions;
     }
 
     /**
@@ -222,19 +268,19 @@ public class SymfonyCommandUtil {
      * or new InputOption(name, shortcut, mode, description, default).
      */
     @Nullable
-    private static CommandOption parseOptionFromParameters(@NotNull PsiElement[] parameters) {
+    private static CommandOption parseOptionFromParameters(@NotNull PhpClass phpClass, @NotNull PsiElement[] parameters) {
         if (parameters.length == 0) {
             return null;
         }
 
         PsiElement nameParam = parameters[0];
-        String name = PhpElementsUtil.getStringValue(nameParam);
+        String name = PhpElementsUtil.getStringValueIndexSafe(phpClass, nameParam);
         if (StringUtils.isBlank(name)) {
             return null;
         }
 
-        String shortcut = parameters.length > 1 ? PhpElementsUtil.getStringValue(parameters[1]) : null;
-        String description = parameters.length > 3 ? PhpElementsUtil.getStringValue(parameters[3]) : null;
+        String shortcut = parameters.length > 1 ? PhpElementsUtil.getStringValueIndexSafe(phpClass, parameters[1]) : null;
+        String description = parameters.length > 3 ? PhpElementsUtil.getStringValueIndexSafe(phpClass, parameters[3]) : null;
         String defaultValue = parameters.length > 4 ? parameters[4].getText() : null;
 
         return new CommandOption(nameParam, name, shortcut, description, defaultValue);
@@ -302,23 +348,45 @@ public class SymfonyCommandUtil {
     public static Map<String, CommandArgument> getCommandArguments(@NotNull PhpClass phpClass) {
         Map<String, CommandArgument> arguments = new HashMap<>();
 
+        for (CommandArgument argument : getCommandArgumentsIndexSafe(phpClass)) {
+            String name = PhpElementsUtil.resolveConstantReference(phpClass.getProject(), argument.name());
+            if (StringUtils.isNotBlank(name)) {
+                arguments.put(name, new CommandArgument(
+                    argument.target(),
+                    name,
+                    PhpElementsUtil.resolveConstantReference(phpClass.getProject(), argument.description()),
+                    argument.defaultValue()
+                ));
+            }
+        }
+
+        return arguments;
+    }
+
+    /**
+     * Arguments of "configure()" and of "__invoke()" parameters, shared with the console command index; see "getCommandOptionsIndexSafe"
+     */
+    @NotNull
+    public static Collection<CommandArgument> getCommandArgumentsIndexSafe(@NotNull PhpClass phpClass) {
+        Map<String, CommandArgument> arguments = new LinkedHashMap<>();
+
         // Collect arguments from traditional configure() method
         Method configureMethod = phpClass.findOwnMethodByName("configure");
         if (configureMethod != null) {
             // Case 1: addArgument() method calls
-            Collection<MethodReference> addArgumentCalls = PhpElementsUtil.collectMethodReferencesInsideControlFlow(configureMethod, "addArgument");
-            for (MethodReference methodRef : addArgumentCalls) {
-                CommandArgument argument = parseArgumentFromParameters(methodRef.getParameters());
+            for (MethodReference methodRef : PhpElementsUtil.collectMethodReferencesInsideControlFlow(configureMethod, "addArgument")) {
+                CommandArgument argument = parseArgumentFromParameters(phpClass, methodRef.getParameters());
                 if (argument != null) {
                     arguments.put(argument.name(), argument);
                 }
             }
 
             // Case 2: setDefinition() with new InputArgument() instances
-            Collection<MethodReference> setDefinitionCalls = PhpElementsUtil.collectMethodReferencesInsideControlFlow(configureMethod, "setDefinition");
-            for (MethodReference methodRef : setDefinitionCalls) {
-                Map<String, CommandArgument> definitionArguments = parseSetDefinitionCallForArguments(methodRef);
-                arguments.putAll(definitionArguments);
+            for (NewExpression newExpression : getSetDefinitionNewExpressions(configureMethod, INPUT_ARGUMENT)) {
+                CommandArgument argument = parseArgumentFromParameters(phpClass, newExpression.getParameters());
+                if (argument != null) {
+                    arguments.put(argument.name(), argument);
+                }
             }
         }
 
@@ -328,7 +396,7 @@ public class SymfonyCommandUtil {
             arguments.putAll(getCommandArguments(invokeMethod));
         }
 
-        return arguments;
+        return arguments.values();
     }
 
     @NotNull
@@ -345,59 +413,23 @@ public class SymfonyCommandUtil {
         return arguments;
     }
 
-    @NotNull
-    public static Map<String, CommandArgument> getCommandArguments(@NotNull Project project, @NotNull SymfonyCommand command) {
-        Method method = resolveCommandMethod(project, command);
-        if (method != null) {
-            return getCommandArguments(method);
-        }
-
-        PhpClass phpClass = resolveCommandClass(project, command);
-        return phpClass != null ? getCommandArguments(phpClass) : Collections.emptyMap();
-    }
-
-    /**
-     * Parses a setDefinition() method call and extracts arguments from new InputArgument() instances.
-     *
-     * @param methodRef The setDefinition method reference
-     * @return Map of argument names to CommandArgument objects
-     */
-    @NotNull
-    private static Map<String, CommandArgument> parseSetDefinitionCallForArguments(@NotNull MethodReference methodRef) {
-        Map<String, CommandArgument> arguments = new HashMap<>();
-
-        // Collect all new InputArgument() expressions within the setDefinition call
-        Collection<NewExpression> newExpressions = com.intellij.psi.util.PsiTreeUtil.collectElementsOfType(methodRef, NewExpression.class);
-        for (NewExpression newExpression : newExpressions) {
-            // Check if this is a new InputArgument() instance
-            if (PhpElementsUtil.getNewExpressionPhpClassWithInstance(newExpression, "Symfony\\Component\\Console\\Input\\InputArgument") != null) {
-                CommandArgument argument = parseArgumentFromParameters(newExpression.getParameters());
-                if (argument != null) {
-                    arguments.put(argument.name(), argument);
-                }
-            }
-        }
-
-        return arguments;
-    }
-
     /**
      * Parses the parameters of addArgument(name, mode, description, default)
      * or new InputArgument(name, mode, description, default).
      */
     @Nullable
-    private static CommandArgument parseArgumentFromParameters(@NotNull PsiElement[] parameters) {
+    private static CommandArgument parseArgumentFromParameters(@NotNull PhpClass phpClass, @NotNull PsiElement[] parameters) {
         if (parameters.length == 0) {
             return null;
         }
 
         PsiElement nameParam = parameters[0];
-        String name = PhpElementsUtil.getStringValue(nameParam);
+        String name = PhpElementsUtil.getStringValueIndexSafe(phpClass, nameParam);
         if (StringUtils.isBlank(name)) {
             return null;
         }
 
-        String description = parameters.length > 2 ? PhpElementsUtil.getStringValue(parameters[2]) : null;
+        String description = parameters.length > 2 ? PhpElementsUtil.getStringValueIndexSafe(phpClass, parameters[2]) : null;
         String defaultValue = parameters.length > 3 ? parameters[3].getText() : null;
 
         return new CommandArgument(nameParam, name, description, defaultValue);
@@ -463,41 +495,14 @@ public class SymfonyCommandUtil {
     @NotNull
     public static List<String> getCommandNameFromClass(@NotNull PhpClass phpClass) {
         // #[AsCommand] attribute - works for both styles (with and without extends Command)
-        List<String> attributeNames = getCommandNamesFromAsCommandAttributes(phpClass);
-        if (!attributeNames.isEmpty()) {
-            return attributeNames;
-        }
+        List<String> names = getAsCommandNamesIndexSafe(phpClass, phpClass);
 
         // Only for classic commands (extends Command)
-        if (PhpElementsUtil.isInstanceOf(phpClass, "\\Symfony\\Component\\Console\\Command\\Command")) {
-            Field defaultName = phpClass.findFieldByName("defaultName", false);
-            if (defaultName != null) {
-                PsiElement defaultValue = defaultName.getDefaultValue();
-                if (defaultValue != null) {
-                    String stringValue = PhpElementsUtil.getStringValue(defaultValue);
-                    if (stringValue != null) {
-                        return List.of(stringValue.split("\\|"));
-                    }
-                }
-            }
-
-            Method method = phpClass.findOwnMethodByName("configure");
-            if (method != null) {
-                for (MethodReference methodReference : PhpElementsUtil.collectMethodReferencesInsideControlFlow(method, "setName")) {
-                    PsiElement psiMethodParameter = PsiElementUtils.getMethodParameterPsiElementAt(methodReference, 0);
-                    if (psiMethodParameter == null) {
-                        continue;
-                    }
-
-                    String stringValue = PhpElementsUtil.getStringValue(psiMethodParameter);
-                    if (stringValue != null) {
-                        return Collections.singletonList(stringValue);
-                    }
-                }
-            }
+        if (names.isEmpty() && PhpElementsUtil.isInstanceOf(phpClass, COMMAND_CLASS)) {
+            names = getLegacyCommandNamesIndexSafe(phpClass);
         }
 
-        return Collections.emptyList();
+        return resolveCommandValues(phpClass.getProject(), names);
     }
 
     @NotNull
@@ -506,20 +511,30 @@ public class SymfonyCommandUtil {
             return Collections.emptyList();
         }
 
-        return getCommandNamesFromAsCommandAttributes(method);
+        return resolveCommandValues(method.getProject(), getAsCommandNamesIndexSafe(method, method.getContainingClass()));
     }
 
+    /**
+     * Name and aliases of the first "#[AsCommand]" of a class or method; shared with the console command index
+     */
     @NotNull
-    private static List<String> getCommandNamesFromAsCommandAttributes(@NotNull PhpAttributesOwner element) {
+    public static List<String> getAsCommandNamesIndexSafe(@NotNull PhpAttributesOwner element, @Nullable PhpClass phpClass) {
         for (PhpAttribute attribute : element.getAttributes(AS_COMMAND_ATTRIBUTE)) {
-            String name = PhpPsiAttributesUtil.getAttributeValueByNameAsStringWithDefaultParameterFallback(attribute, "name");
             List<String> names = new ArrayList<>();
 
+            String name = PhpElementsUtil.getStringValueIndexSafe(phpClass, PhpPsiAttributesUtil.getAttributeValuePsiElement(attribute, 0, "name"));
             if (StringUtils.isNotBlank(name)) {
                 names.add(name);
             }
 
-            names.addAll(PhpPsiAttributesUtil.getAttributeValueByNameAsArray(attribute, "aliases"));
+            if (PhpPsiAttributesUtil.getAttributeValuePsiElement(attribute, 2, "aliases") instanceof ArrayCreationExpression aliases) {
+                for (PsiElement alias : PhpElementsUtil.getArrayValues(aliases)) {
+                    String value = PhpElementsUtil.getStringValueIndexSafe(phpClass, alias);
+                    if (StringUtils.isNotBlank(value) && !names.contains(value)) {
+                        names.add(value);
+                    }
+                }
+            }
 
             if (!names.isEmpty()) {
                 return names;
@@ -529,6 +544,100 @@ public class SymfonyCommandUtil {
         return Collections.emptyList();
     }
 
+    /**
+     * "protected static $defaultName = 'foo|alias'" or "$this->setName('foo')" inside "configure()"; shared with the
+     * console command index, so the "Command" parent is not checked here
+     */
+    @NotNull
+    public static List<String> getLegacyCommandNamesIndexSafe(@NotNull PhpClass phpClass) {
+        Field defaultName = phpClass.findOwnFieldByName("defaultName", false);
+        if (defaultName != null) {
+            String value = PhpElementsUtil.getStringValueIndexSafe(phpClass, defaultName.getDefaultValue());
+            if (value != null) {
+                // a constant of another class is split after resolving
+                return PhpElementsUtil.isConstantReference(value) ? List.of(value) : List.of(value.split("\\|"));
+            }
+        }
+
+        Method configure = phpClass.findOwnMethodByName("configure");
+        if (configure != null) {
+            for (MethodReference methodReference : PhpElementsUtil.collectMethodReferencesInsideControlFlow(configure, "setName")) {
+                PsiElement[] parameters = methodReference.getParameters();
+                String value = parameters.length > 0 ? PhpElementsUtil.getStringValueIndexSafe(phpClass, parameters[0]) : null;
+                if (value != null) {
+                    return List.of(value);
+                }
+            }
+        }
+
+        return Collections.emptyList();
+    }
+
+    @NotNull
+    private static List<String> resolveCommandValues(@NotNull Project project, @NotNull List<String> values) {
+        List<String> resolved = new ArrayList<>();
+
+        for (String value : values) {
+            String name = PhpElementsUtil.resolveConstantReference(project, value);
+            if (StringUtils.isBlank(name)) {
+                continue;
+            }
+
+            // "$defaultName" can hold a constant with aliases, e.g. "foo|bar"
+            for (String alias : PhpElementsUtil.isConstantReference(value) ? name.split("\\|") : new String[]{name}) {
+                if (!resolved.contains(alias)) {
+                    resolved.add(alias);
+                }
+            }
+        }
+
+        return resolved;
+    }
+
+    /**
+     * Indexed value with constants of other classes resolved; the given instance if it has none
+     */
+    @NotNull
+    private static ConsoleCommand resolveIndexedCommand(@NotNull Project project, @NotNull ConsoleCommand command) {
+        boolean references = command.options().stream().anyMatch(option -> PhpElementsUtil.isConstantReference(option.name()) || PhpElementsUtil.isConstantReference(option.shortcut()) || PhpElementsUtil.isConstantReference(option.description()))
+            || command.arguments().stream().anyMatch(argument -> PhpElementsUtil.isConstantReference(argument.name()) || PhpElementsUtil.isConstantReference(argument.description()));
+
+        if (!references) {
+            return command;
+        }
+
+        List<ConsoleCommand.Option> options = new ArrayList<>();
+        for (ConsoleCommand.Option option : command.options()) {
+            String name = PhpElementsUtil.resolveConstantReference(project, option.name());
+            if (StringUtils.isNotBlank(name)) {
+                options.add(new ConsoleCommand.Option(name, PhpElementsUtil.resolveConstantReference(project, option.shortcut()), PhpElementsUtil.resolveConstantReference(project, option.description()), option.defaultValue()));
+            }
+        }
+
+        List<ConsoleCommand.Argument> arguments = new ArrayList<>();
+        for (ConsoleCommand.Argument argument : command.arguments()) {
+            String name = PhpElementsUtil.resolveConstantReference(project, argument.name());
+            if (StringUtils.isNotBlank(name)) {
+                arguments.add(new ConsoleCommand.Argument(name, PhpElementsUtil.resolveConstantReference(project, argument.description()), argument.defaultValue()));
+            }
+        }
+
+        return new ConsoleCommand(command.phpClass(), command.methodName(), command.attribute(), options, arguments);
+    }
+
+    /**
+     * Command of the index, which keeps its indexed options and arguments for "getIndexedCommand"
+     */
+    private static class IndexedSymfonyCommand extends SymfonyCommand {
+        @NotNull
+        private final ConsoleCommand command;
+
+        private IndexedSymfonyCommand(@NotNull String name, @NotNull ConsoleCommand command) {
+            super(name, command.phpClass(), command.methodName());
+            this.command = command;
+        }
+    }
+
     public record CommandOption(
         @NotNull PsiElement target,
         @NotNull String name,
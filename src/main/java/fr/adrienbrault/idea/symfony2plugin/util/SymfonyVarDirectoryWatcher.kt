@@ -11,6 +11,7 @@ import com.intellij.openapi.vfs.newvfs.events.VFileEvent
 import com.intellij.openapi.vfs.newvfs.events.VFilePropertyChangeEvent
 import com.intellij.util.Alarm
 import com.intellij.util.messages.MessageBusConnection
+import com.intellij.util.messages.Topic
 import fr.adrienbrault.idea.symfony2plugin.Settings
 import java.util.Collections
 import java.util.EnumSet
@@ -34,6 +35,18 @@ class SymfonyVarDirectoryWatcher(private val project: Project) : Disposable {
         ROUTES,
     }
 
+    /**
+     * Notified after scopes were invalidated, e.g. for warming caches again.
+     */
+    fun interface Listener {
+        fun scopesInvalidated(scopes: Set<Scope>)
+    }
+
+    companion object {
+        @JvmField
+        val TOPIC: Topic<Listener> = Topic.create("Symfony var directory invalidation", Listener::class.java)
+    }
+
     /**
      * Stable trackers that consumers can keep as dependencies.
      */
@@ -69,6 +82,7 @@ class SymfonyVarDirectoryWatcher(private val project: Project) : Disposable {
     fun reloadConfiguration() {
         refreshSubscription()
         trackers.keys.forEach { invalidate(it) }
+        publish(trackers.keys)
     }
 
     /**
@@ -122,6 +136,13 @@ class SymfonyVarDirectoryWatcher(private val project: Project) : Disposable {
             pendingScopes.clear()
         }
         scopes.forEach { invalidate(it) }
+        publish(scopes)
+    }
+
+    private fun publish(scopes: Set<Scope>) {
+        if (!project.isDisposed) {
+            project.messageBus.syncPublisher(TOPIC).scopesInvalidated(scopes)
+        }
     }
 
     private fun refreshSubscription() {
@@ -5,6 +5,7 @@ import com.intellij.codeInsight.lookup.LookupElementBuilder;
 import com.intellij.lang.ASTNode;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.Key;
+import com.intellij.openapi.util.SimpleModificationTracker;
 import com.intellij.openapi.vfs.VfsUtil;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.openapi.vfs.VirtualFileVisitor;
@@ -69,6 +70,9 @@ public class UxUtil {
 
     private static final Key<CachedValue<Collection<TwigComponentNamespace>>> TWIG_COMPONENTS_NAMESPACES = new Key<>("SYMFONY_TWIG_COMPONENTS_NAMESPACES");
     private static final Key<CachedValue<Collection<TwigComponent>>> NAMESPACED_ANONYMOUS_COMPONENTS = new Key<>("SYMFONY_UX_NAMESPACED_ANONYMOUS_COMPONENTS");
+    private static final Key<CachedValue<Map<String, TwigComponent>>> INDEXED_COMPONENTS = new Key<>("SYMFONY_UX_INDEXED_COMPONENTS");
+    private static final Key<CachedValue<Map<String, TwigComponent>>> ANONYMOUS_COMPONENTS = new Key<>("SYMFONY_UX_ANONYMOUS_COMPONENTS");
+    private static final Key<CachedValue<TwigComponentRegistry>> COMPONENT_REGISTRY = new Key<>("SYMFONY_UX_COMPONENT_REGISTRY");
     private static final Key<CachedValue<Collection<String>>> COMPONENT_CLASS_FQNS_FOR_TEMPLATE_FILE = new Key<>("SYMFONY_UX_COMPONENT_CLASS_FQNS_FOR_TEMPLATE_FILE");
 
     public static Collection<TwigComponentNamespace> getNamespaces(@NotNull Project project) {
@@ -228,13 +232,12 @@ public class UxUtil {
 
     public static Set<String> getTwigComponentNames(@NotNull Project project) {
         // @TODO filter TwigComponentType.TWIG_COMPONENT
-        return getAllComponentNames(project).stream().map(TwigComponent::name).collect(Collectors.toSet());
+        return getComponentRegistry(project).getNames();
     }
 
     @Nullable
     public static String resolveTwigComponentName(@NotNull Project project, @NotNull String name) {
-        Set<String> names = getTwigComponentNames(project);
-        return names.contains(name) ? name : null;
+        return getComponentRegistry(project).getComponent(name) != null ? name : null;
     }
 
     public static boolean hasTwigComponentName(@NotNull Project project, @NotNull String name) {
@@ -284,31 +287,124 @@ public class UxUtil {
     }
 
     public static Collection<TwigComponent> getAllComponentNames(@NotNull Project project) {
+        return getComponentRegistry(project).getComponents();
+    }
+
+    /**
+     * All components by their resolved name: indexed classes, the compiled container and anonymous templates
+     */
+    @NotNull
+    public static TwigComponentRegistry getComponentRegistry(@NotNull Project project) {
+        return SymfonyCacheMetrics.getCachedValue(
+            project,
+            COMPONENT_REGISTRY,
+            "UxUtil.COMPONENT_REGISTRY",
+            () -> {
+                Map<String, TwigComponent> components = new HashMap<>(getIndexedComponents(project));
+
+                for (CompiledTwigComponent component : getCompiledTwigComponents(project).values()) {
+                    mergeCompiledComponent(components, component);
+                }
+
+                getAnonymousComponents(project).forEach(components::putIfAbsent);
+
+                return CachedValueProvider.Result.create(
+                    new TwigComponentRegistry(components),
+                    FileIndexCaches.getModificationTrackerForIndexId(project, UxTemplateStubIndex.KEY),
+                    FileIndexCaches.getModificationTrackerForIndexId(project, ConfigStubIndex.KEY),
+                    getContainerTracker(project),
+                    TwigUtil.getTwigNamespacesModificationTracker(project),
+                    VirtualFileManager.VFS_STRUCTURE_MODIFICATIONS
+                );
+            }
+        );
+    }
+
+    /**
+     * Components of the indexed PHP classes; only changes with the component classes or the "twig_component" config
+     */
+    @NotNull
+    private static Map<String, TwigComponent> getIndexedComponents(@NotNull Project project) {
+        return CachedValuesManager.getManager(project).getCachedValue(
+            project,
+            INDEXED_COMPONENTS,
+            () -> CachedValueProvider.Result.create(
+                Collections.unmodifiableMap(getIndexedComponentsInner(project)),
+                FileIndexCaches.getModificationTrackerForIndexId(project, UxTemplateStubIndex.KEY),
+                FileIndexCaches.getModificationTrackerForIndexId(project, ConfigStubIndex.KEY)
+            ),
+            false
+        );
+    }
+
+    @NotNull
+    private static Map<String, TwigComponent> getIndexedComponentsInner(@NotNull Project project) {
+        List<TwigComponentNamespace> namespaces = new ArrayList<>(getNamespaces(project));
+
+        // "\App\Twig\Components\" => declaration order; Symfony UX takes the first matching namespace
+        Map<String, Integer> namespaceOrder = new HashMap<>();
+        for (int i = 0; i < namespaces.size(); i++) {
+            namespaceOrder.putIfAbsent("\\" + StringUtils.strip(namespaces.get(i).namespace(), "\\") + "\\", i);
+        }
+
         Map<String, TwigComponent> names = new HashMap<>();
 
         for (String key : IndexUtil.getAllKeysForProject(UxTemplateStubIndex.KEY, project)) {
             for (UxComponent value : FileBasedIndex.getInstance().getValues(UxTemplateStubIndex.KEY, key, GlobalSearchScope.allScope(project))) {
-                for (TwigComponentNamespace namespace : getNamespaces(project)) {
-                    String namespace1 = "\\" + StringUtils.strip(namespace.namespace(), "\\") + "\\";
+                String phpClass = value.phpClass();
+
+                // lookup every parent namespace of the class instead of matching it against all namespaces
+                int match = -1;
+                for (int i = phpClass.indexOf('\\'); i >= 0; i = phpClass.indexOf('\\', i + 1)) {
+                    Integer order = namespaceOrder.get(phpClass.substring(0, i + 1));
+                    if (order != null && (match < 0 || order < match)) {
+                        match = order;
+                    }
+                }
 
-                    if (value.phpClass().startsWith(namespace1)) {
-                        String name = value.name() != null
-                            ? value.name()
-                            : addNamePrefix(value.phpClass().substring(namespace1.length()).replace("\\", ":"), namespace.namePrefix());
+                if (match < 0) {
+                    continue;
+                }
 
-                        if (!name.isBlank()) {
-                            names.put(name, new TwigComponent(name, value.phpClass(), namespace, value.template(), null));
-                        }
+                TwigComponentNamespace namespace = namespaces.get(match);
+                String namespace1 = "\\" + StringUtils.strip(namespace.namespace(), "\\") + "\\";
 
-                        break;
-                    }
+                String name = value.name() != null
+                    ? value.name()
+                    : addNamePrefix(phpClass.substring(namespace1.length()).replace("\\", ":"), namespace.namePrefix());
+
+                if (!name.isBlank()) {
+                    names.put(name, new TwigComponent(name, phpClass, namespace, value.template(), null));
                 }
             }
         }
 
-        for (CompiledTwigComponent component : getCompiledTwigComponents(project).values()) {
-            mergeCompiledComponent(names, component);
-        }
+        return names;
+    }
+
+    /**
+     * Template-only components inside the configured anonymous template directories and the "components" folder of
+     * every Twig namespace
+     */
+    @NotNull
+    private static Map<String, TwigComponent> getAnonymousComponents(@NotNull Project project) {
+        return CachedValuesManager.getManager(project).getCachedValue(
+            project,
+            ANONYMOUS_COMPONENTS,
+            () -> CachedValueProvider.Result.create(
+                Collections.unmodifiableMap(getAnonymousComponentsInner(project)),
+                FileIndexCaches.getModificationTrackerForIndexId(project, ConfigStubIndex.KEY),
+                getContainerTracker(project),
+                TwigUtil.getTwigNamespacesModificationTracker(project),
+                VirtualFileManager.VFS_STRUCTURE_MODIFICATIONS
+            ),
+            false
+        );
+    }
+
+    @NotNull
+    private static Map<String, TwigComponent> getAnonymousComponentsInner(@NotNull Project project) {
+        Map<String, TwigComponent> names = new LinkedHashMap<>();
 
         for (String valueValue : getAnonymousTemplateDirectories(project)) {
             String namespace = null;
@@ -349,7 +445,13 @@ public class UxUtil {
             names.putIfAbsent(component.name(), component);
         }
 
-        return names.values();
+        return names;
+    }
+
+    @NotNull
+    private static SimpleModificationTracker getContainerTracker(@NotNull Project project) {
+        return SymfonyVarDirectoryWatcherKt.getSymfonyVarDirectoryWatcher(project)
+            .getModificationTracker(SymfonyVarDirectoryWatcher.Scope.CONTAINER);
     }
 
     @NotNull
@@ -359,6 +461,7 @@ public class UxUtil {
             NAMESPACED_ANONYMOUS_COMPONENTS,
             () -> CachedValueProvider.Result.create(
                 Collections.unmodifiableCollection(getNamespacedAnonymousComponentsInner(project)),
+                TwigUtil.getTwigNamespacesModificationTracker(project),
                 VirtualFileManager.VFS_STRUCTURE_MODIFICATIONS
             ),
             false
@@ -1010,4 +1113,31 @@ public class UxUtil {
         @Nullable String template,
         @Nullable String templateFromMethod
     ) {}
+
+    /**
+     * Read-only components by their resolved name, e.g. "Alert" or "Pizza:Menu"
+     */
+    public static final class TwigComponentRegistry {
+        @NotNull
+        private final Map<String, TwigComponent> components;
+
+        private TwigComponentRegistry(@NotNull Map<String, TwigComponent> components) {
+            this.components = Collections.unmodifiableMap(components);
+        }
+
+        @Nullable
+        public TwigComponent getComponent(@NotNull String name) {
+            return components.get(name);
+        }
+
+        @NotNull
+        public Set<String> getNames() {
+            return components.keySet();
+        }
+
+        @NotNull
+        public Collection<TwigComponent> getComponents() {
+            return components.values();
+        }
+    }
 }
@@ -739,8 +739,6 @@ public class ServiceUtil {
     }
 
     public static boolean isPhpClassAService(@NotNull PhpClass phpClass) {
-        return !ContainerCollectionResolver.ServiceCollector.create(phpClass.getProject())
-            .convertClassNameToServices(phpClass.getFQN())
-            .isEmpty();
+        return !ContainerCollectionResolver.getServiceIdsForClass(phpClass.getProject(), phpClass.getFQN()).isEmpty();
     }
 }
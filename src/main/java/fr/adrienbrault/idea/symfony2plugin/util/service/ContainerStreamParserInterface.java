@@ -0,0 +1,23 @@
+package fr.adrienbrault.idea.symfony2plugin.util.service;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Visitor fed by a single streaming pass over a compiled container file, shared with all other stream parsers.
+ *
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ * @see ContainerXmlStreamReader
+ */
+public interface ContainerStreamParserInterface {
+    /**
+     * "/container/services/service" including its complete subtree
+     */
+    default void visitService(@NotNull ContainerXmlElement service) {
+    }
+
+    /**
+     * "/container/parameters/parameter" including its complete subtree
+     */
+    default void visitParameter(@NotNull ContainerXmlElement parameter) {
+    }
+}
@@ -0,0 +1,133 @@
+package fr.adrienbrault.idea.symfony2plugin.util.service;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * Lightweight element of a compiled container file, only built for the subtree of a single
+ * "/container/services/service" or "/container/parameters/parameter" entry.
+ *
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ * @see ContainerXmlStreamReader
+ */
+public class ContainerXmlElement {
+    @NotNull
+    private final String name;
+
+    @NotNull
+    private final Map<String, String> attributes;
+
+    @Nullable
+    private final ContainerXmlElement parent;
+
+    @NotNull
+    private final List<ContainerXmlElement> children = new ArrayList<>();
+
+    @NotNull
+    private final StringBuilder text = new StringBuilder();
+
+    ContainerXmlElement(@NotNull String name, @NotNull Map<String, String> attributes, @Nullable ContainerXmlElement parent) {
+        this.name = name;
+        this.attributes = attributes;
+        this.parent = parent;
+    }
+
+    @NotNull
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Like DOM: an empty string for a missing attribute
+     */
+    @NotNull
+    public String getAttribute(@NotNull String name) {
+        return attributes.getOrDefault(name, "");
+    }
+
+    public boolean hasAttribute(@NotNull String name) {
+        return attributes.containsKey(name);
+    }
+
+    /**
+     * Parent inside the current entry; "null" for the entry itself
+     */
+    @Nullable
+    public ContainerXmlElement getParent() {
+        return parent;
+    }
+
+    @NotNull
+    public List<ContainerXmlElement> getChildren() {
+        return children;
+    }
+
+    /**
+     * Direct children with the given name
+     */
+    @NotNull
+    public List<ContainerXmlElement> getChildren(@NotNull String name) {
+        List<ContainerXmlElement> elements = new ArrayList<>();
+        for (ContainerXmlElement child : children) {
+            if (name.equals(child.name)) {
+                elements.add(child);
+            }
+        }
+
+        return elements;
+    }
+
+    /**
+     * All descendants with the given name in document order, like DOM "getElementsByTagName"
+     */
+    @NotNull
+    public List<ContainerXmlElement> getDescendants(@NotNull String name) {
+        List<ContainerXmlElement> elements = new ArrayList<>();
+        collectDescendants(this, name, elements);
+        return elements;
+    }
+
+    /**
+     * Text of this element and all its descendants, like DOM "getTextContent"
+     */
+    @NotNull
+    public String getTextContent() {
+        if (children.isEmpty()) {
+            return text.toString();
+        }
+
+        StringBuilder content = new StringBuilder();
+        appendTextContent(this, content);
+        return content.toString();
+    }
+
+    void addChild(@NotNull ContainerXmlElement child) {
+        children.add(child);
+    }
+
+    /**
+     * Mixed content is simplified: own text first, followed by the text of the children
+     */
+    void appendText(@NotNull String value) {
+        text.append(value);
+    }
+
+    private static void collectDescendants(@NotNull ContainerXmlElement element, @NotNull String name, @NotNull List<ContainerXmlElement> elements) {
+        for (ContainerXmlElement child : element.children) {
+            if (name.equals(child.name)) {
+                elements.add(child);
+            }
+
+            collectDescendants(child, name, elements);
+        }
+    }
+
+    private static void appendTextContent(@NotNull ContainerXmlElement element, @NotNull StringBuilder content) {
+        content.append(element.text);
+        for (ContainerXmlElement child : element.children) {
+            appendTextContent(child, content);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package fr.adrienbrault.idea.symfony2plugin.util.service;
+
+import fr.adrienbrault.idea.symfony2plugin.util.xml.SecureXmlUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Single StAX pass over a compiled container file, e.g. "var/cache/dev/App_KernelDevDebugContainer.xml"
+ *
+ * Only the subtree of the current service or parameter entry is held in memory, never the whole document.
+ * Every finished entry is handed to all given parsers.
+ *
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ */
+public class ContainerXmlStreamReader {
+    /**
+     * @return "false" on invalid xml; entries visited until then stay visited
+     */
+    public static boolean read(@NotNull InputStream inputStream, @NotNull Collection<? extends ContainerStreamParserInterface> parsers) {
+        XMLStreamReader reader;
+        try {
+            reader = SecureXmlUtil.createXMLStreamReader(inputStream);
+        } catch (XMLStreamException e) {
+            return false;
+        }
+
+        try {
+            int depth = 0;
+            String section = null;
+            ContainerXmlElement current = null;
+
+            while (reader.hasNext()) {
+                switch (reader.next()) {
+                    case XMLStreamConstants.START_ELEMENT -> {
+                        depth++;
+                        String name = reader.getLocalName();
+
+                        if (depth == 1 && !"container".equals(name)) {
+                            return true;
+                        }
+
+                        if (current != null) {
+                            ContainerXmlElement element = new ContainerXmlElement(name, getAttributes(reader), current);
+                            current.addChild(element);
+                            current = element;
+                        } else if (isEntry(depth, section, name)) {
+                            current = new ContainerXmlElement(name, getAttributes(reader), null);
+                        } else if (depth == 2) {
+                            section = name;
+                        }
+                    }
+                    case XMLStreamConstants.CHARACTERS, XMLStreamConstants.CDATA -> {
+                        if (current != null) {
+                            current.appendText(reader.getText());
+                        }
+                    }
+                    case XMLStreamConstants.END_ELEMENT -> {
+                        depth--;
+
+                        if (current != null) {
+                            ContainerXmlElement parent = current.getParent();
+                            if (parent == null) {
+                                visit(current, parsers);
+                            }
+
+                            current = parent;
+                        }
+
+                        if (depth < 2) {
+                            section = null;
+                        }
+                    }
+                    default -> {
+                    }
+                }
+            }
+        } catch (XMLStreamException e) {
+            return false;
+        } finally {
+            try {
+                reader.close();
+            } catch (XMLStreamException ignored) {
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * "/container/services/service", "/container/parameters/parameter"; also a "service" directly inside "container"
+     */
+    private static boolean isEntry(int depth, @Nullable String section, @NotNull String name) {
+        if (depth == 2) {
+            return "service".equals(name);
+        }
+
+        return depth == 3 && (("services".equals(section) && "service".equals(name)) || ("parameters".equals(section) && "parameter".equals(name)));
+    }
+
+    private static void visit(@NotNull ContainerXmlElement entry, @NotNull Collection<? extends ContainerStreamParserInterface> parsers) {
+        if ("service".equals(entry.getName())) {
+            for (ContainerStreamParserInterface parser : parsers) {
+                parser.visitService(entry);
+            }
+        } else {
+            for (ContainerStreamParserInterface parser : parsers) {
+                parser.visitParameter(entry);
+            }
+        }
+    }
+
+    @NotNull
+    private static Map<String, String> getAttributes(@NotNull XMLStreamReader reader) {
+        int count = reader.getAttributeCount();
+        if (count == 0) {
+            return Map.of();
+        }
+
+        Map<String, String> attributes = new HashMap<>(count);
+        for (int i = 0; i < count; i++) {
+            attributes.put(reader.getAttributeLocalName(i), reader.getAttributeValue(i));
+        }
+
+        return attributes;
+    }
+}
@@ -8,16 +8,16 @@ import com.intellij.psi.util.CachedValue;
 import com.intellij.psi.util.CachedValueProvider;
 import com.intellij.psi.util.CachedValuesManager;
 import fr.adrienbrault.idea.symfony2plugin.Symfony2ProjectComponent;
+import fr.adrienbrault.idea.symfony2plugin.dic.ConsoleCommandServiceParser;
+import fr.adrienbrault.idea.symfony2plugin.dic.XmlEventParser;
+import fr.adrienbrault.idea.symfony2plugin.dic.XmlTagParser;
 import fr.adrienbrault.idea.symfony2plugin.util.SymfonyVarDirectoryWatcher;
 import fr.adrienbrault.idea.symfony2plugin.util.SymfonyVarDirectoryWatcherKt;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.Collection;
-import java.util.Map;
+import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
@@ -26,6 +26,15 @@ import java.util.concurrent.ConcurrentHashMap;
 public class ServiceXmlParserFactory {
     private static final Key<CachedValue<Map<Class<?>, ServiceParserInterface>>> CACHED_PARSERS = new Key<>("SYMFONY_SERVICE_XML_PARSERS");
 
+    /**
+     * Parsers only visiting service entries; they are all filled by one shared pass over each container file
+     */
+    private static final List<Class<? extends ServiceParserInterface>> STREAM_PARSERS = List.of(
+        XmlTagParser.class,
+        XmlEventParser.class,
+        ConsoleCommandServiceParser.class
+    );
+
     @SuppressWarnings("unchecked")
     private static <T extends ServiceParserInterface> T getCachedParser(@NotNull Project project, Class<T> serviceParser) {
         Map<Class<?>, ServiceParserInterface> parsers = CachedValuesManager.getManager(project).getCachedValue(
@@ -39,28 +48,54 @@ public class ServiceXmlParserFactory {
             false
         );
 
+        if (STREAM_PARSERS.contains(serviceParser)) {
+            ServiceParserInterface parser = parsers.get(serviceParser);
+            if (parser == null) {
+                synchronized (parsers) {
+                    parser = parsers.get(serviceParser);
+                    if (parser == null) {
+                        parsers.putAll(buildStreamParsers(project));
+                        parser = parsers.get(serviceParser);
+                    }
+                }
+            }
+
+            return (T) parser;
+        }
+
         return (T) parsers.computeIfAbsent(serviceParser, parserClass -> buildParserUnchecked(project, parserClass));
     }
 
+    @NotNull
+    private static Map<Class<?>, ServiceParserInterface> buildStreamParsers(@NotNull Project project) {
+        Map<Class<?>, ServiceParserInterface> parsers = new HashMap<>();
+        List<ContainerStreamParserInterface> visitors = new ArrayList<>();
+
+        for (Class<? extends ServiceParserInterface> parserClass : STREAM_PARSERS) {
+            ServiceParserInterface parser = createParser(parserClass);
+            parsers.put(parserClass, parser);
+            visitors.add((ContainerStreamParserInterface) parser);
+        }
+
+        for (VirtualFile vf : getContainerFiles(project)) {
+            try {
+                ContainerXmlStreamReader.read(new ByteArrayInputStream(vf.contentsToByteArray()), visitors);
+            } catch (IOException ignored) {
+            }
+        }
+
+        return parsers;
+    }
+
     @SuppressWarnings("unchecked")
     private static ServiceParserInterface buildParserUnchecked(@NotNull Project project, Class<?> serviceParser) {
         return buildParser(project, (Class<? extends ServiceParserInterface>) serviceParser);
     }
 
     private static <T extends ServiceParserInterface> T buildParser(@NotNull Project project, Class<T> serviceParser) {
-        T parserInstance;
-        try {
-            parserInstance = serviceParser.getDeclaredConstructor().newInstance();
-        } catch (Exception e) {
-            throw new IllegalStateException("Failed to instantiate service parser: " + serviceParser.getName(), e);
-        }
-
-        Collection<VirtualFile> settingsServiceFiles = Symfony2ProjectComponent.getContainerFiles(project);
-        for (VirtualFile vf : new ArrayList<>(settingsServiceFiles).stream().sorted(Comparator.comparing(VirtualFile::getPath)).toList()) {
-            if (vf == null || !vf.exists()) {
-                continue;
-            }
+        T parserInstance = createParser(serviceParser);
 
+        for (VirtualFile vf : getContainerFiles(project)) {
             try {
                 parserInstance.parser(new ByteArrayInputStream(vf.contentsToByteArray()), vf, project);
             } catch (IOException ignored) {
@@ -70,6 +105,28 @@ public class ServiceXmlParserFactory {
         return parserInstance;
     }
 
+    @NotNull
+    private static <T extends ServiceParserInterface> T createParser(@NotNull Class<T> serviceParser) {
+        try {
+            return serviceParser.getDeclaredConstructor().newInstance();
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to instantiate service parser: " + serviceParser.getName(), e);
+        }
+    }
+
+    /**
+     * Existing container files in a stable order
+     */
+    @NotNull
+    private static List<VirtualFile> getContainerFiles(@NotNull Project project) {
+        Collection<VirtualFile> settingsServiceFiles = Symfony2ProjectComponent.getContainerFiles(project);
+
+        return new ArrayList<>(settingsServiceFiles).stream()
+            .filter(vf -> vf != null && vf.exists())
+            .sorted(Comparator.comparing(VirtualFile::getPath))
+            .toList();
+    }
+
     public static <T extends ServiceParserInterface> T getInstance(Project project, Class<T> serviceParser) {
         return getCachedParser(project, serviceParser);
     }
@@ -7,10 +7,14 @@ import javax.xml.XMLConstants;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
 import java.io.StringReader;
 
 /**
- * Creates DOM parsers hardened against XXE-style file and network access.
+ * Creates DOM and StAX parsers hardened against XXE-style file and network access.
  */
 public final class SecureXmlUtil {
     private SecureXmlUtil() {
@@ -42,6 +46,20 @@ public final class SecureXmlUtil {
         return builder;
     }
 
+    /**
+     * Returns a new {@link XMLStreamReader} with DTDs and external entities disabled.
+     */
+    @NotNull
+    public static XMLStreamReader createXMLStreamReader(@NotNull InputStream inputStream) throws XMLStreamException {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+
+        return factory.createXMLStreamReader(inputStream);
+    }
+
     private static void clearAttribute(@NotNull DocumentBuilderFactory factory, @NotNull String name) {
         try {
             factory.setAttribute(name, "");
@@ -7,11 +7,14 @@ import com.intellij.openapi.util.Key
 import com.intellij.psi.util.CachedValue
 import com.intellij.psi.util.CachedValueProvider
 import com.intellij.psi.util.CachedValuesManager
-import com.intellij.psi.util.PsiModificationTracker
 import com.intellij.terminal.completion.spec.ShellRuntimeContext
-import com.jetbrains.php.lang.PhpLanguage
 import fr.adrienbrault.idea.symfony2plugin.Settings
+import fr.adrienbrault.idea.symfony2plugin.stubs.cache.FileIndexCaches
+import fr.adrienbrault.idea.symfony2plugin.stubs.dict.ConsoleCommand
+import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.ConsoleCommandStubIndex
 import fr.adrienbrault.idea.symfony2plugin.util.SymfonyCommandUtil
+import fr.adrienbrault.idea.symfony2plugin.util.SymfonyVarDirectoryWatcher
+import fr.adrienbrault.idea.symfony2plugin.util.getSymfonyVarDirectoryWatcher
 import kotlinx.coroutines.Dispatchers
 import kotlinx.coroutines.withContext
 import org.jetbrains.annotations.ApiStatus
@@ -108,7 +111,8 @@ internal fun collectCommandData(project: Project): List<CommandData> {
             ReadAction.nonBlocking<CachedValueProvider.Result<List<CommandData>>> {
                 CachedValueProvider.Result.create(
                     collectCommandDataInner(project),
-                    PsiModificationTracker.getInstance(project).forLanguage(PhpLanguage.INSTANCE)
+                    FileIndexCaches.getModificationTrackerForIndexId(project, ConsoleCommandStubIndex.KEY),
+                    getSymfonyVarDirectoryWatcher(project).getModificationTracker(SymfonyVarDirectoryWatcher.Scope.CONTAINER)
                 )
             }.expireWhen { project.isDisposed }.executeSynchronously()
         },
@@ -116,17 +120,22 @@ internal fun collectCommandData(project: Project): List<CommandData> {
     )
 }
 
+/**
+ * Options and arguments are taken from the console command index, so no PHP file is parsed here
+ */
 private fun collectCommandDataInner(project: Project): List<CommandData> =
     SymfonyCommandUtil.getCommands(project).map { command ->
+        val indexed = SymfonyCommandUtil.getIndexedCommand(project, command)
+
         CommandData(
             name = command.name,
-            options = SymfonyCommandUtil.getCommandOptions(project, command),
-            arguments = SymfonyCommandUtil.getCommandArguments(project, command),
+            options = indexed?.options()?.associateBy { it.name() } ?: emptyMap(),
+            arguments = indexed?.arguments()?.associateBy { it.name() } ?: emptyMap(),
         )
     }
 
 internal data class CommandData(
     val name: String,
-    val options: Map<String, SymfonyCommandUtil.CommandOption>,
-    val arguments: Map<String, SymfonyCommandUtil.CommandArgument>,
+    val options: Map<String, ConsoleCommand.Option>,
+    val arguments: Map<String, ConsoleCommand.Argument>,
 )
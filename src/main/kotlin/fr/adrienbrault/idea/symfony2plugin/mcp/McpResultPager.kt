@@ -0,0 +1,153 @@
+package fr.adrienbrault.idea.symfony2plugin.mcp
+
+import com.intellij.mcpserver.mcpFail
+import com.intellij.openapi.components.Service
+import com.intellij.openapi.project.Project
+import java.util.UUID
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * Cursor based pages for the CSV results of the MCP list tools.
+ *
+ * The first page runs the collector once and keeps its rows as a short-lived snapshot; following pages are served
+ * from that snapshot by their cursor, so neither the collector nor a read action is needed again. Rows are sorted,
+ * which keeps the order stable between pages and tool calls. A cursor is bound to the tool which created it.
+ *
+ * Page footer, only if more rows are available:
+ * # rows: 1-200 of 5123
+ * # nextCursor: 3f2a9c1b:200
+ *
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ */
+@Service(Service.Level.PROJECT)
+class McpResultPager {
+    private val snapshots = ConcurrentHashMap<String, Snapshot>()
+
+    /**
+     * Collects a new snapshot without cursor, otherwise the requested page of an existing one
+     */
+    suspend fun page(toolName: String, cursor: String?, limit: Int, collect: suspend () -> String): String {
+        val normalizedCursor = cursor?.trim()?.takeIf { it.isNotBlank() }
+            ?: return firstPage(toolName, collect(), limit)
+
+        return nextPage(toolName, normalizedCursor, limit)
+            ?: mcpFail("Cursor '$normalizedCursor' is unknown or expired. Request the first page again without a cursor.")
+    }
+
+    fun firstPage(toolName: String, csv: String, limit: Int): String {
+        val records = splitRecords(csv)
+        if (records.isEmpty()) {
+            return csv
+        }
+
+        val snapshot = Snapshot(
+            UUID.randomUUID().toString().substringBefore('-'),
+            toolName,
+            records.first(),
+            records.drop(1).sorted(),
+            System.currentTimeMillis()
+        )
+
+        // single pages do not need to be kept for a cursor
+        if (snapshot.rows.size > getPageSize(limit)) {
+            removeExpired()
+            snapshots[snapshot.id] = snapshot
+        }
+
+        return render(snapshot, 0, limit)
+    }
+
+    /**
+     * @return "null" for an unknown or expired cursor; fails for a cursor of another tool
+     */
+    fun nextPage(toolName: String, cursor: String, limit: Int): String? {
+        removeExpired()
+
+        val id = cursor.substringBefore(':')
+        val offset = cursor.substringAfter(':', "").toIntOrNull()?.takeIf { it >= 0 } ?: return null
+        val snapshot = snapshots[id] ?: return null
+
+        if (snapshot.toolName != toolName) {
+            mcpFail("Cursor '$cursor' belongs to '${snapshot.toolName}' and not to '$toolName'. Pass it to the same tool or request the first page again without a cursor.")
+        }
+
+        return render(snapshot, offset, limit)
+    }
+
+    private fun render(snapshot: Snapshot, offset: Int, limit: Int): String = buildString {
+        val end = minOf(offset + getPageSize(limit), snapshot.rows.size)
+
+        appendLine(snapshot.header)
+        for (i in offset until end) {
+            appendLine(snapshot.rows[i])
+        }
+
+        if (end < snapshot.rows.size) {
+            appendLine("# rows: ${offset + 1}-$end of ${snapshot.rows.size}")
+            appendLine("# nextCursor: ${snapshot.id}:$end")
+        }
+    }
+
+    private fun removeExpired() {
+        val now = System.currentTimeMillis()
+        snapshots.values.removeIf { now - it.createdAt > SNAPSHOT_TTL_MS }
+
+        // keep only the newest snapshots
+        if (snapshots.size >= MAX_SNAPSHOTS) {
+            snapshots.values.minByOrNull { it.createdAt }?.let { snapshots.remove(it.id) }
+        }
+    }
+
+    private fun getPageSize(limit: Int): Int = limit.coerceIn(1, MAX_LIMIT)
+
+    private class Snapshot(val id: String, val toolName: String, val header: String, val rows: List<String>, val createdAt: Long)
+
+    companion object {
+        const val DEFAULT_LIMIT = 200
+
+        private const val MAX_LIMIT = 2000
+        private const val MAX_SNAPSHOTS = 16
+        private const val SNAPSHOT_TTL_MS = 5 * 60 * 1000L
+
+        @JvmStatic
+        fun getInstance(project: Project): McpResultPager = project.getService(McpResultPager::class.java)
+
+        /**
+         * Splits on line breaks outside of quoted values, "\n" or "\r\n"; see McpCsvUtil.escape
+         */
+        fun splitRecords(csv: String): List<String> {
+            val records = mutableListOf<String>()
+            val current = StringBuilder()
+            var quoted = false
+
+            for (c in csv) {
+                if (c == '"') {
+                    quoted = !quoted
+                }
+
+                if (c == '\n' && !quoted) {
+                    if (current.endsWith('\r')) {
+                        current.setLength(current.length - 1)
+                    }
+
+                    if (current.isNotEmpty()) {
+                        records.add(current.toString())
+                    }
+                    current.setLength(0)
+                } else {
+                    current.append(c)
+                }
+            }
+
+            if (current.endsWith('\r')) {
+                current.setLength(current.length - 1)
+            }
+
+            if (current.isNotEmpty()) {
+                records.add(current.toString())
+            }
+
+            return records
+        }
+    }
+}
@@ -6,8 +6,12 @@ import com.google.gson.JsonObject
 import fr.adrienbrault.idea.symfony2plugin.mcp.McpCsvUtil
 import fr.adrienbrault.idea.symfony2plugin.mcp.McpGlobMatcher
 import fr.adrienbrault.idea.symfony2plugin.mcp.McpPathUtil
+import fr.adrienbrault.idea.symfony2plugin.stubs.dict.ConsoleCommand
 import fr.adrienbrault.idea.symfony2plugin.util.SymfonyCommandUtil
 
+/**
+ * Names, options and arguments are taken from the console command index, same as the terminal completion
+ */
 class SymfonyCommandCollector(private val project: Project) {
     fun collect(fileGlob: String? = null): String = buildString {
         appendLine("name,className,filePath,options,arguments")
@@ -30,6 +34,7 @@ class SymfonyCommandCollector(private val project: Project) {
 
         return SymfonyCommandUtil.getCommands(project).map { command ->
             val target = SymfonyCommandUtil.resolveCommandTarget(project, command)
+            val indexed = SymfonyCommandUtil.getIndexedCommand(project, command)
 
             CommandRow(
                 name = command.name,
@@ -39,8 +44,8 @@ class SymfonyCommandCollector(private val project: Project) {
                     ?.virtualFile
                     ?.let { McpPathUtil.getRelativeProjectPath(project, it) }
                     ?: "",
-                options = SymfonyCommandUtil.getCommandOptions(project, command),
-                arguments = SymfonyCommandUtil.getCommandArguments(project, command),
+                options = indexed?.options() ?: emptyList(),
+                arguments = indexed?.arguments() ?: emptyList(),
             )
         }.filter { command ->
             normalizedFileGlob == null || McpGlobMatcher.matches(command.filePath, normalizedFileGlob)
@@ -48,7 +53,7 @@ class SymfonyCommandCollector(private val project: Project) {
     }
 
     private fun serializeOptions(command: CommandRow): String =
-        command.options.values
+        command.options
             .sortedBy { it.name() }
             .map { option ->
                 JsonObject().apply {
@@ -67,7 +72,7 @@ class SymfonyCommandCollector(private val project: Project) {
             ?: ""
 
     private fun serializeArguments(command: CommandRow): String =
-        command.arguments.values
+        command.arguments
             .sortedBy { it.name() }
             .map { argument ->
                 JsonObject().apply {
@@ -94,7 +99,7 @@ class SymfonyCommandCollector(private val project: Project) {
         val name: String,
         val className: String,
         val filePath: String,
-        val options: Map<String, SymfonyCommandUtil.CommandOption>,
-        val arguments: Map<String, SymfonyCommandUtil.CommandArgument>,
+        val options: List<ConsoleCommand.Option>,
+        val arguments: List<ConsoleCommand.Argument>,
     )
 }
@@ -19,7 +19,18 @@ class SymfonyProfilerRequestsCollector(private val project: Project) {
         val profilerIndex = ProfilerFactoryUtil.createIndex(project)
             ?: mcpFail("No profiler index available. Make sure the Symfony profiler is enabled and accessible.")
 
-        val requests = profilerIndex.requests
+        // stop loading profiles as soon as enough requests are matching
+        val effectiveLimit = if (limit > 0) limit else 25
+        val requests = mutableListOf<ProfilerRequestInterface>()
+        var matchCount = 0
+        profilerIndex.processRequests { request ->
+            requests.add(request)
+            if (matches(request, url, hash, controller, route)) {
+                matchCount++
+            }
+
+            matchCount < effectiveLimit
+        }
 
         if (requests.isEmpty()) {
             mcpFail("No profiler requests found. Make sure the Symfony profiler is enabled and has recorded requests.")
@@ -37,19 +48,7 @@ class SymfonyProfilerRequestsCollector(private val project: Project) {
         limit: Int = 25
     ): String {
         val effectiveLimit = if (limit > 0) limit else 25
-        val filteredRequests = requests.filter { request ->
-            val collectorData = request.getCollector(DefaultDataCollectorInterface::class.java)
-
-            val controllerValue = collectorData?.controller ?: ""
-            val routeValue = collectorData?.route ?: ""
-
-            if (url != null && !request.url.contains(url, ignoreCase = true)) return@filter false
-            if (hash != null && !request.hash.contains(hash, ignoreCase = true)) return@filter false
-            if (controller != null && !controllerValue.contains(controller, ignoreCase = true)) return@filter false
-            if (route != null && !routeValue.contains(route, ignoreCase = true)) return@filter false
-
-            true
-        }.take(effectiveLimit)
+        val filteredRequests = requests.filter { matches(it, url, hash, controller, route) }.take(effectiveLimit)
 
         val templatesByController = TwigUtil.findTemplatesByControllers(
             project,
@@ -95,6 +94,26 @@ class SymfonyProfilerRequestsCollector(private val project: Project) {
         }
     }
 
+    private fun matches(
+        request: ProfilerRequestInterface,
+        url: String?,
+        hash: String?,
+        controller: String?,
+        route: String?
+    ): Boolean {
+        val collectorData = request.getCollector(DefaultDataCollectorInterface::class.java)
+
+        val controllerValue = collectorData?.controller ?: ""
+        val routeValue = collectorData?.route ?: ""
+
+        if (url != null && !request.url.contains(url, ignoreCase = true)) return false
+        if (hash != null && !request.hash.contains(hash, ignoreCase = true)) return false
+        if (controller != null && !controllerValue.contains(controller, ignoreCase = true)) return false
+        if (route != null && !routeValue.contains(route, ignoreCase = true)) return false
+
+        return true
+    }
+
     private fun normalizeControllerScope(controller: String): String {
         return controller.trimStart('\\').replace("::", ".")
     }
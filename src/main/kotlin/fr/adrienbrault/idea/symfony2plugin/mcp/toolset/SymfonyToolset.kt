@@ -11,6 +11,7 @@ import com.intellij.openapi.application.readAction
 import com.intellij.openapi.project.Project
 import fr.adrienbrault.idea.symfony2plugin.Symfony2ProjectComponent
 import fr.adrienbrault.idea.symfony2plugin.action.ui.ServiceBuilder
+import fr.adrienbrault.idea.symfony2plugin.mcp.McpResultPager
 import fr.adrienbrault.idea.symfony2plugin.mcp.collector.DoctrineEntityCollector
 import fr.adrienbrault.idea.symfony2plugin.mcp.collector.DoctrineEntityFieldsCollector
 import fr.adrienbrault.idea.symfony2plugin.mcp.collector.ServiceDefinitionCollector
@@ -33,6 +34,8 @@ import org.apache.commons.lang3.StringUtils
 
 /**
  * Groups Symfony MCP tools so they are exposed to the MCP server as a single toolset.
+ *
+ * List tools return sorted pages of their CSV rows, see McpResultPager.
  */
 class SymfonyToolset : McpToolset {
 
@@ -64,7 +67,11 @@ class SymfonyToolset : McpToolset {
         urlPath: String? = null,
         @McpDescription("Optional Ant-style glob on the controller file path relative to the project root. Example: 'src/Controller/**/*Admin*.php'")
         fileGlob: String? = null,
-    ): String = withSymfonyProject { project ->
+        @McpDescription("Optional max rows per page. Default: 200")
+        limit: Int = McpResultPager.DEFAULT_LIMIT,
+        @McpDescription("Optional cursor from the '# nextCursor:' line of the previous page; all other parameters are ignored. Omit for the first page")
+        cursor: String? = null,
+    ): String = withSymfonyProjectPage("list_symfony_routes_url_controllers", cursor, limit) { project ->
         readAction {
             SymfonyRouteCollector(project).collect(routeName, controller, urlPath, fileGlob)
         }
@@ -88,7 +95,11 @@ class SymfonyToolset : McpToolset {
     suspend fun list_symfony_commands(
         @McpDescription("Optional Ant-style glob on the command class file path relative to the project root. Example: 'src/Command/**/*.php'")
         fileGlob: String? = null,
-    ): String = withSymfonyProject { project ->
+        @McpDescription("Optional max rows per page. Default: 200")
+        limit: Int = McpResultPager.DEFAULT_LIMIT,
+        @McpDescription("Optional cursor from the '# nextCursor:' line of the previous page; all other parameters are ignored. Omit for the first page")
+        cursor: String? = null,
+    ): String = withSymfonyProjectPage("list_symfony_commands", cursor, limit) { project ->
         readAction {
             SymfonyCommandCollector(project).collect(fileGlob)
         }
@@ -106,7 +117,12 @@ class SymfonyToolset : McpToolset {
         className,filePath
         App\Entity\User,src/Entity/User.php
     """)
-    suspend fun list_doctrine_entities(): String = withSymfonyProject { project ->
+    suspend fun list_doctrine_entities(
+        @McpDescription("Optional max rows per page. Default: 200")
+        limit: Int = McpResultPager.DEFAULT_LIMIT,
+        @McpDescription("Optional cursor from the '# nextCursor:' line of the previous page; all other parameters are ignored. Omit for the first page")
+        cursor: String? = null,
+    ): String = withSymfonyProjectPage("list_doctrine_entities", cursor, limit) { project ->
         readAction {
             DoctrineEntityCollector(project).collect()
         }
@@ -175,7 +191,11 @@ class SymfonyToolset : McpToolset {
         includeTests: Boolean = true,
         @McpDescription("Include tags ({% tag %}). Default: true")
         includeTags: Boolean = true,
-    ): String = withSymfonyProject { project ->
+        @McpDescription("Optional max rows per page. Default: 200")
+        limit: Int = McpResultPager.DEFAULT_LIMIT,
+        @McpDescription("Optional cursor from the '# nextCursor:' line of the previous page; all other parameters are ignored. Omit for the first page")
+        cursor: String? = null,
+    ): String = withSymfonyProjectPage("list_twig_extensions", cursor, limit) { project ->
         readAction {
             TwigExtensionCollector(project).collect(search, includeFilters, includeFunctions, includeTests, includeTags)
         }
@@ -262,7 +282,12 @@ class SymfonyToolset : McpToolset {
         name,className,filePath
         user,App\Form\UserType,src/Form/UserType.php
     """)
-    suspend fun list_symfony_forms(): String = withSymfonyProject { project ->
+    suspend fun list_symfony_forms(
+        @McpDescription("Optional max rows per page. Default: 200")
+        limit: Int = McpResultPager.DEFAULT_LIMIT,
+        @McpDescription("Optional cursor from the '# nextCursor:' line of the previous page; all other parameters are ignored. Omit for the first page")
+        cursor: String? = null,
+    ): String = withSymfonyProjectPage("list_symfony_forms", cursor, limit) { project ->
         readAction {
             SymfonyFormTypeCollector(project).collect()
         }
@@ -286,7 +311,11 @@ class SymfonyToolset : McpToolset {
     suspend fun list_symfony_form_options(
         @McpDescription("""Form type name or FQN. Valid examples: 'text', 'App\Form\UserType', 'Symfony\Component\Form\Extension\Core\Type\TextType'""")
         formType: String,
-    ): String = withSymfonyProject { project ->
+        @McpDescription("Optional max rows per page. Default: 200")
+        limit: Int = McpResultPager.DEFAULT_LIMIT,
+        @McpDescription("Optional cursor from the '# nextCursor:' line of the previous page; all other parameters are ignored. Omit for the first page")
+        cursor: String? = null,
+    ): String = withSymfonyProjectPage("list_symfony_form_options", cursor, limit) { project ->
         if (formType.isBlank()) {
             mcpFail("formType parameter is required.")
         }
@@ -400,7 +429,11 @@ class SymfonyToolset : McpToolset {
         template: String? = null,
         @McpDescription("Optional Ant-style glob on resolved template file paths relative to the project root. Examples: 'templates/home/index.html.twig', 'templates/admin/**/*.html.twig'")
         fileGlob: String? = null,
-    ): String = withSymfonyProject { project ->
+        @McpDescription("Optional max rows per page. Default: 200")
+        limit: Int = McpResultPager.DEFAULT_LIMIT,
+        @McpDescription("Optional cursor from the '# nextCursor:' line of the previous page; all other parameters are ignored. Omit for the first page")
+        cursor: String? = null,
+    ): String = withSymfonyProjectPage("list_twig_template_usages", cursor, limit) { project ->
         val normalizedTemplate = template?.trim()?.takeIf { it.isNotBlank() }
         val normalizedFileGlob = fileGlob?.trim()?.takeIf { it.isNotBlank() }
 
@@ -434,7 +467,11 @@ class SymfonyToolset : McpToolset {
     suspend fun list_twig_components(
         @McpDescription("Optional partial component-name filter (case-insensitive). Examples: 'Alert', 'Admin:Card'")
         search: String? = null,
-    ): String = withSymfonyProject { project ->
+        @McpDescription("Optional max rows per page. Default: 200")
+        limit: Int = McpResultPager.DEFAULT_LIMIT,
+        @McpDescription("Optional cursor from the '# nextCursor:' line of the previous page; all other parameters are ignored. Omit for the first page")
+        cursor: String? = null,
+    ): String = withSymfonyProjectPage("list_twig_components", cursor, limit) { project ->
         readAction {
             TwigComponentCollector(project).collect(search)
         }
@@ -481,4 +518,14 @@ class SymfonyToolset : McpToolset {
 
         return action(project)
     }
+
+    /**
+     * Collector only runs for the first page; a cursor is served from the snapshot without a read action
+     *
+     * @param toolName a cursor is only valid for the tool which created it
+     */
+    private suspend fun withSymfonyProjectPage(toolName: String, cursor: String?, limit: Int, collect: suspend (Project) -> String): String =
+        withSymfonyProject { project ->
+            McpResultPager.getInstance(project).page(toolName, cursor, limit) { collect(project) }
+        }
 }
@@ -5,6 +5,7 @@ import com.intellij.codeInspection.ProblemsHolder
 import com.intellij.patterns.ElementPattern
 import com.intellij.psi.PsiElement
 import com.intellij.psi.PsiElementVisitor
+import com.intellij.psi.PsiRecursiveElementWalkingVisitor
 import fr.adrienbrault.idea.symfony2plugin.Symfony2ProjectComponent
 import fr.adrienbrault.idea.symfony2plugin.templating.TwigPattern
 import fr.adrienbrault.idea.symfony2plugin.templating.util.TwigUtil
@@ -32,6 +33,11 @@ class TwigTranslationKeyInspection : LocalInspectionTool() {
     private class MyTranslationKeyPsiElementVisitor(private val holder: ProblemsHolder) : PsiElementVisitor() {
         private var translationKeyPattern: ElementPattern<PsiElement>? = null
 
+        /**
+         * "domain => missing keys" of the whole file; resolved in one pass on the first translation key
+         */
+        private var missingTranslationKeys: Map<String, Set<String>>? = null
+
         override fun visitElement(psiElement: PsiElement) {
             if (!getTranslationKeyPattern().accepts(psiElement)) {
                 super.visitElement(psiElement)
@@ -47,7 +53,7 @@ class TwigTranslationKeyInspection : LocalInspectionTool() {
             // get domain on file scope or method parameter
             val domainName = TwigUtil.getPsiElementTranslationDomain(psiElement)
 
-            if (TranslationUtil.hasTranslationKey(psiElement.project, text, domainName)) {
+            if (getMissingTranslationKeys(psiElement)[domainName]?.contains(text) != true) {
                 super.visitElement(psiElement)
                 return
             }
@@ -62,6 +68,29 @@ class TwigTranslationKeyInspection : LocalInspectionTool() {
             super.visitElement(psiElement)
         }
 
+        private fun getMissingTranslationKeys(psiElement: PsiElement): Map<String, Set<String>> {
+            missingTranslationKeys?.let { return it }
+
+            val keys = mutableMapOf<String, MutableSet<String>>()
+
+            psiElement.containingFile.accept(object : PsiRecursiveElementWalkingVisitor() {
+                override fun visitElement(element: PsiElement) {
+                    if (getTranslationKeyPattern().accepts(element)) {
+                        val text = element.text
+                        if (StringUtils.isNotBlank(text) && !isInterpolatedString(text)) {
+                            keys.getOrPut(TwigUtil.getPsiElementTranslationDomain(element)) { mutableSetOf() }.add(text)
+                        }
+                    }
+
+                    super.visitElement(element)
+                }
+            })
+
+            val missing = TranslationUtil.getMissingTranslationKeys(psiElement.project, keys)
+            missingTranslationKeys = missing
+            return missing
+        }
+
         private fun getTranslationKeyPattern(): ElementPattern<PsiElement> {
             val pattern = translationKeyPattern ?: TwigPattern.getTranslationKeyPattern("trans", "transchoice")
             translationKeyPattern = pattern
@@ -0,0 +1,91 @@
+package fr.adrienbrault.idea.symfony2plugin.tests.dic;
+
+import fr.adrienbrault.idea.symfony2plugin.dic.CompiledContainerCache;
+import fr.adrienbrault.idea.symfony2plugin.dic.container.ServiceInterface;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ * @see CompiledContainerCache
+ */
+public class CompiledContainerCacheTest extends Assert {
+    private static final byte[] CONTAINER = ("<?xml version=\"1.0\" encoding=\"UTF-8\"?>" +
+        "<container>" +
+            "<parameters>" +
+                "<parameter key=\"kernel.debug\">true</parameter>" +
+                "<parameter key=\"kernel.bundles\" type=\"collection\"><parameter key=\"FrameworkBundle\">Foo</parameter></parameter>" +
+            "</parameters>" +
+            "<services>" +
+                "<service id=\"foo\" class=\"App\\Foo\" public=\"false\" lazy=\"true\" decorates=\"bar\"><tag name=\"kernel.event_listener\"/></service>" +
+                "<service id=\"foo_alias\" alias=\"foo\"/>" +
+            "</services>" +
+        "</container>").getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    public void testContainerDataIsLoadedFromDiskForSameContent() throws Exception {
+        Path directory = Files.createTempDirectory("symfony-container-cache");
+
+        CompiledContainerCache.ContainerData parsed = new CompiledContainerCache(directory).getContainerData(CONTAINER);
+
+        // new instance has no memory cache, so it is read from disk
+        CompiledContainerCache.ContainerData cached = new CompiledContainerCache(directory).getContainerData(CONTAINER);
+
+        assertEquals(parsed.serviceMap().getIds(), cached.serviceMap().getIds());
+        assertEquals(parsed.parameters(), cached.parameters());
+        assertEquals("collection", cached.parameters().get("kernel.bundles"));
+        assertEquals("true", cached.parameters().get("kernel.debug"));
+
+        ServiceInterface foo = cached.serviceMap().getServices().stream()
+            .filter(service -> "foo".equals(service.getId()))
+            .findFirst()
+            .orElseThrow();
+
+        assertEquals("App\\Foo", foo.getClassName());
+        assertFalse(foo.isPublic());
+        assertTrue(foo.isLazy());
+        assertEquals("bar", foo.getDecorates());
+        assertTrue(foo.getTags().contains("kernel.event_listener"));
+
+        assertTrue(cached.serviceMap().getIds().contains("foo_alias"));
+    }
+
+    @Test
+    public void testBrokenCacheEntryIsParsedAgain() throws Exception {
+        Path directory = Files.createTempDirectory("symfony-container-cache");
+        new CompiledContainerCache(directory).getContainerData(CONTAINER);
+
+        try (var files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                Files.write(file, new byte[] {0, 0, 0, 1, 9});
+            }
+        }
+
+        CompiledContainerCache.ContainerData data = new CompiledContainerCache(directory).getContainerData(CONTAINER);
+        assertTrue(data.serviceMap().getIds().contains("foo"));
+    }
+
+    @Test
+    public void testCacheEntriesAreNotSharedBetweenPluginVersions() throws Exception {
+        Path directory = Files.createTempDirectory("symfony-container-cache");
+
+        new CompiledContainerCache(directory, "2-1.0.0").getContainerData(CONTAINER);
+        new CompiledContainerCache(directory, "2-1.0.0").getContainerData(CONTAINER);
+        assertEquals(1, getEntryCount(directory));
+
+        // another plugin version parses again
+        CompiledContainerCache.ContainerData data = new CompiledContainerCache(directory, "2-1.0.1").getContainerData(CONTAINER);
+        assertTrue(data.serviceMap().getIds().contains("foo"));
+        assertEquals(2, getEntryCount(directory));
+    }
+
+    private static long getEntryCount(Path directory) throws Exception {
+        try (var files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".bin")).count();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package fr.adrienbrault.idea.symfony2plugin.tests.dic;
+
+import fr.adrienbrault.idea.symfony2plugin.dic.ContainerService;
+import fr.adrienbrault.idea.symfony2plugin.dic.ContainerServiceMetadata;
+import fr.adrienbrault.idea.symfony2plugin.dic.ContainerServiceTable;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+/**
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ * @see ContainerServiceTable
+ */
+public class ContainerServiceTableTest extends Assert {
+    @Test
+    public void testLookupIsCaseInsensitiveAndKeepsFirstSpelling() {
+        ContainerServiceTable table = new ContainerServiceTable();
+
+        ContainerService foo = createService("App\\Foo");
+        ContainerService bar = createService("App\\Bar");
+
+        assertNull(table.put("App\\Foo", foo));
+        assertSame(foo, table.put("app\\foo", bar));
+
+        assertEquals(1, table.size());
+        assertSame(bar, table.get("APP\\FOO"));
+        assertTrue(table.containsKey("app\\Foo"));
+        assertEquals(List.of("App\\Foo"), List.copyOf(table.keySet()));
+
+        assertSame(bar, table.putIfAbsent("app\\FOO", foo));
+        assertSame(bar, table.remove("app\\foo"));
+        assertTrue(table.isEmpty());
+    }
+
+    @Test
+    public void testIterationIsSortedCaseInsensitive() {
+        ContainerServiceTable table = new ContainerServiceTable();
+        table.put("b_service", createService("App\\B"));
+        table.put("App\\Zoo", createService("App\\Zoo"));
+        table.put("a_service", createService("App\\A"));
+        table.put("app\\Bar", createService("App\\Bar"));
+
+        assertEquals(List.of("a_service", "app\\Bar", "App\\Zoo", "b_service"), List.copyOf(table.keySet()));
+
+        table.put("0_service", createService("App\\Zero"));
+        assertEquals("0_service", table.keySet().iterator().next());
+    }
+
+    @Test
+    public void testEntrySetRemovalIsWrittenThrough() {
+        ContainerServiceTable table = new ContainerServiceTable(2);
+        table.put("foo", createService("App\\Foo"));
+        table.put("bar", createService("App\\Bar"));
+
+        table.entrySet().removeIf(entry -> entry.getValue().getClassNames().contains("App\\Foo"));
+
+        assertEquals(1, table.size());
+        assertNull(table.get("FOO"));
+        assertNotNull(table.get("BAR"));
+    }
+
+    @Test
+    public void testClassNamesAreShared() {
+        ContainerService foo = createService(new String("App\\Foo"));
+        ContainerService bar = createService(new String("App\\Foo"));
+        bar.addClassName(new String("App\\Bar"));
+
+        assertSame(foo.getClassName(), bar.getClassName());
+        assertEquals(1, foo.getClassNames().size());
+        assertEquals(2, bar.getClassNames().size());
+    }
+
+    private static ContainerService createService(String className) {
+        return new ContainerService("foo", className, ContainerServiceMetadata.empty(ContainerServiceMetadata.SourceKind.INDEXED_SERVICE));
+    }
+}
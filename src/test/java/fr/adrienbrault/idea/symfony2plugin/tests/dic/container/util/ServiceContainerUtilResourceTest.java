@@ -1,9 +1,16 @@
 package fr.adrienbrault.idea.symfony2plugin.tests.dic.container.util;
 
+import com.intellij.openapi.application.WriteAction;
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.editor.Document;
 import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.psi.PsiFile;
 import fr.adrienbrault.idea.symfony2plugin.dic.container.util.ServiceContainerUtil;
 import fr.adrienbrault.idea.symfony2plugin.tests.SymfonyLightCodeInsightFixtureTestCase;
+import org.jetbrains.annotations.NotNull;
 
+import java.io.IOException;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
@@ -275,4 +282,87 @@ public class ServiceContainerUtilResourceTest extends SymfonyLightCodeInsightFix
         assertDoesntContain(classes, "\\App\\DependencyInjection\\ShouldBeExcluded");
     }
 
+    /**
+     * @see fr.adrienbrault.idea.symfony2plugin.dic.container.util.ServiceResourcePrototypeCache
+     */
+    public void testGetPhpClassFromResourcesFollowsFileChanges() throws IOException {
+        myFixture.copyFileToProject("resource_services.yaml", "config/services.yaml");
+        myFixture.copyFileToProject("resource_FooService.php", "src/Service/FooService.php");
+
+        VirtualFile configFile = myFixture.findFileInTempDir("config/services.yaml");
+        assertNotNull(configFile);
+
+        assertContainsElements(getPhpClassFromSrcResource(configFile), "\\App\\Service\\FooService");
+
+        VirtualFile barService = myFixture.addFileToProject("src/Service/BarService.php", "<?php\nnamespace App\\Service;\nclass BarService {}\n").getVirtualFile();
+        myFixture.addFileToProject("src/Service/Nested/BazService.php", "<?php\nnamespace App\\Service\\Nested;\nclass BazService {}\n");
+
+        assertContainsElements(
+            getPhpClassFromSrcResource(configFile),
+            "\\App\\Service\\FooService", "\\App\\Service\\BarService", "\\App\\Service\\Nested\\BazService"
+        );
+
+        WriteAction.runAndWait(() -> barService.delete(this));
+
+        Collection<String> classes = getPhpClassFromSrcResource(configFile);
+        assertContainsElements(classes, "\\App\\Service\\FooService", "\\App\\Service\\Nested\\BazService");
+        assertDoesntContain(classes, "\\App\\Service\\BarService");
+    }
+
+    /**
+     * @see fr.adrienbrault.idea.symfony2plugin.dic.container.util.ServiceResourcePrototypeCache
+     */
+    public void testGetPhpClassFromResourcesFollowsUnsavedChanges() {
+        myFixture.copyFileToProject("resource_services.yaml", "config/services.yaml");
+        PsiFile psiFile = myFixture.addFileToProject("src/Service/BarService.php", "<?php\nnamespace App\\Service;\nclass BarService {}\n");
+
+        VirtualFile configFile = myFixture.findFileInTempDir("config/services.yaml");
+        assertNotNull(configFile);
+
+        assertContainsElements(getPhpClassFromSrcResource(configFile), "\\App\\Service\\BarService");
+
+        PsiDocumentManager psiDocumentManager = PsiDocumentManager.getInstance(getProject());
+        Document document = psiDocumentManager.getDocument(psiFile);
+        assertNotNull(document);
+
+        WriteCommandAction.runWriteCommandAction(getProject(), () -> {
+            document.setText("<?php\nnamespace App\\Service;\nabstract class BarService {}\n");
+            psiDocumentManager.commitDocument(document);
+        });
+
+        assertDoesntContain(getPhpClassFromSrcResource(configFile), "\\App\\Service\\BarService");
+    }
+
+    /**
+     * @see fr.adrienbrault.idea.symfony2plugin.dic.container.util.ServiceResourcePrototypeCache
+     */
+    public void testGetPhpClassFromResourcesFollowsRecreatedBaseDirectory() throws IOException {
+        myFixture.copyFileToProject("resource_services.yaml", "config/services.yaml");
+        myFixture.copyFileToProject("resource_FooService.php", "src/Service/FooService.php");
+
+        VirtualFile configFile = myFixture.findFileInTempDir("config/services.yaml");
+        assertNotNull(configFile);
+
+        assertContainsElements(getPhpClassFromSrcResource(configFile), "\\App\\Service\\FooService");
+
+        VirtualFile src = myFixture.findFileInTempDir("src");
+        WriteAction.runAndWait(() -> src.delete(this));
+
+        myFixture.addFileToProject("src/Service/BarService.php", "<?php\nnamespace App\\Service;\nclass BarService {}\n");
+
+        Collection<String> classes = getPhpClassFromSrcResource(configFile);
+        assertContainsElements(classes, "\\App\\Service\\BarService");
+        assertDoesntContain(classes, "\\App\\Service\\FooService");
+    }
+
+    @NotNull
+    private Collection<String> getPhpClassFromSrcResource(@NotNull VirtualFile configFile) {
+        return ServiceContainerUtil.getPhpClassFromResources(
+            getProject(),
+            "App\\Service\\",
+            configFile,
+            List.of("../src/*"),
+            Collections.emptyList()
+        );
+    }
 }
@@ -109,6 +109,20 @@ public class EntityHelperTest extends SymfonyLightCodeInsightFixtureTestCase {
         assertFalse(map.values().contains("FooBundle:BarInterface"));
     }
 
+    /**
+     * @see fr.adrienbrault.idea.symfony2plugin.doctrine.EntityHelper#getModelRegistry
+     */
+    public void testGetModelRegistry() {
+        EntityHelper.DoctrineModelRegistry registry = EntityHelper.getModelRegistry(getProject());
+        assertTrue(registry.getModels().containsKey("\\FooBundle\\Entity\\Bar"));
+        assertContainsElements(EntityHelper.getModelClassNames(getProject()), "\\FooBundle\\Entity\\Bar");
+        assertEquals("\\FooBundle\\Entity\\Bar", EntityHelper.getModelClass(getProject(), "\\FooBundle\\Entity\\Bar").getFQN());
+
+        // unrelated files keep the registry
+        myFixture.addFileToProject("notes.txt", "foobar");
+        assertSame(registry, EntityHelper.getModelRegistry(getProject()));
+    }
+
     /**
      * @see fr.adrienbrault.idea.symfony2plugin.doctrine.EntityHelper#getModelFieldTargets
      */
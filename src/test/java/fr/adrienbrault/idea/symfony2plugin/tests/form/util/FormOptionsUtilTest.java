@@ -4,6 +4,7 @@ import com.intellij.psi.PsiElement;
 import com.intellij.util.containers.ContainerUtil;
 import com.jetbrains.php.lang.PhpFileType;
 import com.jetbrains.php.lang.psi.PhpPsiElementFactory;
+import com.jetbrains.php.lang.psi.elements.ClassConstantReference;
 import com.jetbrains.php.lang.psi.elements.MethodReference;
 import com.jetbrains.php.lang.psi.elements.StringLiteralExpression;
 import fr.adrienbrault.idea.symfony2plugin.form.dict.FormClass;
@@ -12,7 +13,9 @@ import fr.adrienbrault.idea.symfony2plugin.form.util.FormOptionsUtil;
 import fr.adrienbrault.idea.symfony2plugin.tests.SymfonyLightCodeInsightFixtureTestCase;
 
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -97,6 +100,58 @@ public class FormOptionsUtilTest extends SymfonyLightCodeInsightFixtureTestCase
         assertContainsElements(optionsClass, "BarType");
     }
 
+    /**
+     * @see FormOptionsUtil#visitFormOptions
+     */
+    public void testClassOptionsVisitorWithParentCallAndForeignConstant() {
+        myFixture.addFileToProject("ParentCall.php", "<?php\n" +
+            "namespace ParentCall;\n" +
+            "class Names { const LABEL = 'label_option'; }\n" +
+            "abstract class BaseType implements \\Symfony\\Component\\Form\\FormTypeInterface\n" +
+            "{\n" +
+            "    public function configureOptions($resolver) { $resolver->setDefined(['base_option']); }\n" +
+            "}\n" +
+            "class ChildType extends BaseType\n" +
+            "{\n" +
+            "    public function configureOptions($resolver)\n" +
+            "    {\n" +
+            "        parent::configureOptions($resolver);\n" +
+            "        $resolver->setDefaults([Names::LABEL => null]);\n" +
+            "    }\n" +
+            "}\n"
+        );
+
+        Map<String, PsiElement> options = new HashMap<>();
+        FormOptionsUtil.visitFormOptions(getProject(), "ParentCall\\ChildType", (psiElement, option, formClass, optionEnum) ->
+            options.put(option, psiElement)
+        );
+
+        assertContainsElements(options.keySet(), "base_option", "label_option");
+        assertInstanceOf(options.get("label_option"), ClassConstantReference.class);
+    }
+
+    /**
+     * @see FormOptionsUtil#getExtendedTypeClasses
+     */
+    public void testExtendedTypeClassesFollowNewExtensions() {
+        assertEmpty(FormOptionsUtil.getExtendedTypeClasses(getProject(), "Foo\\Bar\\LateType"));
+
+        myFixture.addFileToProject("LateExtension.php", "<?php\n" +
+            "namespace Foo\\Bar;\n" +
+            "class LateTypeExtension implements \\Symfony\\Component\\Form\\FormTypeExtensionInterface\n" +
+            "{\n" +
+            "    public function getExtendedType() { return LateType::class; }\n" +
+            "    public function configureOptions($resolver) { $resolver->setDefined(['late_option']); }\n" +
+            "}\n"
+        );
+
+        FormClass formClass = ContainerUtil.getFirstItem(FormOptionsUtil.getExtendedTypeClasses(getProject(), "\\Foo\\Bar\\LateType"));
+        assertNotNull(formClass);
+        assertEquals("\\Foo\\Bar\\LateTypeExtension", formClass.getPhpClass().getFQN());
+
+        assertContainsElements(FormOptionsUtil.getFormExtensionKeys(getProject(), "Foo\\Bar\\LateType").keySet(), "late_option");
+    }
+
     /**
      * @see FormOptionsUtil#getFormExtensionKeys
      */
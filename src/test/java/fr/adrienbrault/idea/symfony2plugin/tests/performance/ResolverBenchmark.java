@@ -0,0 +1,159 @@
+package fr.adrienbrault.idea.symfony2plugin.tests.performance;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.function.Supplier;
+
+/**
+ * Minimal in-IDE benchmark harness: throughput and allocated bytes per call of a resolver.
+ *
+ * Resolvers need a project with indexes, so a forked JMH runner does not fit; measurement happens inside the
+ * fixture test on the calling thread. Invalidation before each call is neither timed nor counted as allocation.
+ *
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ */
+public final class ResolverBenchmark {
+    private static final String REPORT_PROPERTY = "symfony.performance.report";
+
+    private static final int WARMUP_ITERATIONS = 2;
+
+    /**
+     * Consumes results, so that the JIT can not drop a call
+     */
+    private static volatile int blackhole;
+
+    private ResolverBenchmark() {
+    }
+
+    /**
+     * @param invalidate drops the caches before each call for a cold measurement; "null" measures cache hits
+     */
+    @NotNull
+    public static Result run(@NotNull String name, int iterations, @Nullable Runnable invalidate, @NotNull Supplier<?> operation) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            if (invalidate != null) {
+                invalidate.run();
+            }
+
+            consume(operation.get());
+        }
+
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        com.sun.management.ThreadMXBean allocationBean = threadMXBean instanceof com.sun.management.ThreadMXBean bean && bean.isThreadAllocatedMemorySupported()
+            ? bean
+            : null;
+
+        long nanos = 0;
+        long bytes = 0;
+
+        for (int i = 0; i < iterations; i++) {
+            if (invalidate != null) {
+                invalidate.run();
+            }
+
+            long allocatedBefore = allocationBean != null ? allocationBean.getCurrentThreadAllocatedBytes() : 0;
+            long start = System.nanoTime();
+
+            Object result = operation.get();
+
+            nanos += System.nanoTime() - start;
+            if (allocationBean != null) {
+                bytes += allocationBean.getCurrentThreadAllocatedBytes() - allocatedBefore;
+            }
+
+            consume(result);
+        }
+
+        Result result = new Result(
+            name,
+            iterations,
+            iterations / (Math.max(nanos, 1) / 1_000_000_000.0),
+            allocationBean != null ? bytes / iterations : -1
+        );
+
+        report(result);
+
+        return result;
+    }
+
+    /**
+     * Heap retained by the result of an operation: used heap after a full collection, with and without the result
+     *
+     * Everything else the operation keeps alive, e.g. caches filled on the way, is counted too; warm them before and
+     * let the operation only build the structure to compare. Only an estimation; "System.gc" is a hint.
+     */
+    public static long measureRetainedHeap(@NotNull String name, @NotNull Supplier<?> operation) {
+        MemoryMXBean memoryMXBean = ManagementFactory.getMemoryMXBean();
+
+        long before = getUsedHeapAfterGc(memoryMXBean);
+        Object result = operation.get();
+        long after = getUsedHeapAfterGc(memoryMXBean);
+
+        consume(result);
+
+        long retained = Math.max(0, after - before);
+        report(new Result(name + " (retained heap)", 1, 0, retained));
+
+        return retained;
+    }
+
+    private static long getUsedHeapAfterGc(@NotNull MemoryMXBean memoryMXBean) {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+
+        return memoryMXBean.getHeapMemoryUsage().getUsed();
+    }
+
+    private static void consume(@Nullable Object result) {
+        blackhole ^= System.identityHashCode(result);
+    }
+
+    private static void report(@NotNull Result result) {
+        System.out.println(result);
+
+        String directory = System.getProperty(REPORT_PROPERTY);
+        if (directory == null || directory.isBlank()) {
+            return;
+        }
+
+        try {
+            Path file = Paths.get(directory, "resolvers.csv");
+            Files.createDirectories(file.getParent());
+
+            if (!Files.exists(file)) {
+                Files.writeString(file, "name,iterations,ops_per_second,bytes_per_op\n", StandardCharsets.UTF_8);
+            }
+
+            Files.writeString(file, result.toCsv() + "\n", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            System.err.println("Can not write performance report: " + e.getMessage());
+        }
+    }
+
+    /**
+     * @param bytesPerOp "-1" if the JVM does not support thread allocation counters
+     */
+    public record Result(@NotNull String name, int iterations, double opsPerSecond, long bytesPerOp) {
+        @NotNull
+        private String toCsv() {
+            return String.format(Locale.ROOT, "\"%s\",%d,%.2f,%d", name, iterations, opsPerSecond, bytesPerOp);
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%-50s %12.2f ops/s %14d bytes/op (%d iterations)", name, opsPerSecond, bytesPerOp, iterations);
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package fr.adrienbrault.idea.symfony2plugin.tests.performance;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.vfs.VfsUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+import fr.adrienbrault.idea.symfony2plugin.Settings;
+import fr.adrienbrault.idea.symfony2plugin.dic.ContainerFile;
+import fr.adrienbrault.idea.symfony2plugin.dic.ContainerService;
+import fr.adrienbrault.idea.symfony2plugin.dic.ContainerServiceTable;
+import fr.adrienbrault.idea.symfony2plugin.routing.RouteHelper;
+import fr.adrienbrault.idea.symfony2plugin.stubs.ContainerCollectionResolver;
+import fr.adrienbrault.idea.symfony2plugin.templating.util.TwigUtil;
+import fr.adrienbrault.idea.symfony2plugin.tests.SymfonyLightCodeInsightFixtureTestCase;
+import fr.adrienbrault.idea.symfony2plugin.translation.TranslationIndex;
+import fr.adrienbrault.idea.symfony2plugin.util.SymfonyVarDirectoryWatcher;
+import fr.adrienbrault.idea.symfony2plugin.util.SymfonyVarDirectoryWatcherKt;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Throughput and allocation of the core resolvers on large synthetic Symfony projects.
+ *
+ * Only executed with "./gradlew test -PperformanceTests"; results are reported, not asserted against a time budget.
+ *
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ * @see ResolverBenchmark
+ */
+public class ResolverPerformanceTest extends SymfonyLightCodeInsightFixtureTestCase {
+    private static final int SERVICES = 10_000;
+    private static final int ROUTES = 5_000;
+    private static final int TEMPLATES = 3_000;
+    private static final int TRANSLATION_KEYS = 50_000;
+
+    private static final int COLD_ITERATIONS = 10;
+    private static final int WARM_ITERATIONS = 1_000;
+
+    private List<ContainerFile> previousContainerFiles;
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        previousContainerFiles = Settings.getInstance(getProject()).containerFiles;
+    }
+
+    @Override
+    public void tearDown() throws Exception {
+        try {
+            Settings.getInstance(getProject()).containerFiles = previousContainerFiles != null ? previousContainerFiles : new ArrayList<>();
+            deleteProjectDirectories("var", "templates");
+            SymfonyVarDirectoryWatcherKt.getSymfonyVarDirectoryWatcher(getProject()).reloadConfiguration();
+        } finally {
+            super.tearDown();
+        }
+    }
+
+    /**
+     * @see ContainerCollectionResolver#getServices
+     */
+    public void testContainerCollectionResolver() {
+        String containerPath = "var/cache/dev/App_KernelDevDebugContainer.xml";
+        createFiles(Map.of(containerPath, createContainerXml()));
+
+        Settings.getInstance(getProject()).containerFiles = List.of(new ContainerFile(containerPath));
+        SymfonyVarDirectoryWatcherKt.getSymfonyVarDirectoryWatcher(getProject()).reloadConfiguration();
+
+        assertTrue(ContainerCollectionResolver.getServices(getProject()).size() >= SERVICES);
+
+        ResolverBenchmark.run(
+            "ContainerCollectionResolver.getServices (cold)",
+            COLD_ITERATIONS,
+            () -> invalidate(SymfonyVarDirectoryWatcher.Scope.CONTAINER),
+            () -> ContainerCollectionResolver.getServices(getProject())
+        );
+
+        ResolverBenchmark.run(
+            "ContainerCollectionResolver.getService (warm)",
+            WARM_ITERATIONS,
+            null,
+            () -> ContainerCollectionResolver.getService(getProject(), "app.service_" + (SERVICES / 2))
+        );
+
+        // only the map structure: parser caches and services are already built and shared by both copies
+        Map<String, ContainerService> services = ContainerCollectionResolver.getServices(getProject());
+
+        ResolverBenchmark.measureRetainedHeap("ContainerCollectionResolver.getServices table", () -> {
+            ContainerServiceTable table = new ContainerServiceTable(services.size());
+            table.putAll(services);
+            return table;
+        });
+
+        ResolverBenchmark.measureRetainedHeap("ContainerCollectionResolver.getServices TreeMap baseline", () -> {
+            TreeMap<String, ContainerService> treeMap = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+            treeMap.putAll(services);
+            return treeMap;
+        });
+    }
+
+    /**
+     * @see RouteHelper#getAllRoutes
+     */
+    public void testRouteHelperGetAllRoutes() {
+        createFiles(Map.of("var/cache/dev/url_generating_routes.php", createUrlGeneratingRoutes()));
+        SymfonyVarDirectoryWatcherKt.getSymfonyVarDirectoryWatcher(getProject()).reloadConfiguration();
+
+        assertTrue(RouteHelper.getAllRoutes(getProject()).size() >= ROUTES);
+
+        ResolverBenchmark.run(
+            "RouteHelper.getAllRoutes (cold)",
+            COLD_ITERATIONS,
+            () -> invalidate(SymfonyVarDirectoryWatcher.Scope.ROUTES),
+            () -> RouteHelper.getAllRoutes(getProject())
+        );
+
+        ResolverBenchmark.run(
+            "RouteHelper.getAllRoutes (warm)",
+            WARM_ITERATIONS,
+            null,
+            () -> RouteHelper.getAllRoutes(getProject())
+        );
+    }
+
+    /**
+     * A created template only invalidates its own namespace
+     *
+     * @see TwigUtil#getTemplateMap
+     */
+    public void testTwigUtilGetTemplateMap() {
+        Map<String, String> files = new HashMap<>();
+        for (int i = 0; i < TEMPLATES; i++) {
+            files.put("templates/section_" + (i % 30) + "/template_" + i + ".html.twig", "{{ foo }}");
+        }
+        createFiles(files);
+
+        assertTrue(TwigUtil.getTemplateMap(getProject()).size() >= TEMPLATES);
+
+        int[] created = {0};
+        ResolverBenchmark.run(
+            "TwigUtil.getTemplateMap (template created)",
+            COLD_ITERATIONS,
+            () -> createFiles(Map.of("templates/section_0/created_" + created[0]++ + ".html.twig", "")),
+            () -> TwigUtil.getTemplateMap(getProject())
+        );
+
+        ResolverBenchmark.run(
+            "TwigUtil.getTemplateMap (warm)",
+            WARM_ITERATIONS,
+            null,
+            () -> TwigUtil.getTemplateMap(getProject())
+        );
+    }
+
+    /**
+     * @see TranslationIndex#getTranslationMap
+     */
+    public void testTranslationIndexGetTranslationMap() {
+        createFiles(Map.of("var/cache/dev/translations/catalogue.en.php", createTranslationCatalogue()));
+        SymfonyVarDirectoryWatcherKt.getSymfonyVarDirectoryWatcher(getProject()).reloadConfiguration();
+
+        assertNotNull(TranslationIndex.getTranslationMap(getProject()).getDomainMap("domain_0"));
+
+        ResolverBenchmark.run(
+            "TranslationIndex.getTranslationMap (cold)",
+            COLD_ITERATIONS,
+            () -> invalidate(SymfonyVarDirectoryWatcher.Scope.TRANSLATIONS),
+            () -> TranslationIndex.getTranslationMap(getProject())
+        );
+
+        ResolverBenchmark.run(
+            "TranslationIndex.getTranslationMap (warm)",
+            WARM_ITERATIONS,
+            null,
+            () -> TranslationIndex.getTranslationMap(getProject())
+        );
+    }
+
+    private void invalidate(@NotNull SymfonyVarDirectoryWatcher.Scope scope) {
+        SymfonyVarDirectoryWatcherKt.getSymfonyVarDirectoryWatcher(getProject()).getModificationTracker(scope).incModificationCount();
+    }
+
+    @NotNull
+    private static String createContainerXml() {
+        StringBuilder xml = new StringBuilder("<?xml version=\"1.0\" encoding=\"utf-8\"?>\n<container>\n  <parameters>\n");
+        for (int i = 0; i < SERVICES / 10; i++) {
+            xml.append("    <parameter key=\"app.parameter_").append(i).append("\">value_").append(i).append("</parameter>\n");
+        }
+
+        xml.append("  </parameters>\n  <services>\n");
+        for (int i = 0; i < SERVICES; i++) {
+            xml.append("    <service id=\"app.service_").append(i).append("\" class=\"App\\Service\\Service").append(i).append("\" public=\"true\">\n")
+                .append("      <tag name=\"app.tag_").append(i % 50).append("\"/>\n")
+                .append("      <argument type=\"service\" id=\"app.service_").append((i + 1) % SERVICES).append("\"/>\n")
+                .append("    </service>\n");
+
+            if (i % 10 == 0) {
+                xml.append("    <service id=\"App\\Service\\Service").append(i).append("\" alias=\"app.service_").append(i).append("\"/>\n");
+            }
+        }
+
+        return xml.append("  </services>\n</container>\n").toString();
+    }
+
+    @NotNull
+    private static String createUrlGeneratingRoutes() {
+        StringBuilder php = new StringBuilder("<?php\n\nreturn [\n");
+        for (int i = 0; i < ROUTES; i++) {
+            php.append("    'app_route_").append(i).append("' => [['id'], ['_controller' => 'App\\\\Controller\\\\Controller")
+                .append(i % 100).append("::action").append(i).append("'], ['id' => '\\\\d+'], [['variable', '/', '\\\\d+', 'id', true], ['text', '/section_")
+                .append(i % 100).append("/route_").append(i).append("']], [], []],\n");
+        }
+
+        return php.append("];\n").toString();
+    }
+
+    @NotNull
+    private static String createTranslationCatalogue() {
+        StringBuilder php = new StringBuilder("<?php\n$catalogue = new \\Symfony\\Component\\Translation\\MessageCatalogue('en', [\n");
+
+        int domains = 10;
+        for (int domain = 0; domain < domains; domain++) {
+            php.append("    'domain_").append(domain).append("' => [\n");
+            for (int i = 0; i < TRANSLATION_KEYS / domains; i++) {
+                php.append("        'section_").append(i % 100).append(".key_").append(i).append("' => 'Translation ").append(i).append("',\n");
+            }
+            php.append("    ],\n");
+        }
+
+        return php.append("]);\n").toString();
+    }
+
+    /**
+     * One write action for all files; the base test helper is too slow for thousands of files
+     */
+    private void createFiles(@NotNull Map<String, String> files) {
+        ApplicationManager.getApplication().runWriteAction(() -> {
+            try {
+                VirtualFile baseDir = getProject().getBaseDir();
+
+                for (Map.Entry<String, String> entry : files.entrySet()) {
+                    String path = entry.getKey();
+                    int slash = path.lastIndexOf('/');
+
+                    VirtualFile directory = VfsUtil.createDirectoryIfMissing(baseDir, path.substring(0, slash));
+                    VirtualFile file = directory.findOrCreateChildData(this, path.substring(slash + 1));
+                    file.setBinaryContent(entry.getValue().getBytes(StandardCharsets.UTF_8));
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    private void deleteProjectDirectories(@NotNull String... directories) {
+        ApplicationManager.getApplication().runWriteAction(() -> {
+            for (String directory : directories) {
+                VirtualFile file = getProject().getBaseDir().findChild(directory);
+                if (file == null) {
+                    continue;
+                }
+
+                try {
+                    file.delete(this);
+                } catch (IOException ignored) {
+                }
+            }
+        });
+    }
+}
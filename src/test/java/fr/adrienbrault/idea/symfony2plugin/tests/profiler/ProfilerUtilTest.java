@@ -13,6 +13,7 @@ import java.io.File;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
@@ -205,4 +206,26 @@ public class ProfilerUtilTest extends SymfonyLightCodeInsightFixtureTestCase {
         assertEquals(1, requests.size());
         assertNull(requests.getFirst().getCollector(DefaultDataCollectorInterface.class));
     }
+
+    public void testLocalProfilerIndexStreamsRequestsOnSharedExecutorAndStops() throws Exception {
+        Path profilerDir = Files.createTempDirectory("symfony-profiler");
+        Path index = profilerDir.resolve("index.csv");
+        Files.writeString(index,
+            "18e6b8,127.0.0.1,GET,http://127.0.0.1:8000/foo,1474185112,76c8ab,200\n" +
+            "28e6b8,127.0.0.1,GET,http://127.0.0.1:8000/bar,1474185112,76c8ab,200\n" +
+            "38e6b8,127.0.0.1,GET,http://127.0.0.1:8000/baz,1474185112,76c8ab,200\n",
+            StandardCharsets.UTF_8
+        );
+
+        LocalProfilerIndex profilerIndex = new LocalProfilerIndex(getProject(), index.toFile(), null);
+        assertEquals(3, profilerIndex.getRequests().size());
+
+        List<ProfilerRequestInterface> requests = new ArrayList<>();
+        assertFalse(profilerIndex.processRequests(request -> {
+            requests.add(request);
+            return false;
+        }));
+
+        assertEquals(1, requests.size());
+    }
 }
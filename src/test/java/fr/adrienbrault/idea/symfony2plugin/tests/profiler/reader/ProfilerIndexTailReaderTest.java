@@ -0,0 +1,70 @@
+package fr.adrienbrault.idea.symfony2plugin.tests.profiler.reader;
+
+import fr.adrienbrault.idea.symfony2plugin.profiler.reader.ProfilerIndexTailReader;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ * @see ProfilerIndexTailReader
+ */
+public class ProfilerIndexTailReaderTest extends Assert {
+    @Test
+    public void testReadLinesReturnsLatestLinesFirst() throws Exception {
+        Path index = Files.createTempFile("profiler", "index.csv");
+        Files.writeString(index, "a,1\nb,2\r\n\nc,3\nd,4\n", StandardCharsets.UTF_8);
+
+        ProfilerIndexTailReader reader = new ProfilerIndexTailReader(index.toFile(), 3);
+
+        assertEquals(Arrays.asList("d,4", "c,3", "b,2"), reader.readLines());
+    }
+
+    @Test
+    public void testReadLinesOnlyAddsAppendedCompleteLines() throws Exception {
+        Path index = Files.createTempFile("profiler", "index.csv");
+        Files.writeString(index, "a,1\nb,2\n", StandardCharsets.UTF_8);
+
+        ProfilerIndexTailReader reader = new ProfilerIndexTailReader(index.toFile(), 3);
+        assertEquals(Arrays.asList("b,2", "a,1"), reader.readLines());
+
+        // incomplete line is still written
+        Files.writeString(index, "c,3\nd,", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        assertEquals(Arrays.asList("c,3", "b,2", "a,1"), reader.readLines());
+
+        Files.writeString(index, "4\ne,5\n", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        assertEquals(Arrays.asList("e,5", "d,4", "c,3"), reader.readLines());
+    }
+
+    @Test
+    public void testReadLinesStartsOverForTruncatedFile() throws Exception {
+        Path index = Files.createTempFile("profiler", "index.csv");
+        Files.writeString(index, "a,1\nb,2\n", StandardCharsets.UTF_8);
+
+        ProfilerIndexTailReader reader = new ProfilerIndexTailReader(index.toFile(), 3);
+        assertEquals(Arrays.asList("b,2", "a,1"), reader.readLines());
+
+        Files.writeString(index, "c\n", StandardCharsets.UTF_8);
+        assertEquals(Collections.singletonList("c"), reader.readLines());
+    }
+
+    @Test
+    public void testReadLinesAcrossChunks() throws Exception {
+        Path index = Files.createTempFile("profiler", "index.csv");
+
+        String longLine = "x".repeat(20000);
+        Files.writeString(index, "a,1\n" + longLine + "\nb,2\n", StandardCharsets.UTF_8);
+
+        ProfilerIndexTailReader reader = new ProfilerIndexTailReader(index.toFile(), 3);
+        assertEquals(Arrays.asList("b,2", longLine, "a,1"), reader.readLines());
+
+        // no mapping keeps the file open
+        Files.delete(index);
+    }
+}
@@ -811,6 +811,27 @@ public class RouteHelperTest extends SymfonyLightCodeInsightFixtureTestCase {
         assertFalse(Arrays.stream(targets6).anyMatch(psiElement -> psiElement instanceof Method && "fooAction".equals(((Method) psiElement).getName())));
     }
 
+    public void testHasRoutesForPathWithPlaceholderMatch() {
+        myFixture.addFileToProject("src/Controller/ReverseRouteTrieController.php", "<?php\n" +
+            "namespace MyFooBarBundle\\Controller;\n" +
+            "use Sensio\\Bundle\\FrameworkExtraBundle\\Configuration\\Route;\n" +
+            "class ReverseRouteTrieController\n" +
+            "{\n" +
+            "    /** @Route(\"/trie/{slug<[^/]+>}/show\") */\n" +
+            "    public function slugAction() {}\n" +
+            "    /** @Route(\"/trie-page/page-{page}.html\") */\n" +
+            "    public function pageAction() {}\n" +
+            "}\n"
+        );
+
+        assertTrue(RouteHelper.hasRoutesForPathWithPlaceholderMatch(getProject(), "/trie/foo/show"));
+        assertTrue(RouteHelper.hasRoutesForPathWithPlaceholderMatch(getProject(), "ie/foo/sh"));
+        assertTrue(RouteHelper.hasRoutesForPathWithPlaceholderMatch(getProject(), "/trie-page/page-12.html"));
+        assertTrue(RouteHelper.hasRoutesForPathWithPlaceholderMatch(getProject(), "https://www.de.test/trie-page/page-12.html?utm=1"));
+        assertFalse(RouteHelper.hasRoutesForPathWithPlaceholderMatch(getProject(), "/trie-page/page-.html"));
+        assertFalse(RouteHelper.hasRoutesForPathWithPlaceholderMatch(getProject(), "/trie-unknown/foo/show"));
+    }
+
     public void testNormalizeRouteSearchPath() {
         assertEquals("", RouteHelper.normalizeRouteSearchPath(""));
         assertEquals("", RouteHelper.normalizeRouteSearchPath("   "));
@@ -832,6 +853,17 @@ public class RouteHelperTest extends SymfonyLightCodeInsightFixtureTestCase {
         assertTrue(!RouteHelper.getRoute(getProject(), "my_car_foo_stuff").isEmpty());
     }
 
+    /**
+     * @see fr.adrienbrault.idea.symfony2plugin.routing.RouteHelper#isExistingRouteName
+     */
+    public void testIsExistingRouteName() {
+        assertTrue(RouteHelper.isExistingRouteName(getProject(), "my_car_foo_stuff"));
+        assertTrue(RouteHelper.isExistingRouteName(getProject(), "myfoobar_car_index"));
+
+        assertFalse(RouteHelper.isExistingRouteName(getProject(), "my_car_foo_stuff_unknown"));
+        assertFalse(RouteHelper.isExistingRouteName(getProject(), "unknown_route"));
+    }
+
     @NotNull
     private XmlFile createXmlFile(@NotNull String content) {
         return (XmlFile) PsiFileFactory.getInstance(getProject()).createFileFromText("DUMMY__." + XmlFileType.INSTANCE.getDefaultExtension(), XmlFileType.INSTANCE, content);
@@ -1,6 +1,7 @@
 package fr.adrienbrault.idea.symfony2plugin.tests.stubs;
 
 import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ReadAction;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiFile;
@@ -23,8 +24,11 @@ import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author Daniel Espendiller <daniel@espendiller.net>
@@ -106,6 +110,20 @@ public class ContainerCollectionResolverTest extends SymfonyLightCodeInsightFixt
         assertTrue(classNames.contains("foo"));
     }
 
+    /**
+     * @see ContainerCollectionResolver#getServiceIdsForClass
+     */
+    public void testThatServiceIdsForClassAreResolvedWithNormalizedClassName() {
+        Set<String> serviceIds = ContainerCollectionResolver.getServiceIdsForClass(getProject(), "DateTime");
+        assertContainsElements(serviceIds, "foo", "foo_slash", "foo_datetime");
+        assertEquals(serviceIds, ContainerCollectionResolver.getServiceIdsForClass(getProject(), "\\DateTime"));
+
+        assertContainsElements(ContainerCollectionResolver.getServiceIdsForClass(getProject(), "\\DateTimeInterface"), "foo_datetime");
+        assertTrue(ContainerCollectionResolver.getServiceIdsForClass(getProject(), "\\UnknownClass").isEmpty());
+
+        assertTrue(ContainerCollectionResolver.getClassNameServicesIndex(getProject()).containsKey("\\DateTime"));
+    }
+
     public void testThatAliasedServiceIsEqualWithMainService() {
 
         myFixture.configureByText(YAMLFileType.YML, "" +
@@ -377,6 +395,26 @@ public class ContainerCollectionResolverTest extends SymfonyLightCodeInsightFixt
         assertNull(ContainerCollectionResolver.getService(getProject(), "App\\Service\\ExcludedService"));
     }
 
+    /**
+     * Collectors are shared project-wide, e.g. by the workers of a batch inspection run; each value is built once
+     */
+    public void testThatSharedCollectorsBuildTheirValuesOnceForConcurrentCallers() throws Exception {
+        ContainerCollectionResolver.ServiceCollector serviceCollector = ContainerCollectionResolver.ServiceCollector.create(getProject());
+
+        List<Future<Map<String, ContainerService>>> futures = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            futures.add(ApplicationManager.getApplication().executeOnPooledThread(() -> ReadAction.compute(serviceCollector::getServices)));
+        }
+
+        Map<String, ContainerService> services = serviceCollector.getServices();
+        for (Future<Map<String, ContainerService>> future : futures) {
+            assertSame(services, future.get(30, TimeUnit.SECONDS));
+        }
+
+        assertSame(serviceCollector, ContainerCollectionResolver.ServiceCollector.create(getProject()));
+        assertSame(ContainerCollectionResolver.ParameterCollector.create(getProject()), ContainerCollectionResolver.ParameterCollector.create(getProject()));
+    }
+
     @NotNull
     private static ContainerServiceMetadata getResourcePrototypeMetadata(@NotNull ContainerService service, @NotNull String resourceServiceId) {
         return service.getMetadata().stream()
@@ -0,0 +1,90 @@
+package fr.adrienbrault.idea.symfony2plugin.tests.stubs.cache;
+
+import com.intellij.openapi.util.Key;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.util.CachedValue;
+import fr.adrienbrault.idea.symfony2plugin.dic.container.ServiceSerializable;
+import fr.adrienbrault.idea.symfony2plugin.stubs.cache.FileIndexCaches;
+import fr.adrienbrault.idea.symfony2plugin.stubs.cache.FileIndexSnapshotCache;
+import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.ServicesDefinitionStubIndex;
+import fr.adrienbrault.idea.symfony2plugin.tests.SymfonyLightCodeInsightFixtureTestCase;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ * @see fr.adrienbrault.idea.symfony2plugin.stubs.cache.FileIndexCaches
+ */
+public class FileIndexCachesTest extends SymfonyLightCodeInsightFixtureTestCase {
+    private static final Key<CachedValue<Map<String, List<ServiceSerializable>>>> TEST_DATA = new Key<>("SYMFONY_TEST_FILE_INDEX_CACHES_DATA");
+    private static final Key<CachedValue<Map<String, List<ServiceSerializable>>>> TEST_INCREMENTAL_DATA = new Key<>("SYMFONY_TEST_FILE_INDEX_CACHES_INCREMENTAL_DATA");
+    private static final Key<CachedValue<Set<String>>> TEST_NAMES = new Key<>("SYMFONY_TEST_FILE_INDEX_CACHES_NAMES");
+
+    public void testSnapshotIsReusedUntilIndexChanges() {
+        myFixture.configureByText("services1.yml", "" +
+            "services:\n" +
+            "    foo_snapshot:\n" +
+            "        class: DateTime\n"
+        );
+
+        Map<String, List<ServiceSerializable>> data = getSnapshot();
+        assertTrue(data.containsKey("foo_snapshot"));
+        assertSame(data, getSnapshot());
+        assertSame(
+            FileIndexCaches.getIndexKeysCache(getProject(), TEST_NAMES, ServicesDefinitionStubIndex.KEY),
+            FileIndexCaches.getIndexKeysCache(getProject(), TEST_NAMES, ServicesDefinitionStubIndex.KEY)
+        );
+
+        myFixture.configureByText("services2.yml", "" +
+            "services:\n" +
+            "    bar_snapshot:\n" +
+            "        class: DateTime\n"
+        );
+
+        Map<String, List<ServiceSerializable>> rebuild = getSnapshot();
+        assertNotSame(data, rebuild);
+        assertTrue(rebuild.containsKey("foo_snapshot"));
+        assertTrue(rebuild.containsKey("bar_snapshot"));
+    }
+
+    public void testIncrementalRebuildOnlyFetchesKeysOfChangedFiles() {
+        myFixture.configureByText("services1.yml", "" +
+            "services:\n" +
+            "    foo_incremental:\n" +
+            "        class: DateTime\n" +
+            "    foo_incremental_2:\n" +
+            "        class: DateTime\n"
+        );
+
+        Map<String, List<ServiceSerializable>> data = getSnapshot(TEST_INCREMENTAL_DATA);
+        assertTrue(data.containsKey("foo_incremental"));
+
+        myFixture.configureByText("services2.yml", "" +
+            "services:\n" +
+            "    bar_incremental:\n" +
+            "        class: DateTime\n"
+        );
+
+        Map<String, List<ServiceSerializable>> rebuild = getSnapshot(TEST_INCREMENTAL_DATA);
+        assertTrue(rebuild.containsKey("foo_incremental"));
+        assertTrue(rebuild.containsKey("foo_incremental_2"));
+        assertTrue(rebuild.containsKey("bar_incremental"));
+        assertSame(data.get("foo_incremental"), rebuild.get("foo_incremental"));
+
+        FileIndexSnapshotCache.Statistics statistics = FileIndexSnapshotCache.getInstance(getProject()).getStatistics(TEST_INCREMENTAL_DATA);
+        assertNotNull(statistics);
+        assertEquals(1, statistics.fullRebuilds());
+        assertEquals(1, statistics.incrementalRebuilds());
+        assertTrue(statistics.rebuiltKeys() < statistics.fullRebuildKeys());
+    }
+
+    private Map<String, List<ServiceSerializable>> getSnapshot() {
+        return getSnapshot(TEST_DATA);
+    }
+
+    private Map<String, List<ServiceSerializable>> getSnapshot(Key<CachedValue<Map<String, List<ServiceSerializable>>>> key) {
+        return FileIndexCaches.getSetDataCache(getProject(), key, TEST_NAMES, ServicesDefinitionStubIndex.KEY, GlobalSearchScope.allScope(getProject()));
+    }
+}
@@ -0,0 +1,89 @@
+package fr.adrienbrault.idea.symfony2plugin.tests.stubs.indexes;
+
+import com.jetbrains.php.lang.PhpFileType;
+import fr.adrienbrault.idea.symfony2plugin.stubs.indexes.ConsoleCommandStubIndex;
+import fr.adrienbrault.idea.symfony2plugin.tests.SymfonyLightCodeInsightFixtureTestCase;
+
+/**
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ * @see fr.adrienbrault.idea.symfony2plugin.stubs.indexes.ConsoleCommandStubIndex
+ */
+public class ConsoleCommandStubIndexTest extends SymfonyLightCodeInsightFixtureTestCase {
+    public void testThatCommandsAreIndexed() {
+        myFixture.configureByText(PhpFileType.INSTANCE, "<?php\n" +
+            "namespace App\\Command {\n" +
+            "   use Symfony\\Component\\Console\\Attribute\\Argument;\n" +
+            "   use Symfony\\Component\\Console\\Attribute\\AsCommand;\n" +
+            "   use Symfony\\Component\\Console\\Attribute\\Option;\n" +
+            "   use Symfony\\Component\\Console\\Command\\Command;\n" +
+            "   use Symfony\\Component\\Console\\Input\\InputOption;\n" +
+            "\n" +
+            "   #[AsCommand(name: 'app:create-user', aliases: ['app:add-user'])]\n" +
+            "   class CreateUserCommand extends Command {\n" +
+            "       protected function configure() {\n" +
+            "           $this->addOption('dry-run', 'd', InputOption::VALUE_NONE, 'Do not persist');\n" +
+            "           $this->addArgument('username', null, 'User name');\n" +
+            "       }\n" +
+            "   }\n" +
+            "\n" +
+            "   class LegacyCommand extends Command {\n" +
+            "       const NAME = 'app:legacy';\n" +
+            "       protected function configure() {\n" +
+            "           $this->setName(self::NAME);\n" +
+            "           $this->setDefinition([new InputOption('format', 'f')]);\n" +
+            "       }\n" +
+            "   }\n" +
+            "\n" +
+            "   class DefaultNameCommand extends Command {\n" +
+            "       protected static $defaultName = 'app:default|app:default-alias';\n" +
+            "   }\n" +
+            "\n" +
+            "   class UserCommands {\n" +
+            "       #[AsCommand('app:user:delete')]\n" +
+            "       public function delete(#[Argument] string $id, #[Option(shortcut: 'f')] bool $force = false): int { return 0; }\n" +
+            "\n" +
+            "       #[AsCommand('app:user:private')]\n" +
+            "       private function privateCommand(): int { return 0; }\n" +
+            "   }\n" +
+            "\n" +
+            "   class ForeignConstantCommand extends Command {\n" +
+            "       protected function configure() {\n" +
+            "           $this->setName(Names::IMPORT);\n" +
+            "       }\n" +
+            "   }\n" +
+            "\n" +
+            "   class NoCommand {\n" +
+            "       protected function configure() {\n" +
+            "           $this->setName('app:no-command');\n" +
+            "       }\n" +
+            "   }\n" +
+            "}"
+        );
+
+        assertIndexContainsKeyWithValue(ConsoleCommandStubIndex.KEY, "app:create-user", value ->
+            "\\App\\Command\\CreateUserCommand".equals(value.phpClass())
+                && value.attribute()
+                && value.methodName() == null
+                && value.options().stream().anyMatch(option -> "dry-run".equals(option.name()) && "d".equals(option.shortcut()) && "Do not persist".equals(option.description()))
+                && value.arguments().stream().anyMatch(argument -> "username".equals(argument.name()) && "User name".equals(argument.description()))
+        );
+
+        assertIndexContains(ConsoleCommandStubIndex.KEY, "app:add-user", "app:default", "app:default-alias");
+
+        assertIndexContainsKeyWithValue(ConsoleCommandStubIndex.KEY, "app:legacy", value ->
+            !value.attribute() && value.options().stream().anyMatch(option -> "format".equals(option.name()) && "f".equals(option.shortcut()))
+        );
+
+        assertIndexContainsKeyWithValue(ConsoleCommandStubIndex.KEY, "app:user:delete", value ->
+            "\\App\\Command\\UserCommands".equals(value.phpClass())
+                && "delete".equals(value.methodName())
+                && value.options().stream().anyMatch(option -> "force".equals(option.name()) && "f".equals(option.shortcut()))
+                && value.arguments().stream().anyMatch(argument -> "id".equals(argument.name()))
+        );
+
+        // constants of other classes are resolved on usage
+        assertIndexContains(ConsoleCommandStubIndex.KEY, "\\App\\Command\\Names::IMPORT");
+
+        assertIndexNotContains(ConsoleCommandStubIndex.KEY, "app:user:private", "app:no-command");
+    }
+}
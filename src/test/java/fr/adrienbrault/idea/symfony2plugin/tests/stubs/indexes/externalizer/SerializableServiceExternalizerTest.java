@@ -39,4 +39,53 @@ public class SerializableServiceExternalizerTest extends Assert {
         assertTrue(deserialized.getTags().contains("console.command"));
         assertFalse(deserialized.getTags().contains(null));
     }
+
+    @Test
+    public void testSaveAndReadAllFields() throws IOException {
+        SerializableService service = new SerializableService("App\\Service\\Foo")
+            .setClassName("App\\Service\\Foo")
+            .setIsPublic(true)
+            .setIsLazy(false)
+            .setIsAutowire(true)
+            .setIsDeprecated(false)
+            .setAlias("foo")
+            .setDecorates("bar")
+            .setDecorationInnerName("bar.inner")
+            .setParent("parent")
+            .setTags(Arrays.asList("kernel.event_listener", "foo"));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        SerializableServiceExternalizer.INSTANCE.save(new DataOutputStream(bytes), service);
+
+        ServiceSerializable deserialized = SerializableServiceExternalizer.INSTANCE.read(
+            new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()))
+        );
+
+        assertEquals("App\\Service\\Foo", deserialized.getId());
+        assertEquals("App\\Service\\Foo", deserialized.getClassName());
+        assertTrue(deserialized.isPublic());
+        assertFalse(deserialized.isLazy());
+        assertTrue(deserialized.isAutowire());
+        assertFalse(deserialized.isDeprecated());
+        assertNull(((SerializableService) deserialized).isAbstractNullable());
+        assertNull(((SerializableService) deserialized).isAutoconfigureNullable());
+        assertEquals("foo", deserialized.getAlias());
+        assertEquals("bar", deserialized.getDecorates());
+        assertEquals("bar.inner", deserialized.getDecorationInnerName());
+        assertEquals("parent", deserialized.getParent());
+        assertEquals(Arrays.asList("kernel.event_listener", "foo"), deserialized.getTags());
+
+        // id and class are the same string and must only be stored once
+        assertEquals(1, countOccurrences(bytes.toByteArray(), "App\\Service\\Foo".getBytes()));
+    }
+
+    private static int countOccurrences(byte[] haystack, byte[] needle) {
+        int count = 0;
+        for (int i = 0; i <= haystack.length - needle.length; i++) {
+            if (Arrays.equals(Arrays.copyOfRange(haystack, i, i + needle.length), needle)) {
+                count++;
+            }
+        }
+        return count;
+    }
 }
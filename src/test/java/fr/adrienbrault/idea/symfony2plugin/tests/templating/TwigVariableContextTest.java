@@ -490,6 +490,43 @@ public class TwigVariableContextTest extends SymfonyLightCodeInsightFixtureTestC
         );
     }
 
+    /**
+     * Variables of the root template are visible at the end of a long include chain.
+     */
+    public void testIncludeChainInheritsRootVariables() {
+        myFixture.addFileToProject(
+            "templates/chain/level_0.html.twig",
+            "{# @var user \\App\\Entity\\User #}\n" +
+            "{% include 'chain/level_1.html.twig' %}\n"
+        );
+
+        for (int i = 1; i < 10; i++) {
+            myFixture.addFileToProject(
+                "templates/chain/level_" + i + ".html.twig",
+                "{% include 'chain/level_" + (i + 1) + ".html.twig' %}\n"
+            );
+        }
+
+        assertPathScopeContains("templates/chain/level_10.html.twig", "{{ <caret> }}", "user");
+    }
+
+    /**
+     * Templates including each other must not recurse endlessly.
+     */
+    public void testIncludeCycleCollectsVariables() {
+        myFixture.addFileToProject(
+            "templates/cycle/a.html.twig",
+            "{# @var user \\App\\Entity\\User #}\n" +
+            "{% include 'cycle/b.html.twig' %}\n"
+        );
+
+        assertPathScopeContains(
+            "templates/cycle/b.html.twig",
+            "{% include 'cycle/a.html.twig' %}\n{{ <caret> }}",
+            "user"
+        );
+    }
+
     /**
      * Test that block-scoped variables are collected correctly.
      */
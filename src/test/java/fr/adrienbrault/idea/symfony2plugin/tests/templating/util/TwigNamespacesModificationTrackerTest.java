@@ -0,0 +1,24 @@
+package fr.adrienbrault.idea.symfony2plugin.tests.templating.util;
+
+import fr.adrienbrault.idea.symfony2plugin.templating.util.TwigNamespacesModificationTracker;
+import fr.adrienbrault.idea.symfony2plugin.tests.SymfonyLightCodeInsightFixtureTestCase;
+
+/**
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ * @see TwigNamespacesModificationTracker
+ */
+public class TwigNamespacesModificationTrackerTest extends SymfonyLightCodeInsightFixtureTestCase {
+    public void testStampOnlyChangesWithTheResolvedNamespaces() {
+        TwigNamespacesModificationTracker tracker = TwigNamespacesModificationTracker.getInstance(getProject());
+        long stamp = tracker.getModificationCount();
+
+        myFixture.addFileToProject("src/Unrelated.php", "<?php\nclass Unrelated {}\n");
+        assertEquals(stamp, tracker.getModificationCount());
+
+        myFixture.addFileToProject(
+            "ide-twig.json",
+            "{\"namespaces\":[{\"namespace\":\"Foo\",\"path\":\"foo_templates\"}]}"
+        );
+        assertTrue(tracker.getModificationCount() > stamp);
+    }
+}
@@ -20,6 +20,7 @@ import fr.adrienbrault.idea.symfony2plugin.util.yaml.YamlPsiElementFactory;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.yaml.psi.YAMLFile;
 
+import java.io.IOException;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
@@ -123,6 +124,30 @@ public class TwigUtilTest extends SymfonyLightCodeInsightFixtureTestCase {
         assertTrue(TwigUtil.getTemplateTargetOnOffset(getProject(), "foo.html.twig", 40).isEmpty());
     }
 
+    /**
+     * @see TwigUtil#getTemplateMap
+     */
+    public void testGetTemplateMapFollowsFileStructureChanges() {
+        Settings.getInstance(getProject()).twigNamespaces.addAll(createTwigNamespaceSettings());
+        myFixture.addFileToProject("res/foo.html.twig", "");
+
+        assertContainsElements(TwigUtil.getTemplateMap(getProject()).keySet(), "@Foo/foo.html.twig", "foo.html.twig");
+
+        VirtualFile bar = myFixture.addFileToProject("res/foobar/bar.html.twig", "").getVirtualFile();
+        assertContainsElements(TwigUtil.getTemplateMap(getProject()).keySet(), "@Foo/foo.html.twig", "@Foo/foobar/bar.html.twig");
+
+        WriteCommandAction.runWriteCommandAction(getProject(), () -> {
+            try {
+                bar.delete(this);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+
+        assertDoesntContain(TwigUtil.getTemplateMap(getProject()).keySet(), "@Foo/foobar/bar.html.twig");
+        assertContainsElements(TwigUtil.getTemplateMap(getProject()).keySet(), "@Foo/foo.html.twig");
+    }
+
     /**
      * @see TwigUtil#getPresentableTemplateName
      */
@@ -14,6 +14,8 @@ import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -56,6 +58,25 @@ public class TranslationUtilTest extends SymfonyLightCodeInsightFixtureTestCase
         assertTrue(TranslationUtil.getTranslationPsiElements(getProject(), "my_foobar [PHP]", "symfony").length > 0);
     }
 
+    public void testHasTranslationKey() {
+        assertTrue(TranslationUtil.hasTranslationKey(getProject(), "yaml_weak.symfony.great", "apple"));
+        assertTrue(TranslationUtil.hasTranslationKey(getProject(), "foo_yaml.symfony.great", "car"));
+        assertFalse(TranslationUtil.hasTranslationKey(getProject(), "foo_yaml.symfony.great", "apple"));
+        assertFalse(TranslationUtil.hasTranslationKey(getProject(), "yaml_weak.symfony.great", "unknown_domain"));
+    }
+
+    public void testGetMissingTranslationKeys() {
+        Map<String, Set<String>> missing = TranslationUtil.getMissingTranslationKeys(getProject(), Map.of(
+            "apple", List.of("yaml_weak.symfony.great", "apple_missing"),
+            "car", List.of("foo_yaml.symfony.great"),
+            "unknown_domain", List.of("foo")
+        ));
+
+        assertEquals(Set.of("apple_missing"), missing.get("apple"));
+        assertFalse(missing.containsKey("car"));
+        assertEquals(Set.of("foo"), missing.get("unknown_domain"));
+    }
+
     public void testGetTargetForXlfAsXmlFileInVersion12() {
         PsiFile fileFromText = PsiFileFactory.getInstance(getProject()).createFileFromText(XMLLanguage.INSTANCE, "" +
             "<?xml version=\"1.0\"?>\n" +
@@ -5,6 +5,7 @@ import fr.adrienbrault.idea.symfony2plugin.tests.SymfonyLightCodeInsightFixtureT
 import fr.adrienbrault.idea.symfony2plugin.translation.parser.TranslationStringMap;
 
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 
 /**
@@ -34,6 +35,33 @@ public class TranslationPsiParserTest extends SymfonyLightCodeInsightFixtureTest
         assertTrue(translationStringMap.getDomainMap("my_intl_icu_domain").contains("messages_intl_icu_key"));
     }
 
+    public void testCompiledTranslationParserLoadsOtherLocalesOnDemand() {
+        VirtualFile catalogueFile = myFixture.copyFileToProject("catalogue.af.X7ow_p+.php", "translations/catalogue.af.X7ow_p+.php");
+        myFixture.addFileToProject("translations/catalogue.de.Hk2i_p+.php", "<?php\n" +
+            "$catalogue = new \\Symfony\\Component\\Translation\\MessageCatalogue('de', [\n" +
+            "    'validators' => ['de_only_key' => 'Wert', 'nested' => ['ignored' => 'value']],\n" +
+            "    'de_domain' => [],\n" +
+            "]);\n"
+        );
+
+        TranslationStringMap translationStringMap = TranslationStringMap.create(List.of(catalogueFile.getParent()), Set.of("af"));
+
+        assertContainsElements(translationStringMap.getLocales(), "af", "de");
+
+        assertTrue(translationStringMap.getDomainMap("validators").contains("This value should be false."));
+        assertFalse(translationStringMap.getDomainMap("validators").contains("de_only_key"));
+        assertNull(translationStringMap.getDomainMap("de_domain"));
+
+        assertTrue(translationStringMap.getDomainMap("validators", "de").contains("de_only_key"));
+        assertTrue(translationStringMap.getDomainMap("validators", "de").contains("nested"));
+        assertFalse(translationStringMap.getDomainMap("validators", "de").contains("ignored"));
+        assertEmpty(translationStringMap.getDomainMap("de_domain", "de"));
+        assertNull(translationStringMap.getDomainMap("validators", "fr"));
+
+        // unknown primary locales must not hide translations
+        assertTrue(TranslationStringMap.create(List.of(catalogueFile.getParent()), Set.of("fr")).getDomainMap("validators").contains("de_only_key"));
+    }
+
     public void testCompiledTranslationParserOnBackgroundThread() throws Exception {
         VirtualFile catalogueFile = myFixture.copyFileToProject("catalogue.af.X7ow_p+.php", "translations/catalogue.af.X7ow_p+.php");
         myFixture.copyFileToProject("classes.php");
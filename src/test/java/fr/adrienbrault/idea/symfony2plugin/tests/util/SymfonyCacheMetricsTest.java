@@ -0,0 +1,67 @@
+package fr.adrienbrault.idea.symfony2plugin.tests.util;
+
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.util.SimpleModificationTracker;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import fr.adrienbrault.idea.symfony2plugin.routing.RouteHelper;
+import fr.adrienbrault.idea.symfony2plugin.tests.SymfonyLightCodeInsightFixtureTestCase;
+import fr.adrienbrault.idea.symfony2plugin.util.SymfonyCacheMetrics;
+import fr.adrienbrault.idea.symfony2plugin.util.SymfonyVarDirectoryWatcher;
+import fr.adrienbrault.idea.symfony2plugin.util.SymfonyVarDirectoryWatcherKt;
+
+/**
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ * @see SymfonyCacheMetrics
+ */
+public class SymfonyCacheMetricsTest extends SymfonyLightCodeInsightFixtureTestCase {
+    public void testCachedValueHitsAndRebuildsAreCounted() {
+        SymfonyCacheMetrics metrics = SymfonyCacheMetrics.getInstance(getProject());
+
+        // light project is shared; build the cache once, so the rebuild after the reset runs on the already cached provider
+        RouteHelper.getAllRoutes(getProject());
+        metrics.reset();
+
+        SymfonyVarDirectoryWatcherKt.getSymfonyVarDirectoryWatcher(getProject()).getModificationTracker(SymfonyVarDirectoryWatcher.Scope.ROUTES).incModificationCount();
+
+        RouteHelper.getAllRoutes(getProject());
+        RouteHelper.getAllRoutes(getProject());
+
+        SymfonyCacheMetrics.Snapshot snapshot = metrics.getSnapshots().stream()
+            .filter(s -> "RouteHelper.ROUTE_CACHE".equals(s.name()))
+            .findFirst()
+            .orElseThrow();
+
+        assertEquals(2, snapshot.requests());
+        assertEquals(1, snapshot.rebuilds());
+        assertEquals(1, snapshot.hits());
+        assertEquals(SymfonyCacheMetrics.getBucketCount(), snapshot.histogram().length);
+
+        assertTrue(metrics.toJson().contains("\"name\": \"RouteHelper.ROUTE_CACHE\""));
+    }
+
+    public void testRebuildsAreCountedAfterReset() {
+        SymfonyCacheMetrics metrics = SymfonyCacheMetrics.getInstance(getProject());
+
+        Key<CachedValue<String>> key = new Key<>("SYMFONY_CACHE_METRICS_TEST");
+        SimpleModificationTracker tracker = new SimpleModificationTracker();
+
+        CachedValueProvider<String> provider = () -> CachedValueProvider.Result.create("foo", tracker);
+
+        SymfonyCacheMetrics.getCachedValue(getProject(), key, "SymfonyCacheMetricsTest.KEY", provider);
+        metrics.reset();
+
+        tracker.incModificationCount();
+        SymfonyCacheMetrics.getCachedValue(getProject(), key, "SymfonyCacheMetricsTest.KEY", provider);
+        SymfonyCacheMetrics.getCachedValue(getProject(), key, "SymfonyCacheMetricsTest.KEY", provider);
+
+        SymfonyCacheMetrics.Snapshot snapshot = metrics.getSnapshots().stream()
+            .filter(s -> "SymfonyCacheMetricsTest.KEY".equals(s.name()))
+            .findFirst()
+            .orElseThrow();
+
+        assertEquals(2, snapshot.requests());
+        assertEquals(1, snapshot.rebuilds());
+        assertEquals(1, snapshot.hits());
+    }
+}
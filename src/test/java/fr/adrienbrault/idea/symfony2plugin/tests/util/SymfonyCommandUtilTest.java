@@ -4,6 +4,7 @@ import com.jetbrains.php.PhpIndex;
 import com.jetbrains.php.lang.psi.elements.Method;
 import com.jetbrains.php.lang.psi.elements.PhpClass;
 import com.jetbrains.php.lang.psi.elements.PhpNamedElement;
+import fr.adrienbrault.idea.symfony2plugin.stubs.dict.ConsoleCommand;
 import fr.adrienbrault.idea.symfony2plugin.tests.SymfonyLightCodeInsightFixtureTestCase;
 import fr.adrienbrault.idea.symfony2plugin.util.SymfonyCommandUtil;
 import fr.adrienbrault.idea.symfony2plugin.util.dict.SymfonyCommand;
@@ -107,12 +108,107 @@ public class SymfonyCommandUtilTest extends SymfonyLightCodeInsightFixtureTestCa
         assertTrue(target instanceof Method);
         assertEquals("create", target.getName());
 
-        Map<String, SymfonyCommandUtil.CommandOption> options = SymfonyCommandUtil.getCommandOptions(getProject(), createCommand);
-        assertTrue(options.containsKey("dry-run"));
-        assertEquals("d", options.get("dry-run").shortcut());
+        ConsoleCommand indexed = SymfonyCommandUtil.getIndexedCommand(getProject(), createCommand);
+        assertNotNull(indexed);
+        assertTrue(indexed.options().stream().anyMatch(option -> "dry-run".equals(option.name()) && "d".equals(option.shortcut())));
+        assertTrue(indexed.arguments().stream().anyMatch(argument -> "username".equals(argument.name())));
+    }
+
+    /**
+     * @see SymfonyCommandUtil#getCommandMap
+     */
+    public void testGetCommandMapChecksCommandParentOfLegacyCommands() {
+        myFixture.addFileToProject("LegacyCommands/Commands.php", "<?php\n" +
+            "namespace LegacyCommands;\n" +
+            "\n" +
+            "use Symfony\\Component\\Console\\Command\\Command;\n" +
+            "\n" +
+            "abstract class BaseTask {}\n" +
+            "\n" +
+            "class NoCommand extends BaseTask\n" +
+            "{\n" +
+            "    protected static $defaultName = 'legacy:default-no-command';\n" +
+            "    protected function configure() { $this->setName('legacy:no-command'); }\n" +
+            "}\n" +
+            "\n" +
+            "abstract class BaseCommand extends Command {}\n" +
+            "\n" +
+            "class ChildCommand extends BaseCommand\n" +
+            "{\n" +
+            "    protected function configure() { $this->setName('legacy:child-command'); }\n" +
+            "}\n"
+        );
+
+        Map<String, SymfonyCommand> commands = SymfonyCommandUtil.getCommandMap(getProject());
+
+        assertFalse(commands.containsKey("legacy:no-command"));
+        assertFalse(commands.containsKey("legacy:default-no-command"));
+        assertEquals("\\LegacyCommands\\ChildCommand", commands.get("legacy:child-command").getFqn());
+    }
+
+    /**
+     * @see SymfonyCommandUtil#getCommandMap
+     */
+    public void testGetCommandMapFollowsBaseClassesOfOtherFiles() {
+        myFixture.addFileToProject("LateParent/LateCommand.php", "<?php\n" +
+            "namespace LateParent;\n" +
+            "\n" +
+            "class LateCommand extends LateBase\n" +
+            "{\n" +
+            "    protected function configure() { $this->setName('legacy:late-command'); }\n" +
+            "}\n"
+        );
+
+        assertFalse(SymfonyCommandUtil.getCommandMap(getProject()).containsKey("legacy:late-command"));
+
+        myFixture.addFileToProject("LateParent/LateBase.php", "<?php\n" +
+            "namespace LateParent;\n" +
+            "\n" +
+            "use Symfony\\Component\\Console\\Command\\Command;\n" +
+            "\n" +
+            "abstract class LateBase extends Command {}\n"
+        );
+
+        assertTrue(SymfonyCommandUtil.getCommandMap(getProject()).containsKey("legacy:late-command"));
+    }
+
+    /**
+     * @see SymfonyCommandUtil#getCommandMap
+     */
+    public void testGetCommandMapResolvesConstantsOfOtherClasses() {
+        myFixture.addFileToProject("ForeignConstants/ImportCommand.php", "<?php\n" +
+            "namespace ForeignConstants;\n" +
+            "\n" +
+            "use Symfony\\Component\\Console\\Command\\Command;\n" +
+            "\n" +
+            "final class Names\n" +
+            "{\n" +
+            "    public const IMPORT = 'app:import';\n" +
+            "    public const FORCE = 'force';\n" +
+            "}\n" +
+            "\n" +
+            "class ImportCommand extends Command\n" +
+            "{\n" +
+            "    protected function configure()\n" +
+            "    {\n" +
+            "        $this->setName(Names::IMPORT);\n" +
+            "        $this->addOption(Names::FORCE, 'f');\n" +
+            "    }\n" +
+            "}\n"
+        );
+
+        SymfonyCommand command = SymfonyCommandUtil.getCommandMap(getProject()).get("app:import");
+        assertNotNull(command);
+        assertEquals("\\ForeignConstants\\ImportCommand", command.getFqn());
+
+        ConsoleCommand indexed = SymfonyCommandUtil.getIndexedCommand(getProject(), command);
+        assertNotNull(indexed);
+        assertTrue(indexed.options().stream().anyMatch(option -> "force".equals(option.name()) && "f".equals(option.shortcut())));
 
-        Map<String, SymfonyCommandUtil.CommandArgument> arguments = SymfonyCommandUtil.getCommandArguments(getProject(), createCommand);
-        assertTrue(arguments.containsKey("username"));
+        // PSI based API shares the parser
+        PhpClass phpClass = PhpIndex.getInstance(getProject()).getAnyByFQN("\\ForeignConstants\\ImportCommand").iterator().next();
+        assertEquals(java.util.List.of("app:import"), SymfonyCommandUtil.getCommandNameFromClass(phpClass));
+        assertTrue(SymfonyCommandUtil.getCommandOptions(phpClass).containsKey("force"));
     }
 
     /**
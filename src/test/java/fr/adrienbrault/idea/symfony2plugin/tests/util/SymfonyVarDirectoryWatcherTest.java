@@ -0,0 +1,30 @@
+package fr.adrienbrault.idea.symfony2plugin.tests.util;
+
+import fr.adrienbrault.idea.symfony2plugin.tests.SymfonyLightCodeInsightFixtureTestCase;
+import fr.adrienbrault.idea.symfony2plugin.util.SymfonyVarDirectoryWatcher;
+import fr.adrienbrault.idea.symfony2plugin.util.SymfonyVarDirectoryWatcherKt;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ * @see SymfonyVarDirectoryWatcher
+ */
+public class SymfonyVarDirectoryWatcherTest extends SymfonyLightCodeInsightFixtureTestCase {
+    public void testReloadConfigurationPublishesAllScopes() {
+        Set<SymfonyVarDirectoryWatcher.Scope> invalidated = EnumSet.noneOf(SymfonyVarDirectoryWatcher.Scope.class);
+
+        getProject().getMessageBus()
+            .connect(getTestRootDisposable())
+            .subscribe(SymfonyVarDirectoryWatcher.TOPIC, invalidated::addAll);
+
+        SymfonyVarDirectoryWatcher watcher = SymfonyVarDirectoryWatcherKt.getSymfonyVarDirectoryWatcher(getProject());
+        long modificationCount = watcher.getModificationTracker(SymfonyVarDirectoryWatcher.Scope.ROUTES).getModificationCount();
+
+        watcher.reloadConfiguration();
+
+        assertEquals(EnumSet.allOf(SymfonyVarDirectoryWatcher.Scope.class), invalidated);
+        assertTrue(watcher.getModificationTracker(SymfonyVarDirectoryWatcher.Scope.ROUTES).getModificationCount() > modificationCount);
+    }
+}
@@ -631,6 +631,42 @@ public class UxUtilTest extends SymfonyLightCodeInsightFixtureTestCase {
         assertContainsElements(UxUtil.getComponentTemplatesForPhpClass(alertClass), "broad/Twig/Components/Alert.html.twig");
     }
 
+    public void testComponentRegistryResolvesNamesAndFollowsIndexChanges() {
+        myFixture.addFileToProject("config/packages/twig_component_registry.yaml",
+            "twig_component:\n" +
+                "  defaults:\n" +
+                "    App\\Registry\\Components\\:\n" +
+                "      name_prefix: ''\n"
+        );
+
+        myFixture.addFileToProject("src/Registry/Alert.php", "<?php\n" +
+            "namespace App\\Registry\\Components;\n" +
+            "\n" +
+            "use Symfony\\UX\\TwigComponent\\Attribute\\AsTwigComponent;\n" +
+            "\n" +
+            "#[AsTwigComponent]\n" +
+            "class Alert {}\n"
+        );
+
+        UxUtil.TwigComponentRegistry registry = UxUtil.getComponentRegistry(getProject());
+        assertEquals("\\App\\Registry\\Components\\Alert", registry.getComponent("Alert").phpClass());
+        assertNull(registry.getComponent("Banner"));
+        assertSame(registry, UxUtil.getComponentRegistry(getProject()));
+
+        myFixture.addFileToProject("src/Registry/Banner.php", "<?php\n" +
+            "namespace App\\Registry\\Components;\n" +
+            "\n" +
+            "use Symfony\\UX\\TwigComponent\\Attribute\\AsTwigComponent;\n" +
+            "\n" +
+            "#[AsTwigComponent]\n" +
+            "class Banner {}\n"
+        );
+
+        assertEquals("Banner", UxUtil.resolveTwigComponentName(getProject(), "Banner"));
+        assertTrue(UxUtil.hasTwigComponentName(getProject(), "Alert"));
+        assertNull(UxUtil.resolveTwigComponentName(getProject(), "Unknown"));
+    }
+
     public void testNamespacedAnonymousTwigComponentsResolveFromTwigNamespace() {
         configureTwigNamespaceSettings(
             new TwigNamespaceSetting(TwigUtil.MAIN, "templates", true, TwigUtil.NamespaceType.ADD_PATH, true),
@@ -0,0 +1,73 @@
+package fr.adrienbrault.idea.symfony2plugin.tests.util.service;
+
+import fr.adrienbrault.idea.symfony2plugin.util.service.ContainerStreamParserInterface;
+import fr.adrienbrault.idea.symfony2plugin.util.service.ContainerXmlElement;
+import fr.adrienbrault.idea.symfony2plugin.util.service.ContainerXmlStreamReader;
+import org.jetbrains.annotations.NotNull;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ * @see ContainerXmlStreamReader
+ */
+public class ContainerXmlStreamReaderTest extends Assert {
+    @Test
+    public void testServicesAndParametersAreVisitedWithTheirSubtree() {
+        String xml = "<?xml version=\"1.0\" encoding=\"utf-8\"?>\n" +
+            "<container>\n" +
+            "  <parameters>\n" +
+            "    <parameter key=\"kernel.debug\">true</parameter>\n" +
+            "  </parameters>\n" +
+            "  <services>\n" +
+            "    <service id=\"foo\" class=\"Foo\\Bar\">\n" +
+            "      <tag name=\"kernel.event_listener\" event=\"kernel.request\"/>\n" +
+            "      <argument type=\"service\">\n" +
+            "        <service class=\"Foo\\Inline\"/>\n" +
+            "      </argument>\n" +
+            "    </service>\n" +
+            "  </services>\n" +
+            "</container>";
+
+        Visitor visitor = new Visitor();
+        assertTrue(ContainerXmlStreamReader.read(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)), Collections.singletonList(visitor)));
+
+        assertEquals(1, visitor.services.size());
+        ContainerXmlElement service = visitor.services.get(0);
+        assertEquals("foo", service.getAttribute("id"));
+        assertEquals("kernel.request", service.getChildren("tag").iterator().next().getAttribute("event"));
+        assertEquals("Foo\\Inline", service.getDescendants("service").iterator().next().getAttribute("class"));
+
+        assertEquals(1, visitor.parameters.size());
+        assertEquals("kernel.debug", visitor.parameters.get(0).getAttribute("key"));
+        assertEquals("true", visitor.parameters.get(0).getTextContent());
+    }
+
+    @Test
+    public void testInvalidXmlIsReported() {
+        Visitor visitor = new Visitor();
+        assertFalse(ContainerXmlStreamReader.read(new ByteArrayInputStream("<container><services>".getBytes(StandardCharsets.UTF_8)), Collections.singletonList(visitor)));
+        assertTrue(visitor.services.isEmpty());
+    }
+
+    private static class Visitor implements ContainerStreamParserInterface {
+        private final List<ContainerXmlElement> services = new ArrayList<>();
+        private final List<ContainerXmlElement> parameters = new ArrayList<>();
+
+        @Override
+        public void visitService(@NotNull ContainerXmlElement service) {
+            services.add(service);
+        }
+
+        @Override
+        public void visitParameter(@NotNull ContainerXmlElement parameter) {
+            parameters.add(parameter);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package fr.adrienbrault.idea.symfony2plugin.util;
+
+import fr.adrienbrault.idea.symfony2plugin.tests.SymfonyLightCodeInsightFixtureTestCase;
+
+import java.util.EnumSet;
+
+/**
+ * @author Daniel Espendiller <daniel@espendiller.net>
+ * @see SymfonyCacheWarmer
+ */
+public class SymfonyCacheWarmerTest extends SymfonyLightCodeInsightFixtureTestCase {
+    public void testScheduleAndDrainHandshake() {
+        SymfonyCacheWarmer warmer = SymfonyCacheWarmer.getInstance(getProject());
+
+        // first request starts a task, following ones are picked up by it
+        assertTrue(warmer.enqueue(EnumSet.of(SymfonyCacheWarmer.Step.ROUTES)));
+        assertFalse(warmer.enqueue(EnumSet.of(SymfonyCacheWarmer.Step.SERVICES)));
+
+        // priority order
+        assertEquals(SymfonyCacheWarmer.Step.SERVICES, warmer.poll(false));
+        assertEquals(SymfonyCacheWarmer.Step.ROUTES, warmer.poll(false));
+
+        // a drained queue releases the task, so a request right afterwards must start a new one
+        assertNull(warmer.poll(false));
+        assertTrue(warmer.enqueue(EnumSet.of(SymfonyCacheWarmer.Step.TEMPLATES)));
+
+        // cancel drops the pending steps and releases the task too
+        assertFalse(warmer.enqueue(EnumSet.of(SymfonyCacheWarmer.Step.TRANSLATIONS)));
+        assertNull(warmer.poll(true));
+        assertTrue(warmer.enqueue(EnumSet.of(SymfonyCacheWarmer.Step.ROUTES)));
+
+        assertEquals(SymfonyCacheWarmer.Step.ROUTES, warmer.poll(false));
+        assertNull(warmer.poll(false));
+    }
+}
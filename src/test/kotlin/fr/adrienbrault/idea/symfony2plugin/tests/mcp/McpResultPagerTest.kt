@@ -0,0 +1,70 @@
+package fr.adrienbrault.idea.symfony2plugin.tests.mcp
+
+import fr.adrienbrault.idea.symfony2plugin.mcp.McpResultPager
+import fr.adrienbrault.idea.symfony2plugin.tests.SymfonyLightCodeInsightFixtureTestCase
+
+class McpResultPagerTest : SymfonyLightCodeInsightFixtureTestCase() {
+
+    /**
+     * Verifies sorted pages with a header on each page and a cursor for the remaining rows.
+     */
+    fun testPagesAreSortedAndFollowTheCursor() {
+        val pager = McpResultPager.getInstance(project)
+
+        val firstPage = pager.firstPage("list_symfony_routes", "name,path\nc_route,/c\na_route,/a\nb_route,\"/b,1\"\n", 2)
+        assertEquals("name,path\na_route,/a\nb_route,\"/b,1\"\n# rows: 1-2 of 3", firstPage.substringBefore("\n# nextCursor:"))
+
+        val cursor = firstPage.lineSequence().first { it.startsWith("# nextCursor: ") }.removePrefix("# nextCursor: ")
+        assertEquals("name,path\nc_route,/c\n", pager.nextPage("list_symfony_routes", cursor, 2))
+
+        assertNull(pager.nextPage("list_symfony_routes", "unknown:2", 2))
+    }
+
+    /**
+     * Verifies that a result fitting on one page has no cursor footer.
+     */
+    fun testSinglePageHasNoCursor() {
+        val result = McpResultPager.getInstance(project).firstPage("list_symfony_routes", "name,path\nb,/b\na,/a\n", 10)
+
+        assertEquals("name,path\na,/a\nb,/b\n", result)
+    }
+
+    /**
+     * Verifies that line breaks inside quoted values do not split a row.
+     */
+    fun testSplitRecordsKeepsQuotedLineBreaks() {
+        assertEquals(
+            listOf("name,description", "foo,\"first\nsecond\""),
+            McpResultPager.splitRecords("name,description\nfoo,\"first\nsecond\"\n")
+        )
+    }
+
+    /**
+     * Verifies that a cursor is rejected by another tool instead of returning its rows.
+     */
+    fun testCursorIsBoundToItsTool() {
+        val pager = McpResultPager.getInstance(project)
+
+        val firstPage = pager.firstPage("list_symfony_routes", "name,path\nc,/c\na,/a\nb,/b\n", 1)
+        val cursor = firstPage.lineSequence().first { it.startsWith("# nextCursor: ") }.removePrefix("# nextCursor: ")
+
+        try {
+            pager.nextPage("list_symfony_commands", cursor, 1)
+            fail("Cursor of another tool must fail")
+        } catch (e: Exception) {
+            assertTrue(e.message!!.contains("list_symfony_routes"))
+        }
+
+        assertEquals("name,path\nb,/b\n# rows: 2-2 of 3\n# nextCursor: ${cursor.substringBefore(':')}:2\n", pager.nextPage("list_symfony_routes", cursor, 1))
+    }
+
+    /**
+     * Verifies that CRLF line endings do not leave a carriage return inside the rows.
+     */
+    fun testSplitRecordsTrimsCarriageReturn() {
+        assertEquals(
+            listOf("name,description", "foo,\"first\r\nsecond\"", "bar,baz"),
+            McpResultPager.splitRecords("name,description\r\nfoo,\"first\r\nsecond\"\r\nbar,baz\r\n")
+        )
+    }
+}
@@ -127,6 +127,41 @@ class SymfonyCommandCollectorTest : McpCollectorTestCase() {
         assertTrue("Must contain method argument", result.contains("\"\"name\"\":\"\"username\"\""))
     }
 
+    /**
+     * Verifies that names and options of a constant of another class are exported, same as in the command registry.
+     */
+    fun testCollectExportsForeignConstantResolvedCommand() {
+        myFixture.addFileToProject(
+            "src/Command/ImportCommand.php",
+            """
+            <?php
+            namespace App\Command;
+
+            use Symfony\Component\Console\Command\Command;
+
+            final class Names
+            {
+                public const IMPORT = 'app:import';
+                public const FORCE = 'force';
+            }
+
+            class ImportCommand extends Command
+            {
+                protected function configure()
+                {
+                    ${'$'}this->setName(Names::IMPORT);
+                    ${'$'}this->addOption(Names::FORCE, 'f');
+                }
+            }
+            """.trimIndent()
+        )
+
+        val result = SymfonyCommandCollector(project).collect("**/ImportCommand.php")
+
+        assertTrue("Must contain command name 'app:import'", result.lineSequence().any { it.startsWith("app:import,\\App\\Command\\ImportCommand,") })
+        assertTrue("Must contain option name 'force'", result.contains("\"\"name\"\":\"\"force\"\""))
+    }
+
     fun testCollectCanFilterByCommandFileGlob() {
         val result = SymfonyCommandCollector(project).collect("**/SymfonyCommandUtilTest.php")
 